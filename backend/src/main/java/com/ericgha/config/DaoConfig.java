@@ -1,13 +1,27 @@
 package com.ericgha.config;
 
+import com.ericgha.dao.BloomOnlyOnceMap;
+import com.ericgha.dao.BucketedOnlyOnceMap;
 import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.GcraMap;
 import com.ericgha.dao.OnlyOnceMap;
+import com.ericgha.dao.ShapingMap;
+import com.ericgha.dao.SlidingWindowMap;
 import com.ericgha.dao.StrictlyOnceMap;
+import com.ericgha.dao.resilience.DelayedRequestHedger;
+import com.ericgha.dao.resilience.NoOpRequestHedger;
+import com.ericgha.dao.resilience.RedisCircuitBreaker;
+import com.ericgha.dao.resilience.RedisResilienceListener;
+import com.ericgha.dao.resilience.RequestHedger;
+import com.ericgha.dao.resilience.RetryBudget;
 import com.ericgha.service.data.FunctionRedisTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.retry.RetryListener;
 import org.springframework.retry.annotation.EnableRetry;
 
 @Configuration
@@ -20,9 +34,60 @@ public class DaoConfig {
     }
 
     @Bean
+    RedisCircuitBreaker redisCircuitBreaker(
+            @Value("${app.redis.resilience.circuit-breaker.failure-threshold}") int failureThreshold,
+            @Value("${app.redis.resilience.circuit-breaker.open-millis}") long openMilli) {
+        return new RedisCircuitBreaker( failureThreshold, openMilli );
+    }
+
+    @Bean
+    RetryBudget retryBudget(@Value("${app.redis.resilience.retry-budget.percent}") double retryPercent,
+                            @Value("${app.redis.resilience.retry-budget.max-balance}") double maxBalance) {
+        return new RetryBudget( retryPercent, maxBalance );
+    }
+
+    // RetryListener beans are applied to every @Retryable method
+    @Bean
+    RetryListener redisResilienceListener(RedisCircuitBreaker circuitBreaker, RetryBudget retryBudget,
+                                          @Value("${app.redis.retry.num-attempts}") int maxAttempts) {
+        return new RedisResilienceListener( circuitBreaker, retryBudget, maxAttempts );
+    }
+
+    @Bean
+    RequestHedger requestHedger(@Value("${app.redis.resilience.hedge.delay-millis}") long hedgeDelayMilli,
+                                @Value("${app.redis.resilience.hedge.num-threads}") int numThreads) {
+        if (hedgeDelayMilli <= 0) {
+            return new NoOpRequestHedger();
+        }
+        return new DelayedRequestHedger( hedgeDelayMilli, numThreads );
+    }
+
+    @Bean
+    @Primary
     EventQueue eventQueue(@Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate,
-                          ObjectMapper objectMapper) {
-        return new EventQueue( stringTemplate, objectMapper );
+                          @Qualifier("expiryStringTemplate") FunctionRedisTemplate<String, String> expiryTemplate,
+                          @Qualifier("snapshotStringTemplate") FunctionRedisTemplate<String, String> snapshotTemplate,
+                          ObjectMapper objectMapper, RequestHedger requestHedger,
+                          @Value("${app.redis.event-queue.encoding}") String encoding) {
+        EventQueue eventQueue = new EventQueue( stringTemplate, expiryTemplate, snapshotTemplate, objectMapper );
+        eventQueue.setHedger( requestHedger );
+        eventQueue.setEncoding( EventQueue.Encoding.valueOf( encoding.toUpperCase() ) );
+        return eventQueue;
+    }
+
+    @Bean
+    @Qualifier("scheduledEventQueue")
+    EventQueue scheduledEventQueue(
+            @Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate,
+            @Qualifier("expiryStringTemplate") FunctionRedisTemplate<String, String> expiryTemplate,
+            @Qualifier("snapshotStringTemplate") FunctionRedisTemplate<String, String> snapshotTemplate,
+            ObjectMapper objectMapper, RequestHedger requestHedger,
+            @Value("${app.redis.event-queue.encoding}") String encoding) {
+        EventQueue eventQueue = new EventQueue( stringTemplate, expiryTemplate, snapshotTemplate, objectMapper );
+        eventQueue.setHedger( requestHedger );
+        eventQueue.setEncoding( EventQueue.Encoding.valueOf( encoding.toUpperCase() ) );
+        eventQueue.setOrdering( EventQueue.Ordering.SCHEDULED );
+        return eventQueue;
     }
 
     @Bean
@@ -30,10 +95,44 @@ public class DaoConfig {
         return new OnlyOnceMap( stringTemplate );
     }
 
+    @Bean
+    BucketedOnlyOnceMap bucketedOnlyOnceMap(
+            @Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate) {
+        return new BucketedOnlyOnceMap( stringTemplate );
+    }
+
+    @Bean
+    BloomOnlyOnceMap bloomOnlyOnceMap(
+            @Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate) {
+        return new BloomOnlyOnceMap( stringTemplate );
+    }
+
+    @Bean
+    GcraMap gcraMap(@Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate) {
+        return new GcraMap( stringTemplate );
+    }
+
+    @Bean
+    ShapingMap shapingMap(@Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate) {
+        return new ShapingMap( stringTemplate );
+    }
+
+    @Bean
+    SlidingWindowMap slidingWindowMap(
+            @Qualifier("stringTemplate") FunctionRedisTemplate<String, String> stringTemplate) {
+        return new SlidingWindowMap( stringTemplate );
+    }
+
     @Bean
     StrictlyOnceMap strictlyOnceMap(
-            @Qualifier("stringLongTemplate") FunctionRedisTemplate<String, Long> stringLongTemplate) {
-        return new StrictlyOnceMap( stringLongTemplate );
+            @Qualifier("stringLongTemplate") FunctionRedisTemplate<String, Long> stringLongTemplate,
+            @Qualifier("expiryStringLongTemplate") FunctionRedisTemplate<String, Long> expiryTemplate,
+            @Qualifier("snapshotStringLongTemplate") FunctionRedisTemplate<String, Long> snapshotTemplate,
+            RequestHedger requestHedger, @Value("${app.strictly-once-event.storage}") String storage) {
+        StrictlyOnceMap strictlyOnceMap = new StrictlyOnceMap( stringLongTemplate, expiryTemplate, snapshotTemplate );
+        strictlyOnceMap.setHedger( requestHedger );
+        strictlyOnceMap.setStorage( StrictlyOnceMap.Storage.valueOf( storage.toUpperCase() ) );
+        return strictlyOnceMap;
     }
 
 }
@@ -0,0 +1,90 @@
+package com.ericgha.config;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.service.DebounceEventService;
+import com.ericgha.service.EventQueueSnapshotService;
+import com.ericgha.service.RateLimiter;
+import com.ericgha.service.SnapshotFactory;
+import com.ericgha.service.data.EventExpiryService;
+import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.event_consumer.AlwaysPublishesEventConsumer;
+import com.ericgha.service.event_consumer.EventConsumer;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@Configuration
+public class DebounceEventConfig {
+
+    @Value("${app.web-socket.prefix.client}/${app.debounce-event.web-socket.element}")
+    String stompPrefix;
+    @Value("${app.debounce-event.event-duration-millis}")
+    long eventDurationMilli;
+    @Value("${app.debounce-event.key-prefix}")
+    String keyPrefix;
+    @Value("${app.debounce-event.hash-event-keys}")
+    boolean hashEventKeys;
+
+    @Bean
+    @Qualifier("debounceKeyMaker")
+    KeyMaker debounceKeyMaker() {
+        return new KeyMaker( keyPrefix, hashEventKeys );
+    }
+
+    @Bean
+    @Qualifier("debounceEventQueueService")
+    EventQueueService debounceEventQueueService(@Qualifier("debounceKeyMaker") KeyMaker keyMaker,
+                                                @Qualifier("scheduledEventQueue") EventQueue eventQueue) {
+        return new EventQueueService( eventQueue, keyMaker );
+    }
+
+    @Bean
+    @Qualifier("debounceEventPublisher")
+    @ConditionalOnProperty(name = "app.debounce-event.disable-bean.event-publisher", havingValue = "false",
+            matchIfMissing = true)
+    EventConsumer debounceEventPublisher(SimpMessagingTemplate messageTemplate) {
+        return new AlwaysPublishesEventConsumer( messageTemplate, stompPrefix );
+    }
+
+    @Bean
+    @Qualifier("debounceEventExpiryService")
+    @ConditionalOnProperty(name = "app.debounce-event.disable-bean.event-expiry-service", havingValue = "false",
+            matchIfMissing = true)
+    EventExpiryService debounceEventExpiryService(
+            @Value("${app.debounce-event.event-queue.num-workers}") int numWorkers,
+            @Qualifier("debounceEventPublisher") EventConsumer eventPublisher,
+            @Qualifier("debounceEventQueueService") EventQueueService eventQueueService) {
+        EventExpiryService expiryService = new EventExpiryService( eventQueueService );
+        expiryService.start( eventPublisher, eventDurationMilli, numWorkers );
+        return expiryService;
+    }
+
+    @Bean
+    @Qualifier("debounceEventService")
+    @ConditionalOnProperty(name = "app.debounce-event.disable-bean.event-service", havingValue = "false",
+            matchIfMissing = true)
+    RateLimiter debounceEventService(@Value("${app.debounce-event.max-events}") long maxEvents,
+                                     SimpMessagingTemplate simpMessagingTemplate,
+                                     @Qualifier("debounceKeyMaker") KeyMaker keyMaker,
+                                     @Qualifier("debounceEventQueueService") EventQueueService eventQueueService) {
+        return new DebounceEventService( stompPrefix, maxEvents, eventDurationMilli, simpMessagingTemplate,
+                                         eventQueueService, keyMaker );
+    }
+
+    @Bean
+    @Qualifier("debounceSnapshotService")
+    @ConditionalOnProperty(name = "app.debounce-event.disable-bean.event-queue-snapshot-service",
+            havingValue = "false", matchIfMissing = true)
+    EventQueueSnapshotService debounceSnapshotService(
+            SnapshotFactory snapshotFactory,
+            @Qualifier("debounceEventQueueService") EventQueueService eventQueueService) {
+        return snapshotFactory.start( eventQueueService, stompPrefix, new ToSnapshotStatusAlwaysValid(), eventDurationMilli,
+                                      null );
+    }
+
+}
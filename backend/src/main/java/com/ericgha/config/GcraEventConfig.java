@@ -0,0 +1,41 @@
+package com.ericgha.config;
+
+import com.ericgha.dao.GcraMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.service.GcraEventService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@Configuration
+public class GcraEventConfig {
+
+    @Value("${app.web-socket.prefix.client}/${app.gcra-event.web-socket.element}")
+    String stompPrefix;
+    @Value("${app.gcra-event.key-prefix}")
+    String keyPrefix;
+    @Value("${app.gcra-event.hash-event-keys}")
+    boolean hashEventKeys;
+
+    @Bean
+    @Qualifier("gcraKeyMaker")
+    KeyMaker gcraKeyMaker() {
+        return new KeyMaker( keyPrefix, hashEventKeys );
+    }
+
+    @Bean
+    @Qualifier("gcraEventService")
+    @ConditionalOnProperty(name = "app.gcra-event.disable-bean.event-service", havingValue = "false",
+            matchIfMissing = true)
+    GcraEventService gcraEventService(@Value("${app.gcra-event.limit}") long limit,
+                                 @Value("${app.gcra-event.period-millis}") long periodMilli,
+                                 @Value("${app.gcra-event.burst}") long burst,
+                                 SimpMessagingTemplate simpMessagingTemplate, GcraMap gcraMap,
+                                 @Qualifier("gcraKeyMaker") KeyMaker keyMaker) {
+        return new GcraEventService( stompPrefix, simpMessagingTemplate, gcraMap, keyMaker, limit, periodMilli,
+                                     burst );
+    }
+}
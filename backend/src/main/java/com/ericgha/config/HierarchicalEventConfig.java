@@ -0,0 +1,57 @@
+package com.ericgha.config;
+
+import com.ericgha.dao.GcraMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.LimitLevel;
+import com.ericgha.service.HierarchicalEventService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class HierarchicalEventConfig {
+
+    @Value("${app.web-socket.prefix.client}/${app.hierarchical-event.web-socket.element}")
+    String stompPrefix;
+    @Value("${app.hierarchical-event.key-prefix}")
+    String keyPrefix;
+    @Value("${app.hierarchical-event.hash-event-keys}")
+    boolean hashEventKeys;
+
+    @Bean
+    @Qualifier("hierarchicalKeyMaker")
+    KeyMaker hierarchicalKeyMaker() {
+        return new KeyMaker( keyPrefix, hashEventKeys );
+    }
+
+    // levels are configured as parallel comma separated lists, from the broadest level
+    @Bean
+    @Qualifier("hierarchicalEventService")
+    @ConditionalOnProperty(name = "app.hierarchical-event.disable-bean.event-service", havingValue = "false",
+            matchIfMissing = true)
+    HierarchicalEventService hierarchicalEventService(
+            @Value("${app.hierarchical-event.delimiter}") String delimiter,
+            @Value("${app.hierarchical-event.level-names}") String[] levelNames,
+            @Value("${app.hierarchical-event.limits}") long[] limits,
+            @Value("${app.hierarchical-event.periods-millis}") long[] periodsMilli,
+            @Value("${app.hierarchical-event.bursts}") long[] bursts,
+            SimpMessagingTemplate simpMessagingTemplate, GcraMap gcraMap,
+            @Qualifier("hierarchicalKeyMaker") KeyMaker keyMaker) {
+        if (limits.length != levelNames.length || periodsMilli.length != levelNames.length ||
+                bursts.length != levelNames.length) {
+            throw new IllegalArgumentException( "Each level requires a name, limit, period and burst." );
+        }
+        List<LimitLevel> levels = new ArrayList<>( levelNames.length );
+        for (int i = 0; i < levelNames.length; i++) {
+            levels.add( new LimitLevel( levelNames[i].strip(), limits[i], periodsMilli[i], bursts[i] ) );
+        }
+        return new HierarchicalEventService( stompPrefix, simpMessagingTemplate, gcraMap, keyMaker, delimiter,
+                                             levels );
+    }
+}
@@ -0,0 +1,54 @@
+package com.ericgha.config;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.OnlyOnceMap;
+import com.ericgha.dao.StrictlyOnceMap;
+import com.ericgha.service.NamespaceRegistry;
+import com.ericgha.service.SnapshotFactory;
+import com.ericgha.service.data.SharedExpiryScheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class NamespaceConfig {
+
+    @Bean
+    SharedExpiryScheduler namespaceExpiryScheduler(
+            @Value("${app.namespace.expiry.num-threads}") int numThreads,
+            @Value("${app.namespace.expiry.poll-interval-millis}") long pollIntervalMilli,
+            @Value("${app.namespace.expiry.max-polls-per-tick}") int maxPollsPerTick,
+            @Value("${app.namespace.expiry.max-idle-poll-interval-millis}") long maxIdleIntervalMilli) {
+        SharedExpiryScheduler scheduler = new SharedExpiryScheduler( numThreads, pollIntervalMilli, maxPollsPerTick );
+        scheduler.maxIdleIntervalMilli( maxIdleIntervalMilli );
+        return scheduler;
+    }
+
+    @Bean(destroyMethod = "close")
+    @Qualifier("namespaceSnapshotExecutor")
+    ScheduledExecutorService namespaceSnapshotExecutor(
+            @Value("${app.namespace.snapshot.num-threads}") int numThreads) {
+        return Executors.newScheduledThreadPool( numThreads );
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.namespace.disable-bean.namespace-registry", havingValue = "false",
+            matchIfMissing = true)
+    NamespaceRegistry namespaceRegistry(
+            @Value("${app.namespace.key-prefix}") String keyPrefix,
+            @Value("${app.web-socket.prefix.client}/${app.namespace.web-socket.element}") String messagePrefix,
+            @Value("${app.namespace.max-namespaces}") int maxNamespaces,
+            SimpMessagingTemplate simpMessagingTemplate, EventQueue eventQueue, OnlyOnceMap onlyOnceMap,
+            StrictlyOnceMap strictlyOnceMap, SharedExpiryScheduler expiryScheduler, SnapshotFactory snapshotFactory,
+            @Qualifier("namespaceSnapshotExecutor") ScheduledExecutorService snapshotExecutor) {
+        return new NamespaceRegistry( keyPrefix, messagePrefix, maxNamespaces, simpMessagingTemplate, eventQueue,
+                                      onlyOnceMap, strictlyOnceMap, expiryScheduler, snapshotFactory,
+                                      snapshotExecutor );
+    }
+}
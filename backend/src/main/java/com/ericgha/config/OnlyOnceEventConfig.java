@@ -1,20 +1,24 @@
 package com.ericgha.config;
 
+import com.ericgha.dao.BloomOnlyOnceMap;
+import com.ericgha.dao.BucketedOnlyOnceMap;
 import com.ericgha.dao.EventQueue;
 import com.ericgha.dao.OnlyOnceMap;
+import com.ericgha.domain.BloomFilterHasher;
 import com.ericgha.domain.KeyMaker;
-import com.ericgha.dto.EventStatus;
 import com.ericgha.service.EventQueueSnapshotService;
 import com.ericgha.service.EventService;
 import com.ericgha.service.RateLimiter;
+import com.ericgha.service.SnapshotFactory;
+import com.ericgha.service.data.BloomOnlyOnceEventMapService;
+import com.ericgha.service.data.BucketedOnlyOnceEventMapService;
 import com.ericgha.service.data.EventExpiryService;
+import com.ericgha.service.data.EventMapService;
 import com.ericgha.service.data.EventQueueService;
 import com.ericgha.service.data.FunctionRedisTemplate;
 import com.ericgha.service.data.OnlyOnceEventMapService;
 import com.ericgha.service.event_consumer.AlwaysPublishesEventConsumer;
 import com.ericgha.service.event_consumer.EventConsumer;
-import com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger;
-import com.ericgha.service.snapshot_mapper.SnapshotMapper;
 import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -38,10 +42,13 @@ public class OnlyOnceEventConfig {
     @Value("${app.only-once-event.key-prefix}")
     String keyPrefix;
 
+    @Value("${app.only-once-event.hash-event-keys}")
+    boolean hashEventKeys;
+
     @Bean
     @Qualifier("onlyOnceKeyMaker")
     KeyMaker keyMaker() {
-        return new KeyMaker( keyPrefix );
+        return new KeyMaker( keyPrefix, hashEventKeys );
     }
 
     @Bean
@@ -53,11 +60,34 @@ public class OnlyOnceEventConfig {
 
     @Bean
     @Qualifier("onlyOnceEventMapService")
-    OnlyOnceEventMapService onlyOnceEventMap(@Qualifier("onlyOnceKeyMaker") KeyMaker keyMaker,
-                                             OnlyOnceMap eventMap) {
+    @ConditionalOnProperty(name = "app.only-once-event.storage", havingValue = "keys", matchIfMissing = true)
+    EventMapService onlyOnceEventMap(@Qualifier("onlyOnceKeyMaker") KeyMaker keyMaker,
+                                     OnlyOnceMap eventMap) {
         return new OnlyOnceEventMapService( eventMap, eventDurationMilli, keyMaker );
     }
 
+    @Bean
+    @Qualifier("onlyOnceEventMapService")
+    @ConditionalOnProperty(name = "app.only-once-event.storage", havingValue = "buckets")
+    EventMapService bucketedOnlyOnceEventMap(@Qualifier("onlyOnceKeyMaker") KeyMaker keyMaker,
+                                             BucketedOnlyOnceMap eventMap) {
+        return new BucketedOnlyOnceEventMapService( eventMap, eventDurationMilli, keyMaker );
+    }
+
+    @Bean
+    @Qualifier("onlyOnceEventMapService")
+    @ConditionalOnProperty(name = "app.only-once-event.storage", havingValue = "bloom")
+    EventMapService bloomOnlyOnceEventMap(
+            @Qualifier("onlyOnceKeyMaker") KeyMaker keyMaker, BloomOnlyOnceMap eventMap,
+            @Value("${app.only-once-event.bloom.windows-per-duration}") int windowsPerDuration,
+            @Value("${app.only-once-event.bloom.expected-events-per-window}") long expectedEventsPerWindow,
+            @Value("${app.only-once-event.bloom.false-positive-rate}") double falsePositiveRate) {
+        BloomFilterHasher hasher = new BloomFilterHasher(
+                expectedEventsPerWindow,
+                BloomOnlyOnceEventMapService.perFilterRate( falsePositiveRate, windowsPerDuration ) );
+        return new BloomOnlyOnceEventMapService( eventMap, eventDurationMilli, windowsPerDuration, hasher, keyMaker );
+    }
+
     @Bean
     @Qualifier("onlyOnceEventPublisher")
     @ConditionalOnProperty(name = "app.only-once-event.disable-bean.event-publisher", havingValue = "false",
@@ -90,7 +120,7 @@ public class OnlyOnceEventConfig {
             @Value("${app.only-once-event.max-events}") long maxEvents,
             SimpMessagingTemplate simpMessagingTemplate,
             @Qualifier("onlyOnceEventQueueService") EventQueueService eventQueueService,
-            @Qualifier("onlyOnceEventMapService") OnlyOnceEventMapService eventMapService) {
+            @Qualifier("onlyOnceEventMapService") EventMapService eventMapService) {
         return new EventService( stompPrefix, maxEvents, simpMessagingTemplate, eventQueueService, eventMapService );
     }
 
@@ -99,15 +129,10 @@ public class OnlyOnceEventConfig {
     @ConditionalOnProperty(name = "app.only-once-event.disable-bean.event-queue-snapshot-service",
             havingValue = "false", matchIfMissing = true)
     EventQueueSnapshotService snapshotService(
-            SimpMessagingTemplate simpMessagingTemplate,
+            SnapshotFactory snapshotFactory,
             @Qualifier("onlyOnceEventQueueService") EventQueueService eventQueueService) {
-        EventQueueSnapshotService snapshotService = new EventQueueSnapshotService( eventQueueService );
-        SnapshotMapper<EventStatus> mapper = new ToSnapshotStatusAlwaysValid();
-        SnapshotSTOMPMessenger snapshotConsumer =
-                new SnapshotSTOMPMessenger( simpMessagingTemplate, stompPrefix, mapper );
-        snapshotConsumer.chunkSize( Integer.MAX_VALUE );
-        snapshotService.run( eventDurationMilli, snapshotConsumer );
-        return snapshotService;
+        return snapshotFactory.start( eventQueueService, stompPrefix, new ToSnapshotStatusAlwaysValid(), eventDurationMilli,
+                                      null );
     }
 
 }
@@ -1,20 +1,36 @@
 package com.ericgha.config;
 
+import com.ericgha.dao.RedisRole;
 import com.ericgha.service.data.FunctionRedisTemplate;
+import com.ericgha.service.data.JedisPoolMetrics;
+import com.ericgha.service.data.PooledJedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.Resource;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisPassword;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
-import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.clients.jedis.Jedis;
 
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Each {@link RedisRole} is given its own connection pool (sized by {@code app.redis.pool.<role>.*}) and its own
+ * templates.  The {@code INTAKE} pool backs the un-prefixed {@code stringTemplate} and {@code stringLongTemplate}.
+ * <p>
+ * Connections are made over TCP unless {@code app.redis.unix-socket} is set, in which case all pools connect over
+ * that Unix domain socket.
+ */
 @Configuration
 public class RedisConfig {
 
@@ -26,29 +42,141 @@ public class RedisConfig {
         return new StringRedisSerializer();
     }
 
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.redis.disable-bean.redis-connection-factory", havingValue = "false",
+            matchIfMissing = true)
+    public PooledJedisConnectionFactory redisConnectionFactory(Environment environment) {
+        return newConnectionFactory( RedisRole.INTAKE, environment );
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.redis.disable-bean.redis-connection-factory", havingValue = "false",
+            matchIfMissing = true)
+    public PooledJedisConnectionFactory expiryRedisConnectionFactory(Environment environment) {
+        return newConnectionFactory( RedisRole.EXPIRY, environment );
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.redis.disable-bean.redis-connection-factory", havingValue = "false",
+            matchIfMissing = true)
+    public PooledJedisConnectionFactory snapshotRedisConnectionFactory(Environment environment) {
+        return newConnectionFactory( RedisRole.SNAPSHOT, environment );
+    }
+
     @Bean
     @ConditionalOnProperty(name = "app.redis.disable-bean.redis-connection-factory", havingValue = "false",
             matchIfMissing = true)
-    public RedisConnectionFactory redisConnectionFactory(@Value("${spring.data.redis.host}") String redisHostname,
-                                                         @Value("${spring.data.redis.password}") String password,
-                                                         @Value("${spring.data.redis.port}")
-                                                         Integer redisPort) {
+    JedisPoolMetrics jedisPoolMetrics(
+            @Qualifier("redisConnectionFactory") PooledJedisConnectionFactory intakeFactory,
+            @Qualifier("expiryRedisConnectionFactory") PooledJedisConnectionFactory expiryFactory,
+            @Qualifier("snapshotRedisConnectionFactory") PooledJedisConnectionFactory snapshotFactory) {
+        return new JedisPoolMetrics( Map.of( RedisRole.INTAKE, intakeFactory,
+                                             RedisRole.EXPIRY, expiryFactory,
+                                             RedisRole.SNAPSHOT, snapshotFactory ) );
+    }
+
+    @Bean
+    @Qualifier("stringTemplate")
+    @ConditionalOnProperty(name = "app.redis.disable-bean.string-redis-template", havingValue = "false",
+            matchIfMissing = true)
+    FunctionRedisTemplate<String, String> stringTemplate(
+            @Qualifier("redisConnectionFactory") RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer) {
+        return newStringTemplate( redisConnectionFactory, stringRedisSerializer, redisFunctions );
+    }
+
+    @Bean
+    @Qualifier("expiryStringTemplate")
+    @ConditionalOnProperty(name = "app.redis.disable-bean.string-redis-template", havingValue = "false",
+            matchIfMissing = true)
+    FunctionRedisTemplate<String, String> expiryStringTemplate(
+            @Qualifier("expiryRedisConnectionFactory") RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer) {
+        return newStringTemplate( redisConnectionFactory, stringRedisSerializer, redisFunctions );
+    }
+
+    @Bean
+    @Qualifier("snapshotStringTemplate")
+    @ConditionalOnProperty(name = "app.redis.disable-bean.string-redis-template", havingValue = "false",
+            matchIfMissing = true)
+    FunctionRedisTemplate<String, String> snapshotStringTemplate(
+            @Qualifier("snapshotRedisConnectionFactory") RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer) {
+        return newStringTemplate( redisConnectionFactory, stringRedisSerializer, redisFunctions );
+    }
+
+    @Bean
+    @Qualifier("stringLongTemplate")
+    @ConditionalOnProperty(name = "app.redis.disable-bean.string-long-redis-template", havingValue = "false",
+            matchIfMissing = true)
+    FunctionRedisTemplate<String, Long> stringLongTemplate(
+            @Qualifier("redisConnectionFactory") RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer) {
+        return newStringLongTemplate( redisConnectionFactory, stringRedisSerializer, redisFunctions );
+    }
+
+    @Bean
+    @Qualifier("expiryStringLongTemplate")
+    @ConditionalOnProperty(name = "app.redis.disable-bean.string-long-redis-template", havingValue = "false",
+            matchIfMissing = true)
+    FunctionRedisTemplate<String, Long> expiryStringLongTemplate(
+            @Qualifier("expiryRedisConnectionFactory") RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer) {
+        return newStringLongTemplate( redisConnectionFactory, stringRedisSerializer, redisFunctions );
+    }
+
+    @Bean
+    @Qualifier("snapshotStringLongTemplate")
+    @ConditionalOnProperty(name = "app.redis.disable-bean.string-long-redis-template", havingValue = "false",
+            matchIfMissing = true)
+    FunctionRedisTemplate<String, Long> snapshotStringLongTemplate(
+            @Qualifier("snapshotRedisConnectionFactory") RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer) {
+        return newStringLongTemplate( redisConnectionFactory, stringRedisSerializer, redisFunctions );
+    }
+
+    private static PooledJedisConnectionFactory newConnectionFactory(RedisRole role, Environment environment) {
+        String redisHostname = environment.getRequiredProperty( "spring.data.redis.host" );
+        String password = environment.getRequiredProperty( "spring.data.redis.password" );
+        int redisPort = environment.getRequiredProperty( "spring.data.redis.port", Integer.class );
         RedisPassword redisPassword = password.isBlank() ? RedisPassword.none() : RedisPassword.of( password );
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration( redisHostname, redisPort );
         config.setPassword( redisPassword );
         JedisClientConfiguration clientConfiguration = JedisClientConfiguration.builder()
-                .clientName( redisHostname )
+                .clientName( redisHostname + ":" + role.propertyName() )
+                .connectTimeout( Duration.ofMillis(
+                        environment.getRequiredProperty( "app.redis.timeout.connect-millis", Long.class ) ) )
+                .readTimeout( Duration.ofMillis(
+                        environment.getRequiredProperty( "app.redis.timeout.read-millis", Long.class ) ) )
                 .usePooling()
+                .poolConfig( poolConfig( role, environment ) )
                 .build();
-        return new JedisConnectionFactory( config, clientConfiguration );
+        PooledJedisConnectionFactory connectionFactory = new PooledJedisConnectionFactory( config,
+                                                                                           clientConfiguration );
+        String unixSocketPath = environment.getProperty( "app.redis.unix-socket", "" );
+        if (!unixSocketPath.isBlank()) {
+            connectionFactory.setUnixSocketPath( unixSocketPath );
+        }
+        return connectionFactory;
     }
 
-    @Bean
-    @Qualifier("stringTemplate")
-    @ConditionalOnProperty(name = "app.redis.disable-bean.string-redis-template", havingValue = "false",
-            matchIfMissing = true)
-    FunctionRedisTemplate<String, String> stringTemplate(RedisConnectionFactory redisConnectionFactory,
-                                                         StringRedisSerializer stringRedisSerializer) {
+    private static GenericObjectPoolConfig<Jedis> poolConfig(RedisRole role, Environment environment) {
+        String prefix = "app.redis.pool." + role.propertyName();
+        GenericObjectPoolConfig<Jedis> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal( environment.getRequiredProperty( prefix + ".max-total", Integer.class ) );
+        poolConfig.setMaxIdle( environment.getRequiredProperty( prefix + ".max-idle", Integer.class ) );
+        poolConfig.setMinIdle( environment.getRequiredProperty( prefix + ".min-idle", Integer.class ) );
+        // a borrower waiting longer than this fails with an exception rather than blocking indefinitely
+        poolConfig.setMaxWait( Duration.ofMillis(
+                environment.getRequiredProperty( prefix + ".max-wait-millis", Long.class ) ) );
+        poolConfig.setJmxNamePrefix( "redis-pool-" + role.propertyName() );
+        return poolConfig;
+    }
+
+    private static FunctionRedisTemplate<String, String> newStringTemplate(
+            RedisConnectionFactory redisConnectionFactory, StringRedisSerializer stringRedisSerializer,
+            Resource redisFunctions) {
         FunctionRedisTemplate<String, String> template = new FunctionRedisTemplate<>( redisFunctions );
         // set serializers
         template.setKeySerializer( stringRedisSerializer );
@@ -62,12 +190,9 @@ public class RedisConfig {
         return template;
     }
 
-    @Bean
-    @Qualifier("stringLongTemplate")
-    @ConditionalOnProperty(name = "app.redis.disable-bean.string-long-redis-template", havingValue = "false",
-            matchIfMissing = true)
-    FunctionRedisTemplate<String, Long> stringLongTemplate(RedisConnectionFactory redisConnectionFactory,
-                                                           StringRedisSerializer stringRedisSerializer) {
+    private static FunctionRedisTemplate<String, Long> newStringLongTemplate(
+            RedisConnectionFactory redisConnectionFactory, StringRedisSerializer stringRedisSerializer,
+            Resource redisFunctions) {
         FunctionRedisTemplate<String, Long> template = new FunctionRedisTemplate<>( redisFunctions );
         GenericToStringSerializer<Long> longSerializer = new GenericToStringSerializer<>( Long.class );
         // keys
@@ -82,4 +207,4 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+}
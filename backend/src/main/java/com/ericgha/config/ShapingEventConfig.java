@@ -0,0 +1,94 @@
+package com.ericgha.config;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.ShapingMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.service.EventQueueSnapshotService;
+import com.ericgha.service.RateLimiter;
+import com.ericgha.service.ShapingEventService;
+import com.ericgha.service.SnapshotFactory;
+import com.ericgha.service.data.EventExpiryService;
+import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.event_consumer.AlwaysPublishesEventConsumer;
+import com.ericgha.service.event_consumer.EventConsumer;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@Configuration
+public class ShapingEventConfig {
+
+    @Value("${app.web-socket.prefix.client}/${app.shaping-event.web-socket.element}")
+    String stompPrefix;
+    @Value("${app.shaping-event.key-prefix}")
+    String keyPrefix;
+    @Value("${app.shaping-event.hash-event-keys}")
+    boolean hashEventKeys;
+
+    @Bean
+    @Qualifier("shapingKeyMaker")
+    KeyMaker shapingKeyMaker() {
+        return new KeyMaker( keyPrefix, hashEventKeys );
+    }
+
+    @Bean
+    @Qualifier("shapingEventQueueService")
+    EventQueueService shapingEventQueueService(@Qualifier("shapingKeyMaker") KeyMaker keyMaker,
+                                               @Qualifier("scheduledEventQueue") EventQueue eventQueue) {
+        return new EventQueueService( eventQueue, keyMaker );
+    }
+
+    @Bean
+    @Qualifier("shapingEventPublisher")
+    @ConditionalOnProperty(name = "app.shaping-event.disable-bean.event-publisher", havingValue = "false",
+            matchIfMissing = true)
+    EventConsumer shapingEventPublisher(SimpMessagingTemplate messageTemplate) {
+        return new AlwaysPublishesEventConsumer( messageTemplate, stompPrefix );
+    }
+
+    // events are queued at their slot, so they are published without further delay
+    @Bean
+    @Qualifier("shapingEventExpiryService")
+    @ConditionalOnProperty(name = "app.shaping-event.disable-bean.event-expiry-service", havingValue = "false",
+            matchIfMissing = true)
+    EventExpiryService shapingEventExpiryService(
+            @Value("${app.shaping-event.event-queue.num-workers}") int numWorkers,
+            @Qualifier("shapingEventPublisher") EventConsumer eventPublisher,
+            @Qualifier("shapingEventQueueService") EventQueueService eventQueueService) {
+        EventExpiryService expiryService = new EventExpiryService( eventQueueService );
+        expiryService.start( eventPublisher, 0, numWorkers );
+        return expiryService;
+    }
+
+    @Bean
+    @Qualifier("shapingEventService")
+    @ConditionalOnProperty(name = "app.shaping-event.disable-bean.event-service", havingValue = "false",
+            matchIfMissing = true)
+    RateLimiter shapingEventService(@Value("${app.shaping-event.max-events}") long maxEvents,
+                                    @Value("${app.shaping-event.limit}") long limit,
+                                    @Value("${app.shaping-event.period-millis}") long periodMilli,
+                                    @Value("${app.shaping-event.max-delay-millis}") long maxDelayMilli,
+                                    SimpMessagingTemplate simpMessagingTemplate, ShapingMap shapingMap,
+                                    @Qualifier("shapingKeyMaker") KeyMaker keyMaker,
+                                    @Qualifier("shapingEventQueueService") EventQueueService eventQueueService) {
+        return new ShapingEventService( stompPrefix, maxEvents, simpMessagingTemplate, eventQueueService, shapingMap,
+                                        keyMaker, limit, periodMilli, maxDelayMilli );
+    }
+
+    @Bean
+    @Qualifier("shapingSnapshotService")
+    @ConditionalOnProperty(name = "app.shaping-event.disable-bean.event-queue-snapshot-service",
+            havingValue = "false", matchIfMissing = true)
+    EventQueueSnapshotService shapingSnapshotService(
+            @Value("${app.shaping-event.snapshot-period-millis}") long snapshotPeriodMilli,
+            SnapshotFactory snapshotFactory,
+            @Qualifier("shapingEventQueueService") EventQueueService eventQueueService) {
+        return snapshotFactory.start( eventQueueService, stompPrefix, new ToSnapshotStatusAlwaysValid(),
+                                      snapshotPeriodMilli, null );
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.ericgha.config;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.SlidingWindowMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.service.EventQueueSnapshotService;
+import com.ericgha.service.EventService;
+import com.ericgha.service.RateLimiter;
+import com.ericgha.service.SnapshotFactory;
+import com.ericgha.service.data.EventExpiryService;
+import com.ericgha.service.data.EventMapService;
+import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.data.SlidingWindowEventMapService;
+import com.ericgha.service.event_consumer.AlwaysPublishesEventConsumer;
+import com.ericgha.service.event_consumer.EventConsumer;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@Configuration
+public class SlidingWindowEventConfig {
+
+    @Value("${app.web-socket.prefix.client}/${app.sliding-window-event.web-socket.element}")
+    String stompPrefix;
+    @Value("${app.sliding-window-event.event-duration-millis}")
+    long eventDurationMilli;
+    @Value("${app.sliding-window-event.key-prefix}")
+    String keyPrefix;
+    @Value("${app.sliding-window-event.hash-event-keys}")
+    boolean hashEventKeys;
+
+    @Bean
+    @Qualifier("slidingWindowKeyMaker")
+    KeyMaker slidingWindowKeyMaker() {
+        return new KeyMaker( keyPrefix, hashEventKeys );
+    }
+
+    @Bean
+    @Qualifier("slidingWindowEventQueueService")
+    EventQueueService slidingWindowEventQueueService(@Qualifier("slidingWindowKeyMaker") KeyMaker keyMaker,
+                                                     EventQueue eventQueue) {
+        return new EventQueueService( eventQueue, keyMaker );
+    }
+
+    @Bean
+    @Qualifier("slidingWindowEventMapService")
+    EventMapService slidingWindowEventMapService(@Value("${app.sliding-window-event.limit}") long limit,
+                                                 @Qualifier("slidingWindowKeyMaker") KeyMaker keyMaker,
+                                                 SlidingWindowMap eventMap) {
+        return new SlidingWindowEventMapService( eventMap, eventDurationMilli, limit, keyMaker );
+    }
+
+    @Bean
+    @Qualifier("slidingWindowEventPublisher")
+    @ConditionalOnProperty(name = "app.sliding-window-event.disable-bean.event-publisher", havingValue = "false",
+            matchIfMissing = true)
+    EventConsumer slidingWindowEventPublisher(SimpMessagingTemplate messageTemplate) {
+        return new AlwaysPublishesEventConsumer( messageTemplate, stompPrefix );
+    }
+
+    @Bean
+    @Qualifier("slidingWindowEventExpiryService")
+    @ConditionalOnProperty(name = "app.sliding-window-event.disable-bean.event-expiry-service",
+            havingValue = "false", matchIfMissing = true)
+    EventExpiryService slidingWindowEventExpiryService(
+            @Value("${app.sliding-window-event.event-queue.num-workers}") int numWorkers,
+            @Qualifier("slidingWindowEventPublisher") EventConsumer eventPublisher,
+            @Qualifier("slidingWindowEventQueueService") EventQueueService eventQueueService) {
+        EventExpiryService expiryService = new EventExpiryService( eventQueueService );
+        expiryService.start( eventPublisher, eventDurationMilli, numWorkers );
+        return expiryService;
+    }
+
+    @Bean
+    @Qualifier("slidingWindowEventService")
+    @ConditionalOnProperty(name = "app.sliding-window-event.disable-bean.event-service", havingValue = "false",
+            matchIfMissing = true)
+    RateLimiter slidingWindowEventService(
+            @Value("${app.sliding-window-event.max-events}") long maxEvents,
+            SimpMessagingTemplate simpMessagingTemplate,
+            @Qualifier("slidingWindowEventQueueService") EventQueueService eventQueueService,
+            @Qualifier("slidingWindowEventMapService") EventMapService eventMapService) {
+        return new EventService( stompPrefix, maxEvents, simpMessagingTemplate, eventQueueService, eventMapService );
+    }
+
+    @Bean
+    @Qualifier("slidingWindowSnapshotService")
+    @ConditionalOnProperty(name = "app.sliding-window-event.disable-bean.event-queue-snapshot-service",
+            havingValue = "false", matchIfMissing = true)
+    EventQueueSnapshotService slidingWindowSnapshotService(
+            SnapshotFactory snapshotFactory,
+            @Qualifier("slidingWindowEventQueueService") EventQueueService eventQueueService) {
+        return snapshotFactory.start( eventQueueService, stompPrefix, new ToSnapshotStatusAlwaysValid(), eventDurationMilli,
+                                      null );
+    }
+
+}
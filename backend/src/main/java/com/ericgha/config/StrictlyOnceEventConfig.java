@@ -7,16 +7,16 @@ import com.ericgha.dto.EventStatus;
 import com.ericgha.service.EventQueueSnapshotService;
 import com.ericgha.service.EventService;
 import com.ericgha.service.RateLimiter;
+import com.ericgha.service.SnapshotFactory;
 import com.ericgha.service.data.EventExpiryService;
 import com.ericgha.service.data.EventQueueService;
 import com.ericgha.service.data.StrictlyOnceMapService;
 import com.ericgha.service.event_consumer.EventConsumer;
 import com.ericgha.service.event_consumer.EventInvalidator;
 import com.ericgha.service.event_consumer.StrictlyOncePublisher;
-import com.ericgha.service.snapshot_consumer.SnapshotConsumer;
-import com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger;
 import com.ericgha.service.snapshot_mapper.SnapshotMapper;
 import com.ericgha.service.snapshot_mapper.ToSnapshotStatusCheckingValidity;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusPrefetched;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -35,13 +35,19 @@ public class StrictlyOnceEventConfig {
     @Value("${app.strictly-once-event.key-prefix}")
     String keyPrefix;
 
+    @Value("${app.strictly-once-event.hash-event-keys}")
+    boolean hashEventKeys;
+
     @Value("${app.strictly-once-event.max-events}")
     Long maxEvents;
 
+    @Value("${app.strictly-once-event.snapshot-with-status}")
+    boolean snapshotWithStatus;
+
     @Bean
     @Qualifier("strictlyOnceKeyMaker")
     KeyMaker strictlyOncekeyMaker() {
-        return new KeyMaker( keyPrefix );
+        return new KeyMaker( keyPrefix, hashEventKeys );
     }
 
     @Bean
@@ -96,20 +102,24 @@ public class StrictlyOnceEventConfig {
     }
 
     @Bean
-    @Qualifier("strictlyOnceSnapshotConsumer")
-    SnapshotConsumer strictlyOnceSnapshotConsumer(StrictlyOnceMapService mapService,
-                                                  SimpMessagingTemplate messagingTemplate) {
-        SnapshotMapper<EventStatus> snapshotMapper = new ToSnapshotStatusCheckingValidity( mapService::isValid );
-        return new SnapshotSTOMPMessenger( messagingTemplate, stompPrefix, snapshotMapper );
+    @Qualifier("strictlyOnceSnapshotMapper")
+    SnapshotMapper<EventStatus> strictlyOnceSnapshotMapper(StrictlyOnceMapService mapService,
+                                                           @Qualifier("strictlyOnceEventQueueService")
+                                                           EventQueueService eventQueueService) {
+        // the database can only derive event keys which are not hashed
+        if (snapshotWithStatus && !hashEventKeys) {
+            return new ToSnapshotStatusPrefetched( () -> mapService.snapshotWithStatus( eventQueueService ),
+                                                   mapService::isValid );
+        }
+        return new ToSnapshotStatusCheckingValidity( mapService::isValid );
     }
 
     @Bean
     @Qualifier("strictlyOnceSnapshotService")
     EventQueueSnapshotService strictlyOnceSnapshotService(
             @Qualifier("strictlyOnceEventQueueService") EventQueueService strictlyOnceQueueService,
-            @Qualifier("strictlyOnceSnapshotConsumer") SnapshotConsumer snapshotConsumer) {
-        EventQueueSnapshotService snapshotService = new EventQueueSnapshotService( strictlyOnceQueueService );
-        snapshotService.run( eventDuration, snapshotConsumer );
-        return snapshotService;
+            @Qualifier("strictlyOnceSnapshotMapper") SnapshotMapper<EventStatus> snapshotMapper,
+            SnapshotFactory snapshotFactory) {
+        return snapshotFactory.start( strictlyOnceQueueService, stompPrefix, snapshotMapper, eventDuration, null );
     }
 }
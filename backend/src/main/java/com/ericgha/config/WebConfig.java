@@ -0,0 +1,21 @@
+package com.ericgha.config;
+
+import com.ericgha.controller.RequestDeadlineFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WebConfig {
+
+    @Bean
+    FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter(
+            @Value("${app.request-deadline.header}") String timeoutHeader,
+            @Value("${app.request-deadline.default-timeout-millis}") long defaultTimeoutMilli) {
+        FilterRegistrationBean<RequestDeadlineFilter> registration =
+                new FilterRegistrationBean<>( new RequestDeadlineFilter( timeoutHeader, defaultTimeoutMilli ) );
+        registration.addUrlPatterns( "/*" );
+        return registration;
+    }
+}
@@ -1,7 +1,18 @@
 package com.ericgha.config;
 
+import com.ericgha.service.BatchingMessagingTemplate;
+import com.ericgha.service.ConversionMetrics;
+import com.ericgha.service.SnapshotFactory;
+import com.ericgha.service.SnapshotProperties;
+import com.ericgha.service.SubscribeKeyFrameService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -9,12 +20,15 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@EnableConfigurationProperties(SnapshotProperties.class)
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Value("${app.web-socket.prefix.application}")
     private String applicationPrefix;
     @Value("${app.web-socket.prefix.client}")
     private String clientPrefix;
+    @Value("${app.web-socket.prefix.user}")
+    private String userPrefix;
 
 
     @Override public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -25,5 +39,45 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes( applicationPrefix );
         registry.enableSimpleBroker( clientPrefix );
+        registry.setUserDestinationPrefix( userPrefix );
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.web-socket.disable-bean.batching-messaging-template", havingValue = "false",
+            matchIfMissing = true)
+    SimpMessagingTemplate batchingMessagingTemplate(
+            @Qualifier("brokerMessagingTemplate") SimpMessagingTemplate brokerMessagingTemplate,
+            @Value("${app.web-socket.batch.window-millis}") long windowMilli,
+            @Value("${app.web-socket.batch.max-messages}") int maxMessages,
+            ConversionMetrics conversionMetrics) {
+        BatchingMessagingTemplate template = new BatchingMessagingTemplate(
+                brokerMessagingTemplate.getMessageChannel(), windowMilli, maxMessages );
+        template.setMessageConverter( brokerMessagingTemplate.getMessageConverter() );
+        template.setUserDestinationPrefix( brokerMessagingTemplate.getUserDestinationPrefix() );
+        template.setSendTimeout( brokerMessagingTemplate.getSendTimeout() );
+        template.setHeaderInitializer( brokerMessagingTemplate.getHeaderInitializer() );
+        template.conversionMetrics( conversionMetrics );
+        return template;
+    }
+
+    @Bean
+    ConversionMetrics conversionMetrics() {
+        return new ConversionMetrics();
+    }
+
+    @Bean
+    SnapshotFactory snapshotFactory(SnapshotProperties snapshotProperties, SimpMessagingTemplate simpMessagingTemplate,
+                                    SubscribeKeyFrameService subscribeKeyFrameService,
+                                    ConversionMetrics conversionMetrics) {
+        return new SnapshotFactory( snapshotProperties, simpMessagingTemplate, subscribeKeyFrameService,
+                                    conversionMetrics );
+    }
+
+    @Bean
+    SubscribeKeyFrameService subscribeKeyFrameService(
+            @Value("${app.snapshot.on-subscribe.delay-millis}") long delayMilli,
+            @Value("${app.snapshot.on-subscribe.num-threads}") int numThreads) {
+        return new SubscribeKeyFrameService( userPrefix, delayMilli, numThreads );
     }
 }
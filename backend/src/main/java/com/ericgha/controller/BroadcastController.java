@@ -1,34 +1,76 @@
 package com.ericgha.controller;
 
+import com.ericgha.dto.Acceptance;
 import com.ericgha.dto.EventTime;
+import com.ericgha.service.GcraEventService;
+import com.ericgha.service.HierarchicalEventService;
+import com.ericgha.service.NamespaceRegistry;
 import com.ericgha.service.RateLimiter;
 import com.ericgha.service.TimeSyncService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Function;
 
 @RestController
 public class BroadcastController {
 
+    // names the level which rejected a hierarchical event
+    static final String REJECTED_LEVEL_HEADER = "X-RateLimit-Rejected-Level";
+
     private final TimeSyncService timeSyncService;
 
     private final RateLimiter onlyOnceEventService;
 
     private final RateLimiter strictlyOnceEventService;
 
+    private final GcraEventService gcraEventService;
+
+    private final RateLimiter slidingWindowEventService;
+
+    private final RateLimiter shapingEventService;
+
+    private final RateLimiter debounceEventService;
+
+    private final HierarchicalEventService hierarchicalEventService;
+
+    private final NamespaceRegistry namespaceRegistry;
+
+    private final int maxEventBytes;
+
     public BroadcastController(TimeSyncService timeSyncService,
                                @Qualifier("onlyOnceEventService") RateLimiter onlyOnceEventService,
-                               @Qualifier("strictlyOnceEventService") RateLimiter strictlyOnceService) {
+                               @Qualifier("strictlyOnceEventService") RateLimiter strictlyOnceService,
+                               @Qualifier("gcraEventService") GcraEventService gcraEventService,
+                               @Qualifier("slidingWindowEventService") RateLimiter slidingWindowEventService,
+                               @Qualifier("shapingEventService") RateLimiter shapingEventService,
+                               @Qualifier("debounceEventService") RateLimiter debounceEventService,
+                               @Qualifier("hierarchicalEventService")
+                               HierarchicalEventService hierarchicalEventService,
+                               NamespaceRegistry namespaceRegistry,
+                               @Value("${app.max-event-bytes}") int maxEventBytes) {
         this.timeSyncService = timeSyncService;
         this.onlyOnceEventService = onlyOnceEventService;
         this.strictlyOnceEventService = strictlyOnceService;
+        this.gcraEventService = gcraEventService;
+        this.slidingWindowEventService = slidingWindowEventService;
+        this.shapingEventService = shapingEventService;
+        this.debounceEventService = debounceEventService;
+        this.hierarchicalEventService = hierarchicalEventService;
+        this.namespaceRegistry = namespaceRegistry;
+        this.maxEventBytes = maxEventBytes;
     }
 
     @MessageMapping("/time")
@@ -39,15 +81,77 @@ public class BroadcastController {
 
     @RequestMapping(path = "/only-once-event", method = RequestMethod.POST)
     public void onlyOnceEvent(@RequestBody String event, HttpServletResponse response) {
-        HttpStatus status = onlyOnceEventService.acceptEvent( new EventTime( event, Instant.now().toEpochMilli() ) );
-        response.setStatus( status.value() );
+        accept( onlyOnceEventService, event, response );
     }
 
     @RequestMapping(path = "/strictly-once-event", method = RequestMethod.POST)
     public void strictlyOnceEvent(@RequestBody String event, HttpServletResponse response) {
-        HttpStatus status =
-                strictlyOnceEventService.acceptEvent( new EventTime( event, Instant.now().toEpochMilli() ) );
-        response.setStatus( status.value() );
+        accept( strictlyOnceEventService, event, response );
+    }
+
+    @RequestMapping(path = "/gcra-event", method = RequestMethod.POST)
+    public void gcraEvent(@RequestBody String event, HttpServletResponse response) {
+        acceptReporting( gcraEventService::acceptEventReportingRetry, event, response );
+    }
+
+    @RequestMapping(path = "/sliding-window-event", method = RequestMethod.POST)
+    public void slidingWindowEvent(@RequestBody String event, HttpServletResponse response) {
+        accept( slidingWindowEventService, event, response );
+    }
+
+    @RequestMapping(path = "/shaping-event", method = RequestMethod.POST)
+    public void shapingEvent(@RequestBody String event, HttpServletResponse response) {
+        accept( shapingEventService, event, response );
+    }
+
+    @RequestMapping(path = "/debounce-event", method = RequestMethod.POST)
+    public void debounceEvent(@RequestBody String event, HttpServletResponse response) {
+        accept( debounceEventService, event, response );
+    }
+
+    @RequestMapping(path = "/hierarchical-event", method = RequestMethod.POST)
+    public void hierarchicalEvent(@RequestBody String event, HttpServletResponse response) {
+        acceptReporting( hierarchicalEventService::acceptEventReportingLevel, event, response );
+    }
+
+    @RequestMapping(path = "/namespace-event/{prefix}", method = RequestMethod.POST)
+    public void namespaceEvent(@PathVariable String prefix, @RequestBody String event,
+                               HttpServletResponse response) {
+        accept( eventTime -> namespaceRegistry.acceptEvent( prefix, eventTime ), event, response );
+    }
+
+    // 413 if the event is too large, otherwise the status returned by the rate limiter
+    private void accept(RateLimiter rateLimiter, String event, HttpServletResponse response) {
+        acceptReporting( eventTime -> Acceptance.of( rateLimiter.acceptEvent( eventTime ) ), event, response );
+    }
+
+    // as accept, a rejection also sets Retry-After (in whole seconds, rounded up) and names the rejecting level
+    private void acceptReporting(Function<EventTime, Acceptance> rateLimiter, String event,
+                                 HttpServletResponse response) {
+        if (exceedsMaxEventBytes( event )) {
+            response.setStatus( HttpStatus.PAYLOAD_TOO_LARGE.value() );
+            return;
+        }
+        Acceptance acceptance = rateLimiter.apply( new EventTime( event, Instant.now().toEpochMilli() ) );
+        if (acceptance.retryAfterMilli() > 0) {
+            response.setHeader( HttpHeaders.RETRY_AFTER,
+                                Long.toString( ( acceptance.retryAfterMilli() + 999 ) / 1_000 ) );
+        }
+        if (Objects.nonNull( acceptance.rejectedLevel() )) {
+            response.setHeader( REJECTED_LEVEL_HEADER, acceptance.rejectedLevel() );
+        }
+        response.setStatus( acceptance.status().value() );
+    }
+
+    // a UTF-8 encoded char is 1 to 3 bytes (surrogate pairs are 4 bytes for 2 chars), only encode when it's ambiguous
+    private boolean exceedsMaxEventBytes(String event) {
+        if (event.length() > maxEventBytes) {
+            return true;
+        }
+        if ((long) event.length() * 3 <= maxEventBytes) {
+            return false;
+        }
+        return event.getBytes( StandardCharsets.UTF_8 ).length > maxEventBytes;
     }
 
 }
@@ -0,0 +1,57 @@
+package com.ericgha.controller;
+
+import com.ericgha.dto.NamespaceSpec;
+import com.ericgha.service.NamespaceRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Administers limiter namespaces ({@link NamespaceRegistry}).  The endpoint is unauthenticated, so it is only registered
+ * if {@code app.namespace.admin.enabled} is {@code true}.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.namespace.admin.enabled", havingValue = "true")
+@RequestMapping(path = "/admin/namespaces")
+public class NamespaceController {
+
+    private final NamespaceRegistry namespaceRegistry;
+
+    public NamespaceController(NamespaceRegistry namespaceRegistry) {
+        this.namespaceRegistry = namespaceRegistry;
+    }
+
+    @RequestMapping(method = RequestMethod.GET)
+    public List<NamespaceSpec> listNamespaces() {
+        return namespaceRegistry.list();
+    }
+
+    /**
+     * Responds 201 Created, 400 Bad Request: if the spec is invalid, 409 Conflict: if the namespace exists or the
+     * maximum number of namespaces has been reached.
+     */
+    @RequestMapping(method = RequestMethod.POST)
+    public void createNamespace(@RequestBody NamespaceSpec spec, HttpServletResponse response) {
+        try {
+            namespaceRegistry.create( spec );
+            response.setStatus( HttpStatus.CREATED.value() );
+        } catch (IllegalArgumentException e) {
+            response.setStatus( HttpStatus.BAD_REQUEST.value() );
+        } catch (IllegalStateException e) {
+            response.setStatus( HttpStatus.CONFLICT.value() );
+        }
+    }
+
+    @RequestMapping(path = "/{prefix}", method = RequestMethod.DELETE)
+    public void destroyNamespace(@PathVariable String prefix, HttpServletResponse response) {
+        HttpStatus status = namespaceRegistry.destroy( prefix ) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND;
+        response.setStatus( status.value() );
+    }
+}
@@ -0,0 +1,64 @@
+package com.ericgha.controller;
+
+import com.ericgha.domain.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Sets a {@link RequestDeadline} for each request.  The timeout is read from the {@code timeoutHeader} (in
+ * milliseconds), if the header is absent the {@code defaultTimeoutMilli} is used.  A timeout {@code <= 0} sets no
+ * deadline.  The timeout is relative so that clients are not required to synchronize their clocks with this server.
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final Logger log;
+    private final String timeoutHeader;
+    private final long defaultTimeoutMilli;
+
+    /**
+     * @param timeoutHeader       name of the header containing the request timeout in milliseconds
+     * @param defaultTimeoutMilli timeout used when the request has no {@code timeoutHeader}
+     */
+    public RequestDeadlineFilter(String timeoutHeader, long defaultTimeoutMilli) {
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        this.timeoutHeader = timeoutHeader;
+        this.defaultTimeoutMilli = defaultTimeoutMilli;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long timeoutMilli = timeoutMilli( request );
+        if (timeoutMilli > 0) {
+            RequestDeadline.set( Instant.now().toEpochMilli() + timeoutMilli );
+        }
+        try {
+            filterChain.doFilter( request, response );
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long timeoutMilli(HttpServletRequest request) {
+        String headerValue = request.getHeader( timeoutHeader );
+        if (Objects.isNull( headerValue )) {
+            return defaultTimeoutMilli;
+        }
+        try {
+            return Long.parseLong( headerValue.trim() );
+        } catch (NumberFormatException e) {
+            log.debug( "Ignoring malformed {} header: {}.", timeoutHeader, headerValue );
+            return defaultTimeoutMilli;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ericgha.dao;
+
+import com.ericgha.service.data.FunctionRedisTemplate;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An approximate only once map which stores events in Bloom filters (redis bitmaps), one per time window.  Memory use
+ * is fixed by the size of the filters, independent of the number of distinct events.  An event may be falsely
+ * reported as a conflict, but a conflicting event is never accepted.
+ */
+public class BloomOnlyOnceMap {
+
+    private final FunctionRedisTemplate<String, String> redisTemplate;
+
+    public BloomOnlyOnceMap(FunctionRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Attempts to put an event into the current filter.  The put succeeds if none of the filters (probably) contain
+     * the event.
+     *
+     * @param filterKeys          the current filter, followed by older filters an event could conflict with
+     * @param bitPositions        the event's positions in the filters
+     * @param filterExpireAtMilli when the current filter should expire, only set when the filter is created
+     * @return {@code true} if the put occurred
+     * @throws IllegalStateException if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public boolean putEvent(List<String> filterKeys, long[] bitPositions,
+                            long filterExpireAtMilli) throws IllegalStateException {
+        List<String> args = new ArrayList<>( bitPositions.length + 1 );
+        args.add( Long.toString( filterExpireAtMilli ) );
+        for (long position : bitPositions) {
+            args.add( Long.toString( position ) );
+        }
+        Object reply;
+        try (Jedis conn = redisTemplate.getJedisConnection()) {
+            reply = conn.fcall( "PUT_EVENT_BLOOM", filterKeys, args );
+        }
+        if (reply instanceof Long putCount) {
+            return putCount == 1;
+        }
+        throw new IllegalStateException( "Received an unexpected response from the database: " + reply );
+    }
+}
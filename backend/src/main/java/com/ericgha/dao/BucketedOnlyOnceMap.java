@@ -0,0 +1,67 @@
+package com.ericgha.dao;
+
+import com.ericgha.service.data.FunctionRedisTemplate;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+/**
+ * An only once map which stores events in hashes, one per time window ({@code bucket}), rather than as a key per event.
+ * Buckets expire as a whole, so per event memory and expiry work is much lower than for {@link OnlyOnceMap} when
+ * many distinct events are tracked.
+ * <p>
+ * A bucket holds events with a time in {@code [bucket * eventDuration, (bucket + 1) * eventDuration)}, therefore an
+ * event may only conflict with events in the current or previous bucket, or in the next bucket if events arrive out of
+ * order.
+ */
+public class BucketedOnlyOnceMap {
+
+    private final FunctionRedisTemplate<String, String> redisTemplate;
+
+    public BucketedOnlyOnceMap(FunctionRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Attempts to put an event into the current bucket.  The put succeeds if neither the current nor the previous
+     * bucket contain the event at a time within {@code eventDurationMilli} of {@code timeMilli}, and the next bucket
+     * does not contain the event.
+     *
+     * <pre>IF newEvent is absent OR (oldTime + eventDuration) <= newTime then PUT in map</pre>
+     *
+     * @param currentBucketKey     bucket containing {@code timeMilli}
+     * @param previousBucketKey    bucket preceding the current bucket
+     * @param nextBucketKey        bucket following the current bucket
+     * @param eventField           identifies the event within a bucket
+     * @param timeMilli            time of the event
+     * @param eventDurationMilli   duration of events, and of buckets
+     * @param bucketExpireAtMilli  when the current bucket should expire, only set when the bucket is created
+     * @return {@code true} if the put occurred
+     * @throws IllegalStateException if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public boolean putEvent(String currentBucketKey, String previousBucketKey, String nextBucketKey,
+                            String eventField, long timeMilli, long eventDurationMilli,
+                            long bucketExpireAtMilli) throws IllegalStateException {
+        Object reply;
+        try (Jedis conn = redisTemplate.getJedisConnection()) {
+            reply = conn.fcall( "PUT_EVENT_BUCKETED", List.of( currentBucketKey, previousBucketKey, nextBucketKey ),
+                                List.of( eventField, Long.toString( timeMilli ), Long.toString( eventDurationMilli ),
+                                         Long.toString( bucketExpireAtMilli ) ) );
+        }
+        if (reply instanceof Long putCount) {
+            return putCount == 1;
+        }
+        throw new IllegalStateException( "Received an unexpected response from the database: " + reply );
+    }
+
+    // Convenience method for testing.
+    Long get(String bucketKey, String eventField) {
+        Object time = redisTemplate.opsForHash().get( bucketKey, eventField );
+        return time == null ? null : Long.parseLong( (String) time );
+    }
+}
@@ -1,7 +1,12 @@
 package com.ericgha.dao;
 
+import com.ericgha.dao.resilience.NoOpRequestHedger;
+import com.ericgha.dao.resilience.RequestHedger;
+import com.ericgha.dto.EventStatus;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.PollResponse;
+import com.ericgha.dto.ReplacingOfferResponse;
+import com.ericgha.dto.Status;
 import com.ericgha.dto.Versioned;
 import com.ericgha.service.data.FunctionRedisTemplate;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -14,6 +19,9 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import redis.clients.jedis.Jedis;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -33,16 +41,119 @@ import java.util.Objects;
  * <p>
  * Most queue operations return a scalar clock which is a monotonically increasing long.  Calls to {@link EventQueue}
  * may be linearized based upon this clock.
+ * <p>
+ * Elements are stored as JSON ({@link Encoding#JSON}, the default) or in a compact binary format
+ * ({@link Encoding#BINARY}) which neither Redis nor the JVM need to parse as JSON.  The two encodings are not
+ * interchangeable, a queue should always be read with the encoding it was written with.
+ * <p>
+ * A queue may instead be {@link Ordering#SCHEDULED}, where elements are polled in order of their {@code time} rather
+ * than the order they were offered in.
  */
 public class EventQueue {
 
     private final FunctionRedisTemplate<String, String> stringTemplate;
+    private final FunctionRedisTemplate<String, String> expiryTemplate;
+    private final FunctionRedisTemplate<String, String> snapshotTemplate;
     private final Logger log = LoggerFactory.getLogger( this.getClass() );
     private final ObjectMappingTools objectMappingTools;
+    private RequestHedger hedger;
+    private Encoding encoding;
+    private Ordering ordering;
+
+    /**
+     * The format queue elements are stored in.
+     */
+    public enum Encoding {
+        /**
+         * Jackson serialized {@link EventTime}: {@code {"event": <event>, "time": <time>}}.
+         */
+        JSON,
+        /**
+         * The {@code time} as an 8 byte big endian integer, followed by the UTF-8 bytes of the {@code event}.
+         */
+        BINARY
+    }
+
+    /**
+     * The order queue elements are polled in.
+     */
+    public enum Ordering {
+        /**
+         * Offer order (a redis list).
+         */
+        FIFO,
+        /**
+         * Ascending {@code time} (a redis sorted set).  Identical elements are stored once, offering an element already
+         * on the queue is only counted by the clock.
+         */
+        SCHEDULED
+    }
 
+    /**
+     * All operations share a single template (connection pool).
+     *
+     * @param stringTemplate
+     * @param objectMapper
+     */
     public EventQueue(FunctionRedisTemplate<String, String> stringTemplate, ObjectMapper objectMapper) {
+        this( stringTemplate, stringTemplate, stringTemplate, objectMapper );
+    }
+
+    /**
+     * Operations are routed by {@link RedisRole}, so that background work cannot exhaust the connections used to
+     * offer.
+     *
+     * @param stringTemplate   {@link RedisRole#INTAKE} template, used for {@link EventQueue#offer} and
+     *                         {@link EventQueue#size}
+     * @param expiryTemplate   {@link RedisRole#EXPIRY} template, used for {@link EventQueue#tryPoll}
+     * @param snapshotTemplate {@link RedisRole#SNAPSHOT} template, used for {@link EventQueue#getRange}
+     * @param objectMapper
+     */
+    public EventQueue(FunctionRedisTemplate<String, String> stringTemplate,
+                      FunctionRedisTemplate<String, String> expiryTemplate,
+                      FunctionRedisTemplate<String, String> snapshotTemplate, ObjectMapper objectMapper) {
         this.stringTemplate = stringTemplate;
+        this.expiryTemplate = expiryTemplate;
+        this.snapshotTemplate = snapshotTemplate;
         this.objectMappingTools = new ObjectMappingTools( objectMapper );
+        this.hedger = new NoOpRequestHedger();
+        this.encoding = Encoding.JSON;
+        this.ordering = Ordering.FIFO;
+    }
+
+    /**
+     * Sets the format queue elements are stored in.  Default is {@link Encoding#JSON}.
+     *
+     * @param encoding
+     */
+    public void setEncoding(@NonNull Encoding encoding) {
+        this.encoding = Objects.requireNonNull( encoding, "Received a null encoding." );
+    }
+
+    /**
+     * Sets the order queue elements are polled in.  Default is {@link Ordering#FIFO}.
+     *
+     * @param ordering
+     */
+    public void setOrdering(@NonNull Ordering ordering) {
+        this.ordering = Objects.requireNonNull( ordering, "Received a null ordering." );
+    }
+
+    /**
+     * @return the order queue elements are polled in
+     */
+    public Ordering ordering() {
+        return this.ordering;
+    }
+
+    /**
+     * Sets the {@link RequestHedger} used for idempotent reads ({@link EventQueue#getRange}).  Default is a
+     * {@link NoOpRequestHedger}.
+     *
+     * @param hedger
+     */
+    public void setHedger(@NonNull RequestHedger hedger) {
+        this.hedger = Objects.requireNonNull( hedger, "Received a null hedger." );
     }
 
     /**
@@ -57,9 +168,18 @@ public class EventQueue {
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     public PollResponse tryPoll(long thresholdTime, String queueKey, String clockKey) throws IllegalStateException {
         List<?> rawPoll;
-        try (Jedis connection = stringTemplate.getJedisConnection()) {
-            rawPoll = (List<?>) connection.fcall( "POLL_QUEUE", List.of( queueKey, clockKey ),
-                                                  List.of( Long.toString( thresholdTime ) ) );
+        try (Jedis connection = expiryTemplate.getJedisConnection()) {
+            String function = switch (ordering) {
+                case FIFO -> encoding == Encoding.JSON ? "POLL_QUEUE" : "POLL_QUEUE_BINARY";
+                case SCHEDULED -> "POLL_SCHEDULED";
+            };
+            rawPoll = switch (encoding) {
+                case JSON -> (List<?>) connection.fcall( function, List.of( queueKey, clockKey ),
+                                                         List.of( Long.toString( thresholdTime ) ) );
+                case BINARY -> (List<?>) connection.fcall( toBytes( function ),
+                                                           List.of( toBytes( queueKey ), toBytes( clockKey ) ),
+                                                           List.of( toBytes( Long.toString( thresholdTime ) ) ) );
+            };
         } catch (ClassCastException e) {
             throw new IllegalStateException( "Could not deserialize the DB response.", e );
         }
@@ -81,10 +201,27 @@ public class EventQueue {
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     public Versioned<Long> offer(EventTime event, String queueKey,
                                  String clockKey) throws IllegalArgumentException, IllegalStateException {
-        String eventJson = objectMappingTools.serializeEventTime( event );
         List<?> rawResult;
         try (Jedis conn = stringTemplate.getJedisConnection()) {
-            rawResult = (List<?>) conn.fcall( "OFFER_QUEUE", List.of( queueKey, clockKey ), List.of( eventJson ) );
+            rawResult = switch (encoding) {
+                case JSON -> {
+                    List<String> args = switch (ordering) {
+                        case FIFO -> List.of( objectMappingTools.serializeEventTime( event ) );
+                        case SCHEDULED -> List.of( objectMappingTools.serializeEventTime( event ),
+                                                   Long.toString( event.time() ) );
+                    };
+                    yield (List<?>) conn.fcall( offerFunction(), List.of( queueKey, clockKey ), args );
+                }
+                case BINARY -> {
+                    List<byte[]> args = switch (ordering) {
+                        case FIFO -> List.of( ObjectMappingTools.toBinary( event ) );
+                        case SCHEDULED -> List.of( ObjectMappingTools.toBinary( event ),
+                                                   toBytes( Long.toString( event.time() ) ) );
+                    };
+                    yield (List<?>) conn.fcall( toBytes( offerFunction() ),
+                                                List.of( toBytes( queueKey ), toBytes( clockKey ) ), args );
+                }
+            };
         }
         if (rawResult.size() != 2) {
             throw new IllegalStateException( "Received an unexpected response form the DB." );
@@ -96,6 +233,51 @@ public class EventQueue {
         }
     }
 
+    /**
+     * Offers an element, replacing the element pending for the same event (tracked by {@code pointerKey}) if it has
+     * not yet been polled.  Only the last of a burst of offers remains on the queue.  The pointer expires at
+     * {@code pointerExpireAt}, after which the pending element is no longer replaced.  This call is guaranteed to
+     * complete atomically.
+     *
+     * @param event
+     * @param pointerKey      key tracking the pending element of {@code event}
+     * @param pointerExpireAt epoch millis at which the pending element should stop being replaced
+     * @return the clock of the offer, the queue size and the replaced element (if any)
+     * @throws IllegalStateException if the queue is not {@link Ordering#SCHEDULED} or the database returned an
+     *                               unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public ReplacingOfferResponse offerReplacing(EventTime event, String pointerKey, long pointerExpireAt,
+                                                 String queueKey, String clockKey) throws IllegalStateException {
+        if (ordering != Ordering.SCHEDULED) {
+            throw new IllegalStateException( "Replacing offers require a scheduled queue." );
+        }
+        List<?> rawResult;
+        try (Jedis conn = stringTemplate.getJedisConnection()) {
+            rawResult = switch (encoding) {
+                case JSON -> (List<?>) conn.fcall( "OFFER_REPLACING", List.of( pointerKey, queueKey, clockKey ),
+                                                   List.of( objectMappingTools.serializeEventTime( event ),
+                                                            Long.toString( event.time() ),
+                                                            Long.toString( pointerExpireAt ) ) );
+                case BINARY -> (List<?>) conn.fcall( toBytes( "OFFER_REPLACING" ),
+                                                     List.of( toBytes( pointerKey ), toBytes( queueKey ),
+                                                              toBytes( clockKey ) ),
+                                                     List.of( ObjectMappingTools.toBinary( event ),
+                                                              toBytes( Long.toString( event.time() ) ),
+                                                              toBytes( Long.toString( pointerExpireAt ) ) ) );
+            };
+        } catch (ClassCastException e) {
+            throw new IllegalStateException( "Could not deserialize the DB response.", e );
+        }
+        try {
+            return objectMappingTools.toReplacingOfferResponse( rawResult );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException( "Database returned an unexpected response format.", e );
+        }
+    }
+
     /**
      * Returns a range of elements in the queue.  Indexing semantics follow those of redis lists.  This call is
      * guaranteed to complete atomically.
@@ -109,13 +291,178 @@ public class EventQueue {
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     public Versioned<List<EventTime>> getRange(long start, long end, String queueKey,
                                                String clockKey) throws IllegalStateException {
-        List<?> rawResponse;
-        try (Jedis conn = stringTemplate.getJedisConnection()) {
-            rawResponse = (List<?>) conn.fcall( "RANGE_QUEUE", List.of( queueKey, clockKey ), List.of( "0", "-1" ) );
-            return objectMappingTools.getRangeToObj( rawResponse );
-        } catch (IllegalArgumentException e) {
+        return hedger.call( () -> {
+            List<?> rawResponse;
+            try (Jedis conn = snapshotTemplate.getJedisConnection()) {
+                String function = ordering == Ordering.FIFO ? "RANGE_QUEUE" : "RANGE_SCHEDULED";
+                rawResponse = switch (encoding) {
+                    case JSON -> (List<?>) conn.fcall( function, List.of( queueKey, clockKey ),
+                                                       List.of( Long.toString( start ), Long.toString( end ) ) );
+                    case BINARY -> (List<?>) conn.fcall( toBytes( function ),
+                                                         List.of( toBytes( queueKey ), toBytes( clockKey ) ),
+                                                         List.of( toBytes( Long.toString( start ) ),
+                                                                  toBytes( Long.toString( end ) ) ) );
+                };
+                return objectMappingTools.getRangeToObj( rawResponse );
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException( "Could not deserialize the DB response.", e );
+            }
+        } );
+    }
+
+    /**
+     * Range query for items on a strictly once queue, together with the status of each item's event in a
+     * {@link StrictlyOnceMap}.  An item is {@link Status#Valid} if its event's state has the item's time and is valid,
+     * or has retired the item's time, otherwise {@link Status#Invalid}.  This call is guaranteed to complete
+     * atomically, so statuses are consistent with the clock.
+     *
+     * @param start          start index
+     * @param end            end index
+     * @param queueKey       key for the queue
+     * @param clockKey       key for the clock
+     * @param eventKeyPrefix the key of an event's state is {@code eventKeyPrefix} followed by the event, event keys
+     *                       must not be hashed
+     * @param storage        the storage of the {@link StrictlyOnceMap}
+     * @return An in order list of statuses from start to end index (versioned by scalar clock)
+     * @throws IllegalStateException if an error occurs deserializing the database response.
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public Versioned<List<EventStatus>> getRangeWithStatus(long start, long end, String queueKey, String clockKey,
+                                                           String eventKeyPrefix, StrictlyOnceMap.Storage storage)
+            throws IllegalStateException {
+        List<String> args = List.of( Long.toString( start ), Long.toString( end ), eventKeyPrefix,
+                                     storage == StrictlyOnceMap.Storage.PACKED ? "packed" : "hash",
+                                     encoding == Encoding.BINARY ? "binary" : "json" );
+        return hedger.call( () -> {
+            List<?> rawResponse;
+            try (Jedis conn = snapshotTemplate.getJedisConnection()) {
+                rawResponse = switch (encoding) {
+                    case JSON -> (List<?>) conn.fcall( "RANGE_WITH_STATUS", List.of( queueKey, clockKey ), args );
+                    case BINARY -> (List<?>) conn.fcall( toBytes( "RANGE_WITH_STATUS" ),
+                                                         List.of( toBytes( queueKey ), toBytes( clockKey ) ),
+                                                         args.stream().map( EventQueue::toBytes ).toList() );
+                };
+                return objectMappingTools.getRangeWithStatusToObj( rawResponse );
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException( "Could not deserialize the DB response.", e );
+            }
+        } );
+    }
+
+    /**
+     * Copies the queue to {@code copyKey}, so that it may be read in pages ({@link EventQueue#getCopyRange}) which are
+     * consistent with a single clock.  The copy expires after {@code expiryMilli}, it should be deleted
+     * ({@link EventQueue#deleteCopy}) once read.  This call is guaranteed to complete atomically.
+     *
+     * @param queueKey    key for the queue
+     * @param clockKey    key for the clock
+     * @param copyKey     key the copy is made to, replacing any existing copy
+     * @param expiryMilli milliseconds until the copy expires
+     * @return the size of the copy (versioned by scalar clock)
+     * @throws IllegalStateException if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public Versioned<Long> copy(String queueKey, String clockKey, String copyKey,
+                                long expiryMilli) throws IllegalStateException {
+        List<?> rawResult;
+        try (Jedis conn = snapshotTemplate.getJedisConnection()) {
+            rawResult = (List<?>) conn.fcall( "COPY_QUEUE", List.of( queueKey, clockKey, copyKey ),
+                                              List.of( Long.toString( expiryMilli ) ) );
+        } catch (ClassCastException e) {
             throw new IllegalStateException( "Could not deserialize the DB response.", e );
         }
+        if (rawResult.size() != 2) {
+            throw new IllegalStateException( "Received an unexpected response form the DB." );
+        }
+        try {
+            return new Versioned<>( (long) rawResult.get( 0 ), (Long) rawResult.get( 1 ) );
+        } catch (ClassCastException e) {
+            throw new IllegalStateException( "Could not convert the reply to a long." );
+        }
+    }
+
+    /**
+     * Returns a range of elements of a copy made by {@link EventQueue#copy}.  Indexing semantics follow those of redis
+     * lists.
+     *
+     * @param start   start index
+     * @param end     end index
+     * @param copyKey key of the copy
+     * @return An in order list from start to end index
+     * @throws IllegalStateException if an error occurs deserializing the database response.
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public List<EventTime> getCopyRange(long start, long end, String copyKey) throws IllegalStateException {
+        return hedger.call( () -> {
+            List<?> rawElements;
+            try (Jedis conn = snapshotTemplate.getJedisConnection()) {
+                rawElements = switch (encoding) {
+                    case JSON -> ordering == Ordering.FIFO ? conn.lrange( copyKey, start, end )
+                                                           : conn.zrange( copyKey, start, end );
+                    case BINARY -> ordering == Ordering.FIFO ? conn.lrange( toBytes( copyKey ), start, end )
+                                                             : conn.zrange( toBytes( copyKey ), start, end );
+                };
+            }
+            try {
+                return rawElements.stream().map( objectMappingTools::decodeElement ).toList();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException( "Could not deserialize the DB response.", e );
+            }
+        } );
+    }
+
+    /**
+     * Deletes a copy made by {@link EventQueue#copy}.
+     *
+     * @param copyKey key of the copy
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public void deleteCopy(String copyKey) {
+        snapshotTemplate.delete( copyKey );
+    }
+
+    /**
+     * Deletes a queue and its clock, e.g. once nothing will offer to or poll the queue again.  Neither key expires on
+     * its own.
+     *
+     * @param queueKey key for the queue
+     * @param clockKey key for the clock
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public void delete(String queueKey, String clockKey) {
+        stringTemplate.delete( List.of( queueKey, clockKey ) );
+    }
+
+    /**
+     * Reads the clock without incrementing it, e.g. to check if a queue changed since a snapshot.
+     *
+     * @param clockKey key for the clock
+     * @return the clock, {@code 0} if it has never been incremented
+     * @throws IllegalStateException if the clock is not a number
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public long clock(String clockKey) throws IllegalStateException {
+        String rawClock = hedger.call( () -> snapshotTemplate.opsForValue().get( clockKey ) );
+        if (Objects.isNull( rawClock )) {
+            return 0;
+        }
+        try {
+            return Long.parseLong( rawClock );
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException( "Clock is not a number: " + rawClock, e );
+        }
     }
 
     /**
@@ -128,7 +475,10 @@ public class EventQueue {
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     public long size(String queueKey) {
         // should not return null b/c not used in pipeline or transaction (see documentation)
-        return stringTemplate.opsForList().size( queueKey );
+        return switch (ordering) {
+            case FIFO -> stringTemplate.opsForList().size( queueKey );
+            case SCHEDULED -> stringTemplate.opsForZSet().zCard( queueKey );
+        };
     }
 
 
@@ -141,6 +491,12 @@ public class EventQueue {
     @Nullable
         // convenience method for testing
     EventTime poll(String queueKey) {
+        if (encoding == Encoding.BINARY) {
+            try (Jedis conn = stringTemplate.getJedisConnection()) {
+                byte[] rawBinary = conn.lpop( toBytes( queueKey ) );
+                return Objects.isNull( rawBinary ) ? null : ObjectMappingTools.fromBinary( rawBinary );
+            }
+        }
         String rawJson = stringTemplate.opsForList().leftPop( queueKey );
         if (Objects.isNull( rawJson )) {
             return null;
@@ -158,6 +514,14 @@ public class EventQueue {
     }
 
 
+    private String offerFunction() {
+        return ordering == Ordering.FIFO ? "OFFER_QUEUE" : "OFFER_SCHEDULED";
+    }
+
+    private static byte[] toBytes(String str) {
+        return str.getBytes( StandardCharsets.UTF_8 );
+    }
+
     // Handling serialization/deserializaiton at class level is a debatable design decision.  Separate RedisTemplates
     // for the one-off return type of tryPoll and one for EventTime felt too niche for such few operations
     static class ObjectMappingTools {
@@ -170,14 +534,14 @@ public class EventQueue {
 
         private Versioned<EventTime> toVersionedEventTime(List<?> rawResult) throws IllegalArgumentException {
             long version;
-            String jsonData;
+            Object rawElement;
             try {
-                jsonData = (String) rawResult.get( 0 );
+                rawElement = rawResult.get( 0 );
                 version = toLong( rawResult, 1 );
             } catch (ClassCastException e) {
                 throw new IllegalArgumentException( "Unable to deserialize version to a Long.", e );
             }
-            EventTime eventTime = toEventTime( jsonData );
+            EventTime eventTime = decodeElement( rawElement );
             return new Versioned<>( version, eventTime );
         }
 
@@ -207,6 +571,18 @@ public class EventQueue {
             };
         }
 
+        ReplacingOfferResponse toReplacingOfferResponse(@NonNull List<?> rawResult) throws IllegalArgumentException {
+            return switch (rawResult.size()) {
+                case 2 -> new ReplacingOfferResponse( toLong( rawResult, 0 ), toLong( rawResult, 1 ), null );
+                case 4 -> {
+                    Versioned<EventTime> replaced = new Versioned<>( toLong( rawResult, 3 ),
+                                                                     decodeElement( rawResult.get( 2 ) ) );
+                    yield new ReplacingOfferResponse( toLong( rawResult, 0 ), toLong( rawResult, 1 ), replaced );
+                }
+                default -> throw new IllegalArgumentException( "Improper input format." );
+            };
+        }
+
         Versioned<List<EventTime>> getRangeToObj(@NonNull List<?> rawResult) throws IllegalArgumentException {
             if (rawResult.size() != 2) {
                 throw new IllegalArgumentException( "Improper input format." );
@@ -216,13 +592,38 @@ public class EventQueue {
             try {
                 List<?> rawElements = (List<?>) rawResult.get( 0 );
                 version = toLong( rawResult, 1 );
-                elements = rawElements.stream().map( rawElement -> toEventTime( (String) rawElement ) ).toList();
+                elements = rawElements.stream().map( this::decodeElement ).toList();
             } catch (ClassCastException e) {
                 throw new IllegalArgumentException( "Improper input format.  Unexpected types." );
             }
             return new Versioned<>( version, elements );
         }
 
+        Versioned<List<EventStatus>> getRangeWithStatusToObj(@NonNull List<?> rawResult)
+                throws IllegalArgumentException {
+            if (rawResult.size() != 3) {
+                throw new IllegalArgumentException( "Improper input format." );
+            }
+            long version;
+            List<EventStatus> statuses;
+            try {
+                List<?> rawElements = (List<?>) rawResult.get( 0 );
+                List<?> rawStatuses = (List<?>) rawResult.get( 1 );
+                version = toLong( rawResult, 2 );
+                if (rawElements.size() != rawStatuses.size()) {
+                    throw new IllegalArgumentException( "Improper input format.  Mismatched elements and statuses." );
+                }
+                statuses = new ArrayList<>( rawElements.size() );
+                for (int i = 0; i < rawElements.size(); i++) {
+                    Status status = toLong( rawStatuses, i ) == 1 ? Status.Valid : Status.Invalid;
+                    statuses.add( new EventStatus( decodeElement( rawElements.get( i ) ), status ) );
+                }
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException( "Improper input format.  Unexpected types." );
+            }
+            return new Versioned<>( version, statuses );
+        }
+
         String serializeEventTime(@NonNull EventTime eventTime) throws IllegalArgumentException {
             try {
                 return objectMapper.writer().writeValueAsString( eventTime );
@@ -231,6 +632,37 @@ public class EventQueue {
             }
         }
 
+        /**
+         * Decodes an element by the type of reply: {@link Encoding#JSON} elements are read as {@code String}s and
+         * {@link Encoding#BINARY} elements as {@code byte[]}s.
+         */
+        EventTime decodeElement(Object rawElement) throws IllegalArgumentException {
+            if (rawElement instanceof byte[] binary) {
+                return fromBinary( binary );
+            }
+            if (rawElement instanceof String json) {
+                return toEventTime( json );
+            }
+            throw new IllegalArgumentException( "Unexpected element type." );
+        }
+
+        static byte[] toBinary(@NonNull EventTime eventTime) {
+            byte[] event = eventTime.event().getBytes( StandardCharsets.UTF_8 );
+            return ByteBuffer.allocate( Long.BYTES + event.length )
+                    .putLong( eventTime.time() )
+                    .put( event )
+                    .array();
+        }
+
+        static EventTime fromBinary(@NonNull byte[] binary) throws IllegalArgumentException {
+            if (binary.length < Long.BYTES) {
+                throw new IllegalArgumentException( "Binary EventTime is too short to contain a time." );
+            }
+            long time = ByteBuffer.wrap( binary ).getLong(); // big endian
+            String event = new String( binary, Long.BYTES, binary.length - Long.BYTES, StandardCharsets.UTF_8 );
+            return new EventTime( event, time );
+        }
+
         EventTime toEventTime(@NonNull String eventTimeJson) {
             try {
                 return objectMapper.readValue( eventTimeJson, EventTime.class );
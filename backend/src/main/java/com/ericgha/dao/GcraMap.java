@@ -0,0 +1,111 @@
+package com.ericgha.dao;
+
+import com.ericgha.dto.RateLimitDecision;
+import com.ericgha.service.data.FunctionRedisTemplate;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A map of event keys to their theoretical arrival time (TAT), for rate limiting with the generic cell rate algorithm
+ * (GCRA).  State is a single value per key, and each decision is one round trip.
+ * <p>
+ * GCRA is equivalent to a token bucket which refills one token every {@code emissionInterval} and holds
+ * {@code burstTolerance / emissionInterval + 1} tokens.
+ * <p>
+ * Limits may be layered ({@link GcraMap#tryAcquireAll}), an event is then allowed only if every level allows it.
+ */
+public class GcraMap {
+
+    private final FunctionRedisTemplate<String, String> redisTemplate;
+
+    public GcraMap(FunctionRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Decides if an event conforms to the rate limit, updating the TAT if it does.
+     *
+     * @param eventKey              key for the event
+     * @param clockKey              key to the scalar clock, incremented for each allowed event
+     * @param timeMilli             time of the event
+     * @param emissionIntervalMilli the sustained interval between events
+     * @param burstToleranceMilli   how far ahead of the sustained rate events may arrive
+     * @return the decision
+     * @throws IllegalStateException if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public RateLimitDecision tryAcquire(String eventKey, String clockKey, long timeMilli, long emissionIntervalMilli,
+                                       long burstToleranceMilli) throws IllegalStateException {
+        List<?> reply;
+        try (Jedis conn = redisTemplate.getJedisConnection()) {
+            reply = (List<?>) conn.fcall( "GCRA", List.of( eventKey, clockKey ),
+                                          List.of( Long.toString( timeMilli ), Long.toString( emissionIntervalMilli ),
+                                                   Long.toString( burstToleranceMilli ) ) );
+        } catch (ClassCastException e) {
+            throw new IllegalStateException( "Received an unexpected response from the database.", e );
+        }
+        if (reply.size() != 2 || !( reply.get( 0 ) instanceof Long allowed ) ||
+                !( reply.get( 1 ) instanceof Long value )) {
+            throw new IllegalStateException( "Received an unexpected response from the database: " + reply );
+        }
+        return allowed == 1 ? RateLimitDecision.allowed( value ) : RateLimitDecision.rejected( value );
+    }
+
+    /**
+     * Decides if an event conforms to the rate limit of every level, updating the TAT of every level if it does.  A
+     * rejected event leaves no state behind.
+     *
+     * @param tatKeys                keys for the event at each level
+     * @param clockKey               key to the scalar clock, incremented for each allowed event
+     * @param timeMilli              time of the event
+     * @param emissionIntervalsMilli the sustained interval between events of each level
+     * @param burstTolerancesMilli   how far ahead of the sustained rate events may arrive at each level
+     * @return the decision, a rejection identifies the first level (index into {@code tatKeys}) rejecting the event
+     * @throws IllegalArgumentException if the numbers of keys, intervals and tolerances differ or there are no keys
+     * @throws IllegalStateException    if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public RateLimitDecision tryAcquireAll(List<String> tatKeys, String clockKey, long timeMilli,
+                                          long[] emissionIntervalsMilli,
+                                          long[] burstTolerancesMilli) throws IllegalArgumentException,
+            IllegalStateException {
+        int numLevels = tatKeys.size();
+        if (numLevels == 0 || emissionIntervalsMilli.length != numLevels ||
+                burstTolerancesMilli.length != numLevels) {
+            throw new IllegalArgumentException( "Requires an interval and tolerance for each of at least 1 key." );
+        }
+        List<String> keys = new ArrayList<>( numLevels + 1 );
+        keys.add( clockKey );
+        keys.addAll( tatKeys );
+        List<String> args = new ArrayList<>( 2 * numLevels + 1 );
+        args.add( Long.toString( timeMilli ) );
+        for (int level = 0; level < numLevels; level++) {
+            args.add( Long.toString( emissionIntervalsMilli[level] ) );
+            args.add( Long.toString( burstTolerancesMilli[level] ) );
+        }
+        List<?> reply;
+        try (Jedis conn = redisTemplate.getJedisConnection()) {
+            reply = (List<?>) conn.fcall( "GCRA_MULTI", keys, args );
+        } catch (ClassCastException e) {
+            throw new IllegalStateException( "Received an unexpected response from the database.", e );
+        }
+        if (reply.size() == 2 && reply.get( 0 ) instanceof Long allowed && allowed == 1 &&
+                reply.get( 1 ) instanceof Long clock) {
+            return RateLimitDecision.allowed( clock );
+        }
+        if (reply.size() == 3 && reply.get( 0 ) instanceof Long allowed && allowed == 0 &&
+                reply.get( 1 ) instanceof Long retryAfter && reply.get( 2 ) instanceof Long level) {
+            // levels are 1 based in redis
+            return RateLimitDecision.rejected( retryAfter, level.intValue() - 1 );
+        }
+        throw new IllegalStateException( "Received an unexpected response from the database: " + reply );
+    }
+}
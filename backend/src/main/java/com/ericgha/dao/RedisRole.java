@@ -0,0 +1,18 @@
+package com.ericgha.dao;
+
+/**
+ * The kinds of traffic sent to Redis.  Each role is served by its own connection pool, so that background work
+ * ({@code EXPIRY} polling and {@code SNAPSHOT}s) cannot starve the request path ({@code INTAKE}) of connections.
+ */
+public enum RedisRole {
+
+    INTAKE, EXPIRY, SNAPSHOT;
+
+    /**
+     * @return the name used for this role in configuration properties and metric tags.
+     */
+    public String propertyName() {
+        return this.name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.ericgha.dao;
+
+import com.ericgha.service.data.FunctionRedisTemplate;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+/**
+ * A map of event keys to the next free slot for that event, for traffic shaping (a leaky bucket as a meter).  Rather
+ * than rejecting an event which exceeds the rate, the event is given the earliest slot at which it conforms.  Slots for
+ * a key are spaced at least {@code emissionInterval} apart.
+ */
+public class ShapingMap {
+
+    /**
+     * Returned by {@link ShapingMap#reserveSlot} when no slot is available within the maximum delay.
+     */
+    public static final long NO_SLOT = -1L;
+
+    private final FunctionRedisTemplate<String, String> redisTemplate;
+
+    public ShapingMap(FunctionRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Reserves the earliest slot for an event.
+     *
+     * <pre>slot = max(time, nextSlot); IF slot - time <= maxDelay then nextSlot = slot + emissionInterval</pre>
+     *
+     * @param slotKey               key for the event's next free slot
+     * @param timeMilli             time of the event
+     * @param emissionIntervalMilli minimum interval between slots
+     * @param maxDelayMilli         maximum time an event may be delayed
+     * @return the reserved slot (epoch millis), or {@link ShapingMap#NO_SLOT}
+     * @throws IllegalStateException if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public long reserveSlot(String slotKey, long timeMilli, long emissionIntervalMilli,
+                            long maxDelayMilli) throws IllegalStateException {
+        Object reply;
+        try (Jedis conn = redisTemplate.getJedisConnection()) {
+            reply = conn.fcall( "SHAPE_EVENT", List.of( slotKey ),
+                                List.of( Long.toString( timeMilli ), Long.toString( emissionIntervalMilli ),
+                                         Long.toString( maxDelayMilli ) ) );
+        }
+        if (reply instanceof Long slot) {
+            return slot;
+        }
+        throw new IllegalStateException( "Received an unexpected response from the database: " + reply );
+    }
+}
@@ -0,0 +1,59 @@
+package com.ericgha.dao;
+
+import com.ericgha.service.data.FunctionRedisTemplate;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+/**
+ * A map that accepts at most {@code limit} events with the same key per sliding window.  Each key is a log (redis
+ * sorted set) of the times of accepted events, trimmed to the window on each put and expired once its latest event
+ * leaves the window.
+ * <p>
+ * A {@code limit} of 1 is equivalent to {@link OnlyOnceMap}.
+ */
+public class SlidingWindowMap {
+
+    private final FunctionRedisTemplate<String, String> redisTemplate;
+
+    public SlidingWindowMap(FunctionRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Attempts to put an event into the log for {@code eventKey}.
+     *
+     * <pre>IF count(events with time + window > newTime) < limit then PUT in log</pre>
+     *
+     * @param eventKey    key for the event's log
+     * @param clockKey    key to a scalar clock, used to uniquely identify entries in the log
+     * @param timeMilli   time of the event
+     * @param windowMilli length of the sliding window
+     * @param limit       maximum events per window
+     * @return {@code true} if the put occurred
+     * @throws IllegalStateException if the database returned an unexpected response
+     */
+    @Retryable(maxAttemptsExpression = "${app.redis.retry.num-attempts}",
+            backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
+                    multiplierExpression = "${app.redis.retry.multiplier}"))
+    public boolean putEvent(String eventKey, String clockKey, long timeMilli, long windowMilli,
+                            long limit) throws IllegalStateException {
+        Object reply;
+        try (Jedis conn = redisTemplate.getJedisConnection()) {
+            reply = conn.fcall( "SLIDING_WINDOW_PUT", List.of( eventKey, clockKey ),
+                                List.of( Long.toString( timeMilli ), Long.toString( windowMilli ),
+                                         Long.toString( limit ) ) );
+        }
+        if (reply instanceof Long putCount) {
+            return putCount == 1;
+        }
+        throw new IllegalStateException( "Received an unexpected response from the database: " + reply );
+    }
+
+    // Convenience method for testing.
+    Long count(String eventKey) {
+        return redisTemplate.opsForZSet().zCard( eventKey );
+    }
+}
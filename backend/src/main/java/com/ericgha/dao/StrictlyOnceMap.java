@@ -1,5 +1,7 @@
 package com.ericgha.dao;
 
+import com.ericgha.dao.resilience.NoOpRequestHedger;
+import com.ericgha.dao.resilience.RequestHedger;
 import com.ericgha.dto.EventHash;
 import com.ericgha.dto.TimeIsValid;
 import com.ericgha.dto.TimeIsValidDiff;
@@ -16,6 +18,8 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import redis.clients.jedis.Jedis;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -41,19 +45,96 @@ import java.util.concurrent.TimeUnit;
  * one {@code eventDuration} after the expected event completion (i.e. the event's {@code time + eventDuration}).
  * <p>
  * To preserve space in the database events are expired within {@code 2*eventDuration} time after their last modification.
+ * <p>
+ * Event state may be stored as a redis hash ({@link Storage#HASH}, the default) or as a fixed width binary value
+ * ({@link Storage#PACKED}), which uses significantly less memory per key.  The two formats are not interchangeable, a
+ * map should always be read with the storage it was written with.
  */
 public class StrictlyOnceMap {
 
+    static final int PACKED_LENGTH = 17;
+    private static final byte IS_VALID_FLAG = 0b01;
+    private static final byte RETIRED_FLAG = 0b10;
+
     private final FunctionRedisTemplate<String, Long> stringLongTemplate;
+    private final FunctionRedisTemplate<String, Long> expiryTemplate;
+    private final FunctionRedisTemplate<String, Long> snapshotTemplate;
 
     private final String isValidIdentifier = "is_valid";
     private final String timeIdentifier = "time";
     private final String retiredIdentifier = "retired";
     private final Logger log;
+    private RequestHedger hedger;
+    private Storage storage;
+
+    /**
+     * The format event state is stored in.
+     */
+    public enum Storage {
+        /**
+         * A redis hash with fields {@code time}, {@code is_valid} and {@code retired}.
+         */
+        HASH,
+        /**
+         * A 17 byte big endian string: a flags byte ({@code isValid} bit 0, {@code retired} present bit 1), followed
+         * by {@code time} and {@code retired} as 8 byte integers.
+         */
+        PACKED
+    }
 
+    /**
+     * All operations share a single template (connection pool).
+     *
+     * @param stringLongTemplate
+     */
     public StrictlyOnceMap(@NonNull FunctionRedisTemplate<String, Long> stringLongTemplate) {
+        this( stringLongTemplate, stringLongTemplate, stringLongTemplate );
+    }
+
+    /**
+     * Operations are routed by {@link RedisRole}, so that background work cannot exhaust the connections used to put
+     * events.
+     *
+     * @param stringLongTemplate {@link RedisRole#INTAKE} template, used for {@link StrictlyOnceMap#putEvent}
+     * @param expiryTemplate     {@link RedisRole#EXPIRY} template, used for {@link StrictlyOnceMap#getEventHash}
+     * @param snapshotTemplate   {@link RedisRole#SNAPSHOT} template, used for
+     *                           {@link StrictlyOnceMap#multiGetEventHash}
+     */
+    public StrictlyOnceMap(@NonNull FunctionRedisTemplate<String, Long> stringLongTemplate,
+                           @NonNull FunctionRedisTemplate<String, Long> expiryTemplate,
+                           @NonNull FunctionRedisTemplate<String, Long> snapshotTemplate) {
         this.stringLongTemplate = stringLongTemplate;
+        this.expiryTemplate = expiryTemplate;
+        this.snapshotTemplate = snapshotTemplate;
         this.log = LoggerFactory.getLogger( this.getClass().getName() );
+        this.hedger = new NoOpRequestHedger();
+        this.storage = Storage.HASH;
+    }
+
+    /**
+     * Sets the format event state is stored in.  Default is {@link Storage#HASH}.
+     *
+     * @param storage
+     */
+    public void setStorage(@NonNull Storage storage) {
+        this.storage = Objects.requireNonNull( storage, "Received a null storage." );
+    }
+
+    /**
+     * @return the format event state is stored in
+     */
+    public Storage storage() {
+        return this.storage;
+    }
+
+    /**
+     * Sets the {@link RequestHedger} used for idempotent reads ({@link StrictlyOnceMap#multiGetEventHash}).  Default
+     * is a {@link NoOpRequestHedger}.
+     *
+     * @param hedger
+     */
+    public void setHedger(@NonNull RequestHedger hedger) {
+        this.hedger = Objects.requireNonNull( hedger, "Received a null hedger." );
     }
 
     /**
@@ -75,14 +156,16 @@ public class StrictlyOnceMap {
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     public TimeIsValidDiff putEvent(@NonNull String eventKey, long time, @NonNull String clockKey,
                                     long eventDurationMillis) throws IllegalStateException {
+        String function = storage == Storage.PACKED ? "PUT_EVENT_PACKED" : "PUT_EVENT";
         List<?> rawResult;
         try (Jedis connection = stringLongTemplate.getJedisConnection()) {
-            rawResult = (List<?>) connection.fcall( "put_event", List.of( eventKey, clockKey ),
+            rawResult = (List<?>) connection.fcall( function, List.of( eventKey, clockKey ),
                                                     List.of( Long.toString( time ),
                                                              Long.toString( eventDurationMillis ) ) );
         }
         if (Objects.isNull( rawResult )) {
-            throw new IllegalStateException( "Command put_event returned null, but it should never return null." );
+            throw new IllegalStateException(
+                    "Command " + function + " returned null, but it should never return null." );
         }
         if (rawResult.size() != 2 && rawResult.size() != 3) {
             throw new IllegalStateException( "RawResult must have a length of 2: " + rawResult );
@@ -108,7 +191,18 @@ public class StrictlyOnceMap {
             backoff = @Backoff(delayExpression = "${app.redis.retry.initial-interval}",
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     public EventHash getEventHash(@NonNull String eventKey) throws IllegalStateException {
-        List<Long> values = stringLongTemplate.opsForHash()
+        if (storage == Storage.PACKED) {
+            byte[] packed;
+            try (Jedis connection = expiryTemplate.getJedisConnection()) {
+                packed = connection.get( eventKey.getBytes( StandardCharsets.UTF_8 ) );
+            }
+            try {
+                return fromPacked( packed );
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException( "Received a malformed or improper response from the database.", e );
+            }
+        }
+        List<Long> values = expiryTemplate.opsForHash()
                 .multiGet( eventKey, List.of( timeIdentifier, isValidIdentifier, retiredIdentifier ) ).stream()
                 .map( l -> (Long) l ).toList();
         try {
@@ -130,17 +224,22 @@ public class StrictlyOnceMap {
                     multiplierExpression = "${app.redis.retry.multiplier}"))
     @SuppressWarnings("unchecked")
     public List<EventHash> multiGetEventHash(@NonNull List<String> eventKeys) throws IllegalStateException {
-        List<?> rawHashes = stringLongTemplate.executePipelined( new SessionCallback<List<List<Long>>>() {
+        if (storage == Storage.PACKED) {
+            return multiGetPacked( eventKeys );
+        }
+        List<?> rawHashes = hedger.call( () -> snapshotTemplate.executePipelined(
+                new SessionCallback<List<List<Long>>>() {
 
-            @Override
-            public List<List<Long>> execute(@NonNull RedisOperations operations) throws DataAccessException {
-                HashOperations<String, String, Long> opsForHash = operations.opsForHash();
-                for (String eventKey : eventKeys) {
-                    opsForHash.multiGet( eventKey, List.of( timeIdentifier, isValidIdentifier, retiredIdentifier ) );
-                }
-                return null;
-            }
-        } );
+                    @Override
+                    public List<List<Long>> execute(@NonNull RedisOperations operations) throws DataAccessException {
+                        HashOperations<String, String, Long> opsForHash = operations.opsForHash();
+                        for (String eventKey : eventKeys) {
+                            opsForHash.multiGet( eventKey,
+                                                 List.of( timeIdentifier, isValidIdentifier, retiredIdentifier ) );
+                        }
+                        return null;
+                    }
+                } ) );
         try {
             return rawHashes.stream().map( l -> (List<Long>) l ).map( StrictlyOnceMap::toEventHash ).toList();
         } catch (ClassCastException e) {
@@ -148,6 +247,25 @@ public class StrictlyOnceMap {
         }
     }
 
+    // a single MGET rather than a pipeline of HMGETs
+    private List<EventHash> multiGetPacked(List<String> eventKeys) throws IllegalStateException {
+        if (eventKeys.isEmpty()) {
+            return List.of();
+        }
+        byte[][] rawKeys = eventKeys.stream().map( key -> key.getBytes( StandardCharsets.UTF_8 ) )
+                .toArray( byte[][]::new );
+        List<byte[]> packedValues = hedger.call( () -> {
+            try (Jedis connection = snapshotTemplate.getJedisConnection()) {
+                return connection.mget( rawKeys );
+            }
+        } );
+        try {
+            return packedValues.stream().map( StrictlyOnceMap::fromPacked ).toList();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException( "Received an unexpected response format from the database.", e );
+        }
+    }
+
     static boolean toBoolean(Long i) throws IllegalArgumentException {
         if (0 == i) {
             return false;
@@ -175,6 +293,44 @@ public class StrictlyOnceMap {
         throw new IllegalArgumentException( "EventHash is in an inconsistent state: " + rawData );
     }
 
+    /**
+     * Decodes {@link Storage#PACKED} event state.
+     *
+     * @param packed the stored value, {@code null} for an unknown key
+     * @return EventHash
+     * @throws IllegalArgumentException if {@code packed} is not a valid packed value
+     */
+    static EventHash fromPacked(@Nullable byte[] packed) throws IllegalArgumentException {
+        if (Objects.isNull( packed )) {
+            return new EventHash( null, null, null );
+        }
+        if (packed.length != PACKED_LENGTH) {
+            throw new IllegalArgumentException( "Packed event state should have a length of " + PACKED_LENGTH );
+        }
+        ByteBuffer buffer = ByteBuffer.wrap( packed ); // big endian
+        byte flags = buffer.get();
+        long time = buffer.getLong();
+        long retired = buffer.getLong();
+        return new EventHash( time, ( flags & IS_VALID_FLAG ) != 0, ( flags & RETIRED_FLAG ) != 0 ? retired : null );
+    }
+
+    /**
+     * Encodes event state in the {@link Storage#PACKED} format.
+     *
+     * @param time
+     * @param isValid
+     * @param retired {@code null} if no time has been retired
+     * @return the packed value
+     */
+    static byte[] toPacked(long time, boolean isValid, @Nullable Long retired) {
+        byte flags = (byte) ( ( isValid ? IS_VALID_FLAG : 0 ) | ( Objects.nonNull( retired ) ? RETIRED_FLAG : 0 ) );
+        return ByteBuffer.allocate( PACKED_LENGTH )
+                .put( flags )
+                .putLong( time )
+                .putLong( Objects.nonNull( retired ) ? retired : 0L )
+                .array();
+    }
+
     static TimeIsValid toTimeIsValid(List<?> rawData) throws ClassCastException {
         Objects.requireNonNull( rawData, "Received a null rawData parameter." );
         if (rawData.size() != 0 && rawData.size() != 2) {
@@ -188,6 +344,16 @@ public class StrictlyOnceMap {
 
     // for testing, expiry optional.  No expiration set if null.
     void setEvent(String eventKey, long time, boolean isValid, @Nullable Long expiryMilli) {
+        if (storage == Storage.PACKED) {
+            try (Jedis connection = stringLongTemplate.getJedisConnection()) {
+                byte[] rawKey = eventKey.getBytes( StandardCharsets.UTF_8 );
+                connection.set( rawKey, toPacked( time, isValid, null ) );
+                if (Objects.nonNull( expiryMilli )) {
+                    connection.pexpire( rawKey, expiryMilli );
+                }
+            }
+            return;
+        }
         stringLongTemplate.opsForHash()
                 .putAll( eventKey, Map.of( timeIdentifier, time, isValidIdentifier, isValid ? 1L : 0L ) );
         if (Objects.nonNull( expiryMilli )) {
@@ -0,0 +1,101 @@
+package com.ericgha.dao.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RequestHedger} which issues a second request if the first has not completed within {@code hedgeDelayMilli}.
+ * The result of whichever request completes successfully first is returned.  If both requests fail the exception of
+ * the last request to fail is thrown.
+ * <p>
+ * Requests are run on a bounded pool of {@code numThreads}.  The slower request is not cancelled, it runs to
+ * completion and its result is discarded.
+ */
+public class DelayedRequestHedger implements RequestHedger, AutoCloseable {
+
+    private final Logger log;
+    private final long hedgeDelayMilli;
+    private final ExecutorService executor;
+
+    /**
+     * @param hedgeDelayMilli how long to wait for the first request before hedging
+     * @param numThreads      size of the pool requests are run on
+     * @throws IllegalArgumentException if {@code hedgeDelayMilli <= 0} or {@code numThreads <= 0}
+     */
+    public DelayedRequestHedger(long hedgeDelayMilli, int numThreads) throws IllegalArgumentException {
+        if (hedgeDelayMilli <= 0 || numThreads <= 0) {
+            throw new IllegalArgumentException( "hedgeDelayMilli and numThreads must be positive." );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        this.hedgeDelayMilli = hedgeDelayMilli;
+        this.executor = Executors.newFixedThreadPool( numThreads );
+    }
+
+    /**
+     * @param request an idempotent request
+     * @return the first successful result
+     * @throws RuntimeException the exception thrown by the request, if both the request and the hedge failed.
+     */
+    @Override
+    public <T> T call(Supplier<T> request) {
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync( request, executor );
+        try {
+            return primary.get( hedgeDelayMilli, TimeUnit.MILLISECONDS );
+        } catch (TimeoutException e) {
+            log.debug( "Request did not complete within {} ms, hedging.", hedgeDelayMilli );
+        } catch (ExecutionException e) {
+            throw unwrap( e );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while awaiting request.", e );
+        }
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync( request, executor );
+        CompletableFuture<T> firstSuccess = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger( 2 );
+        for (CompletableFuture<T> attempt : List.of( primary, hedge )) {
+            attempt.whenComplete( (result, e) -> {
+                if (e == null) {
+                    firstSuccess.complete( result );
+                } else if (remaining.decrementAndGet() == 0) {
+                    firstSuccess.completeExceptionally( e );
+                }
+            } );
+        }
+        try {
+            return firstSuccess.get();
+        } catch (ExecutionException e) {
+            throw unwrap( e );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while awaiting hedged request.", e );
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        // whenComplete receives exceptions wrapped in a CompletionException
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException( "Request failed.", cause );
+    }
+}
@@ -0,0 +1,14 @@
+package com.ericgha.dao.resilience;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link RequestHedger} which never hedges, requests are made once on the calling thread.
+ */
+public class NoOpRequestHedger implements RequestHedger {
+
+    @Override
+    public <T> T call(Supplier<T> request) {
+        return request.get();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ericgha.dao.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * A circuit breaker guarding calls to Redis.  The breaker is {@code CLOSED} during normal operation.  After
+ * {@code failureThreshold} consecutive failed calls the breaker trips {@code OPEN} and callers should fail fast.  After
+ * {@code openMilli} has elapsed the breaker becomes {@code HALF_OPEN} and a single trial call is permitted.  A
+ * successful trial closes the breaker, a failed trial re-opens it.
+ * <p>
+ * Outcomes are reported with the {@link Permit} the call was granted.  Only the trial may close the breaker, calls
+ * permitted while closed which complete after the breaker tripped neither close it nor count towards it.
+ */
+public class RedisCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Permission granted to a call.
+     */
+    public enum Permit {
+        /**
+         * The call should fail fast.
+         */
+        DENIED,
+        /**
+         * The call was permitted while the breaker was closed.
+         */
+        CALL,
+        /**
+         * The call is the trial of a half open breaker.
+         */
+        TRIAL
+    }
+
+    private final Logger log;
+    private final int failureThreshold;
+    private final long openMilli;
+    private State state;
+    private int consecutiveFailures;
+    private long openedAtMilli;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold number of consecutive failures which trips the breaker
+     * @param openMilli        how long the breaker should remain open before permitting a trial call
+     * @throws IllegalArgumentException if {@code failureThreshold <= 0} or {@code openMilli < 0}
+     */
+    public RedisCircuitBreaker(int failureThreshold, long openMilli) throws IllegalArgumentException {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException( "failureThreshold must be positive." );
+        }
+        if (openMilli < 0) {
+            throw new IllegalArgumentException( "openMilli cannot be negative." );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        this.failureThreshold = failureThreshold;
+        this.openMilli = openMilli;
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.openedAtMilli = 0;
+        this.trialInFlight = false;
+    }
+
+    /**
+     * Requests permission to make a call.  Callers granted permission <em>must</em> report the outcome using
+     * {@link RedisCircuitBreaker#onSuccess(Permit)} or {@link RedisCircuitBreaker#onFailure(Permit)}.
+     *
+     * @return the permit, {@link Permit#DENIED} if the caller should fail fast.
+     */
+    public synchronized Permit acquire() {
+        return switch (currentState()) {
+            case CLOSED -> Permit.CALL;
+            case OPEN -> Permit.DENIED;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield Permit.DENIED;
+                }
+                trialInFlight = true;
+                yield Permit.TRIAL;
+            }
+        };
+    }
+
+    /**
+     * @return {@code true} if a call may proceed, see {@link RedisCircuitBreaker#acquire()}.
+     */
+    public boolean tryAcquire() {
+        return acquire() != Permit.DENIED;
+    }
+
+    /**
+     * Records a successful call.  A successful trial closes the breaker, other successes only reset the consecutive
+     * failure count of a closed breaker.
+     *
+     * @param permit the permit the call was granted
+     */
+    public synchronized void onSuccess(Permit permit) {
+        if (permit == Permit.TRIAL && trialInFlight) {
+            log.info( "Circuit breaker closed." );
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        } else if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * Records a failed call.  Trips the breaker if the {@code failureThreshold} is met or if the trial failed.  Failures
+     * of calls permitted before the breaker tripped are ignored.
+     *
+     * @param permit the permit the call was granted
+     */
+    public synchronized void onFailure(Permit permit) {
+        if (permit == Permit.TRIAL) {
+            if (trialInFlight) {
+                open();
+            }
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        log.warn( "Circuit breaker opened after {} consecutive failures.", consecutiveFailures );
+        state = State.OPEN;
+        openedAtMilli = Instant.now().toEpochMilli();
+        trialInFlight = false;
+    }
+
+    /**
+     * @return {@code true} if calls should currently fail fast.
+     */
+    public synchronized boolean isOpen() {
+        return currentState() == State.OPEN;
+    }
+
+    public synchronized State state() {
+        return currentState();
+    }
+
+    private State currentState() {
+        if (state == State.OPEN && openedAtMilli + openMilli <= Instant.now().toEpochMilli()) {
+            state = State.HALF_OPEN;
+        }
+        return state;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ericgha.dao.resilience;
+
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.RequestDeadline;
+import org.springframework.dao.DataAccessException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * A {@link RetryListener} which bounds the work done by {@code @Retryable} DAO methods when Redis is unhealthy.
+ * <p>
+ * Before the first attempt the {@link RedisCircuitBreaker} is consulted, if it is open the call fails fast with a
+ * {@link RedisUnavailableException}.  After each failed attempt a retry is only permitted if the breaker is still
+ * closed and the {@link RetryBudget} can afford it, otherwise the retry is exhausted early and the last exception is
+ * thrown.
+ * <p>
+ * Calls made on behalf of a request whose {@link RequestDeadline} has passed are not attempted and are not retried,
+ * either way a {@link DeadlineExceededException} is thrown (with the last exception as its cause if an attempt
+ * failed), so the caller reports a timeout rather than a Redis failure.
+ * <p>
+ * Only {@link JedisException}s and {@link DataAccessException}s count as failures towards the breaker, other
+ * exceptions (i.e. deserialization errors) are not indicative of Redis health.
+ */
+public class RedisResilienceListener implements RetryListener {
+
+    static final String REJECTED_ATTRIBUTE = RedisResilienceListener.class.getName() + ".rejected";
+    static final String PERMIT_ATTRIBUTE = RedisResilienceListener.class.getName() + ".permit";
+    static final String DEADLINE_ATTRIBUTE = RedisResilienceListener.class.getName() + ".deadline";
+
+    private final RedisCircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+
+    /**
+     * @param circuitBreaker the breaker shared by all DAO calls
+     * @param retryBudget    the budget shared by all DAO calls
+     * @param maxAttempts    the maximum attempts configured for {@code @Retryable} methods, no retry is charged to the
+     *                       budget for the final attempt.
+     */
+    public RedisResilienceListener(RedisCircuitBreaker circuitBreaker, RetryBudget retryBudget, int maxAttempts) {
+        this.circuitBreaker = circuitBreaker;
+        this.retryBudget = retryBudget;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        if (RequestDeadline.isExpired()) {
+            context.setAttribute( REJECTED_ATTRIBUTE, true );
+            throw new DeadlineExceededException( "The request deadline passed before calling Redis." );
+        }
+        RedisCircuitBreaker.Permit permit = circuitBreaker.acquire();
+        if (permit == RedisCircuitBreaker.Permit.DENIED) {
+            context.setAttribute( REJECTED_ATTRIBUTE, true );
+            throw new RedisUnavailableException( "Circuit breaker is open, Redis is unavailable." );
+        }
+        context.setAttribute( PERMIT_ATTRIBUTE, permit );
+        retryBudget.deposit();
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        if (isRedisFailure( throwable )) {
+            circuitBreaker.onFailure( permit( context ) );
+        }
+        if (context.getRetryCount() >= maxAttempts) {
+            return; // no further attempts would be made
+        }
+        if (RequestDeadline.isExpired()) {
+            context.setAttribute( DEADLINE_ATTRIBUTE, true );
+            context.setExhaustedOnly();
+        } else if (circuitBreaker.isOpen() || !retryBudget.tryWithdraw()) {
+            context.setExhaustedOnly();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        if (context.hasAttribute( REJECTED_ATTRIBUTE )) {
+            return;
+        }
+        // Redis replied if the failure was not a Redis failure.  A half open breaker must always learn the outcome of
+        // its trial.
+        if (throwable == null || !isRedisFailure( throwable )) {
+            circuitBreaker.onSuccess( permit( context ) );
+        }
+        if (throwable != null && context.hasAttribute( DEADLINE_ATTRIBUTE )) {
+            throw new DeadlineExceededException( "The request deadline passed before retrying Redis.", throwable );
+        }
+    }
+
+    private static RedisCircuitBreaker.Permit permit(RetryContext context) {
+        return (RedisCircuitBreaker.Permit) context.getAttribute( PERMIT_ATTRIBUTE );
+    }
+
+    private static boolean isRedisFailure(Throwable throwable) {
+        return throwable instanceof JedisException || throwable instanceof DataAccessException;
+    }
+}
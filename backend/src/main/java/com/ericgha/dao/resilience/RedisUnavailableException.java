@@ -0,0 +1,17 @@
+package com.ericgha.dao.resilience;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown when a call to Redis was not attempted because Redis is believed to be unhealthy.
+ *
+ * @see RedisCircuitBreaker
+ */
+public class RedisUnavailableException extends TransientDataAccessResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RedisUnavailableException(String msg) {
+        super( msg );
+    }
+}
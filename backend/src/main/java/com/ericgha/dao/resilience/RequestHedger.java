@@ -0,0 +1,13 @@
+package com.ericgha.dao.resilience;
+
+import java.util.function.Supplier;
+
+/**
+ * Makes requests, potentially hedging them.  A hedged request is issued a second time if the first request is slow to
+ * complete, the first successful response is used.  Only idempotent requests should be hedged.
+ */
+public interface RequestHedger {
+
+    <T> T call(Supplier<T> request);
+
+}
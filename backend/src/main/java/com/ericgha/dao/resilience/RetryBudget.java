@@ -0,0 +1,52 @@
+package com.ericgha.dao.resilience;
+
+/**
+ * A global budget for retries, expressed as a percentage of calls.  Every call deposits {@code retryPercent / 100}
+ * into the budget and every retry withdraws {@code 1}.  The balance is capped at {@code maxBalance}, which bounds the
+ * number of retries which may be made in a burst.  The budget starts full.
+ * <p>
+ * During normal operation the occasional retry is always affordable.  When most calls fail, retries are limited to
+ * roughly {@code retryPercent} of traffic instead of multiplying load by the number of attempts.
+ */
+public class RetryBudget {
+
+    private final double depositPerCall;
+    private final double maxBalance;
+    private double balance;
+
+    /**
+     * @param retryPercent percentage of calls which may be retried
+     * @param maxBalance   the maximum number of retries which may be banked
+     * @throws IllegalArgumentException if either argument is negative
+     */
+    public RetryBudget(double retryPercent, double maxBalance) throws IllegalArgumentException {
+        if (retryPercent < 0 || maxBalance < 0) {
+            throw new IllegalArgumentException( "retryPercent and maxBalance cannot be negative." );
+        }
+        this.depositPerCall = retryPercent / 100;
+        this.maxBalance = maxBalance;
+        this.balance = maxBalance;
+    }
+
+    /**
+     * Records a call (not a retry).
+     */
+    public synchronized void deposit() {
+        balance = Math.min( maxBalance, balance + depositPerCall );
+    }
+
+    /**
+     * @return {@code true} if a retry may be made, this is charged against the budget. Else {@code false}.
+     */
+    public synchronized boolean tryWithdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+
+    public synchronized double balance() {
+        return balance;
+    }
+}
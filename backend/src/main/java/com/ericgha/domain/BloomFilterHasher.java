@@ -0,0 +1,89 @@
+package com.ericgha.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * Sizes a Bloom filter for an expected number of insertions and false positive rate, and computes the bit positions
+ * of an event in the filter.
+ * <p>
+ * Positions are derived from two 64 bit hashes (the first 128 bits of the SHA-256 digest of the event) by double
+ * hashing: {@code position_i = (h1 + i * h2) mod numBits}.
+ */
+public class BloomFilterHasher {
+
+    /**
+     * The largest filter, Redis strings (and so {@code SETBIT} offsets) are limited to 2^32 bits.
+     */
+    public static final long MAX_BITS = 1L << 32;
+
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * @param expectedInsertions number of events expected to be added to a filter
+     * @param falsePositiveRate  the desired probability that a filter reports an absent event as present, in
+     *                           {@code (0, 1)}
+     * @throws IllegalArgumentException if an argument is out of range or the filter would exceed {@link #MAX_BITS}
+     */
+    public BloomFilterHasher(long expectedInsertions, double falsePositiveRate) throws IllegalArgumentException {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException( "expectedInsertions must be positive." );
+        }
+        if (!( falsePositiveRate > 0 && falsePositiveRate < 1 )) {
+            throw new IllegalArgumentException( "falsePositiveRate must be in (0, 1)." );
+        }
+        double ln2 = Math.log( 2 );
+        double bits = Math.ceil( -expectedInsertions * Math.log( falsePositiveRate ) / ( ln2 * ln2 ) );
+        if (bits > MAX_BITS) {
+            throw new IllegalArgumentException(
+                    String.format( "A filter of %.0f bits exceeds the maximum of %d bits.", bits, MAX_BITS ) );
+        }
+        this.numBits = (long) bits;
+        this.numHashes = Math.max( 1, (int) Math.round( (double) numBits / expectedInsertions * ln2 ) );
+    }
+
+    /**
+     * @param event
+     * @return the {@link BloomFilterHasher#numHashes()} bit positions of the event, each in {@code [0, numBits)}
+     */
+    public long[] positions(@NonNull String event) {
+        Objects.requireNonNull( event );
+        ByteBuffer digest = ByteBuffer.wrap( sha256().digest( event.getBytes( StandardCharsets.UTF_8 ) ) );
+        long hash1 = digest.getLong();
+        long hash2 = digest.getLong();
+        long[] positions = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            positions[i] = Math.floorMod( hash1 + i * hash2, numBits );
+        }
+        return positions;
+    }
+
+    /**
+     * @return the size of the filter in bits
+     */
+    public long numBits() {
+        return numBits;
+    }
+
+    /**
+     * @return the number of bits set per event
+     */
+    public int numHashes() {
+        return numHashes;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance( "SHA-256" );
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException( "SHA-256 is not available.", e );
+        }
+    }
+}
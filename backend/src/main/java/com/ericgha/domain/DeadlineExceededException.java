@@ -0,0 +1,17 @@
+package com.ericgha.domain;
+
+/**
+ * Thrown when work is abandoned because the {@link RequestDeadline} has passed.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super( message );
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super( message, cause );
+    }
+}
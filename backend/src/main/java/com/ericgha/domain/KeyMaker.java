@@ -2,13 +2,23 @@ package com.ericgha.domain;
 
 import org.springframework.lang.NonNull;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 /**
  * Builds keys (for key value pairs) where all keys are children of a given prefix.  Intended to allow grouping and organization
  * of keys for example in map data structures.
  * <p>
  * Repeated duplicate calls to {@code KeyMaker} should be avoided.  Clients should instead cache results.
+ * <p>
+ * Event keys may optionally embed a fixed width hash of the event rather than the event itself (see
+ * {@link KeyMaker#eventId(String)}), bounding the size of event keys regardless of the size of the event.
  */
 public class KeyMaker {
 
@@ -16,16 +26,33 @@ public class KeyMaker {
     public static final String QUEUE_IDENTIFIER = "QUEUE";
     public static final String EVENT_IDENTIFIER = "EVENT";
     public static final String CLOCK_IDENTIFIER = "CLOCK";
+    public static final String BUCKET_IDENTIFIER = "BUCKET";
+    public static final String BLOOM_IDENTIFIER = "BLOOM";
+    public static final String LEVEL_IDENTIFIER = "LEVEL";
+
+    static final int EVENT_ID_BYTES = 16;
+    private static final Base64.Encoder EVENT_ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
 
     private final String keyPrefix;
+    private final boolean hashEvents;
 
     /**
      *
      * @param keyPrefix parent which all keys made by this should be a child of.
      */
     public KeyMaker(@NonNull String keyPrefix) {
+        this( keyPrefix, false );
+    }
+
+    /**
+     * @param keyPrefix  parent which all keys made by this should be a child of.
+     * @param hashEvents if {@code true} event keys embed the {@link KeyMaker#eventId(String)} of the event rather than
+     *                   the event.
+     */
+    public KeyMaker(@NonNull String keyPrefix, boolean hashEvents) {
         Objects.requireNonNull(keyPrefix);
         this.keyPrefix = keyPrefix;
+        this.hashEvents = hashEvents;
     }
 
     /**
@@ -60,13 +87,96 @@ public class KeyMaker {
 
     /**
      * gernerates an event with the format {@code $keyPrefix:$EVENT_IDENTIFIER:$event} for
-     * a {@code KEY_DELIMITER=":"}
+     * a {@code KEY_DELIMITER=":"}.  If events are hashed the format is {@code $keyPrefix:$EVENT_IDENTIFIER:$eventId}.
      * @param event
      * @return
      */
     public String generateEventKey(@NonNull String event) {
         Objects.requireNonNull( event );
-        return encodeKey(EVENT_IDENTIFIER, event);
+        return encodeKey(EVENT_IDENTIFIER, generateEventField( event ));
+    }
+
+    /**
+     * Identifies an event within a data structure already scoped to the {@code keyPrefix} (i.e. a hash field).  The
+     * {@link KeyMaker#eventId(String)} if events are hashed, otherwise the event.
+     * @param event
+     * @return
+     */
+    public String generateEventField(@NonNull String event) {
+        Objects.requireNonNull( event );
+        return hashEvents ? eventId( event ) : event;
+    }
+
+    /**
+     * Generates a bucket key with the format {@code $keyPrefix:$BUCKET_IDENTIFIER:$bucket}
+     * @param bucket index of the bucket
+     * @return
+     */
+    public String generateBucketKey(long bucket) {
+        return encodeKey(BUCKET_IDENTIFIER, Long.toString( bucket ));
+    }
+
+    /**
+     * Generates a Bloom filter key with the format {@code $keyPrefix:$BLOOM_IDENTIFIER:$window}
+     * @param window index of the window the filter covers
+     * @return
+     */
+    public String generateFilterKey(long window) {
+        return encodeKey(BLOOM_IDENTIFIER, Long.toString( window ));
+    }
+
+    /**
+     * Generates a key for each level of a structured event, whose segments are separated by {@code delimiter}.  Level
+     * {@code i} is identified by the first {@code i + 1} segments of the event, with the format
+     * {@code $keyPrefix:$LEVEL_IDENTIFIER:$levelName:$segments}.  (ex. the event {@code "acme/alice/login"} with
+     * levels {@code {"tenant", "user"}} has the keys {@code $keyPrefix:LEVEL:tenant:acme} and
+     * {@code $keyPrefix:LEVEL:user:acme/alice}).  If events are hashed the segments are replaced by their
+     * {@link KeyMaker#eventId(String)}.
+     * @param event     a structured event
+     * @param delimiter separates segments of the event
+     * @param levelNames name of each level, from the broadest level
+     * @return a key for each level, in the order of {@code levelNames}
+     * @throws IllegalArgumentException if the event has fewer segments than there are levels
+     */
+    public List<String> generateLevelKeys(@NonNull String event, @NonNull String delimiter,
+                                          @NonNull List<String> levelNames) throws IllegalArgumentException {
+        Objects.requireNonNull( event );
+        String[] segments = event.split( Pattern.quote( delimiter ), levelNames.size() + 1 );
+        if (segments.length < levelNames.size()) {
+            throw new IllegalArgumentException( "Event has fewer segments than there are levels." );
+        }
+        String[] levelKeys = new String[levelNames.size()];
+        StringBuilder path = new StringBuilder();
+        for (int level = 0; level < levelNames.size(); level++) {
+            if (level > 0) {
+                path.append( delimiter );
+            }
+            path.append( segments[level] );
+            levelKeys[level] = encodeKey( LEVEL_IDENTIFIER, levelNames.get( level ),
+                                          generateEventField( path.toString() ) );
+        }
+        return List.of( levelKeys );
+    }
+
+    /**
+     * A fixed width identifier for an event: the first 128 bits of the SHA-256 digest of the event's UTF-8 bytes,
+     * encoded as unpadded base64url (22 characters).
+     * @param event
+     * @return the event id
+     */
+    public static String eventId(@NonNull String event) {
+        Objects.requireNonNull( event );
+        byte[] digest = sha256().digest( event.getBytes( StandardCharsets.UTF_8 ) );
+        return EVENT_ID_ENCODER.encodeToString( Arrays.copyOf( digest, EVENT_ID_BYTES ) );
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance( "SHA-256" );
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException( "SHA-256 is not available.", e );
+        }
     }
 
     /**
@@ -76,4 +186,11 @@ public class KeyMaker {
     public String keyPrefix() {
         return this.keyPrefix;
     }
+
+    /**
+     * @return {@code true} if event keys embed a hash of the event rather than the event.
+     */
+    public boolean hashEvents() {
+        return this.hashEvents;
+    }
 }
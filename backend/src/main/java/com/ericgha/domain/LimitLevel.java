@@ -0,0 +1,41 @@
+package com.ericgha.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Objects;
+
+/**
+ * A level of a hierarchical rate limit: {@code limit} events per {@code periodMilli}, with bursts of up to
+ * {@code burst} events.
+ *
+ * @param name        identifies the level (i.e. {@code "tenant"})
+ * @param limit       sustained number of events per {@code periodMilli}
+ * @param periodMilli the period {@code limit} applies to
+ * @param burst       number of events which may be accepted at once, must be at least 1
+ */
+public record LimitLevel(@NonNull String name, long limit, long periodMilli, long burst) {
+
+    /**
+     * @throws IllegalArgumentException if any of {@code limit}, {@code periodMilli} or {@code burst} are not positive
+     */
+    public LimitLevel {
+        Objects.requireNonNull( name, "Received a null name." );
+        if (limit <= 0 || periodMilli <= 0 || burst <= 0) {
+            throw new IllegalArgumentException( "limit, periodMilli and burst must be positive." );
+        }
+    }
+
+    /**
+     * @return {@code periodMilli / limit} rounded up to the nearest millisecond, so the limit is never exceeded
+     */
+    public long emissionIntervalMilli() {
+        return ( periodMilli + limit - 1 ) / limit;
+    }
+
+    /**
+     * @return how far ahead of the sustained rate events may arrive
+     */
+    public long burstToleranceMilli() {
+        return emissionIntervalMilli() * ( burst - 1 );
+    }
+}
@@ -0,0 +1,73 @@
+package com.ericgha.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Holds the deadline of the request being handled by the current thread.  Once the deadline has passed nobody is
+ * waiting for the result of the request, so work on its behalf (i.e. calls or retries to the database) should be
+ * abandoned.
+ * <p>
+ * A thread without a deadline never expires.  Deadlines are not inherited by other threads.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_MILLI = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Sets the deadline for the current thread.
+     *
+     * @param deadlineMilli epoch time in milliseconds
+     */
+    public static void set(long deadlineMilli) {
+        DEADLINE_MILLI.set( deadlineMilli );
+    }
+
+    /**
+     * Removes the deadline of the current thread.
+     */
+    public static void clear() {
+        DEADLINE_MILLI.remove();
+    }
+
+    /**
+     * @return {@code true} if the current thread has a deadline and it has passed, else {@code false}
+     */
+    public static boolean isExpired() {
+        Long deadlineMilli = DEADLINE_MILLI.get();
+        return Objects.nonNull( deadlineMilli ) && deadlineMilli <= Instant.now().toEpochMilli();
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline of the current thread has passed.
+     */
+    public static void check() throws DeadlineExceededException {
+        if (isExpired()) {
+            throw new DeadlineExceededException( "The request deadline has passed." );
+        }
+    }
+
+    /**
+     * Runs {@code work} without the deadline of the current thread, then restores the deadline.  For work which must
+     * complete once started, e.g. the writes which follow the first committed write of a request.
+     *
+     * @param work the work
+     * @param <T>  type of the result
+     * @return the result of {@code work}
+     */
+    public static <T> T suspend(Supplier<T> work) {
+        Long deadlineMilli = DEADLINE_MILLI.get();
+        DEADLINE_MILLI.remove();
+        try {
+            return work.get();
+        } finally {
+            if (Objects.nonNull( deadlineMilli )) {
+                DEADLINE_MILLI.set( deadlineMilli );
+            }
+        }
+    }
+}
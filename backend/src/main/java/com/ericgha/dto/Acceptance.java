@@ -0,0 +1,19 @@
+package com.ericgha.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+/**
+ * The status of an event and, if it was rejected by a rate limit, when it may be retried and the level which rejected
+ * it.
+ *
+ * @param status          the status returned by the rate limiter
+ * @param retryAfterMilli time until an identical event would be allowed, {@code 0} unless the status is 409 Conflict
+ * @param rejectedLevel   name of the rejecting level, {@code null} unless a multi level limit rejected the event
+ */
+public record Acceptance(HttpStatus status, long retryAfterMilli, @Nullable String rejectedLevel) {
+
+    public static Acceptance of(HttpStatus status) {
+        return new Acceptance( status, 0, null );
+    }
+}
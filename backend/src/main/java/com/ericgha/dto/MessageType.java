@@ -2,6 +2,6 @@ package com.ericgha.dto;
 
 public enum MessageType {
 
-    KEY_FRAME, SUBMITTED_EVENT, PUBLISHED_EVENT, INVALIDATED_EVENT
+    KEY_FRAME, KEY_FRAME_PAGE, DELTA_FRAME, DELTA_BATCH, SUBMITTED_EVENT, PUBLISHED_EVENT, INVALIDATED_EVENT
 
 }
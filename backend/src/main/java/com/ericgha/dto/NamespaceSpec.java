@@ -0,0 +1,26 @@
+package com.ericgha.dto;
+
+/**
+ * Defines a limiter namespace created at runtime.
+ *
+ * @param prefix             identifies the namespace, its keys and message destination
+ * @param mode               how conflicting events are handled
+ * @param eventDurationMilli duration of events
+ * @param maxEvents          the approximate maximum number of queued events
+ */
+public record NamespaceSpec(String prefix, Mode mode, long eventDurationMilli, long maxEvents) {
+
+    /**
+     * Queue backed modes a namespace may use.
+     */
+    public enum Mode {
+        /**
+         * The first event is accepted, identical events are rejected until it ends.
+         */
+        ONLY_ONCE,
+        /**
+         * Overlapping identical events invalidate each other.
+         */
+        STRICTLY_ONCE
+    }
+}
@@ -0,0 +1,27 @@
+package com.ericgha.dto;
+
+/**
+ * The outcome of a rate limiting decision.
+ *
+ * @param allowed         if the event conformed to the rate limit
+ * @param clock           scalar version clock of an allowed event, {@code 0} if not allowed
+ * @param retryAfterMilli time until an identical event would be allowed, {@code 0} if allowed
+ * @param rejectedLevel   index of the limit level which rejected the event ({@code 0} for a single level limit),
+ *                        {@link RateLimitDecision#NO_LEVEL} if allowed
+ */
+public record RateLimitDecision(boolean allowed, long clock, long retryAfterMilli, int rejectedLevel) {
+
+    public static final int NO_LEVEL = -1;
+
+    public static RateLimitDecision allowed(long clock) {
+        return new RateLimitDecision( true, clock, 0, NO_LEVEL );
+    }
+
+    public static RateLimitDecision rejected(long retryAfterMilli) {
+        return rejected( retryAfterMilli, 0 );
+    }
+
+    public static RateLimitDecision rejected(long retryAfterMilli, int rejectedLevel) {
+        return new RateLimitDecision( false, 0, retryAfterMilli, rejectedLevel );
+    }
+}
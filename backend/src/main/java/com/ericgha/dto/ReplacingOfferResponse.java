@@ -0,0 +1,13 @@
+package com.ericgha.dto;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The outcome of offering an element which replaces the pending element for its event.
+ *
+ * @param clock     scalar version clock of the offer
+ * @param queueSize size of the queue after the offer
+ * @param replaced  the replaced element, versioned by the clock of its removal, {@code null} if nothing was pending
+ */
+public record ReplacingOfferResponse(long clock, long queueSize, @Nullable Versioned<EventTime> replaced) {
+}
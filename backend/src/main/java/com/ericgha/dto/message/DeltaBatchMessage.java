@@ -0,0 +1,30 @@
+package com.ericgha.dto.message;
+
+import com.ericgha.dto.MessageType;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * A DTO for a batch of event status messages sent to one destination, in clock order.  Subscribers should apply the
+ * {@code messages} in order, as if each had been received on its own.
+ *
+ * @param fromClock clock of the first message
+ * @param clock     clock of the last message
+ * @param messages  the messages, in clock order
+ */
+public record DeltaBatchMessage(long fromClock, long clock,
+                                @NonNull List<EventStatusMessageInterface> messages) implements MessageInterface {
+
+    public static final MessageType MESSAGE_TYPE = MessageType.DELTA_BATCH;
+
+    @Override
+    public MessageType messageType() {
+        return MESSAGE_TYPE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "DeltaBatchMessage{fromClock=%d, clock=%d, messages=%s}", fromClock, clock, messages );
+    }
+}
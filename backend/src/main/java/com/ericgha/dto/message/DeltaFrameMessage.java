@@ -0,0 +1,35 @@
+package com.ericgha.dto.message;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.MessageType;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * A DTO for Delta Frames.  A Delta Frame is the difference between snapshots of the Event Queue at {@code baseClock}
+ * and {@code clock} (see {@link KeyFrameMessage}).  It may only be applied to the frame at {@code baseClock}, a
+ * subscriber holding any other frame should wait for the next Key Frame.
+ *
+ * @param baseClock clock of the frame this delta applies to
+ * @param clock     clock of the frame resulting from this delta
+ * @param added     entries added since {@code baseClock}, in queue order
+ * @param removed   entries removed since {@code baseClock}
+ */
+public record DeltaFrameMessage(long baseClock, long clock, @NonNull List<EventStatus> added,
+                                @NonNull List<EventTime> removed) implements MessageInterface {
+
+    public static final MessageType MESSAGE_TYPE = MessageType.DELTA_FRAME;
+
+    @Override
+    public MessageType messageType() {
+        return MESSAGE_TYPE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "DeltaFrameMessage{baseClock=%d, clock=%d, added=%s, removed=%s}", baseClock, clock,
+                              added, removed );
+    }
+}
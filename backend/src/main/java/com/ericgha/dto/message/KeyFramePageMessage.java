@@ -0,0 +1,33 @@
+package com.ericgha.dto.message;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.MessageType;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * A DTO for one page of a Key Frame (see {@link KeyFrameMessage}).  A Key Frame sent in pages is complete once pages
+ * {@code 0} through {@code numPages - 1} with the same {@code clock} have been received.
+ *
+ * @param clock    clock of the Key Frame
+ * @param page     index of this page, from {@code 0}
+ * @param numPages number of pages in the Key Frame
+ * @param snapshot entries of this page, in queue order
+ */
+public record KeyFramePageMessage(long clock, int page, int numPages,
+                                  @NonNull List<EventStatus> snapshot) implements MessageInterface {
+
+    public static final MessageType MESSAGE_TYPE = MessageType.KEY_FRAME_PAGE;
+
+    @Override
+    public MessageType messageType() {
+        return MESSAGE_TYPE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "KeyFramePageMessage{clock=%d, page=%d, numPages=%d, snapshot=%s}", clock, page,
+                              numPages, snapshot );
+    }
+}
@@ -0,0 +1,203 @@
+package com.ericgha.service;
+
+import com.ericgha.dto.message.DeltaBatchMessage;
+import com.ericgha.dto.message.EventStatusMessageInterface;
+import com.ericgha.dto.message.MessageInterface;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.MessagePostProcessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SimpMessagingTemplate} which coalesces event status messages ({@link EventStatusMessageInterface}) sent to
+ * a destination.  Messages are gathered for {@code windowMilli} after the first message of a batch, or until
+ * {@code maxMessages} are gathered, and sent as one {@link DeltaBatchMessage} in clock order.  A batch of one message
+ * is sent as that message.
+ * <p>
+ * Any other message sent to a destination (e.g. a key frame) is sent after the messages batched before it.  Messages
+ * sent with headers or a post processor are never batched.
+ * <p>
+ * Each destination is batched and sent independently.  Adding a message only briefly holds its destination's batch,
+ * batches are converted and sent outside of it.
+ * <p>
+ * Conversions of {@link MessageInterface}s are recorded by {@link ConversionMetrics}, if set.
+ */
+public class BatchingMessagingTemplate extends SimpMessagingTemplate {
+
+    private final Logger log;
+    private final long windowMilli;
+    private final int maxMessages;
+    private final ScheduledExecutorService executor;
+    // one per destination ever batched
+    private final Map<String, Batch> batches;
+    @Nullable
+    private volatile ConversionMetrics conversionMetrics;
+
+    /**
+     * The converter and other settings of the template are set as for {@link SimpMessagingTemplate}.
+     *
+     * @param messageChannel channel messages are sent to
+     * @param windowMilli    how long messages are gathered after the first message of a batch
+     * @param maxMessages    the maximum number of messages in a batch
+     * @throws IllegalArgumentException if {@code windowMilli <= 0} or {@code maxMessages <= 0}
+     */
+    public BatchingMessagingTemplate(@NonNull MessageChannel messageChannel, long windowMilli,
+                                     int maxMessages) throws IllegalArgumentException {
+        super( messageChannel );
+        if (windowMilli <= 0 || maxMessages <= 0) {
+            throw new IllegalArgumentException( "windowMilli and maxMessages must be positive." );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        this.windowMilli = windowMilli;
+        this.maxMessages = maxMessages;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.batches = new ConcurrentHashMap<>();
+        this.conversionMetrics = null;
+    }
+
+    /**
+     * Sets the metrics conversions are recorded by.
+     *
+     * @param conversionMetrics the metrics, {@code null} for none (default)
+     */
+    public void conversionMetrics(@Nullable ConversionMetrics conversionMetrics) {
+        this.conversionMetrics = conversionMetrics;
+    }
+
+    @Override
+    public void convertAndSend(@NonNull String destination, @NonNull Object payload,
+                               @Nullable Map<String, Object> headers, @Nullable MessagePostProcessor postProcessor) {
+        if (payload instanceof EventStatusMessageInterface message && Objects.isNull( headers )
+                && Objects.isNull( postProcessor )) {
+            batch( destination, message );
+            return;
+        }
+        super.convertAndSend( destination, payload, headers, postProcessor );
+    }
+
+    @Override
+    protected void doSend(@NonNull String destination, @NonNull Message<?> message) {
+        Batch batch = batches.get( destination );
+        if (Objects.isNull( batch )) {
+            super.doSend( destination, message );
+            return;
+        }
+        // the message must follow the messages batched before it
+        synchronized (batch.sendLock) {
+            send( destination, batch );
+            super.doSend( destination, message );
+        }
+    }
+
+    @Override
+    @NonNull
+    protected Message<?> doConvert(@NonNull Object payload, @Nullable Map<String, Object> headers,
+                                   @Nullable MessagePostProcessor postProcessor) {
+        ConversionMetrics conversionMetrics = this.conversionMetrics;
+        if (Objects.isNull( conversionMetrics ) || !(payload instanceof MessageInterface message)) {
+            return super.doConvert( payload, headers, postProcessor );
+        }
+        return conversionMetrics.record( message.messageType(),
+                                         () -> super.doConvert( payload, headers, postProcessor ),
+                                         BatchingMessagingTemplate::size );
+    }
+
+    private static int size(Message<?> message) {
+        return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+    }
+
+    private void batch(String destination, EventStatusMessageInterface message) {
+        Batch batch = batches.computeIfAbsent( destination, key -> new Batch() );
+        boolean first;
+        boolean full;
+        synchronized (batch.lock) {
+            first = batch.messages.isEmpty();
+            batch.messages.add( message );
+            full = batch.messages.size() >= maxMessages;
+        }
+        if (first) {
+            // if this batch fills first, this flushes the next batch early, which is harmless
+            executor.schedule( () -> flush( destination ), windowMilli, TimeUnit.MILLISECONDS );
+        }
+        if (full) {
+            flush( destination );
+        }
+    }
+
+    /**
+     * Sends the messages batched for {@code destination}, if any.
+     *
+     * @param destination the destination
+     */
+    public void flush(String destination) {
+        Batch batch = batches.get( destination );
+        if (Objects.isNull( batch )) {
+            return;
+        }
+        synchronized (batch.sendLock) {
+            send( destination, batch );
+        }
+    }
+
+    // requires the batch's sendLock
+    private void send(String destination, Batch batch) {
+        List<EventStatusMessageInterface> messages;
+        synchronized (batch.lock) {
+            if (batch.messages.isEmpty()) {
+                return;
+            }
+            messages = batch.messages;
+            batch.messages = new ArrayList<>();
+        }
+        try {
+            sendBatch( destination, messages );
+        } catch (Exception e) {
+            log.warn( "Batch of {} messages to: {} failed.", messages.size(), destination, e );
+        }
+    }
+
+    private void sendBatch(String destination, List<EventStatusMessageInterface> batch) {
+        if (batch.size() == 1) {
+            super.convertAndSend( destination, batch.get( 0 ), null, null );
+            return;
+        }
+        // concurrent senders may add messages out of clock order
+        batch.sort( Comparator.comparingLong( EventStatusMessageInterface::clock ) );
+        DeltaBatchMessage batchMessage = new DeltaBatchMessage( batch.get( 0 ).clock(),
+                                                                batch.get( batch.size() - 1 ).clock(), batch );
+        super.convertAndSend( destination, batchMessage, null, null );
+    }
+
+    /**
+     * Sends every batch and stops the timer.
+     */
+    @PreDestroy
+    public void stop() {
+        batches.keySet().forEach( this::flush );
+        executor.shutdownNow();
+    }
+
+    private static class Batch {
+
+        // guards messages, only held to add or take messages
+        private final Object lock = new Object();
+        // held while sending, so that messages to the destination are sent in order
+        private final Object sendLock = new Object();
+        private List<EventStatusMessageInterface> messages = new ArrayList<>();
+    }
+}
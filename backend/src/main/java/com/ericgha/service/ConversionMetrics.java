@@ -0,0 +1,96 @@
+package com.ericgha.service;
+
+import com.ericgha.dto.MessageType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Publishes, for each {@link MessageType}, the CPU time spent converting a message to its payload
+ * ({@code stomp.message.conversion}), the size of the payload ({@code stomp.message.size}) and the number of sessions
+ * sent one converted payload ({@code stomp.message.fan-out}).  All meters are tagged with the {@code type}.
+ * <p>
+ * CPU time is the time of the converting thread.  Where it is unavailable (e.g. on a virtual thread) elapsed time is
+ * recorded instead.  Nothing is recorded until bound to a registry.
+ */
+public class ConversionMetrics implements MeterBinder {
+
+    private static final String TYPE = "type";
+
+    private final ThreadMXBean threadMXBean;
+    private volatile MeterRegistry registry;
+
+    public ConversionMetrics() {
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.registry = null;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Converts a message, recording the conversion.
+     *
+     * @param type       type of the message converted
+     * @param conversion converts the message
+     * @param size       size of the payload in bytes
+     * @param <T>        type of the payload
+     * @return the payload
+     */
+    public <T> T record(MessageType type, Supplier<T> conversion, ToIntFunction<T> size) {
+        MeterRegistry registry = this.registry;
+        if (Objects.isNull( registry )) {
+            return conversion.get();
+        }
+        long startCpu = cpuTime();
+        long startNanos = System.nanoTime();
+        T payload = conversion.get();
+        long endCpu = cpuTime();
+        long nanos = startCpu >= 0 && endCpu >= 0 ? endCpu - startCpu : System.nanoTime() - startNanos;
+        Timer.builder( "stomp.message.conversion" )
+                .description( "CPU time converting a message to its payload" )
+                .tag( TYPE, type.name() )
+                .register( registry )
+                .record( nanos, TimeUnit.NANOSECONDS );
+        DistributionSummary.builder( "stomp.message.size" )
+                .baseUnit( "bytes" )
+                .tag( TYPE, type.name() )
+                .register( registry )
+                .record( size.applyAsInt( payload ) );
+        return payload;
+    }
+
+    // -1 if unavailable
+    private long cpuTime() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Records the number of sessions sent one converted payload.
+     *
+     * @param type     type of the message sent
+     * @param sessions number of sessions
+     */
+    public void fanOut(MessageType type, int sessions) {
+        MeterRegistry registry = this.registry;
+        if (Objects.isNull( registry )) {
+            return;
+        }
+        DistributionSummary.builder( "stomp.message.fan-out" )
+                .baseUnit( "sessions" )
+                .tag( TYPE, type.name() )
+                .register( registry )
+                .record( sessions );
+    }
+}
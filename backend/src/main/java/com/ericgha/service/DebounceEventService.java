@@ -0,0 +1,93 @@
+package com.ericgha.service;
+
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.ReplacingOfferResponse;
+import com.ericgha.dto.Versioned;
+import com.ericgha.dto.message.InvalidatedEventMessage;
+import com.ericgha.dto.message.SubmittedEventMessage;
+import com.ericgha.service.data.EventQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Objects;
+
+/**
+ * A trailing edge debouncer.  Each event replaces the event pending for the same key, so a burst of identical events
+ * is published once: {@code eventDurationMilli} after the last event of the burst.  State is a single pointer per
+ * event, and the queue holds at most one pending event per key.
+ * <p>
+ * Events are never rejected for conflicting.  A replaced event is announced with an {@link InvalidatedEventMessage}
+ * before the {@link SubmittedEventMessage} of its replacement.
+ */
+public class DebounceEventService implements RateLimiter {
+
+    private final Logger log;
+    private final String messagePrefix;
+    private final long maxEvents;
+    private final long eventDurationMilli;
+    private final SimpMessagingTemplate msgTemplate;
+    private final EventQueueService queueService;
+    private final KeyMaker keyMaker;
+
+    /**
+     * @param messagePrefix      where messages should be sent
+     * @param maxEvents          the approximate maximum size of the queue
+     * @param eventDurationMilli quiet period after the last event of a burst before it is published
+     * @param msgTemplate        the template used for messaging
+     * @param queueService       a queue with {@link com.ericgha.dao.EventQueue.Ordering#SCHEDULED} ordering, polled
+     *                           with a delay of {@code eventDurationMilli}
+     * @param keyMaker           makes the pointer keys of events
+     * @throws IllegalArgumentException if {@code eventDurationMilli} is not positive
+     */
+    public DebounceEventService(String messagePrefix, long maxEvents, long eventDurationMilli,
+                                SimpMessagingTemplate msgTemplate, EventQueueService queueService,
+                                KeyMaker keyMaker) throws IllegalArgumentException {
+        if (eventDurationMilli <= 0) {
+            throw new IllegalArgumentException( "eventDurationMilli must be positive." );
+        }
+        this.log = LoggerFactory.getLogger( String.format( "%s:%s", this.getClass().getName(), keyMaker.keyPrefix() ) );
+        this.messagePrefix = messagePrefix;
+        this.maxEvents = maxEvents;
+        this.eventDurationMilli = eventDurationMilli;
+        this.msgTemplate = msgTemplate;
+        this.queueService = queueService;
+        this.keyMaker = keyMaker;
+    }
+
+    /**
+     * @param eventTime event to accept.
+     * @return 507 InsufficientStorage: if queued events >= {@code maxEvents}, 201 Created: if the event is pending, 408
+     * Request Timeout: if the request deadline passed, 503 Service Unavailable: any error occurs.
+     */
+    @Override
+    public HttpStatus acceptEvent(EventTime eventTime) {
+        if (queueService.approxSize() >= maxEvents) {
+            return HttpStatus.INSUFFICIENT_STORAGE;
+        }
+        ReplacingOfferResponse response;
+        try {
+            RequestDeadline.check();
+            response = queueService.offerReplacing( eventTime, keyMaker.generateEventKey( eventTime.event() ),
+                                                    eventTime.time() + eventDurationMilli );
+        } catch (DeadlineExceededException e) {
+            log.debug( "Abandoned {}, the request deadline passed.", eventTime );
+            return HttpStatus.REQUEST_TIMEOUT;
+        } catch (Exception e) {
+            log.info( "Encountered an error while accepting: {}", eventTime );
+            log.debug( "Error while accepting {}: {}", eventTime, e );
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        Versioned<EventTime> replaced = response.replaced();
+        if (Objects.nonNull( replaced )) {
+            msgTemplate.convertAndSend( messagePrefix, new InvalidatedEventMessage( replaced.clock(),
+                                                                                    replaced.data() ) );
+        }
+        msgTemplate.convertAndSend( messagePrefix, new SubmittedEventMessage( response.clock(), eventTime ) );
+        return HttpStatus.CREATED;
+    }
+}
@@ -3,6 +3,8 @@ package com.ericgha.service;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.Versioned;
 import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.data.EventQueueView;
+import com.ericgha.service.snapshot_consumer.PagedSnapshotConsumer;
 import com.ericgha.service.snapshot_consumer.SnapshotConsumer;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
@@ -11,24 +13,61 @@ import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * A service which makes periodic snapshots of an {@link EventQueueService}.
+ * <p>
+ * If a page size is set ({@link EventQueueSnapshotService#pageSize(int)}) and the consumer is a
+ * {@link PagedSnapshotConsumer}, the queue is copied and the copy read and delivered in pages of at most
+ * {@code pageSize} events, every page consistent with the clock of the copy.  This bounds the size of a reply and of
+ * the data held by the consumer at any one time.
+ * <p>
+ * If a view is used ({@link EventQueueSnapshotService#viewReconcileEvery(int)}), snapshots are taken from the
+ * {@link EventQueueView} of the queue, and only every {@code reconcileEvery}'th snapshot reads the database to reconcile
+ * the view.  Snapshots then reflect the offers and polls of other nodes only as of the last reconciliation.
+ * <p>
+ * If unchanged snapshots are skipped ({@link EventQueueSnapshotService#skipUnchanged(boolean)}), the clock is read
+ * (without incrementing it) before each snapshot, and no snapshot is taken if it has not moved since the last snapshot.
+ * Reads of the queue advance the clock, so only this service's own reads are discounted, reads by other nodes appear
+ * as changes.
+ * <p>
+ * If the period is adaptive ({@link EventQueueSnapshotService#adaptivePeriod(int, long)}) snapshots are taken up to
+ * {@code speedup} times per period.  The interval is halved after a snapshot with at least {@code busyChanges} clock
+ * increments since the previous one, and doubled (up to the period) after a quieter or skipped snapshot.
  */
 public class EventQueueSnapshotService {
 
+    // the copy is deleted once read, this only bounds how long it may be left if reading fails
+    static final long COPY_EXPIRY_MILLI = 60_000;
+
     private final Logger log;
     private final EventQueueService eventQueueService;
+    private final String copyKey;
+    private volatile int pageSize;
+    private volatile int reconcileEvery;
+    private volatile Supplier<Versioned<List<EventTime>>> snapshotReader;
+    private int sinceReconcile;
+    private volatile boolean skipUnchanged;
+    private volatile int speedup;
+    private volatile long busyChanges;
+    // only accessed by snapshots, which never overlap
+    private long lastClock;
+    private int intervalTicks;
+    private int sinceSnapshot;
     private long periodMilli;
     private boolean isRunning;
     @Nullable
     private SnapshotConsumer snapshotConsumer;
     @Nullable
     private ScheduledExecutorService executorService;
+    private boolean ownsExecutor;
     @Nullable
     private Runnable canceler;
 
@@ -38,10 +77,132 @@ public class EventQueueSnapshotService {
     public EventQueueSnapshotService(@NonNull EventQueueService eventQueueService) {
         this.log = LoggerFactory.getLogger( this.getClass().getName() );
         this.eventQueueService = eventQueueService;
+        // unique to this instance, other instances may be snapshotting the same queue
+        this.copyKey = eventQueueService.queueKey() + ":snapshot:" + UUID.randomUUID();
+        this.pageSize = 0;
+        this.reconcileEvery = 0;
+        this.snapshotReader = eventQueueService::getAll;
+        this.sinceReconcile = 0;
+        this.skipUnchanged = false;
+        this.speedup = 1;
+        this.busyChanges = Long.MAX_VALUE;
         this.periodMilli = Long.MAX_VALUE;
         this.isRunning = false;
     }
 
+    /**
+     * @return current page size, {@code 0} if snapshots are not paged.  Default {@code 0}.
+     */
+    public int pageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Sets the maximum number of events delivered per page, see {@link PagedSnapshotConsumer}.
+     *
+     * @param pageSize the page size, {@code 0} to take each snapshot in one read
+     * @throws IllegalArgumentException if {@code pageSize < 0}
+     */
+    public void pageSize(int pageSize) throws IllegalArgumentException {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException( "pageSize must not be negative." );
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return how often the view is reconciled, {@code 0} if no view is used.  Default {@code 0}.
+     */
+    public int viewReconcileEvery() {
+        return this.reconcileEvery;
+    }
+
+    /**
+     * Take snapshots from a view of the queue, reconciling the view with the database every {@code reconcileEvery}
+     * snapshots.  A view is set on the {@link EventQueueService} if it has none, views only see offers and polls made
+     * after they are set.
+     *
+     * @param reconcileEvery reconcile every {@code reconcileEvery} snapshots, {@code 0} to read every snapshot from the
+     *                       database
+     * @throws IllegalArgumentException if {@code reconcileEvery < 0}
+     */
+    public synchronized void viewReconcileEvery(int reconcileEvery) throws IllegalArgumentException {
+        if (reconcileEvery < 0) {
+            throw new IllegalArgumentException( "reconcileEvery must not be negative." );
+        }
+        if (reconcileEvery > 0 && Objects.isNull( eventQueueService.view() )) {
+            eventQueueService.setView( new EventQueueView( eventQueueService.ordering() ) );
+        }
+        this.reconcileEvery = reconcileEvery;
+    }
+
+    /**
+     * Sets how snapshots are read from the database, e.g. to read a snapshot together with the data its consumer maps
+     * it with ({@link com.ericgha.service.snapshot_mapper.ToSnapshotStatusPrefetched#read()}).  Paged snapshots are
+     * always read from a copy of the queue.  Default {@link EventQueueService#getAll()}.
+     *
+     * @param snapshotReader reads every event on the queue of this
+     */
+    public void snapshotReader(@NonNull Supplier<Versioned<List<EventTime>>> snapshotReader) {
+        this.snapshotReader = Objects.requireNonNull( snapshotReader, "Received a null snapshotReader." );
+    }
+
+    /**
+     * @return if snapshots are skipped while the queue is unchanged.  Default {@code false}.
+     */
+    public boolean skipUnchanged() {
+        return this.skipUnchanged;
+    }
+
+    /**
+     * Sets if snapshots are skipped while the clock of the queue has not moved since the last snapshot.  Consumers then
+     * receive no snapshot while the queue is idle, so clients which join must be sent a key frame another way (i.e.
+     * {@link SubscribeKeyFrameService}).
+     *
+     * @param skipUnchanged
+     */
+    public void skipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * @return the maximum number of snapshots per period, {@code 1} if the period is fixed.  Default {@code 1}.
+     */
+    public int speedup() {
+        return this.speedup;
+    }
+
+    /**
+     * Adapts the interval between snapshots to the rate of changes to the queue, between {@code periodMilli} and
+     * {@code periodMilli / speedup}.  Takes effect when this is next run.
+     *
+     * @param speedup     the maximum number of snapshots per period, {@code 1} for a fixed period
+     * @param busyChanges clock increments between snapshots at or above which the interval is shortened
+     * @throws IllegalArgumentException if {@code speedup <= 0} or {@code busyChanges <= 0}
+     */
+    public void adaptivePeriod(int speedup, long busyChanges) throws IllegalArgumentException {
+        if (speedup <= 0 || busyChanges <= 0) {
+            throw new IllegalArgumentException( "speedup and busyChanges must be positive." );
+        }
+        this.speedup = speedup;
+        this.busyChanges = busyChanges;
+    }
+
+    /**
+     * Takes a snapshot outside of the schedule, from the view if one is used and this is running (reconciling it),
+     * otherwise from the database.  The view is not reconciled.
+     *
+     * @return the snapshot
+     * @throws IllegalStateException if an error occurs deserializing the database response
+     */
+    public Versioned<List<EventTime>> currentSnapshot() throws IllegalStateException {
+        EventQueueView view = eventQueueService.view();
+        if (reconcileEvery > 0 && Objects.nonNull( view ) && isRunning()) {
+            return view.snapshot();
+        }
+        return snapshotReader.get();
+    }
+
     /**
      * Start the service.
      *
@@ -51,14 +212,44 @@ public class EventQueueSnapshotService {
      */
     public synchronized void run(long periodMilli,
                                  @NonNull SnapshotConsumer snapshotConsumer) throws IllegalStateException {
+        checkNotRunning();
+        start( periodMilli, snapshotConsumer, Executors.newSingleThreadScheduledExecutor(), true );
+    }
+
+    /**
+     * Start the service, taking snapshots on an executor shared with other services.  The executor is not shut down
+     * when this is stopped.
+     *
+     * @param periodMilli      how often snapshots should be taken
+     * @param snapshotConsumer a consumer of the snapshots
+     * @param executorService  the shared executor
+     * @throws IllegalStateException if the service is already running.
+     */
+    public synchronized void run(long periodMilli, @NonNull SnapshotConsumer snapshotConsumer,
+                                 @NonNull ScheduledExecutorService executorService) throws IllegalStateException {
+        checkNotRunning();
+        start( periodMilli, snapshotConsumer, executorService, false );
+    }
+
+    private void checkNotRunning() throws IllegalStateException {
         if (isRunning) {
             throw new IllegalStateException( "Cannot change state to run, this is already running." );
         }
+    }
+
+    private void start(long periodMilli, SnapshotConsumer snapshotConsumer, ScheduledExecutorService executorService,
+                       boolean ownsExecutor) {
         this.periodMilli = periodMilli;
         this.snapshotConsumer = snapshotConsumer;
-        this.executorService = Executors.newSingleThreadScheduledExecutor();
+        this.executorService = executorService;
+        this.ownsExecutor = ownsExecutor;
         this.isRunning = true;
-        ScheduledFuture<?> futureRunnable = executorService.scheduleAtFixedRate( this::snapshot, 0L, this.periodMilli,
+        this.lastClock = -1;
+        this.intervalTicks = speedup;
+        // the first tick takes a snapshot
+        this.sinceSnapshot = intervalTicks - 1;
+        long tickMilli = Math.max( 1, this.periodMilli / speedup );
+        ScheduledFuture<?> futureRunnable = executorService.scheduleAtFixedRate( this::snapshot, 0L, tickMilli,
                                                                                  TimeUnit.MILLISECONDS );
         this.canceler = () -> futureRunnable.cancel( false );
     }
@@ -90,19 +281,104 @@ public class EventQueueSnapshotService {
         this.canceler.run();
         this.periodMilli = Integer.MAX_VALUE;
         this.snapshotConsumer = null;
-        this.executorService.close();
+        if (ownsExecutor) {
+            this.executorService.close();
+        }
         this.executorService = null;
         this.isRunning = false;
         return true;
     }
 
     private void snapshot() {
+        if (++sinceSnapshot < intervalTicks) {
+            return;
+        }
+        sinceSnapshot = 0;
         try {
-            Versioned<List<EventTime>> versionedEvents = eventQueueService.getAll();
-            snapshotConsumer.accept( versionedEvents.clock(), versionedEvents.data() );
+            EventQueueView view = eventQueueService.view();
+            boolean isViewSnapshot = reconcileEvery > 0 && Objects.nonNull( view );
+            if (skipUnchanged && !changedSinceLastSnapshot( view, isViewSnapshot )) {
+                intervalTicks = Math.min( speedup, intervalTicks * 2 );
+                log.debug( "Snapshot for queue: {} skipped, unchanged.", eventQueueService.queueKey() );
+                return;
+            }
+            long clock;
+            if (isViewSnapshot) {
+                clock = viewSnapshot( view );
+            } else if (pageSize > 0 && snapshotConsumer instanceof PagedSnapshotConsumer pagedConsumer) {
+                clock = pagedSnapshot( pagedConsumer );
+            } else {
+                Versioned<List<EventTime>> versionedEvents = snapshotReader.get();
+                snapshotConsumer.accept( versionedEvents.clock(), versionedEvents.data() );
+                clock = versionedEvents.clock();
+            }
+            adaptInterval( clock );
             log.debug( "Snapshot for queue: {} completed successfully.", eventQueueService.queueKey() );
         } catch (Exception e) {
             log.error( "Snapshot for queue: {} failed with exception: {}", eventQueueService.queueKey(), e );
         }
     }
+
+    // our own snapshot reads advance the clock to lastClock, so an unchanged clock is an unchanged queue
+    private boolean changedSinceLastSnapshot(@Nullable EventQueueView view, boolean isViewSnapshot) {
+        if (lastClock < 0) {
+            return true;
+        }
+        if (isViewSnapshot) {
+            // a reconciliation reads the database, which other nodes may have changed
+            return sinceReconcile == 0 || view.clock() != lastClock;
+        }
+        return eventQueueService.clock() != lastClock;
+    }
+
+    private void adaptInterval(long clock) {
+        // less the increment of this snapshot's read
+        long changes = clock - lastClock - 1;
+        if (lastClock >= 0 && changes >= busyChanges) {
+            intervalTicks = Math.max( 1, intervalTicks / 2 );
+        } else {
+            intervalTicks = Math.min( speedup, intervalTicks * 2 );
+        }
+        lastClock = clock;
+    }
+
+    private long pagedSnapshot(PagedSnapshotConsumer pagedConsumer) {
+        int thisPageSize = pageSize;
+        try {
+            Versioned<Long> versionedSize = eventQueueService.copyTo( copyKey, COPY_EXPIRY_MILLI );
+            long size = versionedSize.data();
+            // an empty queue is one empty page, so that consumers still receive a snapshot
+            int numPages = (int) Math.max( 1, ( size + thisPageSize - 1 ) / thisPageSize );
+            for (int page = 0; page < numPages; page++) {
+                long start = (long) page * thisPageSize;
+                List<EventTime> events = eventQueueService.getCopyRange( copyKey, start, start + thisPageSize - 1 );
+                pagedConsumer.acceptPage( versionedSize.clock(), page, numPages, events );
+            }
+            return versionedSize.clock();
+        } finally {
+            eventQueueService.deleteCopy( copyKey );
+        }
+    }
+
+    private long viewSnapshot(EventQueueView view) {
+        if (sinceReconcile == 0) {
+            // a failed reconciliation is retried on the next snapshot
+            view.reconcile( snapshotReader.get() );
+        }
+        sinceReconcile = ( sinceReconcile + 1 ) % reconcileEvery;
+        Versioned<List<EventTime>> versionedEvents = view.snapshot();
+        List<EventTime> events = versionedEvents.data();
+        int thisPageSize = pageSize;
+        if (thisPageSize > 0 && snapshotConsumer instanceof PagedSnapshotConsumer pagedConsumer) {
+            int numPages = Math.max( 1, ( events.size() + thisPageSize - 1 ) / thisPageSize );
+            for (int page = 0; page < numPages; page++) {
+                int start = page * thisPageSize;
+                List<EventTime> pageEvents = events.subList( start, Math.min( start + thisPageSize, events.size() ) );
+                pagedConsumer.acceptPage( versionedEvents.clock(), page, numPages, pageEvents );
+            }
+        } else {
+            snapshotConsumer.accept( versionedEvents.clock(), events );
+        }
+        return versionedEvents.clock();
+    }
 }
@@ -1,5 +1,7 @@
 package com.ericgha.service;
 
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.RequestDeadline;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.message.SubmittedEventMessage;
 import com.ericgha.service.data.EventMapService;
@@ -44,9 +46,14 @@ public class EventService implements RateLimiter {
     }
 
     /**
+     * The {@link RequestDeadline} is checked before the event is put in the map.  Once put, the event is always offered
+     * to the queue, regardless of the deadline, and once offered the {@link SubmittedEventMessage} is always sent, as
+     * subscribers require it to track the queue.
+     *
      * @param eventTime event to try to add.
      * @return 507 InsufficientStorage: if queued events >= {@code maxEvents}, 503 Service Unavailable: any error occurs,
-     * 201 Created: if event accepted, 409 Conflict: if the {@link EventMapService} rejects the event.
+     * 201 Created: if event accepted, 409 Conflict: if the {@link EventMapService} rejects the event, 408 Request
+     * Timeout: if the request deadline passed.
      * {@code eventDuration}
      */
     @Override
@@ -55,13 +62,18 @@ public class EventService implements RateLimiter {
             return HttpStatus.INSUFFICIENT_STORAGE;
         }
         try {
+            RequestDeadline.check();
             boolean success = mapService.putEvent( eventTime );
             if (success) {
-                long clock = queueService.offer( eventTime );
+                // the event is committed to the map, abandoning the offer would lose it
+                long clock = RequestDeadline.suspend( () -> queueService.offer( eventTime ) );
                 SubmittedEventMessage submittedEventMessage = new SubmittedEventMessage( clock, eventTime );
                 msgTemplate.convertAndSend( messagePrefix, submittedEventMessage );
                 return HttpStatus.CREATED;
             }
+        } catch (DeadlineExceededException e) {
+            log.debug( "Abandoned {}, the request deadline passed.", eventTime );
+            return HttpStatus.REQUEST_TIMEOUT;
         } catch (Exception e) {
             log.info("Encountered an error while accepting: {}", eventTime);
             log.debug("Error while accepting {}: {}", eventTime, e);
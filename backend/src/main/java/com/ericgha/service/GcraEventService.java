@@ -0,0 +1,99 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.GcraMap;
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.Acceptance;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.RateLimitDecision;
+import com.ericgha.dto.message.PublishedEventMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * A {@link RateLimiter} which allows {@code limit} events per {@code periodMilli} for each event, with bursts of up to
+ * {@code burst} events, using the generic cell rate algorithm ({@link GcraMap}).
+ * <p>
+ * Unlike {@link EventService} there is no queue, events are not tracked after they are accepted.  A
+ * {@link PublishedEventMessage} is sent as soon as an event is accepted.
+ */
+public class GcraEventService implements RateLimiter {
+
+    private final Logger log;
+    private final String messagePrefix;
+    private final SimpMessagingTemplate msgTemplate;
+    private final GcraMap gcraMap;
+    private final KeyMaker keyMaker;
+    private final String clockKey;
+    private final long emissionIntervalMilli;
+    private final long burstToleranceMilli;
+
+    /**
+     * The emission interval ({@code periodMilli / limit}) is rounded up to the nearest millisecond, so the limit is
+     * never exceeded.
+     *
+     * @param messagePrefix where {@link PublishedEventMessage}s should be sent
+     * @param msgTemplate   the template used for messaging
+     * @param gcraMap       the map storing rate limiting state
+     * @param keyMaker      makes keys for events and the clock
+     * @param limit         sustained number of events per {@code periodMilli}
+     * @param periodMilli   the period {@code limit} applies to
+     * @param burst         number of events which may be accepted at once, must be at least 1
+     * @throws IllegalArgumentException if any of {@code limit}, {@code periodMilli} or {@code burst} are not positive
+     */
+    public GcraEventService(String messagePrefix, SimpMessagingTemplate msgTemplate, GcraMap gcraMap,
+                            KeyMaker keyMaker, long limit, long periodMilli,
+                            long burst) throws IllegalArgumentException {
+        if (limit <= 0 || periodMilli <= 0 || burst <= 0) {
+            throw new IllegalArgumentException( "limit, periodMilli and burst must be positive." );
+        }
+        this.log = LoggerFactory.getLogger( String.format( "%s:%s", this.getClass().getName(), keyMaker.keyPrefix() ) );
+        this.messagePrefix = messagePrefix;
+        this.msgTemplate = msgTemplate;
+        this.gcraMap = gcraMap;
+        this.keyMaker = keyMaker;
+        this.clockKey = keyMaker.generateClockKey();
+        this.emissionIntervalMilli = ( periodMilli + limit - 1 ) / limit;
+        this.burstToleranceMilli = emissionIntervalMilli * ( burst - 1 );
+    }
+
+    /**
+     * @param eventTime event to try to accept.
+     * @return 201 Created: if event accepted, 409 Conflict: if the event exceeds the rate limit, 408 Request Timeout:
+     * if the request deadline passed, 503 Service Unavailable: any error occurs.
+     */
+    @Override
+    public HttpStatus acceptEvent(EventTime eventTime) {
+        return acceptEventReportingRetry( eventTime ).status();
+    }
+
+    /**
+     * As {@link GcraEventService#acceptEvent}, additionally reporting when a rejected event may be retried.
+     *
+     * @param eventTime event to try to accept.
+     * @return the status and time until a retry would be allowed
+     */
+    public Acceptance acceptEventReportingRetry(EventTime eventTime) {
+        RateLimitDecision decision;
+        try {
+            RequestDeadline.check();
+            decision = gcraMap.tryAcquire( keyMaker.generateEventKey( eventTime.event() ), clockKey, eventTime.time(),
+                                           emissionIntervalMilli, burstToleranceMilli );
+        } catch (DeadlineExceededException e) {
+            log.debug( "Abandoned {}, the request deadline passed.", eventTime );
+            return Acceptance.of( HttpStatus.REQUEST_TIMEOUT );
+        } catch (Exception e) {
+            log.info( "Encountered an error while accepting: {}", eventTime );
+            log.debug( "Error while accepting {}: {}", eventTime, e );
+            return Acceptance.of( HttpStatus.SERVICE_UNAVAILABLE );
+        }
+        if (!decision.allowed()) {
+            return new Acceptance( HttpStatus.CONFLICT, decision.retryAfterMilli(), null );
+        }
+        msgTemplate.convertAndSend( messagePrefix, new PublishedEventMessage( decision.clock(), eventTime ) );
+        return Acceptance.of( HttpStatus.CREATED );
+    }
+}
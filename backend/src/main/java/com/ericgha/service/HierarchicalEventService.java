@@ -0,0 +1,114 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.GcraMap;
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.LimitLevel;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.Acceptance;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.RateLimitDecision;
+import com.ericgha.dto.message.PublishedEventMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+/**
+ * A {@link RateLimiter} enforcing several {@link LimitLevel}s at once (i.e. per tenant and per user).  Events are
+ * structured, their leading segments identify them at each level ({@link KeyMaker#generateLevelKeys}).  An event is
+ * accepted only if every level accepts it, all levels are checked and updated in a single atomic call
+ * ({@link GcraMap#tryAcquireAll}), so a rejection leaves no partial state behind.
+ * <p>
+ * Like {@link GcraEventService} there is no queue, a {@link PublishedEventMessage} is sent as soon as an event is
+ * accepted.
+ */
+public class HierarchicalEventService implements RateLimiter {
+
+    private final Logger log;
+    private final String messagePrefix;
+    private final SimpMessagingTemplate msgTemplate;
+    private final GcraMap gcraMap;
+    private final KeyMaker keyMaker;
+    private final String clockKey;
+    private final String delimiter;
+    private final List<String> levelNames;
+    private final long[] emissionIntervalsMilli;
+    private final long[] burstTolerancesMilli;
+
+    /**
+     * @param messagePrefix where {@link PublishedEventMessage}s should be sent
+     * @param msgTemplate   the template used for messaging
+     * @param gcraMap       the map storing rate limiting state
+     * @param keyMaker      makes keys for each level and the clock
+     * @param delimiter     separates the segments of events
+     * @param levels        limits, from the broadest level
+     * @throws IllegalArgumentException if there are no levels
+     */
+    public HierarchicalEventService(String messagePrefix, SimpMessagingTemplate msgTemplate, GcraMap gcraMap,
+                                    KeyMaker keyMaker, String delimiter,
+                                    List<LimitLevel> levels) throws IllegalArgumentException {
+        if (levels.isEmpty()) {
+            throw new IllegalArgumentException( "Requires at least 1 level." );
+        }
+        this.log = LoggerFactory.getLogger( String.format( "%s:%s", this.getClass().getName(), keyMaker.keyPrefix() ) );
+        this.messagePrefix = messagePrefix;
+        this.msgTemplate = msgTemplate;
+        this.gcraMap = gcraMap;
+        this.keyMaker = keyMaker;
+        this.clockKey = keyMaker.generateClockKey();
+        this.delimiter = delimiter;
+        this.levelNames = levels.stream().map( LimitLevel::name ).toList();
+        this.emissionIntervalsMilli = levels.stream().mapToLong( LimitLevel::emissionIntervalMilli ).toArray();
+        this.burstTolerancesMilli = levels.stream().mapToLong( LimitLevel::burstToleranceMilli ).toArray();
+    }
+
+    /**
+     * @param eventTime event to try to accept.
+     * @return 201 Created: if event accepted, 409 Conflict: if any level rejected the event, 400 Bad Request: if the
+     * event has fewer segments than there are levels, 408 Request Timeout: if the request deadline passed, 503 Service
+     * Unavailable: any error occurs.
+     */
+    @Override
+    public HttpStatus acceptEvent(EventTime eventTime) {
+        return acceptEventReportingLevel( eventTime ).status();
+    }
+
+    /**
+     * As {@link HierarchicalEventService#acceptEvent}, additionally naming the level which rejected the event and
+     * when it may be retried.
+     *
+     * @param eventTime event to try to accept.
+     * @return the status, time until a retry would be allowed and rejecting level
+     */
+    public Acceptance acceptEventReportingLevel(EventTime eventTime) {
+        List<String> levelKeys;
+        try {
+            levelKeys = keyMaker.generateLevelKeys( eventTime.event(), delimiter, levelNames );
+        } catch (IllegalArgumentException e) {
+            log.debug( "Rejected {}, it is missing levels.", eventTime );
+            return Acceptance.of( HttpStatus.BAD_REQUEST );
+        }
+        RateLimitDecision decision;
+        try {
+            RequestDeadline.check();
+            decision = gcraMap.tryAcquireAll( levelKeys, clockKey, eventTime.time(), emissionIntervalsMilli,
+                                              burstTolerancesMilli );
+        } catch (DeadlineExceededException e) {
+            log.debug( "Abandoned {}, the request deadline passed.", eventTime );
+            return Acceptance.of( HttpStatus.REQUEST_TIMEOUT );
+        } catch (Exception e) {
+            log.info( "Encountered an error while accepting: {}", eventTime );
+            log.debug( "Error while accepting {}: {}", eventTime, e );
+            return Acceptance.of( HttpStatus.SERVICE_UNAVAILABLE );
+        }
+        if (!decision.allowed()) {
+            return new Acceptance( HttpStatus.CONFLICT, decision.retryAfterMilli(),
+                                   levelNames.get( decision.rejectedLevel() ) );
+        }
+        msgTemplate.convertAndSend( messagePrefix, new PublishedEventMessage( decision.clock(), eventTime ) );
+        return Acceptance.of( HttpStatus.CREATED );
+    }
+}
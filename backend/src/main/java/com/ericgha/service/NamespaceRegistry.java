@@ -0,0 +1,217 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.OnlyOnceMap;
+import com.ericgha.dao.StrictlyOnceMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.NamespaceSpec;
+import com.ericgha.service.data.EventMapService;
+import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.data.OnlyOnceEventMapService;
+import com.ericgha.service.data.SharedExpiryScheduler;
+import com.ericgha.service.data.StrictlyOnceMapService;
+import com.ericgha.service.event_consumer.AlwaysPublishesEventConsumer;
+import com.ericgha.service.event_consumer.EventConsumer;
+import com.ericgha.service.event_consumer.EventInvalidator;
+import com.ericgha.service.event_consumer.StrictlyOncePublisher;
+import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusCheckingValidity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.regex.Pattern;
+
+/**
+ * Creates and destroys limiter namespaces at runtime.  A namespace is the runtime equivalent of a mode's
+ * {@code @Configuration}: a keyspace, queue, map, {@link EventService}, expiry and snapshots.
+ * <p>
+ * Namespaces add no threads.  Expiry for every namespace runs on one {@link SharedExpiryScheduler} and snapshots on one
+ * shared {@link ScheduledExecutorService}.
+ * <p>
+ * Destroying a namespace stops its expiry and snapshots, then deletes its queue and clock, which never expire.  Events
+ * still queued are dropped unpublished, so a namespace later created with the same prefix (possibly in another mode)
+ * starts empty.  Event keys expire in Redis on their own.
+ */
+public class NamespaceRegistry {
+
+    // keeps prefixes usable as a key segment and a STOMP destination
+    private static final Pattern PREFIX_PATTERN = Pattern.compile( "[A-Za-z0-9_-]{1,64}" );
+
+    private final Logger log;
+    private final Map<String, Namespace> namespaces;
+    private final String keyPrefix;
+    private final String messagePrefix;
+    private final int maxNamespaces;
+    private final SimpMessagingTemplate msgTemplate;
+    private final EventQueue eventQueue;
+    private final OnlyOnceMap onlyOnceMap;
+    private final StrictlyOnceMap strictlyOnceMap;
+    private final SharedExpiryScheduler expiryScheduler;
+    private final SnapshotFactory snapshotFactory;
+    private final ScheduledExecutorService snapshotExecutor;
+
+    /**
+     * @param keyPrefix        parent of the keyspace of every namespace
+     * @param messagePrefix    parent of the message destination of every namespace
+     * @param maxNamespaces    the maximum number of namespaces
+     * @param msgTemplate      the template used for messaging
+     * @param eventQueue       DAO for the queues of every namespace
+     * @param onlyOnceMap      DAO for {@link NamespaceSpec.Mode#ONLY_ONCE} namespaces
+     * @param strictlyOnceMap  DAO for {@link NamespaceSpec.Mode#STRICTLY_ONCE} namespaces
+     * @param expiryScheduler  expires the events of every namespace
+     * @param snapshotFactory  builds the snapshots of every namespace
+     * @param snapshotExecutor takes the snapshots of every namespace
+     */
+    public NamespaceRegistry(String keyPrefix, String messagePrefix, int maxNamespaces,
+                             SimpMessagingTemplate msgTemplate, EventQueue eventQueue, OnlyOnceMap onlyOnceMap,
+                             StrictlyOnceMap strictlyOnceMap, SharedExpiryScheduler expiryScheduler,
+                             SnapshotFactory snapshotFactory, ScheduledExecutorService snapshotExecutor) {
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        this.namespaces = new ConcurrentHashMap<>();
+        this.keyPrefix = keyPrefix;
+        this.messagePrefix = messagePrefix;
+        this.maxNamespaces = maxNamespaces;
+        this.msgTemplate = msgTemplate;
+        this.eventQueue = eventQueue;
+        this.onlyOnceMap = onlyOnceMap;
+        this.strictlyOnceMap = strictlyOnceMap;
+        this.expiryScheduler = expiryScheduler;
+        this.snapshotFactory = snapshotFactory;
+        this.snapshotExecutor = snapshotExecutor;
+    }
+
+    /**
+     * Creates and starts a namespace.
+     *
+     * @param spec defines the namespace
+     * @throws IllegalArgumentException if the spec is invalid
+     * @throws IllegalStateException    if a namespace with the same prefix exists or the maximum number of namespaces
+     *                                  has been reached
+     */
+    public synchronized void create(@NonNull NamespaceSpec spec) throws IllegalArgumentException,
+            IllegalStateException {
+        validate( spec );
+        if (namespaces.containsKey( spec.prefix() )) {
+            throw new IllegalStateException( "Namespace already exists: " + spec.prefix() );
+        }
+        if (namespaces.size() >= maxNamespaces) {
+            throw new IllegalStateException( "Reached the maximum number of namespaces." );
+        }
+        namespaces.put( spec.prefix(), start( spec ) );
+        log.info( "Created namespace {}.", spec );
+    }
+
+    /**
+     * Stops and removes a namespace, deleting its queue and clock.  If the keys can't be deleted (i.e. Redis is
+     * unavailable) they are left behind and the namespace is still removed.
+     *
+     * @param prefix identifies the namespace
+     * @return {@code true} if the namespace existed
+     */
+    public synchronized boolean destroy(String prefix) {
+        Namespace namespace = namespaces.remove( prefix );
+        if (Objects.isNull( namespace )) {
+            return false;
+        }
+        namespace.expiry().cancel( false );
+        snapshotFactory.stop( namespace.snapshotService(), messagePrefix + "/" + prefix );
+        try {
+            namespace.queueService().delete();
+        } catch (RuntimeException e) {
+            log.warn( "Could not delete the queue of namespace {}.", namespace.spec(), e );
+        }
+        log.info( "Destroyed namespace {}.", namespace.spec() );
+        return true;
+    }
+
+    /**
+     * @return every namespace, ordered by prefix
+     */
+    public List<NamespaceSpec> list() {
+        return namespaces.values().stream().map( Namespace::spec )
+                .sorted( Comparator.comparing( NamespaceSpec::prefix ) ).toList();
+    }
+
+    /**
+     * @param prefix    identifies the namespace
+     * @param eventTime event to try to add
+     * @return 404 Not Found: if there is no such namespace, otherwise as {@link EventService#acceptEvent}
+     */
+    public HttpStatus acceptEvent(String prefix, EventTime eventTime) {
+        Namespace namespace = namespaces.get( prefix );
+        if (Objects.isNull( namespace )) {
+            return HttpStatus.NOT_FOUND;
+        }
+        return namespace.eventService().acceptEvent( eventTime );
+    }
+
+    /**
+     * Destroys every namespace.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        List.copyOf( namespaces.keySet() ).forEach( this::destroy );
+    }
+
+    private static void validate(NamespaceSpec spec) throws IllegalArgumentException {
+        if (Objects.isNull( spec.prefix() ) || !PREFIX_PATTERN.matcher( spec.prefix() ).matches()) {
+            throw new IllegalArgumentException( "prefix must be 1 to 64 letters, digits, '_' or '-'." );
+        }
+        if (Objects.isNull( spec.mode() )) {
+            throw new IllegalArgumentException( "Received a null mode." );
+        }
+        if (spec.eventDurationMilli() <= 0 || spec.maxEvents() <= 0) {
+            throw new IllegalArgumentException( "eventDurationMilli and maxEvents must be positive." );
+        }
+    }
+
+    private Namespace start(NamespaceSpec spec) {
+        KeyMaker keyMaker = new KeyMaker( keyPrefix + KeyMaker.KEY_DELIMITER + spec.prefix() );
+        String stompPrefix = messagePrefix + "/" + spec.prefix();
+        long eventDuration = spec.eventDurationMilli();
+        EventQueueService queueService = new EventQueueService( eventQueue, keyMaker );
+        EventMapService mapService;
+        EventConsumer publisher;
+        SnapshotMapper<EventStatus> snapshotMapper;
+        switch (spec.mode()) {
+            case ONLY_ONCE -> {
+                mapService = new OnlyOnceEventMapService( onlyOnceMap, eventDuration, keyMaker );
+                publisher = new AlwaysPublishesEventConsumer( msgTemplate, stompPrefix );
+                snapshotMapper = new ToSnapshotStatusAlwaysValid();
+            }
+            case STRICTLY_ONCE -> {
+                StrictlyOnceMapService strictlyOnceMapService =
+                        new StrictlyOnceMapService( strictlyOnceMap, eventDuration, keyMaker );
+                strictlyOnceMapService.setInvalidator( new EventInvalidator( stompPrefix, msgTemplate ) );
+                mapService = strictlyOnceMapService;
+                publisher = new StrictlyOncePublisher( strictlyOnceMapService, msgTemplate, stompPrefix );
+                snapshotMapper = new ToSnapshotStatusCheckingValidity( strictlyOnceMapService::isValid );
+            }
+            default -> throw new IllegalArgumentException( "Unsupported mode: " + spec.mode() );
+        }
+        RateLimiter eventService =
+                new EventService( stompPrefix, spec.maxEvents(), msgTemplate, queueService, mapService );
+        Future<?> expiry = expiryScheduler.register( queueService, publisher, eventDuration );
+        EventQueueSnapshotService snapshotService =
+                snapshotFactory.start( queueService, stompPrefix, snapshotMapper, eventDuration, snapshotExecutor );
+        return new Namespace( spec, eventService, queueService, expiry, snapshotService );
+    }
+
+    private record Namespace(NamespaceSpec spec, RateLimiter eventService, EventQueueService queueService,
+                             Future<?> expiry, EventQueueSnapshotService snapshotService) {
+    }
+}
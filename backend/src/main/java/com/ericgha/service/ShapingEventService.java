@@ -0,0 +1,105 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.ShapingMap;
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.message.SubmittedEventMessage;
+import com.ericgha.service.data.EventQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * A {@link RateLimiter} which smooths bursts rather than rejecting them.  Each event is given the earliest slot at
+ * which it conforms to {@code limit} events per {@code periodMilli} ({@link ShapingMap}) and offered to a scheduled
+ * queue with its {@code time} set to that slot.  An expiry service polling the queue without delay then publishes
+ * events at a steady rate.
+ * <p>
+ * Events are only rejected if their slot would be more than {@code maxDelayMilli} away, bounding the backlog for each
+ * event.
+ */
+public class ShapingEventService implements RateLimiter {
+
+    private final Logger log;
+    private final String messagePrefix;
+    private final long maxEvents;
+    private final SimpMessagingTemplate msgTemplate;
+    private final EventQueueService queueService;
+    private final ShapingMap shapingMap;
+    private final KeyMaker keyMaker;
+    private final long emissionIntervalMilli;
+    private final long maxDelayMilli;
+
+    /**
+     * The emission interval ({@code periodMilli / limit}) is rounded up to the nearest millisecond, so the rate is
+     * never exceeded.
+     *
+     * @param messagePrefix where {@link SubmittedEventMessage}s should be sent
+     * @param maxEvents     the approximate maximum size of the queue
+     * @param msgTemplate   the template used for messaging
+     * @param queueService  a queue with {@link com.ericgha.dao.EventQueue.Ordering#SCHEDULED} ordering
+     * @param shapingMap    the map storing the next free slot of each event
+     * @param keyMaker      makes keys for events
+     * @param limit         number of events published per {@code periodMilli}
+     * @param periodMilli   the period {@code limit} applies to
+     * @param maxDelayMilli the maximum time an event may be delayed
+     * @throws IllegalArgumentException if {@code limit} or {@code periodMilli} are not positive or
+     *                                  {@code maxDelayMilli} is negative
+     */
+    public ShapingEventService(String messagePrefix, long maxEvents, SimpMessagingTemplate msgTemplate,
+                               EventQueueService queueService, ShapingMap shapingMap, KeyMaker keyMaker, long limit,
+                               long periodMilli, long maxDelayMilli) throws IllegalArgumentException {
+        if (limit <= 0 || periodMilli <= 0 || maxDelayMilli < 0) {
+            throw new IllegalArgumentException(
+                    "limit and periodMilli must be positive, maxDelayMilli must not be negative." );
+        }
+        this.log = LoggerFactory.getLogger( String.format( "%s:%s", this.getClass().getName(), keyMaker.keyPrefix() ) );
+        this.messagePrefix = messagePrefix;
+        this.maxEvents = maxEvents;
+        this.msgTemplate = msgTemplate;
+        this.queueService = queueService;
+        this.shapingMap = shapingMap;
+        this.keyMaker = keyMaker;
+        this.emissionIntervalMilli = ( periodMilli + limit - 1 ) / limit;
+        this.maxDelayMilli = maxDelayMilli;
+    }
+
+    /**
+     * The {@link SubmittedEventMessage} carries the event with its scheduled {@code time}.  The {@link RequestDeadline}
+     * is checked before a slot is reserved, once reserved the event is always offered to the queue.
+     *
+     * @param eventTime event to try to accept.
+     * @return 507 InsufficientStorage: if queued events >= {@code maxEvents}, 201 Created: if event was scheduled, 409
+     * Conflict: if the event would be delayed by more than {@code maxDelayMilli}, 408 Request Timeout: if the request
+     * deadline passed, 503 Service Unavailable: any error occurs.
+     */
+    @Override
+    public HttpStatus acceptEvent(EventTime eventTime) {
+        if (queueService.approxSize() >= maxEvents) {
+            return HttpStatus.INSUFFICIENT_STORAGE;
+        }
+        try {
+            RequestDeadline.check();
+            long slot = shapingMap.reserveSlot( keyMaker.generateEventKey( eventTime.event() ), eventTime.time(),
+                                                emissionIntervalMilli, maxDelayMilli );
+            if (slot == ShapingMap.NO_SLOT) {
+                return HttpStatus.CONFLICT;
+            }
+            // the slot is reserved, abandoning the offer would leave a gap in the schedule
+            EventTime scheduled = new EventTime( eventTime.event(), slot );
+            long clock = RequestDeadline.suspend( () -> queueService.offer( scheduled ) );
+            msgTemplate.convertAndSend( messagePrefix, new SubmittedEventMessage( clock, scheduled ) );
+            return HttpStatus.CREATED;
+        } catch (DeadlineExceededException e) {
+            log.debug( "Abandoned {}, the request deadline passed.", eventTime );
+            return HttpStatus.REQUEST_TIMEOUT;
+        } catch (Exception e) {
+            log.info( "Encountered an error while accepting: {}", eventTime );
+            log.debug( "Error while accepting {}: {}", eventTime, e );
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ericgha.service;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.snapshot_consumer.DeltaSnapshotSTOMPMessenger;
+import com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger;
+import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusPrefetched;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Builds the {@link EventQueueSnapshotService} and {@link DeltaSnapshotSTOMPMessenger} of a queue from the shared
+ * {@link SnapshotProperties}, starts the snapshots and registers them with the {@link SubscribeKeyFrameService}.
+ */
+public class SnapshotFactory {
+
+    private final SnapshotProperties properties;
+    private final SimpMessagingTemplate template;
+    @Nullable
+    private final SubscribeKeyFrameService subscribeKeyFrameService;
+    @Nullable
+    private final ConversionMetrics conversionMetrics;
+
+    /**
+     * @param properties               settings of every snapshot
+     * @param template                 the template used for messaging
+     * @param subscribeKeyFrameService sends key frames to subscribing sessions, {@code null} for none
+     * @param conversionMetrics        records key frame conversions, {@code null} for none
+     */
+    public SnapshotFactory(@NonNull SnapshotProperties properties, @NonNull SimpMessagingTemplate template,
+                           @Nullable SubscribeKeyFrameService subscribeKeyFrameService,
+                           @Nullable ConversionMetrics conversionMetrics) {
+        this.properties = Objects.requireNonNull( properties );
+        this.template = Objects.requireNonNull( template );
+        this.subscribeKeyFrameService = subscribeKeyFrameService;
+        this.conversionMetrics = conversionMetrics;
+    }
+
+    /**
+     * Builds and starts the snapshots of a queue.  A {@link ToSnapshotStatusAlwaysValid} mapper maps a snapshot in one
+     * chunk, other mappers check validity {@link SnapshotProperties#parallelism()} chunks at a time.
+     *
+     * @param queueService    the queue
+     * @param prefix          destination snapshots are sent to
+     * @param snapshotMapper  maps snapshots to statuses
+     * @param periodMilli     the snapshot period, snapshots are broadcast every
+     *                        {@link SnapshotProperties#broadcastEvery()} periods
+     * @param executorService executor shared with other snapshots, {@code null} to take snapshots on a thread of
+     *                        their own
+     * @return the snapshot service
+     * @throws IllegalArgumentException if a setting is invalid
+     */
+    public EventQueueSnapshotService start(EventQueueService queueService, String prefix,
+                                           SnapshotMapper<EventStatus> snapshotMapper, long periodMilli,
+                                           @Nullable ScheduledExecutorService executorService)
+            throws IllegalArgumentException {
+        SnapshotSTOMPMessenger messenger =
+                new DeltaSnapshotSTOMPMessenger( template, prefix, snapshotMapper, properties.keyFrameEvery() );
+        if (snapshotMapper instanceof ToSnapshotStatusAlwaysValid) {
+            messenger.chunkSize( Integer.MAX_VALUE );
+        } else {
+            messenger.parallelism( properties.parallelism() );
+        }
+        messenger.streaming( properties.streaming() );
+        messenger.conversionMetrics( conversionMetrics );
+        EventQueueSnapshotService snapshotService = new EventQueueSnapshotService( queueService );
+        if (snapshotMapper instanceof ToSnapshotStatusPrefetched prefetchedMapper) {
+            snapshotService.snapshotReader( prefetchedMapper::read );
+        }
+        snapshotService.pageSize( properties.pageSize() );
+        snapshotService.viewReconcileEvery( properties.view().reconcileEvery() );
+        snapshotService.skipUnchanged( properties.skipUnchanged() );
+        snapshotService.adaptivePeriod( properties.adaptive().speedup(), properties.adaptive().busyChanges() );
+        if (properties.broadcastEvery() > 0) {
+            long broadcastPeriodMilli = periodMilli * properties.broadcastEvery();
+            if (Objects.isNull( executorService )) {
+                snapshotService.run( broadcastPeriodMilli, messenger );
+            } else {
+                snapshotService.run( broadcastPeriodMilli, messenger, executorService );
+            }
+        }
+        if (Objects.nonNull( subscribeKeyFrameService )) {
+            subscribeKeyFrameService.register( snapshotService, messenger );
+        }
+        return snapshotService;
+    }
+
+    /**
+     * Stops snapshots started by {@link SnapshotFactory#start}.
+     *
+     * @param snapshotService the snapshot service
+     * @param prefix          destination snapshots are sent to
+     */
+    public void stop(EventQueueSnapshotService snapshotService, String prefix) {
+        snapshotService.stop();
+        if (Objects.nonNull( subscribeKeyFrameService )) {
+            subscribeKeyFrameService.unregister( prefix );
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ericgha.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Snapshot settings shared by every mode and namespace ({@code app.snapshot}), see {@link SnapshotFactory}.
+ *
+ * @param keyFrameEvery  send a key frame every {@code keyFrameEvery} snapshots, see
+ *                       {@link com.ericgha.service.snapshot_consumer.DeltaSnapshotSTOMPMessenger}
+ * @param pageSize       see {@link EventQueueSnapshotService#pageSize(int)}
+ * @param streaming      see {@link com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger#streaming(boolean)}
+ * @param view           see {@link EventQueueSnapshotService#viewReconcileEvery(int)}
+ * @param skipUnchanged  see {@link EventQueueSnapshotService#skipUnchanged(boolean)}
+ * @param adaptive       see {@link EventQueueSnapshotService#adaptivePeriod(int, long)}
+ * @param broadcastEvery broadcast every {@code broadcastEvery} snapshot periods, {@code 0} to never broadcast
+ * @param parallelism    see {@link com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger#parallelism(int)}
+ * @throws IllegalArgumentException if snapshots are both paged and sent as deltas, a delta requires the whole previous
+ *                                  snapshot which paging avoids holding
+ */
+@ConfigurationProperties("app.snapshot")
+public record SnapshotProperties(int keyFrameEvery, int pageSize, boolean streaming, View view, boolean skipUnchanged,
+                                 Adaptive adaptive, int broadcastEvery, int parallelism) {
+
+    public SnapshotProperties {
+        if (pageSize > 0 && keyFrameEvery > 1) {
+            throw new IllegalArgumentException( "page-size and a key-frame-every above 1 are mutually exclusive." );
+        }
+    }
+
+    /**
+     * @param reconcileEvery reconcile the view every {@code reconcileEvery} snapshots, {@code 0} for no view
+     */
+    public record View(int reconcileEvery) {
+    }
+
+    /**
+     * @param speedup     the maximum number of snapshots per period
+     * @param busyChanges clock increments between snapshots at or above which the interval is shortened
+     */
+    public record Adaptive(int speedup, long busyChanges) {
+    }
+}
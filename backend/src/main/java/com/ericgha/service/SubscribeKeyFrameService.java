@@ -0,0 +1,136 @@
+package com.ericgha.service;
+
+import com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a key frame to a session when it subscribes to the user destination of a registered topic, e.g. a subscription
+ * to {@code /user/topic/only-once-event} receives a key frame of {@code /topic/only-once-event}.  New clients sync
+ * without a broadcast to every client.
+ * <p>
+ * A subscribe event is published before the broker has processed the subscription, so key frames are sent after
+ * {@code delayMilli}.  Clients should subscribe to the topic before its user destination, so that no message between
+ * the key frame and the topic subscription is missed.
+ * <p>
+ * Sessions subscribing to the same destination within {@code delayMilli} share one key frame, which is taken and
+ * converted once and sent to each session.
+ */
+public class SubscribeKeyFrameService {
+
+    private final Logger log;
+    private final String userDestinationPrefix;
+    private final long delayMilli;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Target> targets;
+    // guarded by itself, sessions waiting for a key frame by prefix
+    private final Map<String, Set<String>> pending;
+
+    /**
+     * @param userDestinationPrefix prefix of user destinations, e.g. {@code /user}
+     * @param delayMilli            delay between a subscription and sending its key frame
+     * @param numThreads            threads taking and sending key frames
+     */
+    public SubscribeKeyFrameService(String userDestinationPrefix, long delayMilli, int numThreads) {
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        this.userDestinationPrefix = userDestinationPrefix;
+        this.delayMilli = delayMilli;
+        this.executor = Executors.newScheduledThreadPool( numThreads );
+        this.targets = new ConcurrentHashMap<>();
+        this.pending = new HashMap<>();
+    }
+
+    /**
+     * Sends key frames of {@code snapshotService} with {@code messenger} to sessions subscribing to the user
+     * destination of {@link SnapshotSTOMPMessenger#prefix()}.  Replaces any registration for the same prefix.
+     *
+     * @param snapshotService takes the key frames
+     * @param messenger       sends the key frames
+     */
+    public void register(@NonNull EventQueueSnapshotService snapshotService,
+                         @NonNull SnapshotSTOMPMessenger messenger) {
+        targets.put( messenger.prefix(), new Target( snapshotService, messenger ) );
+    }
+
+    /**
+     * @param prefix the {@link SnapshotSTOMPMessenger#prefix()} registered
+     * @return {@code true} if {@code prefix} was registered
+     */
+    public boolean unregister(String prefix) {
+        return Objects.nonNull( targets.remove( prefix ) );
+    }
+
+    /**
+     * Schedules a key frame for the subscribing session, if it subscribed to the user destination of a registered
+     * prefix.
+     *
+     * @param event the subscription
+     */
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap( event.getMessage() );
+        String destination = accessor.getDestination();
+        String sessionId = accessor.getSessionId();
+        if (Objects.isNull( destination ) || Objects.isNull( sessionId )
+                || !destination.startsWith( userDestinationPrefix )) {
+            return;
+        }
+        String prefix = destination.substring( userDestinationPrefix.length() );
+        Target target = targets.get( prefix );
+        if (Objects.isNull( target )) {
+            return;
+        }
+        synchronized (pending) {
+            Set<String> sessionIds = pending.get( prefix );
+            if (Objects.isNull( sessionIds )) {
+                sessionIds = new LinkedHashSet<>();
+                pending.put( prefix, sessionIds );
+                executor.schedule( () -> send( target, prefix ), delayMilli, TimeUnit.MILLISECONDS );
+            }
+            sessionIds.add( sessionId );
+        }
+    }
+
+    private void send(Target target, String prefix) {
+        Set<String> sessionIds;
+        synchronized (pending) {
+            sessionIds = pending.remove( prefix );
+        }
+        if (Objects.isNull( sessionIds )) {
+            return;
+        }
+        try {
+            if (sessionIds.size() == 1) {
+                target.messenger().sendKeyFrame( sessionIds.iterator().next(),
+                                                 target.snapshotService()::currentSnapshot );
+            } else {
+                target.messenger().sendKeyFrame( sessionIds, target.snapshotService()::currentSnapshot );
+            }
+        } catch (Exception e) {
+            log.warn( "Key frame for sessions: {} to: {} failed.", sessionIds, prefix, e );
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private record Target(EventQueueSnapshotService snapshotService, SnapshotSTOMPMessenger messenger) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.BloomOnlyOnceMap;
+import com.ericgha.domain.BloomFilterHasher;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.dto.EventTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An approximate only once {@link EventMapService} backed by a {@link BloomOnlyOnceMap}.
+ * <p>
+ * Each filter covers a window of {@code eventDurationMilli / windowsPerDuration}.  An event is checked against the
+ * filters of the {@code windowsPerDuration + 1} most recent windows, so after an event is accepted identical events are
+ * rejected for at least {@code eventDurationMilli} and at most one extra window.  Events may also be rejected as false
+ * positives.  As each event probes {@code windowsPerDuration + 1} filters, its false positive rate is up to
+ * {@code windowsPerDuration + 1} times the rate the {@code hasher} is sized for (while each window holds no more than
+ * its expected number of events), see {@link BloomOnlyOnceEventMapService#perFilterRate(double, int)}.
+ * <p>
+ * Only the filters of the event's window and earlier windows are checked.  Unlike {@link OnlyOnceEventMapService}, an
+ * event received out of order, after an identical later event was put into a later window, is accepted even though
+ * the two are less than {@code eventDurationMilli} apart.
+ */
+public class BloomOnlyOnceEventMapService implements EventMapService {
+
+    private final Logger log;
+    private final BloomOnlyOnceMap eventMap;
+    private final KeyMaker keyMaker;
+    private final BloomFilterHasher hasher;
+    private final long eventDurationMilli;
+    private final long windowMilli;
+    private final int windowsPerDuration;
+
+    /**
+     * @param eventMap
+     * @param eventDurationMilli
+     * @param windowsPerDuration number of filters per event duration, more filters tighten the rejection period
+     *                           towards {@code eventDurationMilli} at the cost of memory and bits checked per event
+     * @param hasher             sizes the filters, its expected insertions and false positive rate are per window
+     * @param keyMaker
+     */
+    public BloomOnlyOnceEventMapService(BloomOnlyOnceMap eventMap, long eventDurationMilli, int windowsPerDuration,
+                                        BloomFilterHasher hasher, KeyMaker keyMaker) {
+        if (eventDurationMilli <= 0) {
+            throw new IllegalArgumentException( "Event duration must be a positive long" );
+        }
+        if (windowsPerDuration <= 0) {
+            throw new IllegalArgumentException( "Windows per duration must be a positive int" );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass().getName() + ":" + keyMaker.keyPrefix() );
+        this.eventMap = eventMap;
+        this.eventDurationMilli = eventDurationMilli;
+        this.windowsPerDuration = windowsPerDuration;
+        // windowsPerDuration windows must span at least one eventDuration
+        this.windowMilli = Math.max( 1, ( eventDurationMilli + windowsPerDuration - 1 ) / windowsPerDuration );
+        this.hasher = hasher;
+        this.keyMaker = keyMaker;
+    }
+
+    /**
+     * @param falsePositiveRate  the false positive rate desired per event
+     * @param windowsPerDuration number of filters per event duration
+     * @return the false positive rate each filter should be sized for, so that an event probing
+     * {@code windowsPerDuration + 1} filters is rejected as a false positive at no more than {@code falsePositiveRate}
+     */
+    public static double perFilterRate(double falsePositiveRate, int windowsPerDuration) {
+        return falsePositiveRate / ( windowsPerDuration + 1 );
+    }
+
+    public boolean putEvent(String event, long timeMilli) {
+        long now = Instant.now().toEpochMilli();
+        if (timeMilli + eventDurationMilli <= now) {
+            log.warn( "Received an event which has already ended." );
+            return false;
+        }
+        if (timeMilli > now) {
+            log.warn( "Received an event beginning in the future." );
+            return false;
+        }
+        long window = Math.floorDiv( timeMilli, windowMilli );
+        List<String> filterKeys = new ArrayList<>( windowsPerDuration + 1 );
+        for (long w = window; w >= window - windowsPerDuration; w--) {
+            filterKeys.add( keyMaker.generateFilterKey( w ) );
+        }
+        // the latest event in the window can conflict until (window + 1) * windowMilli + eventDuration
+        long filterExpireAtMilli = ( window + 1 + windowsPerDuration ) * windowMilli;
+        return eventMap.putEvent( filterKeys, hasher.positions( event ), filterExpireAtMilli );
+    }
+
+    @Override
+    public boolean putEvent(EventTime eventTime) {
+        return putEvent( eventTime.event(), eventTime.time() );
+    }
+
+    @Override
+    public String keyPrefix() {
+        return keyMaker.keyPrefix();
+    }
+}
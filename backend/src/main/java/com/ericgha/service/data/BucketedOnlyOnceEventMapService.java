@@ -0,0 +1,63 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.BucketedOnlyOnceMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.dto.EventTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * An only once {@link EventMapService} backed by a {@link BucketedOnlyOnceMap}.  Buckets span one
+ * {@code eventDurationMilli} and are expired once none of their events can conflict with a new event.
+ * <p>
+ * Behaves identically to {@link OnlyOnceEventMapService}, but with a lower per event cost in Redis.  As an event
+ * received out of order may conflict with a later event in the next bucket, three buckets are checked.
+ */
+public class BucketedOnlyOnceEventMapService implements EventMapService {
+
+    private final Logger log;
+    private final BucketedOnlyOnceMap eventMap;
+    private final KeyMaker keyMaker;
+    private final long eventDurationMilli;
+
+    public BucketedOnlyOnceEventMapService(BucketedOnlyOnceMap eventMap, long eventDurationMilli,
+                                           KeyMaker keyMaker) {
+        if (eventDurationMilli <= 0) {
+            throw new IllegalArgumentException( "Event duration must be a positive long" );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass().getName() + ":" + keyMaker.keyPrefix() );
+        this.eventDurationMilli = eventDurationMilli;
+        this.eventMap = eventMap;
+        this.keyMaker = keyMaker;
+    }
+
+    public boolean putEvent(String event, long timeMilli) {
+        long now = Instant.now().toEpochMilli();
+        if (timeMilli + eventDurationMilli <= now) {
+            log.warn( "Received an event which has already ended." );
+            return false;
+        }
+        if (timeMilli > now) {
+            log.warn( "Received an event beginning in the future." );
+            return false;
+        }
+        long bucket = Math.floorDiv( timeMilli, eventDurationMilli );
+        // the latest event in the bucket can conflict until (bucket + 2) * eventDuration
+        long bucketExpireAtMilli = ( bucket + 2 ) * eventDurationMilli;
+        return eventMap.putEvent( keyMaker.generateBucketKey( bucket ), keyMaker.generateBucketKey( bucket - 1 ),
+                                  keyMaker.generateBucketKey( bucket + 1 ), keyMaker.generateEventField( event ),
+                                  timeMilli, eventDurationMilli, bucketExpireAtMilli );
+    }
+
+    @Override
+    public boolean putEvent(EventTime eventTime) {
+        return putEvent( eventTime.event(), eventTime.time() );
+    }
+
+    @Override
+    public String keyPrefix() {
+        return keyMaker.keyPrefix();
+    }
+}
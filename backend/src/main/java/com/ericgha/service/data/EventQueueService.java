@@ -1,15 +1,19 @@
 package com.ericgha.service.data;
 
 import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.StrictlyOnceMap;
 import com.ericgha.domain.KeyMaker;
+import com.ericgha.dto.EventStatus;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.PollResponse;
+import com.ericgha.dto.ReplacingOfferResponse;
 import com.ericgha.dto.Versioned;
 import jakarta.annotation.Nullable;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Objects;
 
 public class EventQueueService {
 
@@ -21,6 +25,8 @@ public class EventQueueService {
 
     volatile private Long lastSize;
     volatile private Instant lastSizeTimestamp;
+    @Nullable
+    volatile private EventQueueView view;
 
 
     /**
@@ -39,6 +45,23 @@ public class EventQueueService {
         this.clockKey = keyMaker.generateClockKey();
     }
 
+    /**
+     * Sets a view which is updated with every offer and poll made through this.
+     *
+     * @param view the view, {@code null} for none (default)
+     */
+    public void setView(@Nullable EventQueueView view) {
+        this.view = view;
+    }
+
+    /**
+     * @return the view, {@code null} if none is set
+     */
+    @Nullable
+    public EventQueueView view() {
+        return this.view;
+    }
+
     /**
      * Offers event and updates {@code lastSize}
      * @param EventTime
@@ -49,6 +72,10 @@ public class EventQueueService {
     public long offer(EventTime EventTime) throws IllegalArgumentException, IllegalStateException {
         Versioned<Long> versionedSize = eventQueue.offer( EventTime, queueKey, clockKey );
         updateSize(versionedSize.data());
+        EventQueueView view = this.view;
+        if (Objects.nonNull( view )) {
+            view.added( versionedSize.clock(), EventTime );
+        }
         return versionedSize.clock();
     }
 
@@ -64,6 +91,33 @@ public class EventQueueService {
         return this.offer( new EventTime( event, time ) );
     }
 
+    /**
+     * Offers an event, replacing the event pending under {@code pointerKey}.  Updates {@code lastSize}.  Requires a
+     * {@link EventQueue.Ordering#SCHEDULED} queue.
+     * @param eventTime
+     * @param pointerKey      key tracking the pending event
+     * @param pointerExpireAt epoch millis at which the pending event should stop being replaced
+     * @return the clock of the offer and the replaced event (if any)
+     * @throws IllegalArgumentException if any errors occur serializing the request
+     * @throws IllegalStateException    if the queue isn't scheduled or any errors occur deserializing the response
+     * @see EventQueue#offerReplacing
+     */
+    public ReplacingOfferResponse offerReplacing(EventTime eventTime, String pointerKey,
+                                                 long pointerExpireAt) throws IllegalArgumentException,
+            IllegalStateException {
+        ReplacingOfferResponse response =
+                eventQueue.offerReplacing( eventTime, pointerKey, pointerExpireAt, queueKey, clockKey );
+        updateSize( response.queueSize() );
+        EventQueueView view = this.view;
+        if (Objects.nonNull( view )) {
+            if (Objects.nonNull( response.replaced() )) {
+                view.removed( response.replaced().clock(), response.replaced().data() );
+            }
+            view.added( response.clock(), eventTime );
+        }
+        return response;
+    }
+
     /**
      * Polls if the event at the head of the queue older than threshold time.  If not event is meets threshold criteria,
      * or the queue is empty, returns null.  Always updates {@code lastSize}.
@@ -75,7 +129,12 @@ public class EventQueueService {
     public Versioned<EventTime> tryPoll(long thresholdTime) throws IllegalArgumentException {
         PollResponse pollResponse = eventQueue.tryPoll( thresholdTime, queueKey, clockKey );
         updateSize( pollResponse.queueSize() );
-        return pollResponse.versionedEventTime();
+        Versioned<EventTime> polled = pollResponse.versionedEventTime();
+        EventQueueView view = this.view;
+        if (Objects.nonNull( view ) && Objects.nonNull( polled )) {
+            view.removed( polled.clock(), polled.data() );
+        }
+        return polled;
     }
 
     /**
@@ -93,6 +152,77 @@ public class EventQueueService {
         return this.getRange( 0, -1 );
     }
 
+    /**
+     * Queries every item on a strictly once queue, together with the status of each item's event.  Statuses are
+     * {@link com.ericgha.dto.Status#Valid} or {@link com.ericgha.dto.Status#Invalid}, consistent with the clock.
+     *
+     * @param eventKeyPrefix the key of an event's state is {@code eventKeyPrefix} followed by the event
+     * @param storage        the storage of the {@link StrictlyOnceMap}
+     * @return an in order list of statuses (versioned by scalar clock)
+     * @throws IllegalStateException if an error occurs deserializing the database response
+     * @see EventQueue#getRangeWithStatus
+     */
+    public Versioned<List<EventStatus>> getAllWithStatus(String eventKeyPrefix, StrictlyOnceMap.Storage storage)
+            throws IllegalStateException {
+        return eventQueue.getRangeWithStatus( 0, -1, queueKey, clockKey, eventKeyPrefix, storage );
+    }
+
+    /**
+     * Copies the queue to {@code copyKey}, to be read in pages consistent with one clock.  Updates {@code lastSize}.
+     *
+     * @param copyKey     key the copy is made to
+     * @param expiryMilli milliseconds until the copy expires
+     * @return size of the copy (versioned by scalar clock)
+     * @throws IllegalStateException if an error occurs deserializing the database response
+     * @see EventQueue#copy
+     */
+    public Versioned<Long> copyTo(String copyKey, long expiryMilli) throws IllegalStateException {
+        Versioned<Long> versionedSize = eventQueue.copy( queueKey, clockKey, copyKey, expiryMilli );
+        updateSize( versionedSize.data() );
+        return versionedSize;
+    }
+
+    /**
+     * Range query for items of a copy made by {@link EventQueueService#copyTo}.  Uses the same index semantics as
+     * {@link EventQueueService#getRange}.
+     *
+     * @param copyKey key of the copy
+     * @param start   start index
+     * @param end     end index
+     * @return
+     * @throws IllegalStateException if an error occurs deserializing the database response
+     */
+    public List<EventTime> getCopyRange(String copyKey, long start, long end) throws IllegalStateException {
+        return eventQueue.getCopyRange( start, end, copyKey );
+    }
+
+    /**
+     * Deletes a copy made by {@link EventQueueService#copyTo}.
+     *
+     * @param copyKey key of the copy
+     */
+    public void deleteCopy(String copyKey) {
+        eventQueue.deleteCopy( copyKey );
+    }
+
+    /**
+     * Deletes the queue and its clock.
+     *
+     * @see EventQueue#delete
+     */
+    public void delete() {
+        eventQueue.delete( queueKey, clockKey );
+    }
+
+    /**
+     * @return the clock of the queue, read without incrementing it
+     * @throws IllegalStateException if the database returned an unexpected response
+     * @see EventQueue#clock
+     */
+    public long clock() throws IllegalStateException {
+        return eventQueue.clock( clockKey );
+    }
+
     /**
      * updates {@code lastSize}.
      *
@@ -119,6 +249,13 @@ public class EventQueueService {
         return size();
     }
 
+    /**
+     * @return the order of the queue
+     */
+    public EventQueue.Ordering ordering() {
+        return eventQueue.ordering();
+    }
+
     /**
      * Returns the key where the version clock value is stored.  This should be considered a restricted key for other
      * processes.
@@ -0,0 +1,132 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Versioned;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * A local materialized view of an event queue.  The view is a snapshot read from the database (the base), updated by
+ * the offers and polls made through this node's {@link EventQueueService} since.  Offers and polls made by other nodes
+ * are only seen once the view is reconciled with a newer snapshot ({@link EventQueueView#reconcile(Versioned)}).
+ * <p>
+ * Every update carries the clock the database assigned it, updates at or before the clock of the base are already
+ * reflected in the base and are discarded on reconciliation.  Elements are compared as {@link EventTime}s, identical
+ * elements are treated as one.
+ * <p>
+ * This class is thread safe.
+ */
+public class EventQueueView {
+
+    private final EventQueue.Ordering ordering;
+    private long baseClock;
+    private List<EventTime> base;
+    // by clock of the offer
+    private final TreeMap<Long, EventTime> added;
+    // to clock of the poll
+    private final Map<EventTime, Long> removed;
+    private long clock;
+
+    /**
+     * @param ordering the ordering of the queue viewed
+     */
+    public EventQueueView(@NonNull EventQueue.Ordering ordering) {
+        this.ordering = Objects.requireNonNull( ordering, "Received a null ordering." );
+        this.baseClock = 0;
+        this.base = List.of();
+        this.added = new TreeMap<>();
+        this.removed = new HashMap<>();
+        this.clock = 0;
+    }
+
+    /**
+     * Records an offer.
+     *
+     * @param clock     clock of the offer
+     * @param eventTime element offered
+     */
+    public synchronized void added(long clock, EventTime eventTime) {
+        if (clock <= baseClock) {
+            return;
+        }
+        added.put( clock, eventTime );
+        this.clock = Math.max( this.clock, clock );
+    }
+
+    /**
+     * Records a poll (or the replacement of an element).
+     *
+     * @param clock     clock of the poll
+     * @param eventTime element polled
+     */
+    public synchronized void removed(long clock, EventTime eventTime) {
+        if (clock <= baseClock) {
+            return;
+        }
+        removed.merge( eventTime, clock, Math::max );
+        this.clock = Math.max( this.clock, clock );
+    }
+
+    /**
+     * Replaces the base with a snapshot read from the database, if it is newer than the current base.  Updates at or
+     * before the snapshot's clock are discarded.
+     *
+     * @param snapshot the snapshot
+     */
+    public synchronized void reconcile(Versioned<List<EventTime>> snapshot) {
+        if (snapshot.clock() < baseClock) {
+            return;
+        }
+        this.baseClock = snapshot.clock();
+        this.base = snapshot.data();
+        added.headMap( baseClock, true ).clear();
+        removed.values().removeIf( removedClock -> removedClock <= baseClock );
+        this.clock = Math.max( this.clock, baseClock );
+    }
+
+    /**
+     * @return the elements of the view, in queue order, versioned by the latest clock seen
+     */
+    public synchronized Versioned<List<EventTime>> snapshot() {
+        List<EventTime> elements = new ArrayList<>( base.size() + added.size() );
+        for (EventTime eventTime : base) {
+            if (!removed.containsKey( eventTime )) {
+                elements.add( eventTime );
+            }
+        }
+        for (Map.Entry<Long, EventTime> entry : added.entrySet()) {
+            Long removedClock = removed.get( entry.getValue() );
+            // an element may be polled and offered again
+            if (Objects.isNull( removedClock ) || removedClock < entry.getKey()) {
+                elements.add( entry.getValue() );
+            }
+        }
+        if (ordering == EventQueue.Ordering.SCHEDULED) {
+            // stable, so elements of equal time keep the order they were offered in
+            elements.sort( Comparator.comparingLong( EventTime::time ) );
+        }
+        return new Versioned<>( clock, elements );
+    }
+
+    /**
+     * @return the latest clock seen, the clock of {@link EventQueueView#snapshot()}
+     */
+    public synchronized long clock() {
+        return this.clock;
+    }
+
+    /**
+     * @return clock of the snapshot the view was last reconciled with
+     */
+    public synchronized long baseClock() {
+        return this.baseClock;
+    }
+}
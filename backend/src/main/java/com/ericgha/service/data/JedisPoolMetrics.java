@@ -0,0 +1,53 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.RedisRole;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes gauges for the connection pool of each {@link RedisRole}: active, idle and waiting connection counts and
+ * the mean and max time spent waiting to borrow a connection.  All gauges are tagged with the {@code role}.
+ */
+public class JedisPoolMetrics implements MeterBinder {
+
+    private static final String CONNECTIONS = "connections";
+    private static final String MILLISECONDS = "milliseconds";
+
+    private final Map<RedisRole, PooledJedisConnectionFactory> connectionFactories;
+
+    public JedisPoolMetrics(Map<RedisRole, PooledJedisConnectionFactory> connectionFactories) {
+        this.connectionFactories = Map.copyOf( connectionFactories );
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        connectionFactories.forEach( (role, factory) -> {
+            gauge( registry, "redis.pool.connections.active", CONNECTIONS, role, factory, Pool::getNumActive );
+            gauge( registry, "redis.pool.connections.idle", CONNECTIONS, role, factory, Pool::getNumIdle );
+            gauge( registry, "redis.pool.connections.waiting", CONNECTIONS, role, factory, Pool::getNumWaiters );
+            gauge( registry, "redis.pool.borrow.wait.mean", MILLISECONDS, role, factory,
+                   Pool::getMeanBorrowWaitTimeMillis );
+            gauge( registry, "redis.pool.borrow.wait.max", MILLISECONDS, role, factory,
+                   Pool::getMaxBorrowWaitTimeMillis );
+        } );
+    }
+
+    private static void gauge(MeterRegistry registry, String name, String baseUnit, RedisRole role,
+                              PooledJedisConnectionFactory factory, ToDoubleFunction<Pool<Jedis>> value) {
+        Gauge.builder( name, factory, f -> {
+                    Pool<Jedis> pool = f.pool();
+                    return Objects.isNull( pool ) ? Double.NaN : value.applyAsDouble( pool );
+                } )
+                .tag( "role", role.propertyName() )
+                .baseUnit( baseUnit )
+                .register( registry );
+    }
+}
@@ -0,0 +1,77 @@
+package com.ericgha.service.data;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.lang.Nullable;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.util.Pool;
+
+import java.util.Objects;
+
+/**
+ * A {@link JedisConnectionFactory} which exposes its connection pool, so that the pool may be instrumented.
+ * <p>
+ * Optionally connects over a Unix domain socket rather than TCP (see
+ * {@link PooledJedisConnectionFactory#setUnixSocketPath(String)}).
+ */
+public class PooledJedisConnectionFactory extends JedisConnectionFactory {
+
+    @Nullable
+    private volatile Pool<Jedis> pool;
+    @Nullable
+    private String unixSocketPath;
+
+    public PooledJedisConnectionFactory(RedisStandaloneConfiguration standaloneConfig,
+                                        JedisClientConfiguration clientConfig) {
+        super( standaloneConfig, clientConfig );
+        this.pool = null;
+        this.unixSocketPath = null;
+    }
+
+    /**
+     * Connect using the Unix domain socket at {@code unixSocketPath} instead of the configured host and port.  Must be
+     * set before {@link PooledJedisConnectionFactory#afterPropertiesSet()}.
+     *
+     * @param unixSocketPath path to the socket, {@code null} to connect over TCP (default)
+     */
+    public void setUnixSocketPath(@Nullable String unixSocketPath) {
+        this.unixSocketPath = unixSocketPath;
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisPool() {
+        Pool<Jedis> createdPool = Objects.isNull( unixSocketPath ) ? super.createRedisPool() : createUnixSocketPool();
+        this.pool = createdPool;
+        return createdPool;
+    }
+
+    private Pool<Jedis> createUnixSocketPool() {
+        JedisClientConfiguration clientConfiguration = getClientConfiguration();
+        int connectTimeoutMilli = (int) clientConfiguration.getConnectTimeout().toMillis();
+        int readTimeoutMilli = (int) clientConfiguration.getReadTimeout().toMillis();
+        JedisClientConfig jedisClientConfig = DefaultJedisClientConfig.builder()
+                .user( getStandaloneConfiguration().getUsername() )
+                .password( getPassword() )
+                .database( getDatabase() )
+                .clientName( getClientName() )
+                .connectionTimeoutMillis( connectTimeoutMilli )
+                .socketTimeoutMillis( readTimeoutMilli )
+                .build();
+        return new JedisPool( getPoolConfig(),
+                              new UnixDomainSocketFactory( unixSocketPath, connectTimeoutMilli, readTimeoutMilli ),
+                              jedisClientConfig );
+    }
+
+    /**
+     * @return the pool, or {@code null} if the pool has not been created (i.e. before
+     * {@link PooledJedisConnectionFactory#afterPropertiesSet()}) or pooling is disabled.
+     */
+    @Nullable
+    public Pool<Jedis> pool() {
+        return this.pool;
+    }
+}
@@ -0,0 +1,144 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Versioned;
+import com.ericgha.service.event_consumer.EventConsumer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires events of many queues on a fixed number of threads.  Unlike {@link EventExpiryService}, which dedicates
+ * worker threads to a single queue, each registered queue is polled every {@code pollIntervalMilli} by a shared
+ * scheduled executor.  A poll drains at most {@code maxPollsPerTick} expired events, so a busy queue cannot starve the
+ * others.
+ * <p>
+ * A queue with no expired event is polled less often: each idle poll doubles the delay to its next poll, up to
+ * {@link SharedExpiryScheduler#maxIdleIntervalMilli(long)}, and a poll which expires an event restores
+ * {@code pollIntervalMilli}.  Idle namespaces then cost few database calls, at the cost of expiring the first event
+ * after an idle period up to {@code maxIdleIntervalMilli} late.
+ * <p>
+ * The number of threads is independent of the number of queues, at the cost of expiry latency when the scheduler
+ * is saturated.
+ */
+public class SharedExpiryScheduler {
+
+    private final Logger log;
+    private final ScheduledExecutorService executor;
+    private final long pollIntervalMilli;
+    private final int maxPollsPerTick;
+    private volatile long maxIdleIntervalMilli;
+
+    /**
+     * @param numThreads        threads shared by all queues
+     * @param pollIntervalMilli delay between polls of a queue
+     * @param maxPollsPerTick   maximum events expired from a queue per poll
+     * @throws IllegalArgumentException if any argument is not positive
+     */
+    public SharedExpiryScheduler(int numThreads, long pollIntervalMilli,
+                                 int maxPollsPerTick) throws IllegalArgumentException {
+        if (numThreads <= 0 || pollIntervalMilli <= 0 || maxPollsPerTick <= 0) {
+            throw new IllegalArgumentException( "numThreads, pollIntervalMilli and maxPollsPerTick must be positive." );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass() );
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor( numThreads );
+        // polls are scheduled ahead, on stop they are dropped rather than run
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy( false );
+        this.executor = executor;
+        this.pollIntervalMilli = pollIntervalMilli;
+        this.maxPollsPerTick = maxPollsPerTick;
+        this.maxIdleIntervalMilli = pollIntervalMilli;
+    }
+
+    /**
+     * @return the maximum delay between polls of an idle queue.  Default {@code pollIntervalMilli}, no back off.
+     */
+    public long maxIdleIntervalMilli() {
+        return this.maxIdleIntervalMilli;
+    }
+
+    /**
+     * Sets the maximum delay between polls of a queue with no expired events, for polls scheduled afterwards.
+     *
+     * @param maxIdleIntervalMilli
+     * @throws IllegalArgumentException if {@code maxIdleIntervalMilli < pollIntervalMilli}
+     */
+    public void maxIdleIntervalMilli(long maxIdleIntervalMilli) throws IllegalArgumentException {
+        if (maxIdleIntervalMilli < pollIntervalMilli) {
+            throw new IllegalArgumentException( "maxIdleIntervalMilli must be at least pollIntervalMilli." );
+        }
+        this.maxIdleIntervalMilli = maxIdleIntervalMilli;
+    }
+
+    /**
+     * Begin expiring events from a queue.
+     *
+     * @param queueService  the queue to poll
+     * @param eventConsumer action to be taken upon polling an event from the queue
+     * @param delayMilli    the amount of time events should be <em>aged</em> on the queue
+     * @return cancel to stop polling the queue, an in progress poll is not interrupted
+     */
+    public Future<?> register(EventQueueService queueService, EventConsumer eventConsumer, long delayMilli) {
+        Objects.requireNonNull( eventConsumer, "Received a null EventConsumer." );
+        CompletableFuture<Void> registration = new CompletableFuture<>();
+        executor.schedule( () -> poll( registration, queueService, eventConsumer, delayMilli, pollIntervalMilli ), 0L,
+                           TimeUnit.MILLISECONDS );
+        return registration;
+    }
+
+    private void poll(Future<?> registration, EventQueueService queueService, EventConsumer eventConsumer,
+                      long delayMilli, long intervalMilli) {
+        if (registration.isDone()) {
+            return;
+        }
+        long nextIntervalMilli = drain( queueService, eventConsumer, delayMilli ) > 0
+                ? pollIntervalMilli : Math.min( maxIdleIntervalMilli, intervalMilli * 2 );
+        try {
+            executor.schedule( () -> poll( registration, queueService, eventConsumer, delayMilli, nextIntervalMilli ),
+                               nextIntervalMilli, TimeUnit.MILLISECONDS );
+        } catch (RejectedExecutionException e) {
+            log.debug( "Stopped polling queue {}, the scheduler is stopped.", queueService.queueKey() );
+        }
+    }
+
+    /**
+     * Stops polling every queue.  Blocks until in progress polls complete.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.close();
+    }
+
+    // an exception escaping a poll would stop polling the queue, so every exception is handled here
+    // returns the number of events expired
+    int drain(EventQueueService queueService, EventConsumer eventConsumer, long delayMilli) {
+        for (int i = 0; i < maxPollsPerTick; i++) {
+            Versioned<EventTime> event;
+            try {
+                event = queueService.tryPoll( Instant.now().toEpochMilli() - delayMilli );
+            } catch (Exception e) {
+                log.debug( "Poll of queue {} failed: {}", queueService.queueKey(), e );
+                return i;
+            }
+            if (Objects.isNull( event )) {
+                return i;
+            }
+            try {
+                eventConsumer.accept( event );
+            } catch (Exception e) {
+                log.warn( "Encountered an error while expiring event {}.  Status will be lost.", event );
+                log.debug( "Exception on expiring event (version: {}): {}.", event.clock(), e );
+            }
+        }
+        return maxPollsPerTick;
+    }
+}
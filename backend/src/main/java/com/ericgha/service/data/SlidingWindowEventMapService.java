@@ -0,0 +1,67 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.SlidingWindowMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.dto.EventTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * An {@link EventMapService} which accepts at most {@code limit} identical events per {@code eventDurationMilli}
+ * (sliding window), backed by a {@link SlidingWindowMap}.
+ */
+public class SlidingWindowEventMapService implements EventMapService {
+
+    private final Logger log;
+    private final SlidingWindowMap eventMap;
+    private final KeyMaker keyMaker;
+    private final String clockKey;
+    private final long eventDurationMilli;
+    private final long limit;
+
+    /**
+     * @param eventMap
+     * @param eventDurationMilli length of the sliding window
+     * @param limit              maximum identical events per window
+     * @param keyMaker
+     * @throws IllegalArgumentException if {@code eventDurationMilli} or {@code limit} is not positive
+     */
+    public SlidingWindowEventMapService(SlidingWindowMap eventMap, long eventDurationMilli, long limit,
+                                        KeyMaker keyMaker) throws IllegalArgumentException {
+        if (eventDurationMilli <= 0 || limit <= 0) {
+            throw new IllegalArgumentException( "Event duration and limit must be positive." );
+        }
+        this.log = LoggerFactory.getLogger( this.getClass().getName() + ":" + keyMaker.keyPrefix() );
+        this.eventMap = eventMap;
+        this.eventDurationMilli = eventDurationMilli;
+        this.limit = limit;
+        this.keyMaker = keyMaker;
+        this.clockKey = keyMaker.generateClockKey();
+    }
+
+    public boolean putEvent(String event, long timeMilli) {
+        long now = Instant.now().toEpochMilli();
+        if (timeMilli + eventDurationMilli <= now) {
+            log.warn( "Received an event which has already ended." );
+            return false;
+        }
+        if (timeMilli > now) {
+            log.warn( "Received an event beginning in the future." );
+            return false;
+        }
+        return eventMap.putEvent( keyMaker.generateEventKey( event ), clockKey, timeMilli, eventDurationMilli,
+                                  limit );
+    }
+
+    @Override
+    public boolean putEvent(EventTime eventTime) {
+        return putEvent( eventTime.event(), eventTime.time() );
+    }
+
+    @Override
+    public String keyPrefix() {
+        return keyMaker.keyPrefix();
+    }
+}
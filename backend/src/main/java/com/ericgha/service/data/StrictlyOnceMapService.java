@@ -3,6 +3,7 @@ package com.ericgha.service.data;
 import com.ericgha.dao.StrictlyOnceMap;
 import com.ericgha.domain.KeyMaker;
 import com.ericgha.dto.EventHash;
+import com.ericgha.dto.EventStatus;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.Status;
 import com.ericgha.dto.TimeIsValidDiff;
@@ -116,6 +117,36 @@ public class StrictlyOnceMapService implements EventMapService {
         return statuses;
     }
 
+    /**
+     * Queries every event on a queue together with its status, in one atomic call.  Unlike
+     * {@link StrictlyOnceMapService#isValid(List)} the statuses are consistent with the clock of the snapshot.
+     *
+     * @param eventQueueService the queue of events put into this
+     * @return an in order list of the event statuses (versioned by scalar clock)
+     * @throws IllegalStateException if event keys are hashed, the database cannot derive them from events
+     * @see EventQueueService#getAllWithStatus
+     */
+    public Versioned<List<EventStatus>> snapshotWithStatus(@NonNull EventQueueService eventQueueService)
+            throws IllegalStateException {
+        if (keyMaker.hashEvents()) {
+            throw new IllegalStateException( "Snapshots with status require event keys which are not hashed." );
+        }
+        String eventKeyPrefix = keyMaker.encodeKey( KeyMaker.EVENT_IDENTIFIER ) + KeyMaker.KEY_DELIMITER;
+        Versioned<List<EventStatus>> versionedStatuses =
+                eventQueueService.getAllWithStatus( eventKeyPrefix, eventMap.storage() );
+        List<EventStatus> statuses = new ArrayList<>( versionedStatuses.data().size() );
+        for (EventStatus eventStatus : versionedStatuses.data()) {
+            EventTime eventTime = new EventTime( eventStatus.event(), eventStatus.time() );
+            if (!isValidCheckArguments( eventTime )) {
+                log.debug( "Status query for {} was out of range.", eventTime );
+                statuses.add( new EventStatus( eventTime, Status.Unknown ) );
+            } else {
+                statuses.add( eventStatus );
+            }
+        }
+        return new Versioned<>( versionedStatuses.clock(), statuses );
+    }
+
     public void setInvalidator(@NonNull EventConsumer invalidHandler) throws IllegalArgumentException {
         Objects.requireNonNull( invalidHandler, "Received a null invalidator" );
         this.invalidator = invalidHandler;
@@ -0,0 +1,67 @@
+package com.ericgha.service.data;
+
+import org.newsclub.net.unix.AFUNIXSocket;
+import org.newsclub.net.unix.AFUNIXSocketAddress;
+import redis.clients.jedis.JedisSocketFactory;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Objects;
+
+/**
+ * A {@link JedisSocketFactory} which connects to Redis over a Unix domain socket, avoiding the loopback TCP stack
+ * when Redis is co-located with the application.
+ */
+public class UnixDomainSocketFactory implements JedisSocketFactory {
+
+    private final File socketFile;
+    private final int connectTimeoutMilli;
+    private final int soTimeoutMilli;
+
+    /**
+     * @param socketPath          path to the socket file Redis is listening on (the {@code unixsocket} directive)
+     * @param connectTimeoutMilli timeout when connecting, {@code 0} is infinite
+     * @param soTimeoutMilli      timeout when reading a reply, {@code 0} is infinite
+     */
+    public UnixDomainSocketFactory(String socketPath, int connectTimeoutMilli, int soTimeoutMilli) {
+        this.socketFile = new File( Objects.requireNonNull( socketPath, "Received a null socketPath." ) );
+        this.connectTimeoutMilli = connectTimeoutMilli;
+        this.soTimeoutMilli = soTimeoutMilli;
+    }
+
+    /**
+     * @return a connected socket
+     * @throws JedisConnectionException if the socket could not be connected
+     */
+    @Override
+    public Socket createSocket() throws JedisConnectionException {
+        AFUNIXSocket socket = null;
+        try {
+            socket = AFUNIXSocket.newInstance();
+            socket.connect( AFUNIXSocketAddress.of( socketFile ), connectTimeoutMilli );
+            socket.setSoTimeout( soTimeoutMilli );
+            return socket;
+        } catch (IOException e) {
+            closeQuietly( socket );
+            throw new JedisConnectionException( "Failed to connect to the unix socket: " + socketFile, e );
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (Objects.isNull( socket )) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // the connection failure is the more useful exception
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "UnixDomainSocketFactory{" + "socketFile=" + socketFile + '}';
+    }
+}
@@ -0,0 +1,168 @@
+package com.ericgha.service.snapshot_consumer;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Versioned;
+import com.ericgha.dto.message.DeltaFrameMessage;
+import com.ericgha.dto.message.KeyFrameMessage;
+import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Sends a full {@link KeyFrameMessage} every {@code keyFrameEvery} snapshots and {@link DeltaFrameMessage}s, holding
+ * only the entries added or removed since the previous snapshot, in between.  Only added entries are mapped, the
+ * status of retained entries is not re-checked until the next key frame (status changes are sent as they occur by the
+ * event services).
+ * <p>
+ * A key frame may be requested at any time with {@link DeltaSnapshotSTOMPMessenger#requestKeyFrame()}, the next
+ * snapshot is then sent in full.  A {@code keyFrameEvery} of {@code 1} sends every snapshot in full, as
+ * {@link SnapshotSTOMPMessenger}.
+ * <p>
+ * Entries are compared as {@link EventTime}s, identical entries in the same snapshot are treated as one.
+ * <p>
+ * Paged snapshots are always sent as {@link com.ericgha.dto.message.KeyFramePageMessage}s.  A delta needs the whole
+ * previous and current snapshot, holding them would defeat paging, so no snapshot is kept and the next unpaged snapshot
+ * is a key frame.  Paging and a {@code keyFrameEvery} above {@code 1} should not be configured together.
+ */
+public class DeltaSnapshotSTOMPMessenger extends SnapshotSTOMPMessenger {
+
+    private final SimpMessagingTemplate template;
+    private final int keyFrameEvery;
+    private volatile boolean keyFrameRequested;
+    private int sinceKeyFrame;
+    private long lastClock;
+    @Nullable
+    private Set<EventTime> lastSnapshot;
+    @Nullable
+    private List<EventTime> lastSnapshotInOrder;
+
+    /**
+     * @param template       messaging template
+     * @param prefix         destination messages will be sent to
+     * @param snapshotMapper maps {@code List<EventTime>} to {@code List<EventStatus}
+     * @param keyFrameEvery  send a key frame every {@code keyFrameEvery} snapshots
+     * @throws IllegalArgumentException if {@code keyFrameEvery} is not positive
+     */
+    public DeltaSnapshotSTOMPMessenger(SimpMessagingTemplate template, String prefix,
+                                       SnapshotMapper<EventStatus> snapshotMapper,
+                                       int keyFrameEvery) throws IllegalArgumentException {
+        super( template, prefix, snapshotMapper );
+        if (keyFrameEvery <= 0) {
+            throw new IllegalArgumentException( "keyFrameEvery must be positive." );
+        }
+        this.template = template;
+        this.keyFrameEvery = keyFrameEvery;
+        this.keyFrameRequested = false;
+        this.sinceKeyFrame = 0;
+        this.lastClock = 0;
+        this.lastSnapshot = null;
+        this.lastSnapshotInOrder = null;
+    }
+
+    /**
+     * Send the next snapshot as a key frame.
+     */
+    public void requestKeyFrame() {
+        this.keyFrameRequested = true;
+    }
+
+    @Override
+    public synchronized void accept(Long timestamp, List<EventTime> snapshot) {
+        if (keyFrameEvery == 1) {
+            super.accept( timestamp, snapshot );
+            return;
+        }
+        if (nextIsKeyFrame()) {
+            super.accept( timestamp, snapshot );
+            keyFrameSent( timestamp, snapshot );
+        } else {
+            sendDelta( timestamp, snapshot );
+        }
+    }
+
+    /**
+     * Pages are sent as key frame pages, and the previous snapshot is forgotten.
+     */
+    @Override
+    public synchronized void acceptPage(long clock, int page, int numPages, List<EventTime> events) {
+        super.acceptPage( clock, page, numPages, events );
+        if (page == 0) {
+            this.keyFrameRequested = false;
+            this.sinceKeyFrame = 0;
+            this.lastSnapshot = null;
+            this.lastSnapshotInOrder = null;
+        }
+    }
+
+    /**
+     * Sends the previous snapshot, as delta frames which follow apply to it.  Only if there is no previous snapshot is
+     * one supplied.
+     */
+    @Override
+    public synchronized void sendKeyFrame(String sessionId, Supplier<Versioned<List<EventTime>>> snapshotSupplier) {
+        if (keyFrameEvery == 1 || Objects.isNull( lastSnapshotInOrder )) {
+            super.sendKeyFrame( sessionId, snapshotSupplier );
+            return;
+        }
+        sendKeyFrame( sessionId, lastClock, lastSnapshotInOrder );
+    }
+
+    /**
+     * Sends the previous snapshot, as {@link DeltaSnapshotSTOMPMessenger#sendKeyFrame(String, Supplier)}.
+     */
+    @Override
+    public synchronized void sendKeyFrame(Collection<String> sessionIds,
+                                          Supplier<Versioned<List<EventTime>>> snapshotSupplier) {
+        if (keyFrameEvery == 1 || Objects.isNull( lastSnapshotInOrder )) {
+            super.sendKeyFrame( sessionIds, snapshotSupplier );
+            return;
+        }
+        sendKeyFrame( sessionIds, lastClock, lastSnapshotInOrder );
+    }
+
+    private boolean nextIsKeyFrame() {
+        return keyFrameRequested || Objects.isNull( lastSnapshot ) || sinceKeyFrame + 1 >= keyFrameEvery;
+    }
+
+    private void keyFrameSent(long timestamp, List<EventTime> snapshot) {
+        this.keyFrameRequested = false;
+        this.sinceKeyFrame = 0;
+        this.lastClock = timestamp;
+        this.lastSnapshot = new HashSet<>( snapshot );
+        this.lastSnapshotInOrder = snapshot;
+    }
+
+    private void sendDelta(long timestamp, List<EventTime> snapshot) {
+        Set<EventTime> current = new HashSet<>( snapshot );
+        template.convertAndSend( prefix(), delta( timestamp, snapshot, current ) );
+        this.sinceKeyFrame++;
+        this.lastClock = timestamp;
+        this.lastSnapshot = current;
+        this.lastSnapshotInOrder = snapshot;
+    }
+
+    private DeltaFrameMessage delta(long timestamp, List<EventTime> snapshot, Set<EventTime> current) {
+        List<EventTime> added = new ArrayList<>();
+        for (EventTime eventTime : snapshot) {
+            if (!lastSnapshot.contains( eventTime )) {
+                added.add( eventTime );
+            }
+        }
+        List<EventTime> removed = new ArrayList<>();
+        for (EventTime eventTime : lastSnapshot) {
+            if (!current.contains( eventTime )) {
+                removed.add( eventTime );
+            }
+        }
+        return new DeltaFrameMessage( lastClock, timestamp, chunkedMap( added ), removed );
+    }
+}
@@ -0,0 +1,87 @@
+package com.ericgha.service.snapshot_consumer;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.message.KeyFrameMessage;
+import com.ericgha.dto.message.KeyFramePageMessage;
+import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes {@link KeyFrameMessage}s and {@link KeyFramePageMessage}s as JSON with a {@link JsonGenerator}, mapping a
+ * chunk of the snapshot at a time and writing it before mapping the next.  Neither the mapped snapshot nor the
+ * message is materialized, the JSON is written to an in memory buffer and copied out as the payload.  The JSON is
+ * equivalent to that written by Jackson for the message.
+ */
+class KeyFrameJsonWriter {
+
+    private final JsonFactory jsonFactory;
+
+    KeyFrameJsonWriter() {
+        this.jsonFactory = new JsonFactory();
+    }
+
+    /**
+     * @return UTF-8 encoded JSON of a {@link KeyFrameMessage}
+     */
+    byte[] writeKeyFrame(long clock, List<EventTime> snapshot, SnapshotMapper<EventStatus> snapshotMapper,
+                         int chunkSize) {
+        return write( clock, -1, -1, snapshot, snapshotMapper, chunkSize );
+    }
+
+    /**
+     * @return UTF-8 encoded JSON of a {@link KeyFramePageMessage}
+     */
+    byte[] writeKeyFramePage(long clock, int page, int numPages, List<EventTime> events,
+                             SnapshotMapper<EventStatus> snapshotMapper, int chunkSize) {
+        return write( clock, page, numPages, events, snapshotMapper, chunkSize );
+    }
+
+    // page < 0 writes a whole key frame
+    private byte[] write(long clock, int page, int numPages, List<EventTime> events,
+                         SnapshotMapper<EventStatus> snapshotMapper, int chunkSize) {
+        // sized for ~64 bytes per entry, avoids most resizing
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 64 + events.size() * 64 );
+        try (JsonGenerator generator = jsonFactory.createGenerator( out, JsonEncoding.UTF8 )) {
+            generator.writeStartObject();
+            generator.writeNumberField( "clock", clock );
+            if (page >= 0) {
+                generator.writeNumberField( "page", page );
+                generator.writeNumberField( "numPages", numPages );
+            }
+            generator.writeArrayFieldStart( "snapshot" );
+            int written = 0;
+            while (written < events.size()) {
+                int thisChunkSize = Math.min( chunkSize, events.size() - written );
+                for (EventStatus eventStatus : snapshotMapper.apply(
+                        events.subList( written, written + thisChunkSize ) )) {
+                    writeEventStatus( generator, eventStatus );
+                }
+                written += thisChunkSize;
+            }
+            generator.writeEndArray();
+            generator.writeStringField( "messageType", page >= 0 ? KeyFramePageMessage.MESSAGE_TYPE.name()
+                                                                 : KeyFrameMessage.MESSAGE_TYPE.name() );
+            generator.writeEndObject();
+        } catch (IOException e) {
+            // only thrown by the generator, out is in memory
+            throw new UncheckedIOException( "Unable to write the key frame.", e );
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeEventStatus(JsonGenerator generator, EventStatus eventStatus) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField( "event", eventStatus.event() );
+        generator.writeNumberField( "time", eventStatus.time() );
+        generator.writeStringField( "status", eventStatus.status().name() );
+        generator.writeEndObject();
+    }
+}
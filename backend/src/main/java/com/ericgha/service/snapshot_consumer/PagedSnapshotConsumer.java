@@ -0,0 +1,21 @@
+package com.ericgha.service.snapshot_consumer;
+
+import com.ericgha.dto.EventTime;
+import com.ericgha.service.EventQueueSnapshotService;
+
+import java.util.List;
+
+/**
+ * A consumer for snapshots which {@link EventQueueSnapshotService} may deliver in pages.  Pages of a snapshot are
+ * delivered in order, on one thread, and are consistent with one clock.
+ */
+public interface PagedSnapshotConsumer extends SnapshotConsumer {
+
+    /**
+     * @param clock    clock of the snapshot
+     * @param page     index of this page, from {@code 0}
+     * @param numPages number of pages in the snapshot, at least {@code 1}
+     * @param events   events of this page, in queue order
+     */
+    void acceptPage(long clock, int page, int numPages, List<EventTime> events);
+}
@@ -2,24 +2,62 @@ package com.ericgha.service.snapshot_consumer;
 
 import com.ericgha.dto.EventStatus;
 import com.ericgha.dto.EventTime;
+import com.ericgha.dto.MessageType;
+import com.ericgha.dto.Versioned;
 import com.ericgha.dto.message.KeyFrameMessage;
+import com.ericgha.dto.message.KeyFramePageMessage;
+import com.ericgha.service.ConversionMetrics;
 import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 /**
  * Sends snapshots.  Uses a {@link SnapshotMapper} to map {@link EventTime}s of a snapshot to {@link EventStatus} and
  * sends the mapped snapshot.  The mapping is not one shot, instead (potentially) multiple chunked requests to the
  * {@code snapshotMapper} are made to process the entire snapshot.
+ * <p>
+ * Snapshots delivered in pages are sent as a {@link KeyFramePageMessage} per page.
+ * <p>
+ * When streaming ({@link SnapshotSTOMPMessenger#streaming(boolean)}) the JSON payload is written chunk by chunk as
+ * the snapshot is mapped, rather than mapping the entire snapshot and then converting the message.  The payload is
+ * still built in memory, so this saves the mapped snapshot and message, not the payload.
+ * <p>
+ * With a {@code parallelism} above one ({@link SnapshotSTOMPMessenger#parallelism(int)}) up to {@code parallelism}
+ * chunks are mapped at once, each on its own virtual thread, and reassembled in order.  A mapper making a database call
+ * per chunk then takes about one round trip per {@code parallelism} chunks, rather than one per chunk.  Streamed key
+ * frames are mapped {@code parallelism} chunks at a time.
+ * <p>
+ * A key frame may also be sent to a single session ({@link SnapshotSTOMPMessenger#sendKeyFrame(String, Supplier)}),
+ * at the user destination of {@code prefix}.  A key frame for many sessions
+ * ({@link SnapshotSTOMPMessenger#sendKeyFrame(Collection, Supplier)}) is converted once, and its payload sent to each.
  */
-public class SnapshotSTOMPMessenger implements SnapshotConsumer {
+public class SnapshotSTOMPMessenger implements PagedSnapshotConsumer {
 
     private final SimpMessagingTemplate template;
     private final SnapshotMapper<EventStatus> snapshotMapper;
     private final String prefix;
     private int chunkSize = 1_000;
+    private int parallelism = 1;
+    private boolean streaming = false;
+    @Nullable
+    private ConversionMetrics conversionMetrics = null;
+    private final KeyFrameJsonWriter keyFrameJsonWriter = new KeyFrameJsonWriter();
 
     /**
      *
@@ -52,7 +90,59 @@ public class SnapshotSTOMPMessenger implements SnapshotConsumer {
         this.chunkSize = chunkSize;
     }
 
+    /**
+     * @return if key frames are streamed.  Default {@code false}.
+     */
+    public boolean streaming() {
+        return this.streaming;
+    }
+
+    /**
+     * Sets if key frames are written directly to JSON as they are mapped, skipping the mapped snapshot and the message.
+     * The snapshot and payload are still held in full, and the payload is copied once out of its buffer, so peak heap
+     * is about the snapshot and two payloads: a saving on large snapshots, not a bound.
+     *
+     * @param streaming
+     */
+    public void streaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * @return the maximum number of chunks mapped at once.  Default 1.
+     */
+    public int parallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Sets the maximum number of chunks mapped at once.  A mapper which makes database calls should not be given more
+     * parallelism than it has connections.
+     *
+     * @param parallelism
+     * @throws IllegalArgumentException if {@code parallelism <= 0}
+     */
+    public void parallelism(int parallelism) throws IllegalArgumentException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException( "parallelism must be positive." );
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the metrics key frames converted by this are recorded by.  Key frames converted by the {@code template}
+     * are not.  Streamed key frames are mapped as they are written, so their conversion includes mapping.
+     *
+     * @param conversionMetrics the metrics, {@code null} for none (default)
+     */
+    public void conversionMetrics(@Nullable ConversionMetrics conversionMetrics) {
+        this.conversionMetrics = conversionMetrics;
+    }
+
     List<EventStatus> chunkedMap(List<EventTime> snapshot) {
+        if (parallelism > 1 && snapshot.size() > chunkSize) {
+            return parallelChunkedMap( snapshot );
+        }
         List<EventStatus> mapped = new ArrayList<>(snapshot.size());
         int mappedI = 0;
         while (mappedI < snapshot.size() ) {
@@ -65,13 +155,170 @@ public class SnapshotSTOMPMessenger implements SnapshotConsumer {
         return mapped;
     }
 
+    private List<EventStatus> parallelChunkedMap(List<EventTime> snapshot) throws IllegalStateException {
+        int thisChunkSize = chunkSize;
+        Semaphore permits = new Semaphore( parallelism );
+        List<Future<List<EventStatus>>> mappedChunks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int start = 0; start < snapshot.size(); start += thisChunkSize) {
+                List<EventTime> chunk = snapshot.subList( start, Math.min( start + thisChunkSize, snapshot.size() ) );
+                mappedChunks.add( executor.submit( () -> {
+                    permits.acquire();
+                    try {
+                        return snapshotMapper.apply( chunk );
+                    } finally {
+                        permits.release();
+                    }
+                } ) );
+            }
+            List<EventStatus> mapped = new ArrayList<>( snapshot.size() );
+            try {
+                for (Future<List<EventStatus>> mappedChunk : mappedChunks) {
+                    mapped.addAll( mappedChunk.get() );
+                }
+            } catch (InterruptedException e) {
+                mappedChunks.forEach( mappedChunk -> mappedChunk.cancel( true ) );
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while mapping the snapshot.", e );
+            } catch (ExecutionException e) {
+                mappedChunks.forEach( mappedChunk -> mappedChunk.cancel( true ) );
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException( "Unable to map the snapshot.", e.getCause() );
+            }
+            return mapped;
+        }
+    }
+
+    // chunks of a streamed key frame are mapped by chunkedMap a window of parallelism chunks at a time
+    private SnapshotMapper<EventStatus> streamingMapper() {
+        return parallelism > 1 ? this::chunkedMap : snapshotMapper;
+    }
+
+    private int streamingChunkSize() {
+        return (int) Math.min( Integer.MAX_VALUE, (long) chunkSize * parallelism );
+    }
+
     @Override
     public void accept(Long timestamp, List<EventTime> snapshot) {
+        if (streaming) {
+            sendJson( writeKeyFrame( timestamp, snapshot ) );
+            return;
+        }
         List<EventStatus> mappedSnapshot = chunkedMap( snapshot );
         KeyFrameMessage keyFrameMessage = new KeyFrameMessage( timestamp, mappedSnapshot );
         template.convertAndSend( prefix, keyFrameMessage );
     }
 
+    @Override
+    public void acceptPage(long clock, int page, int numPages, List<EventTime> events) {
+        if (streaming) {
+            sendJson( record( KeyFramePageMessage.MESSAGE_TYPE,
+                              () -> keyFrameJsonWriter.writeKeyFramePage( clock, page, numPages, events,
+                                                                          streamingMapper(),
+                                                                          streamingChunkSize() ) ) );
+            return;
+        }
+        List<EventStatus> mappedPage = chunkedMap( events );
+        template.convertAndSend( prefix, new KeyFramePageMessage( clock, page, numPages, mappedPage ) );
+    }
+
+    /**
+     * Sends a key frame to one session, at the user destination of {@code prefix} (i.e. {@code /user<prefix>}).
+     *
+     * @param sessionId        the session
+     * @param snapshotSupplier supplies the snapshot to send
+     */
+    public void sendKeyFrame(String sessionId, Supplier<Versioned<List<EventTime>>> snapshotSupplier) {
+        Versioned<List<EventTime>> snapshot = snapshotSupplier.get();
+        sendKeyFrame( sessionId, snapshot.clock(), snapshot.data() );
+    }
+
+    void sendKeyFrame(String sessionId, long clock, List<EventTime> snapshot) {
+        if (streaming) {
+            sendToSession( sessionId, writeKeyFrame( clock, snapshot ) );
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create( SimpMessageType.MESSAGE );
+        // a user destination naming the session id of the message resolves to that session only
+        accessor.setSessionId( sessionId );
+        accessor.setLeaveMutable( true );
+        KeyFrameMessage keyFrameMessage = new KeyFrameMessage( clock, chunkedMap( snapshot ) );
+        template.convertAndSendToUser( sessionId, prefix, keyFrameMessage, accessor.getMessageHeaders() );
+    }
+
+    /**
+     * Sends one key frame to each session, at the user destination of {@code prefix}.  The key frame is taken, mapped
+     * and converted once.
+     *
+     * @param sessionIds       the sessions
+     * @param snapshotSupplier supplies the snapshot to send
+     */
+    public void sendKeyFrame(Collection<String> sessionIds, Supplier<Versioned<List<EventTime>>> snapshotSupplier) {
+        Versioned<List<EventTime>> snapshot = snapshotSupplier.get();
+        sendKeyFrame( sessionIds, snapshot.clock(), snapshot.data() );
+    }
+
+    void sendKeyFrame(Collection<String> sessionIds, long clock, List<EventTime> snapshot)
+            throws IllegalStateException {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        byte[] payload;
+        if (streaming) {
+            payload = writeKeyFrame( clock, snapshot );
+        } else {
+            KeyFrameMessage keyFrameMessage = new KeyFrameMessage( clock, chunkedMap( snapshot ) );
+            payload = record( KeyFrameMessage.MESSAGE_TYPE, () -> convert( keyFrameMessage ) );
+        }
+        if (Objects.nonNull( conversionMetrics )) {
+            conversionMetrics.fanOut( KeyFrameMessage.MESSAGE_TYPE, sessionIds.size() );
+        }
+        // the payload is shared by every message, it must not be modified
+        for (String sessionId : sessionIds) {
+            sendToSession( sessionId, payload );
+        }
+    }
+
+    private byte[] writeKeyFrame(long clock, List<EventTime> snapshot) {
+        return record( KeyFrameMessage.MESSAGE_TYPE,
+                       () -> keyFrameJsonWriter.writeKeyFrame( clock, snapshot, streamingMapper(),
+                                                               streamingChunkSize() ) );
+    }
+
+    private byte[] convert(KeyFrameMessage keyFrameMessage) throws IllegalStateException {
+        Message<?> message = template.getMessageConverter().toMessage( keyFrameMessage, null );
+        if (Objects.isNull( message ) || !(message.getPayload() instanceof byte[] payload)) {
+            throw new IllegalStateException( "Unable to convert the key frame to bytes." );
+        }
+        return payload;
+    }
+
+    private byte[] record(MessageType messageType, Supplier<byte[]> conversion) {
+        if (Objects.isNull( conversionMetrics )) {
+            return conversion.get();
+        }
+        return conversionMetrics.record( messageType, conversion, payload -> payload.length );
+    }
+
+    private void sendToSession(String sessionId, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create( SimpMessageType.MESSAGE );
+        // a user destination naming the session id of the message resolves to that session only
+        accessor.setSessionId( sessionId );
+        accessor.setContentType( MimeTypeUtils.APPLICATION_JSON );
+        accessor.setLeaveMutable( true );
+        template.send( template.getUserDestinationPrefix() + sessionId + prefix,
+                       MessageBuilder.createMessage( payload, accessor.getMessageHeaders() ) );
+    }
+
+    private void sendJson(byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType( MimeTypeUtils.APPLICATION_JSON );
+        accessor.setLeaveMutable( true );
+        template.send( prefix, MessageBuilder.createMessage( payload, accessor.getMessageHeaders() ) );
+    }
+
     public String prefix() {
         return this.prefix;
     }
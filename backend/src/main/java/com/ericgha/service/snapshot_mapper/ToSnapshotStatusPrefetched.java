@@ -0,0 +1,76 @@
+package com.ericgha.service.snapshot_mapper;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Status;
+import com.ericgha.dto.Versioned;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Maps a chunk of {@link EventTime}s to {@link EventStatus}s using the statuses read together with the last snapshot
+ * ({@link ToSnapshotStatusPrefetched#read()}), so that a snapshot and its statuses take one database call.  Use
+ * {@link ToSnapshotStatusPrefetched#read()} to take the snapshots which are mapped by this.
+ * <p>
+ * {@code EventTime}s not in the last snapshot read (i.e. from a view or a paged snapshot) are mapped by the
+ * {@code validator}.
+ */
+public class ToSnapshotStatusPrefetched implements SnapshotMapper<EventStatus> {
+
+    private final Supplier<Versioned<List<EventStatus>>> reader;
+    private final Function<List<EventTime>, List<Status>> validator;
+    private volatile Map<EventTime, Status> prefetched;
+
+    /**
+     * @param reader    reads a snapshot together with the status of each {@code EventTime}
+     * @param validator used to map {@code EventTime}s which were not prefetched to {@code Status}s
+     */
+    public ToSnapshotStatusPrefetched(Supplier<Versioned<List<EventStatus>>> reader,
+                                      Function<List<EventTime>, List<Status>> validator) {
+        this.reader = reader;
+        this.validator = validator;
+        this.prefetched = Map.of();
+    }
+
+    /**
+     * Reads a snapshot, retaining its statuses for mapping.
+     *
+     * @return the snapshot
+     */
+    public Versioned<List<EventTime>> read() {
+        Versioned<List<EventStatus>> versionedStatuses = reader.get();
+        Map<EventTime, Status> statuses = new HashMap<>();
+        List<EventTime> eventTimes = new ArrayList<>( versionedStatuses.data().size() );
+        for (EventStatus eventStatus : versionedStatuses.data()) {
+            EventTime eventTime = new EventTime( eventStatus.event(), eventStatus.time() );
+            statuses.put( eventTime, eventStatus.status() );
+            eventTimes.add( eventTime );
+        }
+        this.prefetched = statuses;
+        return new Versioned<>( versionedStatuses.clock(), eventTimes );
+    }
+
+    @Override
+    public List<EventStatus> apply(List<EventTime> eventTimes) {
+        Map<EventTime, Status> statuses = this.prefetched;
+        List<EventTime> missed = eventTimes.stream().filter( eventTime -> !statuses.containsKey( eventTime ) )
+                .toList();
+        List<Status> missedStatuses = missed.isEmpty() ? List.of() : validator.apply( missed );
+        List<EventStatus> eventStatuses = new ArrayList<>( eventTimes.size() );
+        int missedIndex = 0;
+        for (EventTime eventTime : eventTimes) {
+            Status status = statuses.get( eventTime );
+            if (Objects.isNull( status )) {
+                status = missedStatuses.get( missedIndex++ );
+            }
+            eventStatuses.add( new EventStatus( eventTime, status ) );
+        }
+        return eventStatuses;
+    }
+}
@@ -1,16 +1,82 @@
 #!lua name=event_functions
 
+-- Strictly once event state is a (time, isValid, retired) triple, it may be stored in one of two formats:
+--   hash:   a redis hash with fields time, is_valid and retired (retired is absent until an event is retired)
+--   packed: a 17 byte string, struct format ">Bi8i8" {flags, time, retired}.  flags bit 0 is isValid and bit 1 is set
+--           if retired is present (retired is 0 when absent).
+local is_valid_hkey = "is_valid"
+local time_hkey = "time"
+local retired_hkey = "retired"
+local packed_format = ">Bi8i8"
+
+-- returns time, isValid, retired (each may be nil)
+local function read_hash_state(eventKey)
+    local curState = redis.call("HMGET", eventKey, time_hkey, is_valid_hkey, retired_hkey)
+    return tonumber(curState[1]), tonumber(curState[2]), tonumber(curState[3])
+end
+
+local function write_hash_state(eventKey, time, isValid, retired, expiryMillis)
+    if retired then
+        redis.call("HSET", eventKey, time_hkey, time, is_valid_hkey, isValid, retired_hkey, retired)
+    else
+        -- cannot set a null hash value, and prefer not to use a sentinel value
+        redis.call("HSET", eventKey, time_hkey, time, is_valid_hkey, isValid)
+    end
+    redis.call("PEXPIRE", eventKey, expiryMillis)
+end
+
+-- returns time, isValid, retired (each may be nil)
+local function read_packed_state(eventKey)
+    local packed = redis.call("GET", eventKey)
+    if not packed then
+        return nil, nil, nil
+    end
+    local flags, time, retired = struct.unpack(packed_format, packed)
+    local isValid = flags % 2
+    if flags < 2 then
+        retired = nil
+    end
+    return time, isValid, retired
+end
+
+local function write_packed_state(eventKey, time, isValid, retired, expiryMillis)
+    local flags = isValid
+    if retired then
+        flags = flags + 2
+    end
+    redis.call("SET", eventKey, struct.pack(packed_format, flags, time, retired or 0), "PX", expiryMillis)
+end
+
+-- returns updatedTime, updatedIsValid, updatedRetired given the current state and the time of a new event
+local function next_event_state(curTime, isValid, retired, newTime, durationMillis)
+    local updatedTime, updatedIsValid
+    if (curTime == nil) or (curTime + durationMillis <= newTime) then
+        updatedTime, updatedIsValid = newTime, 1
+        --    nextTime in previous but no conflict
+    elseif (newTime < curTime) and (newTime + durationMillis <= curTime) then
+        updatedTime, updatedIsValid = curTime, isValid
+        --    there was a conflict and we need to change db state
+    elseif (newTime > curTime) or (isValid == 1) then
+        updatedTime, updatedIsValid = math.max(curTime, newTime), 0
+    else
+        -- no state change (new time is in previous and no conflict)
+        updatedTime, updatedIsValid = curTime, isValid
+    end
+    local updatedRetired = retired
+    if isValid == 1 and updatedIsValid == 1 and curTime < updatedTime then
+        updatedRetired = curTime
+    end
+    return updatedTime, updatedIsValid, updatedRetired
+end
+
 -- keys [eventKey, clockKey]
 -- args [time, durationMillis]
 -- returns: Table[Table[prevTime, prevIsValid], Table[curTime,curIsValid]]
 -- note: for new keys [prevTime, prevIsValid] will be null and an empty table will be returned b/c of how lua handles null keys
-local function put_event(keys, args)
+local function put_event_state(keys, args, read_state, write_state)
     if (#keys ~= 2) or (#args ~= 2) then
         return redis.error_reply("Incorrect # of keys keys [event, clockKey] or args [time, durationMillis].")
     end
-    local is_valid_hkey = "is_valid"
-    local time_hkey = "time"
-    local retired_hkey = "retired"
 
     local eventKey = keys[1]
     local clockKey = keys[2]
@@ -23,58 +89,55 @@ local function put_event(keys, args)
         return redis.error_reply("Unable to convert time or durationMillis to a number")
     end
 
-    local curState = redis.call('HMGET', eventKey, time_hkey, is_valid_hkey)
-    -- older lua versions cannot unpack nil
-    local curTime = tonumber(curState[1])
-    local isValid = tonumber(curState[2])
-    local updatedRetired = tonumber(curState[3]) -- initialized as current state of updated retired, may mutate
-    local updatedTime = nil
-    local updatedIsValid = nil
+    local curTime, isValid, retired = read_state(eventKey)
+    local updatedTime, updatedIsValid, updatedRetired = next_event_state(curTime, isValid, retired, newTime,
+            durationMillis)
     local updatedClock = nil
 
-    local function state_changed()
-        if isValid == 1 and updatedIsValid == 1 and curTime < updatedTime then
-            updatedRetired = curTime;
-        end
-        if updatedRetired then
-            redis.call("HMSET", eventKey, time_hkey, updatedTime, is_valid_hkey, updatedIsValid, retired_hkey, updatedRetired)
-        else
-            -- cannot call hmset with null hash value, and prefer not to use a sentinel value
-            redis.call("HMSET", eventKey, time_hkey, updatedTime, is_valid_hkey, updatedIsValid)
-        end
-        redis.call("PEXPIRE", eventKey, 2*durationMillis)
-        updatedClock = redis.call("INCR", clockKey)
-        return
-    end
-
-    if (curTime == nil) or (curTime + durationMillis <= newTime) then
-        updatedTime, updatedIsValid = newTime, 1
-        --    nextTime in previous but no conflict
-    elseif (newTime < curTime) and (newTime + durationMillis <= curTime) then
-        updatedTime, updatedIsValid = curTime, isValid
-        --    there was a conflict and we need to change db state
-    elseif (newTime > curTime) or (isValid == 1) then
-        updatedTime, updatedIsValid = math.max(curTime, newTime), 0
-    else
-        -- no state change (new time is in previous and no conflict)
-        updatedTime, updatedIsValid = curTime, isValid
-    end
-
     if (curTime ~= updatedTime or isValid ~= updatedIsValid) then
         -- lua doesn't natively support table equality
-        state_changed(updatedTime, updatedIsValid)
+        write_state(eventKey, updatedTime, updatedIsValid, updatedRetired, 2*durationMillis)
+        updatedClock = redis.call("INCR", clockKey)
     end
 
     local nextState = { updatedTime, updatedIsValid }
-    curState = { curTime, isValid } -- converting to numeric type
+    local curState = { curTime, isValid }
     return { curState, nextState, updatedClock }  -- updatedClock nil unless state changed
 end
 
+local function put_event(keys, args)
+    return put_event_state(keys, args, read_hash_state, write_hash_state)
+end
+
 redis.register_function("PUT_EVENT", put_event)
 
+-- same contract as PUT_EVENT, but state is stored in the packed format
+local function put_event_packed(keys, args)
+    return put_event_state(keys, args, read_packed_state, write_packed_state)
+end
+
+redis.register_function("PUT_EVENT_PACKED", put_event_packed)
+
+-- Queue elements are EventTimes in one of two encodings:
+--   json:   {"event": <event>, "time": <time>}
+--   binary: the time as an 8 byte big endian integer, followed by the raw event bytes
+
+-- returns the time of a json element, nil if it has no time
+local function json_element_time(element)
+    return cjson.decode(element)['time']
+end
+
+-- returns the time of a binary element, nil if it is too short to contain a time
+local function binary_element_time(element)
+    if #element < 8 then
+        return nil
+    end
+    return (struct.unpack(">i8", element))
+end
+
 -- keys: {queueKey, clockKey} args: {thresholdTime}
--- return: {length queue (number)} or { EventTime (JSON dump), clock (number), length queue (number)}
-local function poll_queue(keys, args)
+-- return: {length queue (number)} or { EventTime (encoded element), clock (number), length queue (number)}
+local function poll_queue_with(keys, args, element_time)
     if (not #keys == 2 or not #args == 1) then
         redis.error_reply("Invalid keys or arguments.")
     end
@@ -82,15 +145,14 @@ local function poll_queue(keys, args)
     local queueKey = keys[1]
     local clockKey = keys[2]
     local thresholdTime = tonumber(args[1])
-    local jsonTimeKey = 'time'
 
     local polled = redis.call("LINDEX", queueKey, 0)
     if not polled then
         return {0}
     end
-    local polledTime = cjson.decode(polled)[jsonTimeKey]
+    local polledTime = element_time(polled)
     if polledTime == nil then
-        redis.error_reply("Improperly formatted list element.")
+        return redis.error_reply("Improperly formatted list element.")
     end
     if polledTime > thresholdTime then
         return {redis.call("LLEN", queueKey)}
@@ -101,9 +163,20 @@ local function poll_queue(keys, args)
     return { polled, clock, length }
 end
 
+local function poll_queue(keys, args)
+    return poll_queue_with(keys, args, json_element_time)
+end
+
 redis.register_function("POLL_QUEUE", poll_queue)
 
--- keys: {queueKey, clockKey} args: {eventJson}
+-- same contract as POLL_QUEUE, for binary encoded elements
+local function poll_queue_binary(keys, args)
+    return poll_queue_with(keys, args, binary_element_time)
+end
+
+redis.register_function("POLL_QUEUE_BINARY", poll_queue_binary)
+
+-- keys: {queueKey, clockKey} args: {encoded EventTime}
 -- return: {clock (number) after offer, length queue (number) after offer}
 local function offer_queue(keys, args)
     if (not #keys == 2 or #args == 1) then
@@ -121,7 +194,7 @@ end
 redis.register_function("OFFER_QUEUE", offer_queue)
 
 -- keys: {queueKey, clockKey}, args: {startIndex, endIndex}
--- return: {elements (table of JSON serialized EventTime), clock (number) }
+-- return: {elements (table of encoded EventTime), clock (number) }
 local function range_queue(keys, args)
     if (not #keys == 2 or #args == 2) then
         redis.error_reply("Invalid keys or arguments.")
@@ -142,4 +215,414 @@ local function range_queue(keys, args)
     return {elements, clock}
 end
 
-redis.register_function("RANGE_QUEUE", range_queue)
\ No newline at end of file
+redis.register_function("RANGE_QUEUE", range_queue)
+
+-- Scheduled queues are sorted sets of encoded EventTimes scored by time, so elements are polled in time order
+-- regardless of the order they were offered in.  Poll, offer and range replies match their FIFO counterparts.  Elements
+-- are unique, offering an element already on the queue only updates its time.
+
+-- keys: {queueKey, clockKey} args: {thresholdTime}
+-- return: {length queue (number)} or { EventTime (encoded element), clock (number), length queue (number)}
+local function poll_scheduled(keys, args)
+    if (#keys ~= 2) or (#args ~= 1) then
+        return redis.error_reply("Incorrect # of keys [queueKey, clockKey] or args [thresholdTime].")
+    end
+    local queueKey = keys[1]
+    local clockKey = keys[2]
+    local thresholdTime = tonumber(args[1])
+
+    local head = redis.call("ZRANGE", queueKey, 0, 0, "WITHSCORES")
+    if #head == 0 then
+        return {0}
+    end
+    local length = redis.call("ZCARD", queueKey)
+    if tonumber(head[2]) > thresholdTime then
+        return {length}
+    end
+    redis.call("ZREM", queueKey, head[1])
+    return {head[1], redis.call("INCR", clockKey), length}
+end
+
+redis.register_function("POLL_SCHEDULED", poll_scheduled)
+
+-- keys: {queueKey, clockKey} args: {encoded EventTime, time}
+-- return: {clock (number) after offer, length queue (number) after offer}
+local function offer_scheduled(keys, args)
+    if (#keys ~= 2) or (#args ~= 2) then
+        return redis.error_reply("Incorrect # of keys [queueKey, clockKey] or args [element, time].")
+    end
+    local queueKey = keys[1]
+    local clockKey = keys[2]
+    local time = tonumber(args[2])
+    if not time then
+        return redis.error_reply("Unable to convert time to a number")
+    end
+
+    redis.call("ZADD", queueKey, time, args[1])
+    return {redis.call("INCR", clockKey), redis.call("ZCARD", queueKey)}
+end
+
+redis.register_function("OFFER_SCHEDULED", offer_scheduled)
+
+-- keys: {queueKey, clockKey}, args: {startIndex, endIndex}
+-- return: {elements (table of encoded EventTime), clock (number) }
+local function range_scheduled(keys, args)
+    if (#keys ~= 2) or (#args ~= 2) then
+        return redis.error_reply("Incorrect # of keys [queueKey, clockKey] or args [startIndex, endIndex].")
+    end
+    local startIndex = tonumber(args[1])
+    local endIndex = tonumber(args[2])
+    if (startIndex == nil or endIndex == nil) then
+        return redis.error_reply("Could not convert arguments to numbers.")
+    end
+
+    local elements = redis.call("ZRANGE", keys[1], startIndex, endIndex)
+    return {elements, redis.call("INCR", keys[2])}
+end
+
+redis.register_function("RANGE_SCHEDULED", range_scheduled)
+
+-- Copies a FIFO or scheduled queue, so that it may be read in pages which are consistent with one clock.  The copy
+-- expires after expiryMillis, it should be deleted once read.
+-- keys: {queueKey, clockKey, copyKey} args: {expiryMillis}
+-- return: {clock (number), length copy (number)}
+local function copy_queue(keys, args)
+    if (#keys ~= 3) or (#args ~= 1) then
+        return redis.error_reply("Incorrect # of keys [queueKey, clockKey, copyKey] or args [expiryMillis].")
+    end
+    local queueKey = keys[1]
+    local clockKey = keys[2]
+    local copyKey = keys[3]
+    local expiryMillis = tonumber(args[1])
+    if not expiryMillis then
+        return redis.error_reply("Unable to convert expiryMillis to a number")
+    end
+
+    local length = 0
+    if redis.call("COPY", queueKey, copyKey, "REPLACE") == 1 then
+        redis.call("PEXPIRE", copyKey, expiryMillis)
+        if redis.call("TYPE", copyKey)["ok"] == "zset" then
+            length = redis.call("ZCARD", copyKey)
+        else
+            length = redis.call("LLEN", copyKey)
+        end
+    else
+        -- the queue is empty, a copy left from a previous call must not be read
+        redis.call("DEL", copyKey)
+    end
+    return {redis.call("INCR", clockKey), length}
+end
+
+redis.register_function("COPY_QUEUE", copy_queue)
+
+-- returns the event and time of a json element
+local function json_element(element)
+    local decoded = cjson.decode(element)
+    return decoded['event'], decoded['time']
+end
+
+-- returns the event and time of a binary element, nil if it is too short to contain a time
+local function binary_element(element)
+    if #element < 8 then
+        return nil, nil
+    end
+    return string.sub(element, 9), (struct.unpack(">i8", element))
+end
+
+-- Strictly once snapshot: a range of a FIFO or scheduled queue with the status of each element, read atomically so
+-- that statuses are consistent with the clock.  An element is valid (1) if the state of its event has the element's
+-- time and is valid, or has retired the element's time, otherwise it is invalid (0).  The state of an event is read
+-- from eventKeyPrefix followed by the event, so event keys must not be hashed.
+-- keys: {queueKey, clockKey} args: {startIndex, endIndex, eventKeyPrefix, storage ("hash" or "packed"),
+--                                   encoding ("json" or "binary")}
+-- return: {elements (table of encoded EventTime), statuses (table of 0 or 1), clock (number)}
+local function range_with_status(keys, args)
+    if (#keys ~= 2) or (#args ~= 5) then
+        return redis.error_reply("Incorrect # of keys [queueKey, clockKey] or args [startIndex, endIndex, eventKeyPrefix, storage, encoding].")
+    end
+    local queueKey = keys[1]
+    local clockKey = keys[2]
+    local startIndex = tonumber(args[1])
+    local endIndex = tonumber(args[2])
+    local eventKeyPrefix = args[3]
+    if (startIndex == nil or endIndex == nil) then
+        return redis.error_reply("Could not convert arguments to numbers.")
+    end
+    local read_state = read_hash_state
+    if args[4] == "packed" then
+        read_state = read_packed_state
+    end
+    local decode_element = json_element
+    if args[5] == "binary" then
+        decode_element = binary_element
+    end
+
+    local elements
+    if redis.call("TYPE", queueKey)["ok"] == "zset" then
+        elements = redis.call("ZRANGE", queueKey, startIndex, endIndex)
+    else
+        elements = redis.call("LRANGE", queueKey, startIndex, endIndex)
+    end
+    local statuses = {}
+    for i, element in ipairs(elements) do
+        local event, time = decode_element(element)
+        if (event == nil or time == nil) then
+            return redis.error_reply("Improperly formatted queue element.")
+        end
+        local curTime, isValid, retired = read_state(eventKeyPrefix .. event)
+        if (curTime == time and isValid == 1) or (retired == time) then
+            statuses[i] = 1
+        else
+            statuses[i] = 0
+        end
+    end
+    return {elements, statuses, redis.call("INCR", clockKey)}
+end
+
+redis.register_function("RANGE_WITH_STATUS", range_with_status)
+
+-- Trailing edge debounce.  A pointer per event holds the element pending on the scheduled queue for that event.  A new
+-- element replaces the pending element, so only the last element of a burst remains to be polled.  The pointer expires
+-- at pointerExpireAt, after which the pending element is left on the queue.
+-- keys: {pointerKey, queueKey, clockKey} args: {encoded EventTime, time, pointerExpireAt}
+-- return: {clock (number) after offer, length queue (number) after offer} or, if a pending element was replaced,
+-- {clock, length queue, replaced EventTime (encoded element), clock (number) of the replacement}
+local function offer_replacing(keys, args)
+    if (#keys ~= 3) or (#args ~= 3) then
+        return redis.error_reply(
+            "Incorrect # of keys [pointerKey, queueKey, clockKey] or args [element, time, pointerExpireAt].")
+    end
+    local pointerKey = keys[1]
+    local queueKey = keys[2]
+    local clockKey = keys[3]
+    local element = args[1]
+    local time = tonumber(args[2])
+    local pointerExpireAt = tonumber(args[3])
+    if not (time and pointerExpireAt) then
+        return redis.error_reply("Unable to convert time or pointerExpireAt to a number")
+    end
+
+    local pending = redis.call("GET", pointerKey)
+    -- the pending element may already have been polled
+    local replaced = pending and redis.call("ZREM", queueKey, pending) == 1
+    local replacedClock
+    if replaced then
+        replacedClock = redis.call("INCR", clockKey)
+    end
+    redis.call("ZADD", queueKey, time, element)
+    redis.call("SET", pointerKey, element, "PXAT", pointerExpireAt)
+    local clock = redis.call("INCR", clockKey)
+    local length = redis.call("ZCARD", queueKey)
+    if replaced then
+        return {clock, length, pending, replacedClock}
+    end
+    return {clock, length}
+end
+
+redis.register_function("OFFER_REPLACING", offer_replacing)
+
+-- Only once events stored in time window buckets.  Each bucket is a hash of {event: time} for events with a time in
+-- [bucket * durationMillis, (bucket + 1) * durationMillis), a conflicting event may only be in the current, previous or
+-- (when events arrive out of order) next bucket.  Buckets expire as a whole once no event in them can conflict.
+-- keys: {currentBucketKey, previousBucketKey, nextBucketKey} args: {event, time, durationMillis, bucketExpireAtMillis}
+-- return: 1 if the event was put, 0 if it conflicts with an existing event
+local function put_event_bucketed(keys, args)
+    if (#keys ~= 3) or (#args ~= 4) then
+        return redis.error_reply("Incorrect # of keys [currentBucket, previousBucket, nextBucket] or args [event, time, durationMillis, bucketExpireAtMillis].")
+    end
+    local currentBucketKey = keys[1]
+    local previousBucketKey = keys[2]
+    local nextBucketKey = keys[3]
+    local event = args[1]
+    local newTime = tonumber(args[2])
+    local durationMillis = tonumber(args[3])
+    local bucketExpireAt = tonumber(args[4])
+
+    if not (newTime and durationMillis and bucketExpireAt) then
+        return redis.error_reply("Unable to convert time, durationMillis or bucketExpireAtMillis to a number")
+    end
+
+    -- an event in the next bucket is later than newTime, so always conflicts (as for PUT_EVENT)
+    for _, bucketKey in ipairs({ currentBucketKey, previousBucketKey, nextBucketKey }) do
+        local time = tonumber(redis.call("HGET", bucketKey, event))
+        if time and time + durationMillis > newTime then
+            return 0
+        end
+    end
+    redis.call("HSET", currentBucketKey, event, newTime)
+    redis.call("PEXPIREAT", currentBucketKey, bucketExpireAt, "NX")
+    return 1
+end
+
+redis.register_function("PUT_EVENT_BUCKETED", put_event_bucketed)
+
+
+-- Approximate only once events stored in Bloom filters (bitmaps), one per time window.  Bit positions are computed by
+-- the caller.
+-- keys: {currentFilterKey, olderFilterKeys...} args: {filterExpireAtMillis, bitPositions...}
+-- return: 1 if the event was put, 0 if the event (probably) conflicts with an event in any of the filters
+local function put_event_bloom(keys, args)
+    if (#keys < 1) or (#args < 2) then
+        return redis.error_reply("Incorrect # of keys [currentFilter, olderFilters...] or args [filterExpireAtMillis, bitPositions...].")
+    end
+    local filterExpireAt = tonumber(args[1])
+    if not filterExpireAt then
+        return redis.error_reply("Unable to convert filterExpireAtMillis to a number")
+    end
+
+    for _, filterKey in ipairs(keys) do
+        local contains = true
+        for i = 2, #args do
+            if redis.call("GETBIT", filterKey, args[i]) == 0 then
+                contains = false
+                break
+            end
+        end
+        if contains then
+            return 0
+        end
+    end
+    local currentFilterKey = keys[1]
+    for i = 2, #args do
+        redis.call("SETBIT", currentFilterKey, args[i], 1)
+    end
+    redis.call("PEXPIREAT", currentFilterKey, filterExpireAt, "NX")
+    return 1
+end
+
+redis.register_function("PUT_EVENT_BLOOM", put_event_bloom)
+
+
+-- Generic cell rate algorithm.  A single theoretical arrival time (TAT) is stored per key, an event is conforming if it
+-- arrives no earlier than TAT - burstTolerance.  The key expires at its TAT, when its state is equivalent to no key.
+-- keys: {tatKey, clockKey} args: {time, emissionIntervalMillis, burstToleranceMillis}
+-- return: {1, clock (number)} if the event conforms, {0, retryAfterMillis (number)} if it does not
+local function gcra(keys, args)
+    if (#keys ~= 2) or (#args ~= 3) then
+        return redis.error_reply("Incorrect # of keys [tatKey, clockKey] or args [time, emissionIntervalMillis, burstToleranceMillis].")
+    end
+    local tatKey = keys[1]
+    local clockKey = keys[2]
+    local time = tonumber(args[1])
+    local emissionInterval = tonumber(args[2])
+    local burstTolerance = tonumber(args[3])
+
+    if not (time and emissionInterval and burstTolerance) then
+        return redis.error_reply("Unable to convert time, emissionIntervalMillis or burstToleranceMillis to a number")
+    end
+
+    local tat = tonumber(redis.call("GET", tatKey)) or time
+    local allowAt = tat - burstTolerance
+    if time < allowAt then
+        return { 0, allowAt - time }
+    end
+    local newTat = math.max(tat, time) + emissionInterval
+    redis.call("SET", tatKey, newTat, "PXAT", newTat)
+    return { 1, redis.call("INCR", clockKey) }
+end
+
+redis.register_function("GCRA", gcra)
+
+-- GCRA over several levels (i.e. tenant and user) at once.  The event conforms only if it conforms at every level, TATs
+-- are only updated if it does.
+-- keys: {clockKey, tatKey_1 .. tatKey_n} args: {time, emissionIntervalMillis_1, burstToleranceMillis_1 .. _n}
+-- return: {1, clock (number)} if the event conforms, {0, retryAfterMillis (number), level (number, 1 based)} for the
+-- first level it does not conform to
+local function gcra_multi(keys, args)
+    local numLevels = #keys - 1
+    if (numLevels < 1) or (#args ~= 1 + 2 * numLevels) then
+        return redis.error_reply("Incorrect # of keys [clockKey, tatKey...] or args [time, (emissionIntervalMillis, burstToleranceMillis)...].")
+    end
+    local clockKey = keys[1]
+    local time = tonumber(args[1])
+    if not time then
+        return redis.error_reply("Unable to convert time to a number")
+    end
+
+    local newTats = {}
+    for level = 1, numLevels do
+        local emissionInterval = tonumber(args[2 * level])
+        local burstTolerance = tonumber(args[2 * level + 1])
+        if not (emissionInterval and burstTolerance) then
+            return redis.error_reply("Unable to convert emissionIntervalMillis or burstToleranceMillis to a number")
+        end
+        local tat = tonumber(redis.call("GET", keys[level + 1])) or time
+        local allowAt = tat - burstTolerance
+        if time < allowAt then
+            return { 0, allowAt - time, level }
+        end
+        newTats[level] = math.max(tat, time) + emissionInterval
+    end
+    for level = 1, numLevels do
+        redis.call("SET", keys[level + 1], newTats[level], "PXAT", newTats[level])
+    end
+    return { 1, redis.call("INCR", clockKey) }
+end
+
+redis.register_function("GCRA_MULTI", gcra_multi)
+
+
+-- At most limit events per sliding window.  Each event key has a sorted set log of accepted events scored by time,
+-- members are unique clock values.
+-- keys: {logKey, clockKey} args: {time, windowMillis, limit}
+-- return: 1 if the event was put, 0 if limit events are already within windowMillis of the event
+local function sliding_window_put(keys, args)
+    if (#keys ~= 2) or (#args ~= 3) then
+        return redis.error_reply("Incorrect # of keys [logKey, clockKey] or args [time, windowMillis, limit].")
+    end
+    local logKey = keys[1]
+    local clockKey = keys[2]
+    local newTime = tonumber(args[1])
+    local windowMillis = tonumber(args[2])
+    local limit = tonumber(args[3])
+
+    if not (newTime and windowMillis and limit) then
+        return redis.error_reply("Unable to convert time, windowMillis or limit to a number")
+    end
+
+    -- an event at time t conflicts while t + windowMillis > newTime
+    redis.call("ZREMRANGEBYSCORE", logKey, "-inf", newTime - windowMillis)
+    if redis.call("ZCARD", logKey) >= limit then
+        return 0
+    end
+    redis.call("ZADD", logKey, newTime, redis.call("INCR", clockKey))
+    local latest = redis.call("ZRANGE", logKey, -1, -1, "WITHSCORES")
+    redis.call("PEXPIREAT", logKey, tonumber(latest[2]) + windowMillis)
+    return 1
+end
+
+redis.register_function("SLIDING_WINDOW_PUT", sliding_window_put)
+
+
+-- Traffic shaping (leaky bucket as a meter).  Reserves the earliest slot at or after time which is at least
+-- emissionInterval after the previously reserved slot for the key.  Reservations more than maxDelay after time are
+-- refused, bounding the backlog per key.
+-- keys: {slotKey} args: {time, emissionInterval, maxDelay}
+-- return: the reserved slot, or -1 if the slot would be more than maxDelay after time
+local function shape_event(keys, args)
+    if (#keys ~= 1) or (#args ~= 3) then
+        return redis.error_reply("Incorrect # of keys [slotKey] or args [time, emissionInterval, maxDelay].")
+    end
+    local slotKey = keys[1]
+    local time = tonumber(args[1])
+    local emissionInterval = tonumber(args[2])
+    local maxDelay = tonumber(args[3])
+
+    if not (time and emissionInterval and maxDelay) then
+        return redis.error_reply("Unable to convert time, emissionInterval or maxDelay to a number")
+    end
+
+    local slot = tonumber(redis.call("GET", slotKey)) or time
+    if slot < time then
+        slot = time
+    end
+    if slot - time > maxDelay then
+        return -1
+    end
+    local nextSlot = slot + emissionInterval
+    -- once nextSlot has passed an absent key is equivalent
+    redis.call("SET", slotKey, nextSlot, "PXAT", nextSlot)
+    return slot
+end
+
+redis.register_function("SHAPE_EVENT", shape_event)
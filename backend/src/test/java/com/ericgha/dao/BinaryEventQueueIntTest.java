@@ -0,0 +1,21 @@
+package com.ericgha.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Runs the {@link EventQueueIntTest} suite against {@link EventQueue.Encoding#BINARY} elements.
+ */
+public class BinaryEventQueueIntTest extends EventQueueIntTest {
+
+    @BeforeEach
+    public void setBinaryEncoding() {
+        eventQueue.setEncoding( EventQueue.Encoding.BINARY );
+    }
+
+    @AfterEach
+    public void resetEncoding() {
+        // the queue is shared by other tests using the same (cached) context
+        eventQueue.setEncoding( EventQueue.Encoding.JSON );
+    }
+}
@@ -0,0 +1,96 @@
+package com.ericgha.dao;
+
+import com.ericgha.config.RedisConfig;
+import com.ericgha.service.data.FunctionRedisTemplate;
+import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+@EnableRedisTestContainer
+@SpringBootTest(classes = {RedisConfig.class})
+public class BloomOnlyOnceMapIntTest {
+
+    private static final String CURRENT_FILTER = "FILTER:1";
+    private static final String PREVIOUS_FILTER = "FILTER:0";
+    private static final List<String> FILTER_KEYS = List.of( CURRENT_FILTER, PREVIOUS_FILTER );
+    private static final long[] EVENT_BITS = {3, 17, 42};
+
+    @Autowired
+    RedisConnectionFactory connectionFactory;
+    @Autowired
+    @Qualifier("stringTemplate")
+    FunctionRedisTemplate<String, String> template;
+    private BloomOnlyOnceMap eventMap;
+
+    @BeforeEach
+    void before() {
+        eventMap = new BloomOnlyOnceMap( template );
+    }
+
+    @AfterEach
+    public void afterEach() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.commands().flushAll();
+        }
+    }
+
+    @Test
+    public void putEventSetsBitsInCurrentFilterAndSetsExpiry() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        Assertions.assertTrue( eventMap.putEvent( FILTER_KEYS, EVENT_BITS, expireAt ) );
+        try (Jedis conn = template.getJedisConnection()) {
+            for (long bit : EVENT_BITS) {
+                Assertions.assertTrue( conn.getbit( CURRENT_FILTER, bit ) );
+            }
+            Assertions.assertEquals( 3L, conn.bitcount( CURRENT_FILTER ) );
+            Assertions.assertEquals( expireAt, conn.pexpireTime( CURRENT_FILTER ) );
+            Assertions.assertFalse( conn.exists( PREVIOUS_FILTER ) );
+        }
+    }
+
+    @Test
+    public void putEventDoesNotMoveExpiryOfExistingFilter() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        eventMap.putEvent( FILTER_KEYS, EVENT_BITS, expireAt );
+        eventMap.putEvent( FILTER_KEYS, new long[]{5, 6}, expireAt + 1_000 );
+        try (Jedis conn = template.getJedisConnection()) {
+            Assertions.assertEquals( expireAt, conn.pexpireTime( CURRENT_FILTER ) );
+        }
+    }
+
+    @Test
+    public void putEventBlockedByConflictInCurrentFilter() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        eventMap.putEvent( FILTER_KEYS, EVENT_BITS, expireAt );
+        Assertions.assertFalse( eventMap.putEvent( FILTER_KEYS, EVENT_BITS, expireAt ) );
+    }
+
+    @Test
+    public void putEventBlockedByConflictInOlderFilter() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        try (Jedis conn = template.getJedisConnection()) {
+            for (long bit : EVENT_BITS) {
+                conn.setbit( PREVIOUS_FILTER, bit, true );
+            }
+            Assertions.assertFalse( eventMap.putEvent( FILTER_KEYS, EVENT_BITS, expireAt ) );
+            Assertions.assertFalse( conn.exists( CURRENT_FILTER ) );
+        }
+    }
+
+    @Test
+    public void putEventNotBlockedByPartialOverlap() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        eventMap.putEvent( FILTER_KEYS, new long[]{3, 17, 99}, expireAt );
+        Assertions.assertTrue( eventMap.putEvent( FILTER_KEYS, EVENT_BITS, expireAt ) );
+    }
+}
@@ -0,0 +1,92 @@
+package com.ericgha.dao;
+
+import com.ericgha.config.RedisConfig;
+import com.ericgha.service.data.FunctionRedisTemplate;
+import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+
+@EnableRedisTestContainer
+@SpringBootTest(classes = {RedisConfig.class})
+public class BucketedOnlyOnceMapIntTest {
+
+    private static final long EVENT_DURATION = 10;
+    private static final String CURRENT_BUCKET = "BUCKET:1";
+    private static final String PREVIOUS_BUCKET = "BUCKET:0";
+    private static final String NEXT_BUCKET = "BUCKET:2";
+    private static final String EVENT = "testEvent";
+
+    @Autowired
+    RedisConnectionFactory connectionFactory;
+    @Autowired
+    @Qualifier("stringTemplate")
+    FunctionRedisTemplate<String, String> template;
+    private BucketedOnlyOnceMap eventMap;
+
+    @BeforeEach
+    void before() {
+        eventMap = new BucketedOnlyOnceMap( template );
+    }
+
+    @AfterEach
+    public void afterEach() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.commands().flushAll();
+        }
+    }
+
+    @Test
+    public void putEventPutsIntoCurrentBucketAndSetsExpiry() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        Assertions.assertTrue( eventMap.putEvent( CURRENT_BUCKET, PREVIOUS_BUCKET, NEXT_BUCKET, EVENT, 12,
+                                                  EVENT_DURATION, expireAt ) );
+        Assertions.assertEquals( 12L, eventMap.get( CURRENT_BUCKET, EVENT ) );
+        try (Jedis conn = template.getJedisConnection()) {
+            Assertions.assertEquals( expireAt, conn.pexpireTime( CURRENT_BUCKET ) );
+        }
+    }
+
+    @Test
+    public void putEventBlockedByConflictInPreviousBucket() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        template.opsForHash().put( PREVIOUS_BUCKET, EVENT, "9" );
+        Assertions.assertFalse( eventMap.putEvent( CURRENT_BUCKET, PREVIOUS_BUCKET, NEXT_BUCKET, EVENT, 18,
+                                                   EVENT_DURATION, expireAt ) );
+        Assertions.assertNull( eventMap.get( CURRENT_BUCKET, EVENT ) );
+    }
+
+    @Test
+    public void putEventNotBlockedByExpiredEventInPreviousBucket() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        template.opsForHash().put( PREVIOUS_BUCKET, EVENT, "9" );
+        Assertions.assertTrue( eventMap.putEvent( CURRENT_BUCKET, PREVIOUS_BUCKET, NEXT_BUCKET, EVENT, 19,
+                                                  EVENT_DURATION, expireAt ) );
+    }
+
+    @Test
+    public void putEventBlockedByConflictInCurrentBucket() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        eventMap.putEvent( CURRENT_BUCKET, PREVIOUS_BUCKET, NEXT_BUCKET, EVENT, 10, EVENT_DURATION,
+                           expireAt );
+        Assertions.assertFalse( eventMap.putEvent( CURRENT_BUCKET, PREVIOUS_BUCKET, NEXT_BUCKET, EVENT, 19,
+                                                   EVENT_DURATION, expireAt ) );
+        Assertions.assertEquals( 10L, eventMap.get( CURRENT_BUCKET, EVENT ) );
+    }
+
+    @Test
+    public void putEventBlockedByLaterEventInNextBucket() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        template.opsForHash().put( NEXT_BUCKET, EVENT, "20" );
+        Assertions.assertFalse( eventMap.putEvent( CURRENT_BUCKET, PREVIOUS_BUCKET, NEXT_BUCKET, EVENT, 19,
+                                                   EVENT_DURATION, expireAt ) );
+        Assertions.assertNull( eventMap.get( CURRENT_BUCKET, EVENT ) );
+    }
+}
@@ -152,6 +152,36 @@ public class EventQueueIntTest {
         Assertions.assertEquals( expectedEvents, versionedRange.data() );
     }
 
+    @Test
+    public void getRangeRespectsStartAndEnd() {
+        List<EventTime> events = List.of( new EventTime( "Test Event0", 0 ), new EventTime( "Test Event1", 1 ),
+                                          new EventTime( "Test Event2", 2 ) );
+        events.forEach( event -> eventQueue.offer( event, queueKey, clockKey ) );
+        Assertions.assertEquals( events.subList( 1, 3 ), eventQueue.getRange( 1, 2, queueKey, clockKey ).data() );
+    }
+
+    @Test
+    public void copyIsReadInPages() {
+        String copyKey = queueKey + ":copy";
+        List<EventTime> events = List.of( new EventTime( "Test Event0", 0 ), new EventTime( "Test Event1", 1 ),
+                                          new EventTime( "Test Event2", 2 ) );
+        events.forEach( event -> eventQueue.offer( event, queueKey, clockKey ) );
+        Versioned<Long> versionedSize = eventQueue.copy( queueKey, clockKey, copyKey, 10_000 );
+        eventQueue.offer( new EventTime( "Test Event3", 3 ), queueKey, clockKey );
+        Assertions.assertEquals( 3L, versionedSize.data() );
+        Assertions.assertEquals( events.subList( 0, 2 ), eventQueue.getCopyRange( 0, 1, copyKey ) );
+        Assertions.assertEquals( events.subList( 2, 3 ), eventQueue.getCopyRange( 2, 3, copyKey ) );
+        eventQueue.deleteCopy( copyKey );
+        Assertions.assertFalse( stringTemplate.hasKey( copyKey ) );
+    }
+
+    @Test
+    public void copyOfEmptyQueueIsEmpty() {
+        String copyKey = queueKey + ":copy";
+        Assertions.assertEquals( 0L, eventQueue.copy( queueKey, clockKey, copyKey, 10_000 ).data() );
+        Assertions.assertEquals( List.of(), eventQueue.getCopyRange( 0, -1, copyKey ) );
+    }
+
     @Test
     public void operationsAreLinearized() {
         // where clock starts is not generally enforced, so just referencing a start point.
@@ -0,0 +1,80 @@
+package com.ericgha.dao;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.ReplacingOfferResponse;
+import com.ericgha.dto.Status;
+import com.ericgha.dto.Versioned;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EventQueueTest {
+
+    EventQueue.ObjectMappingTools objectMappingTools = new EventQueue.ObjectMappingTools( new ObjectMapper() );
+
+    @Test
+    @DisplayName("toBinary and fromBinary round trip")
+    void binaryRoundTrip() {
+        EventTime eventTime = new EventTime( "\u00e9v\u00e9nement:1", 1_700_000_000_000L );
+        byte[] binary = EventQueue.ObjectMappingTools.toBinary( eventTime );
+        Assertions.assertEquals( eventTime, EventQueue.ObjectMappingTools.fromBinary( binary ) );
+    }
+
+    @Test
+    @DisplayName("toBinary prefixes the event with an 8 byte big endian time")
+    void toBinaryFormat() {
+        byte[] binary = EventQueue.ObjectMappingTools.toBinary( new EventTime( "a", 258L ) );
+        Assertions.assertArrayEquals( new byte[]{0, 0, 0, 0, 0, 0, 1, 2, 'a'}, binary );
+    }
+
+    @Test
+    @DisplayName("fromBinary throws when too short to contain a time")
+    void fromBinaryThrowsWhenTooShort() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> EventQueue.ObjectMappingTools.fromBinary( new byte[7] ) );
+    }
+
+    @Test
+    @DisplayName("getRangeToObj decodes both JSON and binary elements")
+    void getRangeToObjDecodesBothEncodings() {
+        EventTime eventTime = new EventTime( "a", 1L );
+        String json = objectMappingTools.serializeEventTime( eventTime );
+        byte[] binary = EventQueue.ObjectMappingTools.toBinary( eventTime );
+        Assertions.assertEquals( List.of( eventTime ),
+                                 objectMappingTools.getRangeToObj( List.of( List.of( json ), 2L ) ).data() );
+        Assertions.assertEquals( List.of( eventTime ),
+                                 objectMappingTools.getRangeToObj( List.of( List.of( binary ), 2L ) ).data() );
+    }
+
+    @Test
+    @DisplayName("toReplacingOfferResponse decodes a reply with and without a replaced element")
+    void toReplacingOfferResponseDecodesReplaced() {
+        EventTime eventTime = new EventTime( "a", 1L );
+        String json = objectMappingTools.serializeEventTime( eventTime );
+        Assertions.assertEquals( new ReplacingOfferResponse( 3L, 1L, null ),
+                                 objectMappingTools.toReplacingOfferResponse( List.of( 3L, 1L ) ) );
+        ReplacingOfferResponse response = objectMappingTools.toReplacingOfferResponse( List.of( 5L, 1L, json, 4L ) );
+        Assertions.assertEquals( new Versioned<>( 4L, eventTime ), response.replaced() );
+        Assertions.assertEquals( 5L, response.clock() );
+    }
+
+    @Test
+    @DisplayName("getRangeWithStatusToObj pairs elements with their statuses")
+    void getRangeWithStatusToObjPairsStatuses() {
+        EventTime first = new EventTime( "a", 1L );
+        EventTime second = new EventTime( "b", 2L );
+        List<?> rawResult = List.of( List.of( objectMappingTools.serializeEventTime( first ),
+                                              objectMappingTools.serializeEventTime( second ) ), List.of( 1L, 0L ),
+                                     3L );
+        Versioned<List<EventStatus>> expected = new Versioned<>( 3L, List.of( new EventStatus( first, Status.Valid ),
+                                                                              new EventStatus( second,
+                                                                                               Status.Invalid ) ) );
+        Assertions.assertEquals( expected, objectMappingTools.getRangeWithStatusToObj( rawResult ) );
+        Assertions.assertThrows( IllegalArgumentException.class, () -> objectMappingTools.getRangeWithStatusToObj(
+                List.of( List.of( objectMappingTools.serializeEventTime( first ) ), List.of(), 3L ) ) );
+    }
+}
@@ -0,0 +1,137 @@
+package com.ericgha.dao;
+
+import com.ericgha.config.RedisConfig;
+import com.ericgha.dto.RateLimitDecision;
+import com.ericgha.service.data.FunctionRedisTemplate;
+import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+@EnableRedisTestContainer
+@SpringBootTest(classes = {RedisConfig.class})
+public class GcraMapIntTest {
+
+    // long enough that no TAT expires during a test
+    private static final long EMISSION_INTERVAL = 60_000;
+    private static final String TAT_KEY = "testEvent";
+    private static final String CLOCK_KEY = "CLOCK";
+    private static final List<String> LEVEL_KEYS = List.of( "tenant", "user", "testEvent" );
+
+    @Autowired
+    RedisConnectionFactory connectionFactory;
+    @Autowired
+    @Qualifier("stringTemplate")
+    FunctionRedisTemplate<String, String> template;
+    private GcraMap gcraMap;
+
+    @BeforeEach
+    void before() {
+        gcraMap = new GcraMap( template );
+    }
+
+    @AfterEach
+    public void afterEach() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.commands().flushAll();
+        }
+    }
+
+    private Long tat(String key) {
+        String tat = template.opsForValue().get( key );
+        return tat == null ? null : Long.parseLong( tat );
+    }
+
+    @Test
+    public void tryAcquireFirstEventAllowedAndSetsTat() {
+        long now = System.currentTimeMillis();
+        RateLimitDecision decision = gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now, EMISSION_INTERVAL, 0 );
+        Assertions.assertEquals( RateLimitDecision.allowed( 1 ), decision );
+        Assertions.assertEquals( now + EMISSION_INTERVAL, tat( TAT_KEY ) );
+        try (Jedis conn = template.getJedisConnection()) {
+            Assertions.assertEquals( now + EMISSION_INTERVAL, conn.pexpireTime( TAT_KEY ) );
+        }
+    }
+
+    @Test
+    public void tryAcquireAllowsBurstThenRejects() {
+        long now = System.currentTimeMillis();
+        Assertions.assertTrue( gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now, EMISSION_INTERVAL, EMISSION_INTERVAL )
+                                       .allowed() );
+        Assertions.assertTrue( gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now, EMISSION_INTERVAL, EMISSION_INTERVAL )
+                                       .allowed() );
+        RateLimitDecision decision = gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now, EMISSION_INTERVAL,
+                                                         EMISSION_INTERVAL );
+        Assertions.assertEquals( RateLimitDecision.rejected( EMISSION_INTERVAL ), decision );
+    }
+
+    @Test
+    public void tryAcquireRejectionLeavesNoState() {
+        long now = System.currentTimeMillis();
+        gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now, EMISSION_INTERVAL, 0 );
+        RateLimitDecision decision = gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now + 1_000, EMISSION_INTERVAL, 0 );
+        Assertions.assertEquals( RateLimitDecision.rejected( EMISSION_INTERVAL - 1_000 ), decision );
+        Assertions.assertEquals( now + EMISSION_INTERVAL, tat( TAT_KEY ) );
+        Assertions.assertEquals( "1", template.opsForValue().get( CLOCK_KEY ) );
+    }
+
+    @Test
+    public void tryAcquireAllowedAfterTat() {
+        long now = System.currentTimeMillis();
+        gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now, EMISSION_INTERVAL, 0 );
+        RateLimitDecision decision = gcraMap.tryAcquire( TAT_KEY, CLOCK_KEY, now + EMISSION_INTERVAL,
+                                                         EMISSION_INTERVAL, 0 );
+        Assertions.assertEquals( RateLimitDecision.allowed( 2 ), decision );
+        Assertions.assertEquals( now + 2 * EMISSION_INTERVAL, tat( TAT_KEY ) );
+    }
+
+    @Test
+    public void tryAcquireAllAllowedUpdatesEveryLevel() {
+        long now = System.currentTimeMillis();
+        RateLimitDecision decision = gcraMap.tryAcquireAll( LEVEL_KEYS, CLOCK_KEY, now,
+                                                            new long[]{EMISSION_INTERVAL, 2 * EMISSION_INTERVAL,
+                                                                    3 * EMISSION_INTERVAL}, new long[3] );
+        Assertions.assertEquals( RateLimitDecision.allowed( 1 ), decision );
+        Assertions.assertEquals( now + EMISSION_INTERVAL, tat( LEVEL_KEYS.get( 0 ) ) );
+        Assertions.assertEquals( now + 2 * EMISSION_INTERVAL, tat( LEVEL_KEYS.get( 1 ) ) );
+        Assertions.assertEquals( now + 3 * EMISSION_INTERVAL, tat( LEVEL_KEYS.get( 2 ) ) );
+    }
+
+    @Test
+    public void tryAcquireAllRejectionLeavesLowerLevelsUntouched() {
+        long now = System.currentTimeMillis();
+        // level 0 conforms (within its burst) and would advance to now + 2 * EMISSION_INTERVAL if committed
+        template.opsForValue().set( LEVEL_KEYS.get( 0 ), Long.toString( now + EMISSION_INTERVAL ) );
+        // level 1 does not conform
+        template.opsForValue().set( LEVEL_KEYS.get( 1 ), Long.toString( now + EMISSION_INTERVAL ) );
+        RateLimitDecision decision = gcraMap.tryAcquireAll( LEVEL_KEYS, CLOCK_KEY, now,
+                                                            new long[]{EMISSION_INTERVAL, EMISSION_INTERVAL,
+                                                                    EMISSION_INTERVAL},
+                                                            new long[]{EMISSION_INTERVAL, 0, 0} );
+        Assertions.assertEquals( RateLimitDecision.rejected( EMISSION_INTERVAL, 1 ), decision );
+        Assertions.assertEquals( now + EMISSION_INTERVAL, tat( LEVEL_KEYS.get( 0 ) ) );
+        Assertions.assertEquals( now + EMISSION_INTERVAL, tat( LEVEL_KEYS.get( 1 ) ) );
+        Assertions.assertNull( tat( LEVEL_KEYS.get( 2 ) ) );
+        Assertions.assertNull( template.opsForValue().get( CLOCK_KEY ) );
+    }
+
+    @Test
+    public void tryAcquireAllReportsFirstRejectingLevel() {
+        long now = System.currentTimeMillis();
+        template.opsForValue().set( LEVEL_KEYS.get( 1 ), Long.toString( now + EMISSION_INTERVAL ) );
+        template.opsForValue().set( LEVEL_KEYS.get( 2 ), Long.toString( now + EMISSION_INTERVAL ) );
+        RateLimitDecision decision = gcraMap.tryAcquireAll( LEVEL_KEYS, CLOCK_KEY, now,
+                                                            new long[]{EMISSION_INTERVAL, EMISSION_INTERVAL,
+                                                                    EMISSION_INTERVAL}, new long[3] );
+        Assertions.assertEquals( 1, decision.rejectedLevel() );
+    }
+}
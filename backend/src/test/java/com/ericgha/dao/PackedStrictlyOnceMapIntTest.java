@@ -0,0 +1,16 @@
+package com.ericgha.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Runs the {@link StrictlyOnceMapIntTest} suite against {@link StrictlyOnceMap.Storage#PACKED} storage.
+ */
+public class PackedStrictlyOnceMapIntTest extends StrictlyOnceMapIntTest {
+
+    @BeforeEach
+    @Override
+    public void beforeEach() {
+        super.beforeEach();
+        this.strictlyOnceMap.setStorage( StrictlyOnceMap.Storage.PACKED );
+    }
+}
@@ -0,0 +1,110 @@
+package com.ericgha.dao;
+
+import com.ericgha.config.DaoConfig;
+import com.ericgha.config.RedisConfig;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.PollResponse;
+import com.ericgha.dto.ReplacingOfferResponse;
+import com.ericgha.dto.Versioned;
+import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Instant;
+import java.util.List;
+
+@EnableRedisTestContainer
+@SpringBootTest(classes = {RedisConfig.class, DaoConfig.class})
+public class ScheduledEventQueueIntTest {
+
+    @Autowired
+    RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    @Qualifier("scheduledEventQueue")
+    EventQueue eventQueue;
+
+    String clockKey = "test:CLOCK";
+    String queueKey = "test:QUEUE";
+
+    @AfterEach
+    public void afterEach() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.commands().flushAll();
+        }
+    }
+
+    @Test
+    @DisplayName("tryPoll returns elements in time order regardless of offer order")
+    public void tryPollReturnsInTimeOrder() {
+        EventTime later = new EventTime( "later", 2 );
+        EventTime earlier = new EventTime( "earlier", 1 );
+        eventQueue.offer( later, queueKey, clockKey );
+        eventQueue.offer( earlier, queueKey, clockKey );
+        Assertions.assertEquals( earlier, eventQueue.tryPoll( 2, queueKey, clockKey ).versionedEventTime().data() );
+        Assertions.assertEquals( later, eventQueue.tryPoll( 2, queueKey, clockKey ).versionedEventTime().data() );
+    }
+
+    @Test
+    @DisplayName("tryPoll only returns the queue size when the earliest element is younger than the threshold")
+    public void tryPollReturnsOnlySizeWhenHeadYoungerThanThreshold() {
+        eventQueue.offer( new EventTime( "event", 2 ), queueKey, clockKey );
+        PollResponse response = eventQueue.tryPoll( 1, queueKey, clockKey );
+        Assertions.assertNull( response.versionedEventTime() );
+        Assertions.assertEquals( 1, response.queueSize() );
+    }
+
+    @Test
+    @DisplayName("offer returns increasing clocks and the size of the queue")
+    public void offerReturnsClockAndSize() {
+        Versioned<Long> first = eventQueue.offer( new EventTime( "first", 1 ), queueKey, clockKey );
+        Versioned<Long> second = eventQueue.offer( new EventTime( "second", 0 ), queueKey, clockKey );
+        Assertions.assertTrue( first.clock() < second.clock() );
+        Assertions.assertEquals( 2L, second.data() );
+        Assertions.assertEquals( 2L, eventQueue.size( queueKey ) );
+    }
+
+    @Test
+    @DisplayName("getRange returns elements in time order")
+    public void getRangeReturnsInTimeOrder() {
+        EventTime later = new EventTime( "later", 2 );
+        EventTime earlier = new EventTime( "earlier", 1 );
+        eventQueue.offer( later, queueKey, clockKey );
+        eventQueue.offer( earlier, queueKey, clockKey );
+        Assertions.assertEquals( List.of( earlier, later ), eventQueue.getRange( 0, -1, queueKey, clockKey ).data() );
+    }
+
+    @Test
+    @DisplayName("offerReplacing replaces the pending element of the same pointer")
+    public void offerReplacingReplacesPending() {
+        EventTime first = new EventTime( "event", 1 );
+        EventTime second = new EventTime( "event", 2 );
+        long expireAt = Instant.now().toEpochMilli() + 60_000;
+        Assertions.assertNull( eventQueue.offerReplacing( first, "test:EVENT:event", expireAt, queueKey, clockKey )
+                                       .replaced() );
+        ReplacingOfferResponse response =
+                eventQueue.offerReplacing( second, "test:EVENT:event", expireAt, queueKey, clockKey );
+        Assertions.assertEquals( first, response.replaced().data() );
+        Assertions.assertTrue( response.replaced().clock() < response.clock() );
+        Assertions.assertEquals( List.of( second ), eventQueue.getRange( 0, -1, queueKey, clockKey ).data() );
+    }
+
+    @Test
+    @DisplayName("offerReplacing does not replace an element which was already polled")
+    public void offerReplacingIgnoresPolled() {
+        long expireAt = Instant.now().toEpochMilli() + 60_000;
+        eventQueue.offerReplacing( new EventTime( "event", 1 ), "test:EVENT:event", expireAt, queueKey, clockKey );
+        eventQueue.tryPoll( 1, queueKey, clockKey );
+        ReplacingOfferResponse response = eventQueue.offerReplacing( new EventTime( "event", 2 ), "test:EVENT:event",
+                                                                     expireAt, queueKey, clockKey );
+        Assertions.assertNull( response.replaced() );
+        Assertions.assertEquals( 1L, response.queueSize() );
+    }
+}
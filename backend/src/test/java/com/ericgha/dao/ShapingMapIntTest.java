@@ -0,0 +1,84 @@
+package com.ericgha.dao;
+
+import com.ericgha.config.RedisConfig;
+import com.ericgha.service.data.FunctionRedisTemplate;
+import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+
+@EnableRedisTestContainer
+@SpringBootTest(classes = {RedisConfig.class})
+public class ShapingMapIntTest {
+
+    // long enough that no slot expires during a test
+    private static final long EMISSION_INTERVAL = 60_000;
+    private static final long MAX_DELAY = EMISSION_INTERVAL;
+    private static final String SLOT_KEY = "testEvent";
+
+    @Autowired
+    RedisConnectionFactory connectionFactory;
+    @Autowired
+    @Qualifier("stringTemplate")
+    FunctionRedisTemplate<String, String> template;
+    private ShapingMap shapingMap;
+
+    @BeforeEach
+    void before() {
+        shapingMap = new ShapingMap( template );
+    }
+
+    @AfterEach
+    public void afterEach() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.commands().flushAll();
+        }
+    }
+
+    @Test
+    public void reserveSlotFirstEventIsNotDelayed() {
+        long now = System.currentTimeMillis();
+        Assertions.assertEquals( now, shapingMap.reserveSlot( SLOT_KEY, now, EMISSION_INTERVAL, MAX_DELAY ) );
+        Assertions.assertEquals( Long.toString( now + EMISSION_INTERVAL ), template.opsForValue().get( SLOT_KEY ) );
+        try (Jedis conn = template.getJedisConnection()) {
+            Assertions.assertEquals( now + EMISSION_INTERVAL, conn.pexpireTime( SLOT_KEY ) );
+        }
+    }
+
+    @Test
+    public void reserveSlotDelaysToNextFreeSlot() {
+        long now = System.currentTimeMillis();
+        shapingMap.reserveSlot( SLOT_KEY, now, EMISSION_INTERVAL, MAX_DELAY );
+        Assertions.assertEquals( now + EMISSION_INTERVAL,
+                                 shapingMap.reserveSlot( SLOT_KEY, now + 1, EMISSION_INTERVAL, MAX_DELAY ) );
+        Assertions.assertEquals( Long.toString( now + 2 * EMISSION_INTERVAL ),
+                                 template.opsForValue().get( SLOT_KEY ) );
+    }
+
+    @Test
+    public void reserveSlotRefusedBeyondMaxDelay() {
+        long now = System.currentTimeMillis();
+        shapingMap.reserveSlot( SLOT_KEY, now, EMISSION_INTERVAL, MAX_DELAY );
+        shapingMap.reserveSlot( SLOT_KEY, now, EMISSION_INTERVAL, MAX_DELAY );
+        Assertions.assertEquals( ShapingMap.NO_SLOT,
+                                 shapingMap.reserveSlot( SLOT_KEY, now, EMISSION_INTERVAL, MAX_DELAY ) );
+        // a refusal reserves nothing
+        Assertions.assertEquals( Long.toString( now + 2 * EMISSION_INTERVAL ),
+                                 template.opsForValue().get( SLOT_KEY ) );
+    }
+
+    @Test
+    public void reserveSlotAfterNextSlotIsNotDelayed() {
+        long now = System.currentTimeMillis();
+        shapingMap.reserveSlot( SLOT_KEY, now, EMISSION_INTERVAL, MAX_DELAY );
+        long later = now + 2 * EMISSION_INTERVAL;
+        Assertions.assertEquals( later, shapingMap.reserveSlot( SLOT_KEY, later, EMISSION_INTERVAL, MAX_DELAY ) );
+    }
+}
@@ -0,0 +1,84 @@
+package com.ericgha.dao;
+
+import com.ericgha.config.RedisConfig;
+import com.ericgha.service.data.FunctionRedisTemplate;
+import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+
+@EnableRedisTestContainer
+@SpringBootTest(classes = {RedisConfig.class})
+public class SlidingWindowMapIntTest {
+
+    // long enough that no log expires during a test
+    private static final long WINDOW = 60_000;
+    private static final long LIMIT = 2;
+    private static final String EVENT_KEY = "testEvent";
+    private static final String CLOCK_KEY = "CLOCK";
+
+    @Autowired
+    RedisConnectionFactory connectionFactory;
+    @Autowired
+    @Qualifier("stringTemplate")
+    FunctionRedisTemplate<String, String> template;
+    private SlidingWindowMap eventMap;
+
+    @BeforeEach
+    void before() {
+        eventMap = new SlidingWindowMap( template );
+    }
+
+    @AfterEach
+    public void afterEach() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.commands().flushAll();
+        }
+    }
+
+    @Test
+    public void putEventAcceptsUpToLimit() {
+        long now = System.currentTimeMillis();
+        Assertions.assertTrue( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now, WINDOW, LIMIT ) );
+        Assertions.assertTrue( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now + 1, WINDOW, LIMIT ) );
+        Assertions.assertFalse( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now + 2, WINDOW, LIMIT ) );
+        Assertions.assertEquals( LIMIT, eventMap.count( EVENT_KEY ) );
+    }
+
+    @Test
+    public void putEventAcceptsIdenticalTimes() {
+        long now = System.currentTimeMillis();
+        Assertions.assertTrue( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now, WINDOW, LIMIT ) );
+        Assertions.assertTrue( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now, WINDOW, LIMIT ) );
+        Assertions.assertEquals( 2L, eventMap.count( EVENT_KEY ) );
+    }
+
+    @Test
+    public void putEventTrimsEventsLeavingWindow() {
+        long now = System.currentTimeMillis();
+        eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now, WINDOW, LIMIT );
+        eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now + 1, WINDOW, LIMIT );
+        Assertions.assertFalse( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now + WINDOW - 1, WINDOW, LIMIT ) );
+        // the first event leaves the window
+        Assertions.assertTrue( eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now + WINDOW, WINDOW, LIMIT ) );
+        Assertions.assertEquals( 2L, eventMap.count( EVENT_KEY ) );
+    }
+
+    @Test
+    public void putEventExpiresLogWithLatestEvent() {
+        long now = System.currentTimeMillis();
+        eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now + 10, WINDOW, LIMIT );
+        // out of order, the expiry follows the latest event
+        eventMap.putEvent( EVENT_KEY, CLOCK_KEY, now, WINDOW, LIMIT );
+        try (Jedis conn = template.getJedisConnection()) {
+            Assertions.assertEquals( now + 10 + WINDOW, conn.pexpireTime( EVENT_KEY ) );
+        }
+    }
+}
@@ -3,10 +3,14 @@ package com.ericgha.dao;
 import com.ericgha.service.data.FunctionRedisTemplate;
 import com.ericgha.config.RedisConfig;
 import com.ericgha.dto.EventHash;
+import com.ericgha.dto.EventStatus;
 import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Status;
 import com.ericgha.dto.TimeIsValid;
 import com.ericgha.dto.TimeIsValidDiff;
+import com.ericgha.dto.Versioned;
 import com.ericgha.test_fixtures.EnableRedisTestContainer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,10 +40,14 @@ public class StrictlyOnceMapIntTest {
 
     private static final long EVENT_DURATION = 10_000;
     private static final String CLOCK_KEY = "CLOCK";
+    private static final String QUEUE_KEY = "QUEUE";
     @Autowired
     @Qualifier("stringLongTemplate")
     FunctionRedisTemplate<String, Long> stringLongTemplate;
     @Autowired
+    @Qualifier("stringTemplate")
+    FunctionRedisTemplate<String, String> stringTemplate;
+    @Autowired
     RedisConnectionFactory connectionFactory;
 
     StrictlyOnceMap strictlyOnceMap;
@@ -243,5 +251,33 @@ public class StrictlyOnceMapIntTest {
         Assertions.assertEquals( expected, found );
     }
 
+    @Test
+    @DisplayName("EventQueue#getRangeWithStatus returns queue elements with the status of their events")
+    void getRangeWithStatusReturnsStatusOfEvents() {
+        EventQueue eventQueue = new EventQueue( stringTemplate, new ObjectMapper() );
+        String eventKeyPrefix = "EVENT:";
+        long now = Instant.now().toEpochMilli();
+        EventTime valid = new EventTime( "Test 1", now );
+        EventTime invalid = new EventTime( "Test 2", now );
+        EventTime retired = new EventTime( "Test 3", now );
+        EventTime unknown = new EventTime( "Test 4", now );
+        strictlyOnceMap.putEvent( eventKeyPrefix + valid.event(), valid.time(), CLOCK_KEY, EVENT_DURATION );
+        strictlyOnceMap.putEvent( eventKeyPrefix + invalid.event(), invalid.time(), CLOCK_KEY, EVENT_DURATION );
+        strictlyOnceMap.putEvent( eventKeyPrefix + invalid.event(), invalid.time(), CLOCK_KEY, EVENT_DURATION );
+        strictlyOnceMap.putEvent( eventKeyPrefix + retired.event(), retired.time(), CLOCK_KEY, EVENT_DURATION );
+        strictlyOnceMap.putEvent( eventKeyPrefix + retired.event(), retired.time() + EVENT_DURATION, CLOCK_KEY,
+                                  EVENT_DURATION );
+        List<EventTime> eventTimes = List.of( valid, invalid, retired, unknown );
+        eventTimes.forEach( eventTime -> eventQueue.offer( eventTime, QUEUE_KEY, CLOCK_KEY ) );
+        Versioned<List<EventStatus>> found = eventQueue.getRangeWithStatus( 0, -1, QUEUE_KEY, CLOCK_KEY, eventKeyPrefix,
+                                                                            strictlyOnceMap.storage() );
+        List<EventStatus> expected = List.of( new EventStatus( valid, Status.Valid ),
+                                              new EventStatus( invalid, Status.Invalid ),
+                                              new EventStatus( retired, Status.Valid ),
+                                              new EventStatus( unknown, Status.Invalid ) );
+        Assertions.assertEquals( expected, found.data() );
+        Assertions.assertEquals( stringLongTemplate.opsForValue().get( CLOCK_KEY ), found.clock() );
+    }
+
 }
 
@@ -0,0 +1,37 @@
+package com.ericgha.dao;
+
+import com.ericgha.dto.EventHash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StrictlyOnceMapTest {
+
+    @Test
+    @DisplayName("toPacked and fromPacked round trip with a retired time")
+    void packedRoundTripWithRetired() {
+        byte[] packed = StrictlyOnceMap.toPacked( 1_700_000_000_000L, true, 1_699_999_990_000L );
+        Assertions.assertEquals( StrictlyOnceMap.PACKED_LENGTH, packed.length );
+        Assertions.assertEquals( new EventHash( 1_700_000_000_000L, true, 1_699_999_990_000L ),
+                                 StrictlyOnceMap.fromPacked( packed ) );
+    }
+
+    @Test
+    @DisplayName("toPacked and fromPacked round trip without a retired time")
+    void packedRoundTripWithoutRetired() {
+        byte[] packed = StrictlyOnceMap.toPacked( 5L, false, null );
+        Assertions.assertEquals( new EventHash( 5L, false, null ), StrictlyOnceMap.fromPacked( packed ) );
+    }
+
+    @Test
+    @DisplayName("fromPacked returns an empty EventHash for an unknown key")
+    void fromPackedNullIsEmpty() {
+        Assertions.assertEquals( new EventHash( null, null, null ), StrictlyOnceMap.fromPacked( null ) );
+    }
+
+    @Test
+    @DisplayName("fromPacked throws on an improper length")
+    void fromPackedThrowsOnImproperLength() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> StrictlyOnceMap.fromPacked( new byte[16] ) );
+    }
+}
@@ -0,0 +1,65 @@
+package com.ericgha.dao.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class DelayedRequestHedgerTest {
+
+    static final long HEDGE_DELAY_MILLI = 10;
+
+    DelayedRequestHedger hedger;
+
+    @BeforeEach
+    void before() {
+        hedger = new DelayedRequestHedger( HEDGE_DELAY_MILLI, 2 );
+    }
+
+    @AfterEach
+    void after() {
+        hedger.close();
+    }
+
+    @Test
+    @DisplayName("A fast request is not hedged")
+    void fastRequestNotHedged() {
+        AtomicInteger numCalls = new AtomicInteger( 0 );
+        Assertions.assertEquals( 1, hedger.call( numCalls::incrementAndGet ) );
+        Assertions.assertEquals( 1, numCalls.get() );
+    }
+
+    @Test
+    @DisplayName("A slow request is hedged and the faster result is returned")
+    void slowRequestHedged() {
+        AtomicInteger numCalls = new AtomicInteger( 0 );
+        String found = hedger.call( () -> {
+            if (numCalls.incrementAndGet() == 1) {
+                sleep( 20 * HEDGE_DELAY_MILLI );
+                return "primary";
+            }
+            return "hedge";
+        } );
+        Assertions.assertEquals( "hedge", found );
+        Assertions.assertEquals( 2, numCalls.get() );
+    }
+
+    @Test
+    @DisplayName("The exception of the request is thrown when the request fails")
+    void failedRequestThrows() {
+        Assertions.assertThrows( IllegalStateException.class, () -> hedger.call( () -> {
+            throw new IllegalStateException( "Boom!" );
+        } ) );
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep( millis );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ericgha.dao.resilience;
+
+import com.ericgha.dao.resilience.RedisCircuitBreaker.Permit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RedisCircuitBreakerTest {
+
+    static final int FAILURE_THRESHOLD = 3;
+    static final long OPEN_MILLI = 10;
+
+    @Test
+    @DisplayName("Breaker opens after failureThreshold consecutive failures")
+    void breakerOpensAfterThreshold() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( FAILURE_THRESHOLD, OPEN_MILLI );
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            breaker.onFailure( Permit.CALL );
+        }
+        Assertions.assertTrue( breaker.tryAcquire(), "breaker closed below threshold" );
+        breaker.onFailure( Permit.CALL );
+        Assertions.assertFalse( breaker.tryAcquire(), "breaker open at threshold" );
+        Assertions.assertEquals( RedisCircuitBreaker.State.OPEN, breaker.state() );
+    }
+
+    @Test
+    @DisplayName("A success resets the consecutive failure count")
+    void successResetsFailures() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( FAILURE_THRESHOLD, OPEN_MILLI );
+        breaker.onFailure( Permit.CALL );
+        breaker.onFailure( Permit.CALL );
+        breaker.onSuccess( Permit.CALL );
+        breaker.onFailure( Permit.CALL );
+        Assertions.assertEquals( RedisCircuitBreaker.State.CLOSED, breaker.state() );
+    }
+
+    @Test
+    @DisplayName("Half open breaker permits a single trial and closes on success")
+    void halfOpenPermitsSingleTrial() throws InterruptedException {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( 1, OPEN_MILLI );
+        breaker.onFailure( Permit.CALL );
+        Thread.sleep( OPEN_MILLI + 1 );
+        Assertions.assertEquals( RedisCircuitBreaker.State.HALF_OPEN, breaker.state() );
+        Assertions.assertEquals( Permit.TRIAL, breaker.acquire(), "trial permitted" );
+        Assertions.assertFalse( breaker.tryAcquire(), "only one trial permitted" );
+        breaker.onSuccess( Permit.TRIAL );
+        Assertions.assertEquals( RedisCircuitBreaker.State.CLOSED, breaker.state() );
+    }
+
+    @Test
+    @DisplayName("Half open breaker re-opens when the trial fails")
+    void halfOpenReopensOnFailedTrial() throws InterruptedException {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( FAILURE_THRESHOLD, OPEN_MILLI );
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.onFailure( Permit.CALL );
+        }
+        Thread.sleep( OPEN_MILLI + 1 );
+        Assertions.assertEquals( Permit.TRIAL, breaker.acquire(), "trial permitted" );
+        breaker.onFailure( Permit.TRIAL );
+        Assertions.assertTrue( breaker.isOpen() );
+    }
+
+    @Test
+    @DisplayName("Only the trial closes a tripped breaker, stale successes and failures are ignored")
+    void staleOutcomesDoNotChangeTrippedBreaker() throws InterruptedException {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( 1, OPEN_MILLI );
+        Permit stale = breaker.acquire();
+        breaker.onFailure( Permit.CALL );
+        breaker.onSuccess( stale );
+        Assertions.assertTrue( breaker.isOpen(), "stale success does not close an open breaker" );
+        Thread.sleep( OPEN_MILLI + 1 );
+        Assertions.assertEquals( Permit.TRIAL, breaker.acquire() );
+        breaker.onSuccess( stale );
+        breaker.onFailure( stale );
+        Assertions.assertEquals( RedisCircuitBreaker.State.HALF_OPEN, breaker.state() );
+        breaker.onSuccess( Permit.TRIAL );
+        Assertions.assertEquals( RedisCircuitBreaker.State.CLOSED, breaker.state() );
+    }
+}
@@ -0,0 +1,92 @@
+package com.ericgha.dao.resilience;
+
+import com.ericgha.dao.resilience.RedisCircuitBreaker.Permit;
+import com.ericgha.domain.DeadlineExceededException;
+import com.ericgha.domain.RequestDeadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.support.RetryTemplate;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RedisResilienceListenerTest {
+
+    static final int MAX_ATTEMPTS = 3;
+    static final long OPEN_MILLI = 10;
+
+    private static RetryTemplate retryTemplate(RedisCircuitBreaker breaker, RetryBudget budget) {
+        return RetryTemplate.builder()
+                .maxAttempts( MAX_ATTEMPTS )
+                .noBackoff()
+                .withListener( new RedisResilienceListener( breaker, budget, MAX_ATTEMPTS ) )
+                .build();
+    }
+
+    @AfterEach
+    void after() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    @DisplayName("A call fails fast without an attempt when the breaker is open")
+    void failsFastWhenOpen() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( 1, 60_000 );
+        breaker.onFailure( Permit.CALL );
+        AtomicInteger attempts = new AtomicInteger();
+        Assertions.assertThrows( RedisUnavailableException.class,
+                                 () -> retryTemplate( breaker, new RetryBudget( 10, 10 ) ).execute(
+                                         context -> attempts.incrementAndGet() ) );
+        Assertions.assertEquals( 0, attempts.get() );
+    }
+
+    @Test
+    @DisplayName("Retries are exhausted once the retry budget is spent")
+    void exhaustedWhenBudgetSpent() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( 10, 60_000 );
+        RetryBudget budget = new RetryBudget( 0, 1 );
+        AtomicInteger attempts = new AtomicInteger();
+        Assertions.assertThrows( JedisConnectionException.class,
+                                 () -> retryTemplate( breaker, budget ).execute( context -> {
+                                     attempts.incrementAndGet();
+                                     throw new JedisConnectionException( "Boom!" );
+                                 } ) );
+        Assertions.assertEquals( 2, attempts.get(), "one retry was affordable" );
+        Assertions.assertEquals( 0, budget.balance() );
+    }
+
+    @Test
+    @DisplayName("A failed attempt is not retried and throws DeadlineExceededException once the deadline passed")
+    void deadlinePassedDuringAttempt() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( 10, 60_000 );
+        RetryBudget budget = new RetryBudget( 10, 10 );
+        AtomicInteger attempts = new AtomicInteger();
+        DeadlineExceededException e = Assertions.assertThrows(
+                DeadlineExceededException.class, () -> retryTemplate( breaker, budget ).execute( context -> {
+                    attempts.incrementAndGet();
+                    RequestDeadline.set( Instant.now().toEpochMilli() - 1 );
+                    throw new JedisConnectionException( "Boom!" );
+                } ) );
+        Assertions.assertEquals( 1, attempts.get() );
+        Assertions.assertInstanceOf( JedisConnectionException.class, e.getCause() );
+    }
+
+    @Test
+    @DisplayName("A call permitted before the breaker tripped does not close it when it succeeds")
+    void staleSuccessDoesNotClose() throws InterruptedException {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker( 1, OPEN_MILLI );
+        RetryTemplate retryTemplate = retryTemplate( breaker, new RetryBudget( 10, 10 ) );
+        retryTemplate.execute( context -> {
+            // another call trips the breaker while this one is in flight
+            breaker.onFailure( Permit.CALL );
+            return true;
+        } );
+        Assertions.assertTrue( breaker.isOpen() );
+        Thread.sleep( OPEN_MILLI + 1 );
+        retryTemplate.execute( context -> true );
+        Assertions.assertEquals( RedisCircuitBreaker.State.CLOSED, breaker.state(), "the trial closes the breaker" );
+    }
+}
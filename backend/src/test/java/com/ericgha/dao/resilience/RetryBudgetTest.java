@@ -0,0 +1,38 @@
+package com.ericgha.dao.resilience;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+
+    @Test
+    @DisplayName("The budget starts full and a withdrawal fails once the balance is below one")
+    void withdrawUntilEmpty() {
+        RetryBudget budget = new RetryBudget( 10, 2 );
+        Assertions.assertTrue( budget.tryWithdraw() );
+        Assertions.assertTrue( budget.tryWithdraw() );
+        Assertions.assertFalse( budget.tryWithdraw() );
+        Assertions.assertEquals( 0, budget.balance() );
+    }
+
+    @Test
+    @DisplayName("Each call deposits retryPercent / 100, capped at maxBalance")
+    void depositsArePercentOfCallsAndCapped() {
+        RetryBudget budget = new RetryBudget( 50, 1 );
+        Assertions.assertTrue( budget.tryWithdraw() );
+        budget.deposit();
+        Assertions.assertFalse( budget.tryWithdraw(), "half a retry is not affordable" );
+        budget.deposit();
+        budget.deposit();
+        Assertions.assertEquals( 1, budget.balance(), "balance capped at maxBalance" );
+        Assertions.assertTrue( budget.tryWithdraw() );
+    }
+
+    @Test
+    @DisplayName("Constructor throws on negative arguments")
+    void constructorThrowsOnNegative() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> new RetryBudget( -1, 1 ) );
+        Assertions.assertThrows( IllegalArgumentException.class, () -> new RetryBudget( 1, -1 ) );
+    }
+}
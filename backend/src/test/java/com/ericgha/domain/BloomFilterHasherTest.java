@@ -0,0 +1,44 @@
+package com.ericgha.domain;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class BloomFilterHasherTest {
+
+    @Test
+    @DisplayName("Filter is sized by the standard formulas")
+    void sizesFilter() {
+        BloomFilterHasher hasher = new BloomFilterHasher( 1_000, 0.01 );
+        // m = -n ln(p) / ln(2)^2, k = m/n ln(2)
+        Assertions.assertEquals( 9586, hasher.numBits() );
+        Assertions.assertEquals( 7, hasher.numHashes() );
+    }
+
+    @Test
+    @DisplayName("positions are deterministic and within the filter")
+    void positionsDeterministicAndInRange() {
+        BloomFilterHasher hasher = new BloomFilterHasher( 100, 0.001 );
+        long[] positions = hasher.positions( "event" );
+        Assertions.assertEquals( hasher.numHashes(), positions.length );
+        Assertions.assertArrayEquals( positions, hasher.positions( "event" ) );
+        Assertions.assertTrue( Arrays.stream( positions ).allMatch( p -> p >= 0 && p < hasher.numBits() ) );
+        Assertions.assertFalse( Arrays.equals( positions, hasher.positions( "other event" ) ) );
+    }
+
+    @Test
+    @DisplayName("Constructor throws on an out of range false positive rate")
+    void throwsOnImproperFalsePositiveRate() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> new BloomFilterHasher( 100, 0 ) );
+        Assertions.assertThrows( IllegalArgumentException.class, () -> new BloomFilterHasher( 100, 1 ) );
+    }
+
+    @Test
+    @DisplayName("Constructor throws when the filter would exceed the Redis maximum of 2^32 bits")
+    void throwsWhenFilterTooLarge() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> new BloomFilterHasher( 1_000_000_000L, 0.001 ) );
+    }
+}
@@ -3,6 +3,8 @@ package com.ericgha.domain;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 class KeyMakerTest {
 
     static final String KEY_PREFIX = "TEST";
@@ -30,4 +32,35 @@ class KeyMakerTest {
         String found = keyMaker.generateEventKey( event );
         Assertions.assertEquals( expected, found );
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateEventKeyReturnsEventIdWhenHashing() {
+        KeyMaker hashingKeyMaker = new KeyMaker( KEY_PREFIX, true );
+        String event = "test event";
+        String expected = KEY_PREFIX + KeyMaker.KEY_DELIMITER + KeyMaker.EVENT_IDENTIFIER + KeyMaker.KEY_DELIMITER +
+                KeyMaker.eventId( event );
+        Assertions.assertEquals( expected, hashingKeyMaker.generateEventKey( event ) );
+    }
+
+    @Test
+    void eventIdIsFixedWidthAndDeterministic() {
+        String longEvent = "x".repeat( 10_000 );
+        Assertions.assertEquals( 22, KeyMaker.eventId( longEvent ).length() );
+        Assertions.assertEquals( 22, KeyMaker.eventId( "" ).length() );
+        Assertions.assertEquals( KeyMaker.eventId( longEvent ), KeyMaker.eventId( "x".repeat( 10_000 ) ) );
+        Assertions.assertNotEquals( KeyMaker.eventId( "a" ), KeyMaker.eventId( "b" ) );
+    }
+
+    @Test
+    void generateLevelKeysReturnsKeyPerLevel() {
+        List<String> expected = List.of( "TEST:LEVEL:tenant:acme", "TEST:LEVEL:user:acme/alice" );
+        Assertions.assertEquals( expected,
+                                 keyMaker.generateLevelKeys( "acme/alice/login", "/", List.of( "tenant", "user" ) ) );
+    }
+
+    @Test
+    void generateLevelKeysThrowsWhenMissingLevels() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> keyMaker.generateLevelKeys( "acme", "/", List.of( "tenant", "user" ) ) );
+    }
+}
@@ -0,0 +1,121 @@
+package com.ericgha.service;
+
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.MessageType;
+import com.ericgha.dto.message.PublishedEventMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BatchingMessagingTemplateTest {
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final String destination = "/topic/test";
+
+    MessageChannel channel;
+    BatchingMessagingTemplate template;
+
+    @BeforeEach
+    void before() {
+        channel = Mockito.mock( MessageChannel.class );
+        Mockito.doReturn( true ).when( channel ).send( ArgumentMatchers.any() );
+        template = template( 60_000, 3 );
+    }
+
+    private BatchingMessagingTemplate template(long windowMilli, int maxMessages) {
+        BatchingMessagingTemplate template = new BatchingMessagingTemplate( channel, windowMilli, maxMessages );
+        template.setMessageConverter( new MappingJackson2MessageConverter() );
+        return template;
+    }
+
+    @AfterEach
+    void after() {
+        template.stop();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JsonNode> sent(int times) throws Exception {
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass( Message.class );
+        Mockito.verify( channel, Mockito.timeout( 1_000 ).times( times ) ).send( captor.capture() );
+        List<JsonNode> sent = new ArrayList<>();
+        for (Message<byte[]> message : captor.getAllValues()) {
+            sent.add( objectMapper.readTree( message.getPayload() ) );
+        }
+        return sent;
+    }
+
+    @Test
+    @DisplayName("maxMessages event messages are sent as one DeltaBatchMessage in clock order")
+    void batchesInClockOrder() throws Exception {
+        template.convertAndSend( destination, new PublishedEventMessage( 2, new EventTime( "b", 2 ) ) );
+        template.convertAndSend( destination, new PublishedEventMessage( 1, new EventTime( "a", 1 ) ) );
+        Mockito.verify( channel, Mockito.never() ).send( ArgumentMatchers.any() );
+        template.convertAndSend( destination, new PublishedEventMessage( 3, new EventTime( "c", 3 ) ) );
+        JsonNode batch = sent( 1 ).get( 0 );
+        Assertions.assertEquals( MessageType.DELTA_BATCH.name(), batch.get( "messageType" ).asText() );
+        Assertions.assertEquals( 1, batch.get( "fromClock" ).asLong() );
+        Assertions.assertEquals( 3, batch.get( "clock" ).asLong() );
+        List<Long> clocks = new ArrayList<>();
+        batch.get( "messages" ).forEach( message -> clocks.add( message.get( "clock" ).asLong() ) );
+        Assertions.assertEquals( List.of( 1L, 2L, 3L ), clocks );
+    }
+
+    @Test
+    @DisplayName("Another message to a destination is sent after the messages batched before it")
+    void otherMessageFlushesBatch() throws Exception {
+        template.convertAndSend( destination, new PublishedEventMessage( 1, new EventTime( "a", 1 ) ) );
+        template.convertAndSend( destination, Map.of( "clock", 2 ) );
+        List<JsonNode> sent = sent( 2 );
+        Assertions.assertEquals( MessageType.PUBLISHED_EVENT.name(), sent.get( 0 ).get( "messageType" ).asText() );
+        Assertions.assertEquals( 2, sent.get( 1 ).get( "clock" ).asLong() );
+    }
+
+    @Test
+    @DisplayName("A batch of one message is sent as that message after the window")
+    void singleMessageSentUnwrapped() throws Exception {
+        template.stop();
+        template = template( 10, 3 );
+        template.convertAndSend( destination, new PublishedEventMessage( 1, new EventTime( "a", 1 ) ) );
+        JsonNode message = sent( 1 ).get( 0 );
+        Assertions.assertEquals( MessageType.PUBLISHED_EVENT.name(), message.get( "messageType" ).asText() );
+        Assertions.assertEquals( "a", message.get( "eventTime" ).get( "event" ).asText() );
+    }
+
+    @Test
+    @DisplayName("Messages to each destination are batched separately")
+    void batchesPerDestination() throws Exception {
+        String other = "/topic/other";
+        template.convertAndSend( destination, new PublishedEventMessage( 1, new EventTime( "a", 1 ) ) );
+        template.convertAndSend( other, new PublishedEventMessage( 2, new EventTime( "b", 2 ) ) );
+        template.convertAndSend( destination, new PublishedEventMessage( 3, new EventTime( "c", 3 ) ) );
+        template.convertAndSend( other, new PublishedEventMessage( 4, new EventTime( "d", 4 ) ) );
+        Mockito.verify( channel, Mockito.never() ).send( ArgumentMatchers.any() );
+        template.convertAndSend( destination, new PublishedEventMessage( 5, new EventTime( "e", 5 ) ) );
+        JsonNode batch = sent( 1 ).get( 0 );
+        Assertions.assertEquals( 1, batch.get( "fromClock" ).asLong() );
+        Assertions.assertEquals( 5, batch.get( "clock" ).asLong() );
+    }
+
+    @Test
+    @DisplayName("windowMilli and maxMessages must be positive")
+    void argumentsMustBePositive() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> new BatchingMessagingTemplate( channel, 0, 1 ) );
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> new BatchingMessagingTemplate( channel, 1, 0 ) );
+    }
+}
@@ -0,0 +1,51 @@
+package com.ericgha.service;
+
+import com.ericgha.dto.MessageType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ConversionMetricsTest {
+
+    ConversionMetrics conversionMetrics;
+    MeterRegistry registry;
+
+    @BeforeEach
+    void before() {
+        conversionMetrics = new ConversionMetrics();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("A conversion is recorded with its size, tagged by message type")
+    void recordsConversion() {
+        conversionMetrics.bindTo( registry );
+        byte[] payload = conversionMetrics.record( MessageType.KEY_FRAME, () -> new byte[10], bytes -> bytes.length );
+        Assertions.assertEquals( 10, payload.length );
+        Assertions.assertEquals( 1, registry.get( "stomp.message.conversion" ).tag( "type", "KEY_FRAME" ).timer()
+                .count() );
+        Assertions.assertEquals( 10, registry.get( "stomp.message.size" ).tag( "type", "KEY_FRAME" ).summary()
+                .totalAmount() );
+    }
+
+    @Test
+    @DisplayName("Fan out is recorded as the number of sessions")
+    void recordsFanOut() {
+        conversionMetrics.bindTo( registry );
+        conversionMetrics.fanOut( MessageType.KEY_FRAME, 4 );
+        Assertions.assertEquals( 4, registry.get( "stomp.message.fan-out" ).tag( "type", "KEY_FRAME" ).summary()
+                .totalAmount() );
+    }
+
+    @Test
+    @DisplayName("Nothing is recorded before binding, conversions still run")
+    void unboundRecordsNothing() {
+        byte[] payload = conversionMetrics.record( MessageType.KEY_FRAME, () -> new byte[10], bytes -> bytes.length );
+        conversionMetrics.fanOut( MessageType.KEY_FRAME, 4 );
+        Assertions.assertEquals( 10, payload.length );
+        Assertions.assertTrue( registry.getMeters().isEmpty() );
+    }
+}
@@ -0,0 +1,97 @@
+package com.ericgha.service;
+
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.ReplacingOfferResponse;
+import com.ericgha.dto.Versioned;
+import com.ericgha.dto.message.InvalidatedEventMessage;
+import com.ericgha.dto.message.SubmittedEventMessage;
+import com.ericgha.service.data.EventQueueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Instant;
+
+@ExtendWith(MockitoExtension.class)
+class DebounceEventServiceTest {
+
+    static final String MESSAGE_PREFIX = "/topic/test";
+    static final long EVENT_DURATION = 1_000;
+    static final long MAX_EVENTS = 10;
+
+    @Mock
+    SimpMessagingTemplate messageTemplate;
+
+    @Mock
+    EventQueueService queueService;
+
+    KeyMaker keyMaker = new KeyMaker( "test" );
+
+    DebounceEventService eventService;
+
+    @BeforeEach
+    void before() {
+        eventService = new DebounceEventService( MESSAGE_PREFIX, MAX_EVENTS, EVENT_DURATION, messageTemplate,
+                                                 queueService, keyMaker );
+    }
+
+    @AfterEach
+    void after() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    @DisplayName("acceptEvent offers with the event's pointer, expiring one event duration after the event")
+    void acceptEventOffersWithPointer() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( new ReplacingOfferResponse( 1, 1, null ) ).when( queueService )
+                .offerReplacing( event, keyMaker.generateEventKey( event.event() ), event.time() + EVENT_DURATION );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        Mockito.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new SubmittedEventMessage( 1, event ) );
+        Mockito.verifyNoMoreInteractions( messageTemplate );
+    }
+
+    @Test
+    @DisplayName("acceptEvent invalidates the replaced event before submitting its replacement")
+    void acceptEventInvalidatesReplaced() {
+        EventTime replaced = new EventTime( "Test 1", Instant.now().toEpochMilli() - 10 );
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( new ReplacingOfferResponse( 5, 1, new Versioned<>( 4, replaced ) ) ).when( queueService )
+                .offerReplacing( Mockito.eq( event ), Mockito.anyString(), Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        InOrder inOrder = Mockito.inOrder( messageTemplate );
+        inOrder.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new InvalidatedEventMessage( 4, replaced ) );
+        inOrder.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new SubmittedEventMessage( 5, event ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 503 and sends no message when an exception is thrown")
+    void acceptEventReturns503WhenExceptionThrown() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doThrow( new IllegalStateException( "Boom!" ) ).when( queueService )
+                .offerReplacing( Mockito.any( EventTime.class ), Mockito.anyString(), Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.SERVICE_UNAVAILABLE, eventService.acceptEvent( event ) );
+        Mockito.verifyNoInteractions( messageTemplate );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 408 without offering when the request deadline has passed")
+    void acceptEventReturns408WhenDeadlinePassed() {
+        RequestDeadline.set( Instant.now().toEpochMilli() - 1 );
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Assertions.assertEquals( HttpStatus.REQUEST_TIMEOUT, eventService.acceptEvent( event ) );
+        Mockito.verify( queueService, Mockito.never() )
+                .offerReplacing( Mockito.any( EventTime.class ), Mockito.anyString(), Mockito.anyLong() );
+    }
+}
@@ -2,7 +2,11 @@ package com.ericgha.service;
 
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.Versioned;
+import com.ericgha.dao.EventQueue;
 import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.data.EventQueueView;
+import com.ericgha.service.snapshot_consumer.PagedSnapshotConsumer;
+import com.ericgha.service.snapshot_consumer.SnapshotConsumer;
 import com.ericgha.service.snapshot_consumer.SnapshotSaver;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -11,12 +15,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -125,4 +132,108 @@ public class EventQueueSnapshotServiceTest {
                                  () -> eventQueueSnapshotService.run( 10L, snapshotsaver ) );
     }
 
+
+    @Test
+    @DisplayName("Stopping a service running on a shared executor leaves the executor running")
+    void stopLeavesSharedExecutorRunning() {
+        Mockito.lenient().doReturn( new Versioned<>( 1L, List.of() ) ).when( eventQueueServiceMock ).getAll();
+        try (ScheduledExecutorService sharedExecutor = Executors.newSingleThreadScheduledExecutor()) {
+            eventQueueSnapshotService.run( 10L, snapshotsaver, sharedExecutor );
+            Assertions.assertTrue( eventQueueSnapshotService.stop() );
+            Assertions.assertFalse( sharedExecutor.isShutdown() );
+        }
+    }
+
+    @Test
+    @DisplayName("Paged snapshots are read from a copy and delivered in pages")
+    void pagedSnapshotDeliversPages() throws InterruptedException {
+        PagedSnapshotConsumer pagedConsumer = Mockito.mock( PagedSnapshotConsumer.class );
+        List<EventTime> first = List.of( new EventTime( "one", 1 ), new EventTime( "two", 2 ) );
+        List<EventTime> second = List.of( new EventTime( "three", 3 ) );
+        Mockito.doReturn( new Versioned<>( 5L, 3L ) ).when( eventQueueServiceMock )
+                .copyTo( ArgumentMatchers.anyString(), ArgumentMatchers.anyLong() );
+        Mockito.doReturn( first ).when( eventQueueServiceMock )
+                .getCopyRange( ArgumentMatchers.anyString(), ArgumentMatchers.eq( 0L ), ArgumentMatchers.eq( 1L ) );
+        Mockito.doReturn( second ).when( eventQueueServiceMock )
+                .getCopyRange( ArgumentMatchers.anyString(), ArgumentMatchers.eq( 2L ), ArgumentMatchers.eq( 3L ) );
+        eventQueueSnapshotService.pageSize( 2 );
+        eventQueueSnapshotService.run( 10_000L, pagedConsumer );
+        Mockito.verify( pagedConsumer, Mockito.timeout( 1_000 ) ).acceptPage( 5L, 1, 2, second );
+        Mockito.verify( pagedConsumer ).acceptPage( 5L, 0, 2, first );
+        Mockito.verify( eventQueueServiceMock, Mockito.timeout( 1_000 ) ).deleteCopy( ArgumentMatchers.anyString() );
+        Mockito.verify( eventQueueServiceMock, Mockito.never() ).getAll();
+    }
+
+    @Test
+    @DisplayName("An empty queue is delivered as one empty page")
+    void pagedSnapshotOfEmptyQueue() {
+        PagedSnapshotConsumer pagedConsumer = Mockito.mock( PagedSnapshotConsumer.class );
+        Mockito.doReturn( new Versioned<>( 5L, 0L ) ).when( eventQueueServiceMock )
+                .copyTo( ArgumentMatchers.anyString(), ArgumentMatchers.anyLong() );
+        Mockito.doReturn( List.of() ).when( eventQueueServiceMock )
+                .getCopyRange( ArgumentMatchers.anyString(), ArgumentMatchers.eq( 0L ), ArgumentMatchers.eq( 1L ) );
+        eventQueueSnapshotService.pageSize( 2 );
+        eventQueueSnapshotService.run( 10_000L, pagedConsumer );
+        Mockito.verify( pagedConsumer, Mockito.timeout( 1_000 ) ).acceptPage( 5L, 0, 1, List.of() );
+    }
+
+    @Test
+    @DisplayName("pageSize throws when negative")
+    void pageSizeThrowsWhenNegative() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> eventQueueSnapshotService.pageSize( -1 ) );
+    }
+
+    @Test
+    @DisplayName("Snapshots from a view only read the queue to reconcile")
+    void viewSnapshotsReconcilePeriodically() {
+        EventQueueView view = new EventQueueView( EventQueue.Ordering.FIFO );
+        view.added( 2L, new EventTime( "two", 2 ) );
+        Mockito.doReturn( view ).when( eventQueueServiceMock ).view();
+        Mockito.doReturn( new Versioned<>( 1L, List.of( new EventTime( "one", 1 ) ) ) )
+                .when( eventQueueServiceMock ).getAll();
+        eventQueueSnapshotService.viewReconcileEvery( 1_000 );
+        PagedSnapshotConsumer consumer = Mockito.mock( PagedSnapshotConsumer.class );
+        eventQueueSnapshotService.run( 1L, consumer );
+        Mockito.verify( consumer, Mockito.timeout( 1_000 ).atLeast( 3 ) )
+                .accept( 2L, List.of( new EventTime( "one", 1 ), new EventTime( "two", 2 ) ) );
+        Mockito.verify( eventQueueServiceMock, Mockito.times( 1 ) ).getAll();
+    }
+
+    @Test
+    @DisplayName("Snapshots are skipped while the clock has not moved since the last snapshot")
+    void unchangedSnapshotsAreSkipped() throws InterruptedException {
+        Mockito.doReturn( new Versioned<>( 5L, List.of( new EventTime( "one", 1 ) ) ) )
+                .when( eventQueueServiceMock ).getAll();
+        Mockito.doReturn( 5L ).when( eventQueueServiceMock ).clock();
+        eventQueueSnapshotService.skipUnchanged( true );
+        SnapshotConsumer consumer = Mockito.mock( SnapshotConsumer.class );
+        eventQueueSnapshotService.run( 5L, consumer );
+        Mockito.verify( eventQueueServiceMock, Mockito.timeout( 1_000 ).atLeast( 3 ) ).clock();
+        Mockito.verify( consumer, Mockito.times( 1 ) ).accept( ArgumentMatchers.eq( 5L ), ArgumentMatchers.anyList() );
+        Mockito.verify( eventQueueServiceMock, Mockito.times( 1 ) ).getAll();
+    }
+
+    @Test
+    @DisplayName("An adaptive period takes snapshots more often while the queue is busy")
+    void adaptivePeriodSpeedsUpWhenBusy() throws InterruptedException {
+        AtomicLong clock = new AtomicLong( 0L );
+        Mockito.doAnswer( a -> new Versioned<>( clock.addAndGet( 10 ), List.of() ) )
+                .when( eventQueueServiceMock ).getAll();
+        eventQueueSnapshotService.adaptivePeriod( 4, 5 );
+        SnapshotConsumer consumer = Mockito.mock( SnapshotConsumer.class );
+        eventQueueSnapshotService.run( 100L, consumer );
+        Thread.sleep( 400 );
+        // a fixed period takes 5 snapshots, the interval shrinks to 25 ms after 3
+        Mockito.verify( consumer, Mockito.atLeast( 8 ) ).accept( ArgumentMatchers.anyLong(),
+                                                                 ArgumentMatchers.anyList() );
+    }
+
+    @Test
+    @DisplayName("adaptivePeriod throws when speedup or busyChanges is not positive")
+    void adaptivePeriodThrowsWhenNotPositive() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> eventQueueSnapshotService.adaptivePeriod( 0, 1 ) );
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> eventQueueSnapshotService.adaptivePeriod( 1, 0 ) );
+    }
 }
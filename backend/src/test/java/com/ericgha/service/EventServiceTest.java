@@ -1,9 +1,11 @@
 package com.ericgha.service;
 
+import com.ericgha.domain.RequestDeadline;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.message.SubmittedEventMessage;
 import com.ericgha.service.data.EventMapService;
 import com.ericgha.service.data.EventQueueService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -40,6 +42,11 @@ class EventServiceTest {
         eventService = new EventService( MESSAGE_PREFIX, MAX_EVENTS, messageTemplate, queueService, mapService );
     }
 
+    @AfterEach
+    void after() {
+        RequestDeadline.clear();
+    }
+
     @Test
     @DisplayName("acceptEvent returns 507 when EventQueueService#approxSize equals MAX_EVENTS")
     void acceptEventReturns507WhenQueueFull() {
@@ -91,4 +98,33 @@ class EventServiceTest {
                         Mockito.times( 1 ).description( "A single message was sent with expected args" ) )
                 .convertAndSend( MESSAGE_PREFIX, expectedMessage );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("acceptEvent returns 408 and does not put the event when the request deadline has passed")
+    void acceptEventReturns408WhenDeadlinePassed() {
+        Mockito.doReturn( 0L ).when( queueService ).approxSize();
+        RequestDeadline.set( Instant.now().toEpochMilli() - 1 );
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Assertions.assertEquals( HttpStatus.REQUEST_TIMEOUT, eventService.acceptEvent( event ) );
+        Mockito.verify( mapService, Mockito.never() ).putEvent( Mockito.any( EventTime.class ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent offers the event and returns 201 when the deadline passes after the event is put")
+    void acceptEventOffersWhenDeadlinePassesAfterPut() {
+        Mockito.doReturn( 0L ).when( queueService ).approxSize();
+        Mockito.doAnswer( invocation -> {
+            RequestDeadline.set( Instant.now().toEpochMilli() - 1 );
+            return true;
+        } ).when( mapService ).putEvent( Mockito.any( EventTime.class ) );
+        Mockito.doAnswer( invocation -> {
+            // the offer's DAO call would throw if the deadline was visible
+            RequestDeadline.check();
+            return 1L;
+        } ).when( queueService ).offer( Mockito.any( EventTime.class ) );
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        Mockito.verify( queueService ).offer( event );
+        Assertions.assertTrue( RequestDeadline.isExpired(), "The deadline is restored after the offer." );
+    }
+}
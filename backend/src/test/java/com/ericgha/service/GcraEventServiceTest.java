@@ -0,0 +1,117 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.GcraMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.Acceptance;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.RateLimitDecision;
+import com.ericgha.dto.message.PublishedEventMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Instant;
+
+@ExtendWith(MockitoExtension.class)
+class GcraEventServiceTest {
+
+    static final String MESSAGE_PREFIX = "/topic/test";
+    // 3 per 1000 ms, rounded up to 334 ms
+    static final long EMISSION_INTERVAL = 334;
+    static final long BURST = 2;
+
+    @Mock
+    SimpMessagingTemplate messageTemplate;
+
+    @Mock
+    GcraMap gcraMap;
+
+    KeyMaker keyMaker = new KeyMaker( "test" );
+
+    GcraEventService eventService;
+
+    @BeforeEach
+    void before() {
+        eventService = new GcraEventService( MESSAGE_PREFIX, messageTemplate, gcraMap, keyMaker, 3, 1_000, BURST );
+    }
+
+    @AfterEach
+    void after() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    @DisplayName("acceptEvent calls GcraMap#tryAcquire with the emission interval and burst tolerance")
+    void acceptEventUsesExpectedArgs() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( RateLimitDecision.allowed( 1 ) ).when( gcraMap )
+                .tryAcquire( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                             Mockito.anyLong() );
+        eventService.acceptEvent( event );
+        Mockito.verify( gcraMap ).tryAcquire( keyMaker.generateEventKey( event.event() ), keyMaker.generateClockKey(),
+                                              event.time(), EMISSION_INTERVAL, EMISSION_INTERVAL * ( BURST - 1 ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 201 and publishes the event when allowed")
+    void acceptEventReturns201AndPublishesWhenAllowed() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( RateLimitDecision.allowed( 7 ) ).when( gcraMap )
+                .tryAcquire( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                             Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        Mockito.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new PublishedEventMessage( 7, event ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 409 and sends no message when rejected")
+    void acceptEventReturns409WhenRejected() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( RateLimitDecision.rejected( 100 ) ).when( gcraMap )
+                .tryAcquire( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                             Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.CONFLICT, eventService.acceptEvent( event ) );
+        Mockito.verifyNoInteractions( messageTemplate );
+    }
+
+    @Test
+    @DisplayName("acceptEventReportingRetry reports when a rejected event may be retried")
+    void acceptEventReportsRetryAfter() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( RateLimitDecision.rejected( 100 ) ).when( gcraMap )
+                .tryAcquire( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                             Mockito.anyLong() );
+        Acceptance acceptance = eventService.acceptEventReportingRetry( event );
+        Assertions.assertEquals( HttpStatus.CONFLICT, acceptance.status() );
+        Assertions.assertEquals( 100, acceptance.retryAfterMilli() );
+        Assertions.assertNull( acceptance.rejectedLevel() );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 503 when an exception is thrown by tryAcquire")
+    void acceptEventReturns503WhenExceptionThrown() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doThrow( new IllegalStateException( "Boom!" ) ).when( gcraMap )
+                .tryAcquire( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                             Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.SERVICE_UNAVAILABLE, eventService.acceptEvent( event ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 408 without calling GcraMap when the request deadline has passed")
+    void acceptEventReturns408WhenDeadlinePassed() {
+        RequestDeadline.set( Instant.now().toEpochMilli() - 1 );
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Assertions.assertEquals( HttpStatus.REQUEST_TIMEOUT, eventService.acceptEvent( event ) );
+        Mockito.verifyNoInteractions( gcraMap );
+    }
+}
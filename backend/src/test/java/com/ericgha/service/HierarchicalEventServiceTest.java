@@ -0,0 +1,85 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.GcraMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.LimitLevel;
+import com.ericgha.dto.Acceptance;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.RateLimitDecision;
+import com.ericgha.dto.message.PublishedEventMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class HierarchicalEventServiceTest {
+
+    static final String MESSAGE_PREFIX = "/topic/test";
+
+    @Mock
+    SimpMessagingTemplate messageTemplate;
+
+    @Mock
+    GcraMap gcraMap;
+
+    KeyMaker keyMaker = new KeyMaker( "test" );
+
+    HierarchicalEventService eventService;
+
+    @BeforeEach
+    void before() {
+        // tenant: 100 per 1000 ms (10 ms), user: 3 per 1000 ms (334 ms)
+        List<LimitLevel> levels = List.of( new LimitLevel( "tenant", 100, 1_000, 5 ),
+                                           new LimitLevel( "user", 3, 1_000, 2 ) );
+        eventService = new HierarchicalEventService( MESSAGE_PREFIX, messageTemplate, gcraMap, keyMaker, "/",
+                                                     levels );
+    }
+
+    @Test
+    @DisplayName("acceptEvent checks every level in one call")
+    void acceptEventChecksEveryLevel() {
+        EventTime event = new EventTime( "acme/alice/login", Instant.now().toEpochMilli() );
+        Mockito.doReturn( RateLimitDecision.allowed( 3 ) ).when( gcraMap )
+                .tryAcquireAll( Mockito.anyList(), Mockito.anyString(), Mockito.anyLong(), Mockito.any(),
+                                Mockito.any() );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        Mockito.verify( gcraMap ).tryAcquireAll(
+                Mockito.eq( keyMaker.generateLevelKeys( event.event(), "/", List.of( "tenant", "user" ) ) ),
+                Mockito.eq( keyMaker.generateClockKey() ), Mockito.eq( event.time() ),
+                AdditionalMatchers.aryEq( new long[]{10, 334} ), AdditionalMatchers.aryEq( new long[]{40, 334} ) );
+        Mockito.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new PublishedEventMessage( 3, event ) );
+    }
+
+    @Test
+    @DisplayName("acceptEventReportingLevel names the level which rejected the event and when to retry")
+    void acceptEventReportsRejectingLevel() {
+        EventTime event = new EventTime( "acme/alice/login", Instant.now().toEpochMilli() );
+        Mockito.doReturn( RateLimitDecision.rejected( 100, 1 ) ).when( gcraMap )
+                .tryAcquireAll( Mockito.anyList(), Mockito.anyString(), Mockito.anyLong(), Mockito.any(),
+                                Mockito.any() );
+        Acceptance acceptance = eventService.acceptEventReportingLevel( event );
+        Assertions.assertEquals( HttpStatus.CONFLICT, acceptance.status() );
+        Assertions.assertEquals( 100, acceptance.retryAfterMilli() );
+        Assertions.assertEquals( "user", acceptance.rejectedLevel() );
+        Mockito.verifyNoInteractions( messageTemplate );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 400 without calling GcraMap when the event is missing levels")
+    void acceptEventReturns400WhenMissingLevels() {
+        EventTime event = new EventTime( "acme", Instant.now().toEpochMilli() );
+        Assertions.assertEquals( HttpStatus.BAD_REQUEST, eventService.acceptEvent( event ) );
+        Mockito.verifyNoInteractions( gcraMap );
+    }
+}
@@ -0,0 +1,126 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dao.OnlyOnceMap;
+import com.ericgha.dao.StrictlyOnceMap;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.NamespaceSpec;
+import com.ericgha.service.data.SharedExpiryScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+@ExtendWith(MockitoExtension.class)
+class NamespaceRegistryTest {
+
+    static final NamespaceSpec SPEC = new NamespaceSpec( "tenant-1", NamespaceSpec.Mode.ONLY_ONCE, 1_000, 10 );
+    static final SnapshotProperties SNAPSHOT_PROPERTIES = new SnapshotProperties(
+            1, 0, false, new SnapshotProperties.View( 0 ), false, new SnapshotProperties.Adaptive( 1, Long.MAX_VALUE ),
+            1, 1 );
+
+    @Mock
+    SimpMessagingTemplate messageTemplate;
+    @Mock
+    EventQueue eventQueue;
+    @Mock
+    OnlyOnceMap onlyOnceMap;
+    @Mock
+    StrictlyOnceMap strictlyOnceMap;
+    @Mock
+    SharedExpiryScheduler expiryScheduler;
+    @Mock
+    ScheduledFuture<?> expiry;
+
+    ScheduledExecutorService snapshotExecutor;
+    NamespaceRegistry registry;
+
+    @BeforeEach
+    void before() {
+        snapshotExecutor = Executors.newSingleThreadScheduledExecutor();
+        Mockito.lenient().doReturn( expiry ).when( expiryScheduler )
+                .register( Mockito.any(), Mockito.any(), Mockito.anyLong() );
+        SnapshotFactory snapshotFactory = new SnapshotFactory( SNAPSHOT_PROPERTIES, messageTemplate, null, null );
+        registry = new NamespaceRegistry( "ns", "/topic/ns", 2, messageTemplate, eventQueue, onlyOnceMap,
+                                          strictlyOnceMap, expiryScheduler, snapshotFactory, snapshotExecutor );
+    }
+
+    @AfterEach
+    void after() {
+        registry.stop();
+        snapshotExecutor.close();
+    }
+
+    @Test
+    @DisplayName("create registers the namespace with the shared expiry scheduler")
+    void createRegistersExpiry() {
+        registry.create( SPEC );
+        Assertions.assertEquals( List.of( SPEC ), registry.list() );
+        Mockito.verify( expiryScheduler ).register( Mockito.any(), Mockito.any(), Mockito.eq( 1_000L ) );
+    }
+
+    @Test
+    @DisplayName("create throws when the namespace exists or the maximum is reached")
+    void createThrowsOnDuplicateOrMaximum() {
+        registry.create( SPEC );
+        Assertions.assertThrows( IllegalStateException.class, () -> registry.create( SPEC ) );
+        registry.create( new NamespaceSpec( "tenant-2", NamespaceSpec.Mode.STRICTLY_ONCE, 1_000, 10 ) );
+        Assertions.assertThrows( IllegalStateException.class, () -> registry.create(
+                new NamespaceSpec( "tenant-3", NamespaceSpec.Mode.ONLY_ONCE, 1_000, 10 ) ) );
+    }
+
+    @Test
+    @DisplayName("create throws on an invalid prefix")
+    void createThrowsOnInvalidPrefix() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> registry.create(
+                new NamespaceSpec( "a:b", NamespaceSpec.Mode.ONLY_ONCE, 1_000, 10 ) ) );
+    }
+
+    @Test
+    @DisplayName("destroy cancels expiry and removes the namespace")
+    void destroyCancelsExpiry() {
+        registry.create( SPEC );
+        Assertions.assertTrue( registry.destroy( SPEC.prefix() ) );
+        Mockito.verify( expiry ).cancel( false );
+        Assertions.assertEquals( List.of(), registry.list() );
+        Assertions.assertFalse( registry.destroy( SPEC.prefix() ) );
+    }
+
+    @Test
+    @DisplayName("destroy deletes the queue and clock of the namespace")
+    void destroyDeletesQueueAndClock() {
+        registry.create( SPEC );
+        registry.destroy( SPEC.prefix() );
+        Mockito.verify( eventQueue ).delete( "ns:tenant-1:QUEUE", "ns:tenant-1:CLOCK" );
+    }
+
+    @Test
+    @DisplayName("destroy removes the namespace when its queue can't be deleted")
+    void destroyRemovesNamespaceWhenDeleteFails() {
+        registry.create( SPEC );
+        Mockito.doThrow( new IllegalStateException( "Boom!" ) ).when( eventQueue )
+                .delete( Mockito.anyString(), Mockito.anyString() );
+        Assertions.assertTrue( registry.destroy( SPEC.prefix() ) );
+        Assertions.assertEquals( List.of(), registry.list() );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 404 for an unknown namespace")
+    void acceptEventReturns404ForUnknownNamespace() {
+        Assertions.assertEquals( HttpStatus.NOT_FOUND,
+                                 registry.acceptEvent( "missing", new EventTime( "a", Instant.now().toEpochMilli() ) ) );
+    }
+}
@@ -0,0 +1,118 @@
+package com.ericgha.service;
+
+import com.ericgha.dao.ShapingMap;
+import com.ericgha.domain.KeyMaker;
+import com.ericgha.domain.RequestDeadline;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.message.SubmittedEventMessage;
+import com.ericgha.service.data.EventQueueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Instant;
+
+@ExtendWith(MockitoExtension.class)
+class ShapingEventServiceTest {
+
+    static final String MESSAGE_PREFIX = "/topic/test";
+    // 3 per 1000 ms, rounded up to 334 ms
+    static final long EMISSION_INTERVAL = 334;
+    static final long MAX_DELAY = 5_000;
+    static final long MAX_EVENTS = 10;
+
+    @Mock
+    SimpMessagingTemplate messageTemplate;
+
+    @Mock
+    ShapingMap shapingMap;
+
+    @Mock
+    EventQueueService queueService;
+
+    KeyMaker keyMaker = new KeyMaker( "test" );
+
+    ShapingEventService eventService;
+
+    @BeforeEach
+    void before() {
+        eventService = new ShapingEventService( MESSAGE_PREFIX, MAX_EVENTS, messageTemplate, queueService,
+                                                shapingMap, keyMaker, 3, 1_000, MAX_DELAY );
+    }
+
+    @AfterEach
+    void after() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    @DisplayName("acceptEvent offers and announces the event at its reserved slot")
+    void acceptEventOffersEventAtSlot() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        long slot = event.time() + EMISSION_INTERVAL;
+        EventTime scheduled = new EventTime( event.event(), slot );
+        Mockito.doReturn( slot ).when( shapingMap )
+                .reserveSlot( keyMaker.generateEventKey( event.event() ), event.time(), EMISSION_INTERVAL,
+                              MAX_DELAY );
+        Mockito.doReturn( 3L ).when( queueService ).offer( scheduled );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        Mockito.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new SubmittedEventMessage( 3, scheduled ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 409 and does not offer when no slot is available")
+    void acceptEventReturns409WhenNoSlot() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doReturn( ShapingMap.NO_SLOT ).when( shapingMap )
+                .reserveSlot( Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(), Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.CONFLICT, eventService.acceptEvent( event ) );
+        Mockito.verify( queueService, Mockito.never() ).offer( Mockito.any( EventTime.class ) );
+        Mockito.verifyNoInteractions( messageTemplate );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 507 without reserving a slot when the queue is full")
+    void acceptEventReturns507WhenQueueFull() {
+        Mockito.doReturn( MAX_EVENTS ).when( queueService ).approxSize();
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Assertions.assertEquals( HttpStatus.INSUFFICIENT_STORAGE, eventService.acceptEvent( event ) );
+        Mockito.verifyNoInteractions( shapingMap );
+    }
+
+    @Test
+    @DisplayName("acceptEvent returns 503 when an exception is thrown by reserveSlot")
+    void acceptEventReturns503WhenExceptionThrown() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        Mockito.doThrow( new IllegalStateException( "Boom!" ) ).when( shapingMap )
+                .reserveSlot( Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(), Mockito.anyLong() );
+        Assertions.assertEquals( HttpStatus.SERVICE_UNAVAILABLE, eventService.acceptEvent( event ) );
+    }
+
+    @Test
+    @DisplayName("acceptEvent offers the event and returns 201 when the deadline passes after the slot is reserved")
+    void acceptEventOffersWhenDeadlinePassesAfterReserve() {
+        EventTime event = new EventTime( "Test 1", Instant.now().toEpochMilli() );
+        long slot = event.time() + EMISSION_INTERVAL;
+        EventTime scheduled = new EventTime( event.event(), slot );
+        Mockito.doAnswer( invocation -> {
+            RequestDeadline.set( Instant.now().toEpochMilli() - 1 );
+            return slot;
+        } ).when( shapingMap ).reserveSlot( Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                                            Mockito.anyLong() );
+        Mockito.doAnswer( invocation -> {
+            // the offer's DAO call would throw if the deadline was visible
+            RequestDeadline.check();
+            return 3L;
+        } ).when( queueService ).offer( scheduled );
+        Assertions.assertEquals( HttpStatus.CREATED, eventService.acceptEvent( event ) );
+        Mockito.verify( messageTemplate ).convertAndSend( MESSAGE_PREFIX, new SubmittedEventMessage( 3, scheduled ) );
+    }
+}
@@ -0,0 +1,78 @@
+package com.ericgha.service;
+
+import com.ericgha.service.data.EventQueueService;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class SnapshotFactoryTest {
+
+    static final String PREFIX = "/topic/test";
+
+    EventQueueService queueService;
+    SubscribeKeyFrameService subscribeKeyFrameService;
+    ScheduledExecutorService executor;
+
+    @BeforeEach
+    void before() {
+        queueService = Mockito.mock( EventQueueService.class );
+        subscribeKeyFrameService = Mockito.mock( SubscribeKeyFrameService.class );
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void after() {
+        executor.shutdownNow();
+    }
+
+    private SnapshotFactory factory(int pageSize, boolean skipUnchanged, int speedup, int broadcastEvery) {
+        SnapshotProperties properties = new SnapshotProperties(
+                1, pageSize, false, new SnapshotProperties.View( 0 ), skipUnchanged,
+                new SnapshotProperties.Adaptive( speedup, 100 ), broadcastEvery, 1 );
+        return new SnapshotFactory( properties, Mockito.mock( SimpMessagingTemplate.class ), subscribeKeyFrameService,
+                                    null );
+    }
+
+    @Test
+    @DisplayName("start applies the properties and registers the snapshots for subscribers")
+    void startAppliesPropertiesAndRegisters() {
+        EventQueueSnapshotService snapshotService = factory( 5, true, 2, 0 )
+                .start( queueService, PREFIX, new ToSnapshotStatusAlwaysValid(), 1_000, null );
+        Assertions.assertEquals( 5, snapshotService.pageSize() );
+        Assertions.assertTrue( snapshotService.skipUnchanged() );
+        Assertions.assertEquals( 2, snapshotService.speedup() );
+        Assertions.assertFalse( snapshotService.isRunning(), "broadcast-every 0 never broadcasts" );
+        Mockito.verify( subscribeKeyFrameService )
+                .register( ArgumentMatchers.same( snapshotService ), ArgumentMatchers.any() );
+    }
+
+    @Test
+    @DisplayName("Paging and delta frames can't be configured together")
+    void pagingAndDeltasAreExclusive() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> new SnapshotProperties(
+                2, 100, false, new SnapshotProperties.View( 0 ), false, new SnapshotProperties.Adaptive( 1, 100 ), 1,
+                1 ) );
+    }
+
+    @Test
+    @DisplayName("start broadcasts every broadcastEvery periods, stop stops and unregisters the snapshots")
+    void startBroadcastsAndStopUnregisters() {
+        SnapshotFactory factory = factory( 0, false, 1, 2 );
+        EventQueueSnapshotService snapshotService =
+                factory.start( queueService, PREFIX, new ToSnapshotStatusAlwaysValid(), 60_000, executor );
+        Assertions.assertTrue( snapshotService.isRunning() );
+        Assertions.assertEquals( 120_000, snapshotService.periodMilli() );
+        factory.stop( snapshotService, PREFIX );
+        Assertions.assertFalse( snapshotService.isRunning() );
+        Mockito.verify( subscribeKeyFrameService ).unregister( PREFIX );
+    }
+}
@@ -0,0 +1,101 @@
+package com.ericgha.service;
+
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Versioned;
+import com.ericgha.service.snapshot_consumer.SnapshotSTOMPMessenger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class SubscribeKeyFrameServiceTest {
+
+    EventQueueSnapshotService snapshotService;
+    SnapshotSTOMPMessenger messenger;
+    SubscribeKeyFrameService subscribeKeyFrameService;
+
+    @BeforeEach
+    void before() {
+        snapshotService = Mockito.mock( EventQueueSnapshotService.class );
+        messenger = Mockito.mock( SnapshotSTOMPMessenger.class );
+        Mockito.doReturn( "/topic/test" ).when( messenger ).prefix();
+        subscribeKeyFrameService = new SubscribeKeyFrameService( "/user", 0, 1 );
+        subscribeKeyFrameService.register( snapshotService, messenger );
+    }
+
+    @AfterEach
+    void after() {
+        subscribeKeyFrameService.stop();
+    }
+
+    private static SessionSubscribeEvent subscribe(String sessionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create( StompCommand.SUBSCRIBE );
+        accessor.setSessionId( sessionId );
+        accessor.setDestination( destination );
+        Message<byte[]> message = MessageBuilder.createMessage( new byte[0], accessor.getMessageHeaders() );
+        return new SessionSubscribeEvent( new Object(), message );
+    }
+
+    @Test
+    @DisplayName("A subscription to the user destination of a registered topic is sent a key frame")
+    @SuppressWarnings("unchecked")
+    void sendsKeyFrameToSubscriber() {
+        Versioned<List<EventTime>> snapshot = new Versioned<>( 3L, List.of( new EventTime( "a", 1 ) ) );
+        Mockito.doReturn( snapshot ).when( snapshotService ).currentSnapshot();
+        subscribeKeyFrameService.onSubscribe( subscribe( "session-1", "/user/topic/test" ) );
+        ArgumentCaptor<Supplier<Versioned<List<EventTime>>>> captor = ArgumentCaptor.forClass( Supplier.class );
+        Mockito.verify( messenger, Mockito.timeout( 1_000 ) ).sendKeyFrame( ArgumentMatchers.eq( "session-1" ),
+                                                                           captor.capture() );
+        Assertions.assertEquals( snapshot, captor.getValue().get() );
+    }
+
+    @Test
+    @DisplayName("Subscriptions to a topic, or an unregistered user destination, are not sent a key frame")
+    void ignoresOtherDestinations() throws InterruptedException {
+        subscribeKeyFrameService.onSubscribe( subscribe( "session-1", "/topic/test" ) );
+        subscribeKeyFrameService.onSubscribe( subscribe( "session-1", "/user/topic/other" ) );
+        Thread.sleep( 50 );
+        Mockito.verify( messenger, Mockito.never() ).sendKeyFrame( ArgumentMatchers.anyString(),
+                                                                   ArgumentMatchers.any() );
+    }
+
+    @Test
+    @DisplayName("An unregistered topic is not sent a key frame")
+    void unregisterStopsKeyFrames() throws InterruptedException {
+        subscribeKeyFrameService.unregister( "/topic/test" );
+        subscribeKeyFrameService.onSubscribe( subscribe( "session-1", "/user/topic/test" ) );
+        Thread.sleep( 50 );
+        Mockito.verify( messenger, Mockito.never() ).sendKeyFrame( ArgumentMatchers.anyString(),
+                                                                   ArgumentMatchers.any() );
+    }
+
+    @Test
+    @DisplayName("Sessions subscribing to a destination together share one key frame")
+    @SuppressWarnings("unchecked")
+    void coalescesSubscriptions() {
+        subscribeKeyFrameService.stop();
+        subscribeKeyFrameService = new SubscribeKeyFrameService( "/user", 100, 1 );
+        subscribeKeyFrameService.register( snapshotService, messenger );
+        subscribeKeyFrameService.onSubscribe( subscribe( "session-1", "/user/topic/test" ) );
+        subscribeKeyFrameService.onSubscribe( subscribe( "session-2", "/user/topic/test" ) );
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass( Collection.class );
+        Mockito.verify( messenger, Mockito.timeout( 1_000 ) ).sendKeyFrame( captor.capture(),
+                                                                           ArgumentMatchers.any() );
+        Assertions.assertEquals( List.of( "session-1", "session-2" ), List.copyOf( captor.getValue() ) );
+        Mockito.verify( messenger, Mockito.never() ).sendKeyFrame( ArgumentMatchers.anyString(),
+                                                                   ArgumentMatchers.any() );
+    }
+}
@@ -0,0 +1,67 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.BloomOnlyOnceMap;
+import com.ericgha.domain.BloomFilterHasher;
+import com.ericgha.domain.KeyMaker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalMatchers;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.List;
+
+public class BloomOnlyOnceEventMapServiceTest {
+
+    static final long EVENT_DURATION = 1_000L;
+    static final int WINDOWS_PER_DURATION = 4;
+    static final long WINDOW = EVENT_DURATION / WINDOWS_PER_DURATION;
+
+    BloomOnlyOnceMap eventMapMock;
+    KeyMaker keyMaker;
+    BloomFilterHasher hasher;
+    BloomOnlyOnceEventMapService eventMapService;
+
+    @BeforeEach
+    void before() {
+        eventMapMock = Mockito.mock( BloomOnlyOnceMap.class );
+        keyMaker = new KeyMaker( "TEST" );
+        hasher = new BloomFilterHasher( 1_000, 0.01 );
+        eventMapService = new BloomOnlyOnceEventMapService( eventMapMock, EVENT_DURATION, WINDOWS_PER_DURATION,
+                                                            hasher, keyMaker );
+    }
+
+    @Test
+    @DisplayName("putEvent checks the current filter followed by the filters of one event duration")
+    void putEventUsesExpectedFilters() {
+        Mockito.doReturn( true ).when( eventMapMock )
+                .putEvent( Mockito.anyList(), Mockito.any( long[].class ), Mockito.anyLong() );
+        long timeMilli = Instant.now().toEpochMilli();
+        long window = timeMilli / WINDOW;
+        Assertions.assertTrue( eventMapService.putEvent( "testEvent", timeMilli ) );
+        List<String> expectedKeys = List.of( keyMaker.generateFilterKey( window ),
+                                             keyMaker.generateFilterKey( window - 1 ),
+                                             keyMaker.generateFilterKey( window - 2 ),
+                                             keyMaker.generateFilterKey( window - 3 ),
+                                             keyMaker.generateFilterKey( window - 4 ) );
+        Mockito.verify( eventMapMock ).putEvent( Mockito.eq( expectedKeys ),
+                                                 AdditionalMatchers.aryEq( hasher.positions( "testEvent" ) ),
+                                                 Mockito.eq( ( window + 1 + WINDOWS_PER_DURATION ) * WINDOW ) );
+    }
+
+    @Test
+    @DisplayName("putEvent returns false and does not involve DAO for an event in the future")
+    void putEventReturnsFalseForEventInFuture() {
+        long futureTime = Instant.now().toEpochMilli() + 10;
+        Assertions.assertFalse( eventMapService.putEvent( "testEvent", futureTime ) );
+        Mockito.verifyNoInteractions( eventMapMock );
+    }
+
+    @Test
+    @DisplayName("perFilterRate divides the rate between the filters an event probes")
+    void perFilterRateDividesBetweenFilters() {
+        Assertions.assertEquals( 0.001 / 5, BloomOnlyOnceEventMapService.perFilterRate( 0.001, 4 ), 1e-12 );
+    }
+}
@@ -0,0 +1,58 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.BucketedOnlyOnceMap;
+import com.ericgha.domain.KeyMaker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+
+public class BucketedOnlyOnceEventMapServiceTest {
+
+    static final long EVENT_DURATION = 1_000L;
+
+    BucketedOnlyOnceMap eventMapMock;
+    KeyMaker keyMaker;
+    BucketedOnlyOnceEventMapService eventMapService;
+
+    @BeforeEach
+    void before() {
+        eventMapMock = Mockito.mock( BucketedOnlyOnceMap.class );
+        keyMaker = new KeyMaker( "TEST" );
+        eventMapService = new BucketedOnlyOnceEventMapService( eventMapMock, EVENT_DURATION, keyMaker );
+    }
+
+    @Test
+    @DisplayName("putEvent calls BucketedOnlyOnceMap#putEvent with the current, previous and next bucket")
+    void putEventUsesExpectedBuckets() {
+        Mockito.doReturn( true ).when( eventMapMock )
+                .putEvent( Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.anyString(),
+                           Mockito.anyLong(), Mockito.anyLong(), Mockito.anyLong() );
+        long timeMilli = Instant.now().toEpochMilli();
+        long bucket = timeMilli / EVENT_DURATION;
+        Assertions.assertTrue( eventMapService.putEvent( "testEvent", timeMilli ) );
+        Mockito.verify( eventMapMock )
+                .putEvent( keyMaker.generateBucketKey( bucket ), keyMaker.generateBucketKey( bucket - 1 ),
+                           keyMaker.generateBucketKey( bucket + 1 ), "testEvent", timeMilli, EVENT_DURATION,
+                           ( bucket + 2 ) * EVENT_DURATION );
+    }
+
+    @Test
+    @DisplayName("putEvent returns false and does not involve DAO for an already ended event")
+    void putEventReturnsFalseOnExpiredEvent() {
+        long pastTime = Instant.now().toEpochMilli() - EVENT_DURATION;
+        Assertions.assertFalse( eventMapService.putEvent( "testEvent", pastTime ) );
+        Mockito.verifyNoInteractions( eventMapMock );
+    }
+
+    @Test
+    @DisplayName("putEvent returns false and does not involve DAO for an event in the future")
+    void putEventReturnsFalseForEventInFuture() {
+        long futureTime = Instant.now().toEpochMilli() + 10;
+        Assertions.assertFalse( eventMapService.putEvent( "testEvent", futureTime ) );
+        Mockito.verifyNoInteractions( eventMapMock );
+    }
+}
@@ -0,0 +1,72 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.EventQueue;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Versioned;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EventQueueViewTest {
+
+    final EventTime a = new EventTime( "a", 3 );
+    final EventTime b = new EventTime( "b", 2 );
+    final EventTime c = new EventTime( "c", 1 );
+
+    EventQueueView view;
+
+    @BeforeEach
+    void before() {
+        view = new EventQueueView( EventQueue.Ordering.FIFO );
+    }
+
+    @Test
+    @DisplayName("Offers and polls are applied to the base in clock order")
+    void appliesUpdates() {
+        view.reconcile( new Versioned<>( 10L, List.of( a ) ) );
+        view.added( 12L, c );
+        view.added( 11L, b );
+        view.removed( 13L, a );
+        Assertions.assertEquals( new Versioned<>( 13L, List.of( b, c ) ), view.snapshot() );
+    }
+
+    @Test
+    @DisplayName("Reconciling discards updates the snapshot already reflects")
+    void reconcileDiscardsOlderUpdates() {
+        view.added( 1L, a );
+        view.added( 3L, b );
+        view.removed( 4L, a );
+        view.reconcile( new Versioned<>( 2L, List.of( a, c ) ) );
+        Assertions.assertEquals( new Versioned<>( 4L, List.of( c, b ) ), view.snapshot() );
+        Assertions.assertEquals( 2L, view.baseClock() );
+    }
+
+    @Test
+    @DisplayName("Reconciling with an older snapshot is ignored")
+    void reconcileIgnoresOlderSnapshot() {
+        view.reconcile( new Versioned<>( 5L, List.of( a ) ) );
+        view.reconcile( new Versioned<>( 4L, List.of( b ) ) );
+        Assertions.assertEquals( List.of( a ), view.snapshot().data() );
+    }
+
+    @Test
+    @DisplayName("An element polled and offered again remains in the view")
+    void reofferedElementRemains() {
+        view.added( 1L, a );
+        view.removed( 2L, a );
+        view.added( 3L, a );
+        Assertions.assertEquals( List.of( a ), view.snapshot().data() );
+    }
+
+    @Test
+    @DisplayName("A scheduled view is in time order")
+    void scheduledViewIsInTimeOrder() {
+        view = new EventQueueView( EventQueue.Ordering.SCHEDULED );
+        view.reconcile( new Versioned<>( 1L, List.of( b, a ) ) );
+        view.added( 2L, c );
+        Assertions.assertEquals( List.of( c, b, a ), view.snapshot().data() );
+    }
+}
@@ -0,0 +1,54 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.RedisRole;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+import java.util.Map;
+
+public class JedisPoolMetricsTest {
+
+    PooledJedisConnectionFactory intakeFactory;
+    PooledJedisConnectionFactory snapshotFactory;
+    MeterRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void before() {
+        intakeFactory = Mockito.mock( PooledJedisConnectionFactory.class );
+        snapshotFactory = Mockito.mock( PooledJedisConnectionFactory.class );
+        Pool<Jedis> intakePool = Mockito.mock( Pool.class );
+        Mockito.doReturn( 3 ).when( intakePool ).getNumActive();
+        Mockito.doReturn( 5L ).when( intakePool ).getMaxBorrowWaitTimeMillis();
+        Mockito.doReturn( intakePool ).when( intakeFactory ).pool();
+        Mockito.doReturn( null ).when( snapshotFactory ).pool();
+        registry = new SimpleMeterRegistry();
+        new JedisPoolMetrics( Map.of( RedisRole.INTAKE, intakeFactory, RedisRole.SNAPSHOT, snapshotFactory ) )
+                .bindTo( registry );
+    }
+
+    @Test
+    @DisplayName("Gauges report the pool of the tagged role")
+    void gaugesReportPoolOfRole() {
+        Assertions.assertEquals( 3,
+                                 registry.get( "redis.pool.connections.active" ).tag( "role", "intake" ).gauge()
+                                         .value() );
+        Assertions.assertEquals( 5,
+                                 registry.get( "redis.pool.borrow.wait.max" ).tag( "role", "intake" ).gauge()
+                                         .value() );
+    }
+
+    @Test
+    @DisplayName("Gauges report NaN before the pool is created")
+    void gaugesReportNaNWithoutPool() {
+        Assertions.assertTrue( Double.isNaN(
+                registry.get( "redis.pool.connections.idle" ).tag( "role", "snapshot" ).gauge().value() ) );
+    }
+}
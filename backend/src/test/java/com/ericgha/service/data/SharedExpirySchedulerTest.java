@@ -0,0 +1,99 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Versioned;
+import com.ericgha.service.event_consumer.EventConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.Future;
+
+public class SharedExpirySchedulerTest {
+
+    static final int MAX_POLLS_PER_TICK = 3;
+
+    EventQueueService queueService;
+    EventConsumer eventConsumer;
+    SharedExpiryScheduler scheduler;
+
+    @BeforeEach
+    void before() {
+        queueService = Mockito.mock( EventQueueService.class );
+        eventConsumer = Mockito.mock( EventConsumer.class );
+        scheduler = new SharedExpiryScheduler( 1, 10, MAX_POLLS_PER_TICK );
+    }
+
+    @AfterEach
+    void after() {
+        scheduler.stop();
+    }
+
+    @Test
+    @DisplayName("drain expires events until the queue has no expired event")
+    void drainStopsWhenNothingExpired() {
+        Versioned<EventTime> event = new Versioned<>( 1L, new EventTime( "one", 1 ) );
+        Mockito.doReturn( event ).doReturn( null ).when( queueService ).tryPoll( Mockito.anyLong() );
+        scheduler.drain( queueService, eventConsumer, 0 );
+        Mockito.verify( eventConsumer ).accept( event );
+        Mockito.verify( queueService, Mockito.times( 2 ) ).tryPoll( Mockito.anyLong() );
+    }
+
+    @Test
+    @DisplayName("drain expires at most maxPollsPerTick events")
+    void drainIsBounded() {
+        Versioned<EventTime> event = new Versioned<>( 1L, new EventTime( "one", 1 ) );
+        Mockito.doReturn( event ).when( queueService ).tryPoll( Mockito.anyLong() );
+        scheduler.drain( queueService, eventConsumer, 0 );
+        Mockito.verify( eventConsumer, Mockito.times( MAX_POLLS_PER_TICK ) ).accept( event );
+    }
+
+    @Test
+    @DisplayName("drain continues after the consumer throws")
+    void drainContinuesAfterConsumerThrows() {
+        Versioned<EventTime> event = new Versioned<>( 1L, new EventTime( "one", 1 ) );
+        Mockito.doReturn( event ).doReturn( event ).doReturn( null ).when( queueService ).tryPoll( Mockito.anyLong() );
+        Mockito.doThrow( new IllegalStateException( "Boom!" ) ).when( eventConsumer ).accept( event );
+        scheduler.drain( queueService, eventConsumer, 0 );
+        Mockito.verify( eventConsumer, Mockito.times( 2 ) ).accept( event );
+    }
+
+    @Test
+    @DisplayName("register polls the queue until cancelled")
+    void registerPollsQueue() {
+        scheduler.register( queueService, eventConsumer, 0 );
+        Mockito.verify( queueService, Mockito.timeout( 200 ).atLeast( 2 ) ).tryPoll( Mockito.anyLong() );
+    }
+
+    @Test
+    @DisplayName("An idle queue is polled less often, up to maxIdleIntervalMilli apart")
+    void idleQueueBacksOff() throws InterruptedException {
+        scheduler.maxIdleIntervalMilli( 80 );
+        scheduler.register( queueService, eventConsumer, 0 );
+        Thread.sleep( 300 );
+        // polls at about 0, 20, 60, 140 and 220ms, rather than every 10ms
+        Mockito.verify( queueService, Mockito.atMost( 10 ) ).tryPoll( Mockito.anyLong() );
+        Mockito.verify( queueService, Mockito.atLeast( 3 ) ).tryPoll( Mockito.anyLong() );
+    }
+
+    @Test
+    @DisplayName("A cancelled queue is no longer polled")
+    void cancelStopsPolling() throws InterruptedException {
+        Future<?> registration = scheduler.register( queueService, eventConsumer, 0 );
+        Mockito.verify( queueService, Mockito.timeout( 200 ).atLeastOnce() ).tryPoll( Mockito.anyLong() );
+        registration.cancel( false );
+        Thread.sleep( 30 );
+        Mockito.clearInvocations( queueService );
+        Thread.sleep( 50 );
+        Mockito.verify( queueService, Mockito.never() ).tryPoll( Mockito.anyLong() );
+    }
+
+    @Test
+    @DisplayName("maxIdleIntervalMilli must be at least pollIntervalMilli")
+    void maxIdleIntervalMustCoverPollInterval() {
+        Assertions.assertThrows( IllegalArgumentException.class, () -> scheduler.maxIdleIntervalMilli( 9 ) );
+    }
+}
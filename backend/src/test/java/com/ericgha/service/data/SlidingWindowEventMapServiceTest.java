@@ -0,0 +1,65 @@
+package com.ericgha.service.data;
+
+import com.ericgha.dao.SlidingWindowMap;
+import com.ericgha.domain.KeyMaker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+
+public class SlidingWindowEventMapServiceTest {
+
+    static final long EVENT_DURATION = 1_000L;
+    static final long LIMIT = 3L;
+
+    SlidingWindowMap eventMapMock;
+    KeyMaker keyMaker;
+    SlidingWindowEventMapService eventMapService;
+
+    @BeforeEach
+    void before() {
+        eventMapMock = Mockito.mock( SlidingWindowMap.class );
+        keyMaker = new KeyMaker( "TEST" );
+        eventMapService = new SlidingWindowEventMapService( eventMapMock, EVENT_DURATION, LIMIT, keyMaker );
+    }
+
+    @Test
+    @DisplayName("putEvent calls SlidingWindowMap#putEvent with the event key, window and limit")
+    void putEventUsesExpectedArguments() {
+        Mockito.doReturn( true ).when( eventMapMock )
+                .putEvent( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                           Mockito.anyLong() );
+        long timeMilli = Instant.now().toEpochMilli();
+        Assertions.assertTrue( eventMapService.putEvent( "testEvent", timeMilli ) );
+        Mockito.verify( eventMapMock )
+                .putEvent( keyMaker.generateEventKey( "testEvent" ), keyMaker.generateClockKey(), timeMilli,
+                           EVENT_DURATION, LIMIT );
+    }
+
+    @Test
+    @DisplayName("putEvent returns false when SlidingWindowMap rejects the event")
+    void putEventReturnsFalseWhenWindowFull() {
+        Mockito.doReturn( false ).when( eventMapMock )
+                .putEvent( Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(),
+                           Mockito.anyLong() );
+        Assertions.assertFalse( eventMapService.putEvent( "testEvent", Instant.now().toEpochMilli() ) );
+    }
+
+    @Test
+    @DisplayName("putEvent returns false and does not involve DAO for an already ended event")
+    void putEventReturnsFalseOnExpiredEvent() {
+        long pastTime = Instant.now().toEpochMilli() - EVENT_DURATION;
+        Assertions.assertFalse( eventMapService.putEvent( "testEvent", pastTime ) );
+        Mockito.verifyNoInteractions( eventMapMock );
+    }
+
+    @Test
+    @DisplayName("Constructor throws when limit is not positive")
+    void constructorThrowsOnNonPositiveLimit() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> new SlidingWindowEventMapService( eventMapMock, EVENT_DURATION, 0, keyMaker ) );
+    }
+}
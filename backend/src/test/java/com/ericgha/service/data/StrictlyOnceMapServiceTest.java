@@ -3,10 +3,12 @@ package com.ericgha.service.data;
 import com.ericgha.dao.StrictlyOnceMap;
 import com.ericgha.domain.KeyMaker;
 import com.ericgha.dto.EventHash;
+import com.ericgha.dto.EventStatus;
 import com.ericgha.dto.EventTime;
 import com.ericgha.dto.Status;
 import com.ericgha.dto.TimeIsValid;
 import com.ericgha.dto.TimeIsValidDiff;
+import com.ericgha.dto.Versioned;
 import com.ericgha.service.event_consumer.TestingEventStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -184,4 +186,29 @@ class StrictlyOnceMapServiceTest {
         List<Status> found = eventMapService.isValid(eventTimes);
         Assertions.assertEquals(expected, found);
     }
+
+    @Test
+    @DisplayName("snapshotWithStatus reads with the event key prefix and marks out of range events Unknown")
+    void snapshotWithStatusReturnsExpected() {
+        EventQueueService eventQueueService = Mockito.mock( EventQueueService.class );
+        EventTime inRange = new EventTime( "test 1", Instant.now().toEpochMilli() );
+        EventTime outOfRange = new EventTime( "test 2", Instant.now().toEpochMilli() - 2 * EVENT_DURATION - 1 );
+        Mockito.doReturn( StrictlyOnceMap.Storage.HASH ).when( eventMap ).storage();
+        Mockito.doReturn( new Versioned<>( 5L, List.of( new EventStatus( inRange, Valid ),
+                                                        new EventStatus( outOfRange, Valid ) ) ) )
+                .when( eventQueueService ).getAllWithStatus( KEY_PREFIX + ":EVENT:", StrictlyOnceMap.Storage.HASH );
+        Versioned<List<EventStatus>> expected = new Versioned<>( 5L, List.of( new EventStatus( inRange, Valid ),
+                                                                              new EventStatus( outOfRange,
+                                                                                               Unknown ) ) );
+        Assertions.assertEquals( expected, eventMapService.snapshotWithStatus( eventQueueService ) );
+    }
+
+    @Test
+    @DisplayName("snapshotWithStatus throws when event keys are hashed")
+    void snapshotWithStatusThrowsWhenEventKeysHashed() {
+        StrictlyOnceMapService hashedService =
+                new StrictlyOnceMapService( eventMap, EVENT_DURATION, new KeyMaker( KEY_PREFIX, true ) );
+        Assertions.assertThrows( IllegalStateException.class,
+                                 () -> hashedService.snapshotWithStatus( Mockito.mock( EventQueueService.class ) ) );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.ericgha.service.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.newsclub.net.unix.AFUNIXServerSocket;
+import org.newsclub.net.unix.AFUNIXSocketAddress;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.File;
+import java.net.Socket;
+import java.nio.file.Path;
+
+public class UnixDomainSocketFactoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("createSocket connects to a listening socket")
+    void createSocketConnects() throws Exception {
+        File socketFile = tempDir.resolve( "redis.sock" ).toFile();
+        try (AFUNIXServerSocket server = AFUNIXServerSocket.newInstance()) {
+            server.bind( AFUNIXSocketAddress.of( socketFile ) );
+            UnixDomainSocketFactory factory = new UnixDomainSocketFactory( socketFile.getPath(), 1000, 250 );
+            try (Socket socket = factory.createSocket()) {
+                Assertions.assertTrue( socket.isConnected() );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("createSocket throws JedisConnectionException when nothing is listening")
+    void createSocketThrowsWhenNotListening() {
+        String socketPath = tempDir.resolve( "missing.sock" ).toString();
+        UnixDomainSocketFactory factory = new UnixDomainSocketFactory( socketPath, 1000, 1000 );
+        Assertions.assertThrows( JedisConnectionException.class, factory::createSocket );
+    }
+}
@@ -0,0 +1,117 @@
+package com.ericgha.service.snapshot_consumer;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Status;
+import com.ericgha.dto.message.DeltaFrameMessage;
+import com.ericgha.dto.message.KeyFrameMessage;
+import com.ericgha.dto.message.KeyFramePageMessage;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+public class DeltaSnapshotSTOMPMessengerTest {
+
+    private static final String PREFIX = "/topic/test";
+
+    SimpMessagingTemplate template;
+    DeltaSnapshotSTOMPMessenger messenger;
+
+    @BeforeEach
+    void before() {
+        template = Mockito.mock( SimpMessagingTemplate.class );
+        messenger = new DeltaSnapshotSTOMPMessenger( template, PREFIX, new ToSnapshotStatusAlwaysValid(), 3 );
+    }
+
+    private List<Object> sent(int times) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass( Object.class );
+        Mockito.verify( template, Mockito.times( times ) ).convertAndSend( Mockito.eq( PREFIX ), captor.capture() );
+        return captor.getAllValues();
+    }
+
+    @Test
+    @DisplayName("The first snapshot is sent as a key frame")
+    void firstSnapshotIsKeyFrame() {
+        messenger.accept( 1L, List.of( new EventTime( "a", 1 ) ) );
+        KeyFrameMessage expected =
+                new KeyFrameMessage( 1L, List.of( new EventStatus( "a", 1, Status.Valid ) ) );
+        Assertions.assertEquals( expected, sent( 1 ).get( 0 ) );
+    }
+
+    @Test
+    @DisplayName("Snapshots between key frames are sent as the entries added and removed")
+    void sendsDelta() {
+        messenger.accept( 1L, List.of( new EventTime( "a", 1 ), new EventTime( "b", 1 ) ) );
+        messenger.accept( 2L, List.of( new EventTime( "b", 1 ), new EventTime( "c", 2 ) ) );
+        DeltaFrameMessage expected = new DeltaFrameMessage( 1L, 2L,
+                                                             List.of( new EventStatus( "c", 2, Status.Valid ) ),
+                                                             List.of( new EventTime( "a", 1 ) ) );
+        Assertions.assertEquals( expected, sent( 2 ).get( 1 ) );
+    }
+
+    @Test
+    @DisplayName("Every keyFrameEvery'th snapshot is sent as a key frame")
+    void sendsKeyFrameEveryK() {
+        for (long clock = 1; clock <= 4; clock++) {
+            messenger.accept( clock, List.of( new EventTime( "a", 1 ) ) );
+        }
+        List<Object> sent = sent( 4 );
+        Assertions.assertInstanceOf( KeyFrameMessage.class, sent.get( 0 ) );
+        Assertions.assertInstanceOf( DeltaFrameMessage.class, sent.get( 1 ) );
+        Assertions.assertInstanceOf( DeltaFrameMessage.class, sent.get( 2 ) );
+        Assertions.assertInstanceOf( KeyFrameMessage.class, sent.get( 3 ) );
+    }
+
+    @Test
+    @DisplayName("requestKeyFrame sends the next snapshot as a key frame")
+    void requestKeyFrame() {
+        messenger.accept( 1L, List.of( new EventTime( "a", 1 ) ) );
+        messenger.requestKeyFrame();
+        messenger.accept( 2L, List.of( new EventTime( "a", 1 ) ) );
+        messenger.accept( 3L, List.of( new EventTime( "a", 1 ) ) );
+        List<Object> sent = sent( 3 );
+        Assertions.assertInstanceOf( KeyFrameMessage.class, sent.get( 1 ) );
+        Assertions.assertInstanceOf( DeltaFrameMessage.class, sent.get( 2 ) );
+    }
+
+    @Test
+    @DisplayName("Paged snapshots are sent as key frame pages and the next snapshot as a key frame")
+    void pagedSnapshots() {
+        messenger.accept( 1L, List.of( new EventTime( "a", 1 ) ) );
+        messenger.acceptPage( 2L, 0, 2, List.of( new EventTime( "a", 1 ) ) );
+        messenger.acceptPage( 2L, 1, 2, List.of( new EventTime( "b", 2 ) ) );
+        messenger.accept( 3L, List.of( new EventTime( "b", 2 ) ) );
+        List<Object> sent = sent( 4 );
+        Assertions.assertEquals(
+                new KeyFramePageMessage( 2L, 1, 2, List.of( new EventStatus( "b", 2, Status.Valid ) ) ),
+                sent.get( 2 ) );
+        Assertions.assertInstanceOf( KeyFrameMessage.class, sent.get( 3 ) );
+    }
+
+    @Test
+    @DisplayName("A session is sent the previous snapshot, which the next delta frame applies to")
+    void sendKeyFrameSendsPreviousSnapshot() {
+        messenger.accept( 1L, List.of( new EventTime( "a", 1 ) ) );
+        messenger.sendKeyFrame( "session-1", () -> {
+            throw new AssertionError( "A snapshot should not be taken." );
+        } );
+        KeyFrameMessage expected = new KeyFrameMessage( 1L, List.of( new EventStatus( "a", 1, Status.Valid ) ) );
+        Mockito.verify( template ).convertAndSendToUser( Mockito.eq( "session-1" ), Mockito.eq( PREFIX ),
+                                                         Mockito.eq( expected ), Mockito.anyMap() );
+    }
+
+    @Test
+    @DisplayName("Constructor throws when keyFrameEvery is not positive")
+    void constructorThrowsOnNonPositive() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> new DeltaSnapshotSTOMPMessenger( template, PREFIX,
+                                                                        new ToSnapshotStatusAlwaysValid(), 0 ) );
+    }
+}
@@ -0,0 +1,77 @@
+package com.ericgha.service.snapshot_consumer;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Status;
+import com.ericgha.dto.message.KeyFrameMessage;
+import com.ericgha.dto.message.KeyFramePageMessage;
+import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import com.ericgha.service.snapshot_mapper.ToSnapshotStatusAlwaysValid;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class KeyFrameJsonWriterTest {
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final KeyFrameJsonWriter writer = new KeyFrameJsonWriter();
+    final List<EventTime> snapshot = List.of( new EventTime( "a", 1 ), new EventTime( "b\"", 2 ),
+                                              new EventTime( "c", 3 ) );
+
+    private JsonNode jacksonTree(Object message) throws Exception {
+        return objectMapper.readTree( objectMapper.writeValueAsBytes( message ) );
+    }
+
+    @Test
+    @DisplayName("writeKeyFrame writes the same JSON as Jackson writes for KeyFrameMessage")
+    void writeKeyFrameMatchesJackson() throws Exception {
+        byte[] json = writer.writeKeyFrame( 7L, snapshot, new ToSnapshotStatusAlwaysValid(), 2 );
+        KeyFrameMessage expected = new KeyFrameMessage( 7L, new ToSnapshotStatusAlwaysValid().apply( snapshot ) );
+        Assertions.assertEquals( jacksonTree( expected ), objectMapper.readTree( json ) );
+    }
+
+    @Test
+    @DisplayName("writeKeyFramePage writes the same JSON as Jackson writes for KeyFramePageMessage")
+    void writeKeyFramePageMatchesJackson() throws Exception {
+        byte[] json = writer.writeKeyFramePage( 7L, 1, 3, List.of(), new ToSnapshotStatusAlwaysValid(), 2 );
+        KeyFramePageMessage expected = new KeyFramePageMessage( 7L, 1, 3, List.of() );
+        Assertions.assertEquals( jacksonTree( expected ), objectMapper.readTree( json ) );
+    }
+
+    @Test
+    @DisplayName("The snapshot is mapped in chunks of chunkSize")
+    void mapsInChunks() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        SnapshotMapper<EventStatus> mapper = chunk -> {
+            chunkSizes.add( chunk.size() );
+            return chunk.stream().map( eventTime -> new EventStatus( eventTime, Status.Unknown ) ).toList();
+        };
+        writer.writeKeyFrame( 7L, snapshot, mapper, 2 );
+        Assertions.assertEquals( List.of( 2, 1 ), chunkSizes );
+    }
+
+    @Test
+    @DisplayName("A streaming messenger sends the written JSON")
+    void streamingMessengerSendsJson() throws Exception {
+        SimpMessagingTemplate template = Mockito.mock( SimpMessagingTemplate.class );
+        SnapshotSTOMPMessenger messenger =
+                new SnapshotSTOMPMessenger( template, "/topic/test", new ToSnapshotStatusAlwaysValid() );
+        messenger.streaming( true );
+        messenger.accept( 7L, snapshot );
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass( Message.class );
+        Mockito.verify( template ).send( Mockito.eq( "/topic/test" ), captor.capture() );
+        KeyFrameMessage expected = new KeyFrameMessage( 7L, new ToSnapshotStatusAlwaysValid().apply( snapshot ) );
+        Assertions.assertEquals( jacksonTree( expected ),
+                                 objectMapper.readTree( captor.getValue().getPayload() ) );
+    }
+}
@@ -0,0 +1,99 @@
+package com.ericgha.service.snapshot_consumer;
+
+import com.ericgha.dto.EventStatus;
+import com.ericgha.dto.EventTime;
+import com.ericgha.dto.Status;
+import com.ericgha.dto.Versioned;
+import com.ericgha.service.snapshot_mapper.SnapshotMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class SnapshotSTOMPMessengerTest {
+
+    final List<EventTime> snapshot = IntStream.range( 0, 10 ).mapToObj( i -> new EventTime( "e" + i, i ) ).toList();
+
+    private static List<EventStatus> toStatuses(List<EventTime> eventTimes) {
+        return eventTimes.stream().map( eventTime -> new EventStatus( eventTime, Status.Valid ) ).toList();
+    }
+
+    private SnapshotSTOMPMessenger messenger(SnapshotMapper<EventStatus> mapper, int parallelism) {
+        SnapshotSTOMPMessenger messenger =
+                new SnapshotSTOMPMessenger( Mockito.mock( SimpMessagingTemplate.class ), "/topic/test", mapper );
+        messenger.chunkSize( 2 );
+        messenger.parallelism( parallelism );
+        return messenger;
+    }
+
+    @Test
+    @DisplayName("Chunks mapped in parallel are reassembled in order, at most parallelism at once")
+    void parallelChunksAreInOrderAndBounded() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        SnapshotMapper<EventStatus> mapper = chunk -> {
+            maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+            try {
+                // later chunks finish first
+                Thread.sleep( 50 - chunk.get( 0 ).time() * 5 );
+            } catch (InterruptedException e) {
+                throw new IllegalStateException( e );
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return toStatuses( chunk );
+        };
+        Assertions.assertEquals( toStatuses( snapshot ), messenger( mapper, 3 ).chunkedMap( snapshot ) );
+        Assertions.assertTrue( maxInFlight.get() <= 3, "At most parallelism chunks mapped at once." );
+    }
+
+    @Test
+    @DisplayName("An exception mapping a chunk in parallel is thrown by chunkedMap")
+    void parallelChunkExceptionIsThrown() {
+        SnapshotMapper<EventStatus> mapper = chunk -> {
+            if (chunk.get( 0 ).time() == 4) {
+                throw new IllegalStateException( "Mapping failed." );
+            }
+            return toStatuses( chunk );
+        };
+        Assertions.assertThrows( IllegalStateException.class, () -> messenger( mapper, 3 ).chunkedMap( snapshot ) );
+    }
+
+    @Test
+    @DisplayName("parallelism must be positive")
+    void parallelismMustBePositive() {
+        Assertions.assertThrows( IllegalArgumentException.class,
+                                 () -> messenger( SnapshotSTOMPMessengerTest::toStatuses, 0 ) );
+    }
+
+    @Test
+    @DisplayName("A key frame for many sessions is converted once and its payload sent to each session")
+    @SuppressWarnings("unchecked")
+    void keyFrameConvertedOnceForManySessions() {
+        SimpMessagingTemplate template = Mockito.mock( SimpMessagingTemplate.class );
+        MessageConverter converter = Mockito.spy( new MappingJackson2MessageConverter() );
+        Mockito.doReturn( converter ).when( template ).getMessageConverter();
+        Mockito.doReturn( "/user/" ).when( template ).getUserDestinationPrefix();
+        SnapshotSTOMPMessenger messenger =
+                new SnapshotSTOMPMessenger( template, "/topic/test", SnapshotSTOMPMessengerTest::toStatuses );
+        messenger.sendKeyFrame( List.of( "session-1", "session-2" ), () -> new Versioned<>( 3L, snapshot ) );
+        Mockito.verify( converter ).toMessage( ArgumentMatchers.any(), ArgumentMatchers.any() );
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass( Message.class );
+        Mockito.verify( template ).send( ArgumentMatchers.eq( "/user/session-1/topic/test" ), captor.capture() );
+        Mockito.verify( template ).send( ArgumentMatchers.eq( "/user/session-2/topic/test" ), captor.capture() );
+        List<Message<byte[]>> sent = captor.getAllValues();
+        Assertions.assertSame( sent.get( 0 ).getPayload(), sent.get( 1 ).getPayload() );
+        Assertions.assertEquals( "session-2", SimpMessageHeaderAccessor.getSessionId( sent.get( 1 ).getHeaders() ) );
+    }
+}